@@ -0,0 +1,108 @@
+package com.sop.financialcontrol;
+
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.Payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds in-memory ledgers for the benchmarks, without a database.
+ */
+public final class LedgerFixtures {
+
+    private LedgerFixtures() {
+    }
+
+    /**
+     * Build an expense with its commitments, each with one payment, and consistent running totals.
+     *
+     * @param id The expense ID
+     * @param commitmentCount The number of commitments
+     * @return The expense
+     */
+    public static Expense expense(long id, int commitmentCount) {
+        BigDecimal commitmentAmount = new BigDecimal("150.25");
+        Expense expense = Expense.builder()
+                .id(id)
+                .protocolNumber(String.format("%05d.%06d/2026-01", id % 100000, id % 1000000))
+                .expenseType(ExpenseType.values()[(int) (id % ExpenseType.values().length)])
+                .protocolDate(LocalDateTime.of(2026, 1, 5, 10, 30))
+                .dueDate(LocalDate.of(2026, 3, 1).plusDays(id % 90))
+                .creditor("Construtora Exemplo " + (id % 50))
+                .description("Expense " + id)
+                .amount(commitmentAmount.multiply(BigDecimal.valueOf(Math.max(commitmentCount, 1))))
+                .status(ExpenseStatus.AWAITING_COMMITMENT)
+                .commitments(new ArrayList<>(commitmentCount))
+                .build();
+
+        for (int i = 0; i < commitmentCount; i++) {
+            Commitment commitment = Commitment.builder()
+                    .id(id * 100000 + i)
+                    .commitmentNumber(String.format("2026NE%04d", i % 10000))
+                    .commitmentDate(LocalDate.of(2026, 1, 10))
+                    .amount(commitmentAmount)
+                    .expense(expense)
+                    .payments(new ArrayList<>(1))
+                    .build();
+            Payment payment = Payment.builder()
+                    .id(id * 100000 + i)
+                    .paymentNumber(String.format("2026NP%04d", i % 10000))
+                    .paymentDate(LocalDate.of(2026, 2, 10))
+                    .amount(new BigDecimal("100.00"))
+                    .commitment(commitment)
+                    .build();
+            commitment.getPayments().add(payment);
+            commitment.applyPaymentDelta(payment.getAmount(), 1);
+            expense.getCommitments().add(commitment);
+            expense.applyCommitmentDelta(commitment.getAmount(), 1);
+            expense.applyPaymentDelta(payment.getAmount());
+        }
+        expense.updateStatus();
+        return expense;
+    }
+
+    /**
+     * Build expenses with a few commitments each.
+     *
+     * @param count The number of expenses
+     * @return The expenses
+     */
+    public static List<Expense> expenses(int count) {
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            expenses.add(expense(i, 2));
+        }
+        return expenses;
+    }
+
+    /**
+     * Collect the commitments of expenses.
+     *
+     * @param expenses The expenses
+     * @return Their commitments
+     */
+    public static List<Commitment> commitments(List<Expense> expenses) {
+        List<Commitment> commitments = new ArrayList<>();
+        expenses.forEach(expense -> commitments.addAll(expense.getCommitments()));
+        return commitments;
+    }
+
+    /**
+     * Collect the payments of expenses.
+     *
+     * @param expenses The expenses
+     * @return Their payments
+     */
+    public static List<Payment> payments(List<Expense> expenses) {
+        List<Payment> payments = new ArrayList<>();
+        commitments(expenses).forEach(commitment -> payments.addAll(commitment.getPayments()));
+        return payments;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialcontrol.LedgerFixtures;
+import com.sop.financialcontrol.mapper.CommitmentMapper;
+import com.sop.financialcontrol.mapper.ExpenseMapper;
+import com.sop.financialcontrol.mapper.PaymentMapper;
+import com.sop.financialcontrol.model.Expense;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON serialization of the DTO lists, including their {@code @JsonFormat} date
+ * patterns, with an object mapper configured as the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int expenseCount;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+            .timeZone(TimeZone.getTimeZone("America/Sao_Paulo"))
+            .build();
+
+    private List<ExpenseDTO> expenses;
+    private List<CommitmentDTO> commitments;
+    private List<PaymentDTO> payments;
+
+    /**
+     * Build the DTOs.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Expense> entities = LedgerFixtures.expenses(expenseCount);
+        expenses = Mappers.getMapper(ExpenseMapper.class).toDtoList(entities);
+        commitments = Mappers.getMapper(CommitmentMapper.class).toDtoList(LedgerFixtures.commitments(entities));
+        payments = Mappers.getMapper(PaymentMapper.class).toDtoList(LedgerFixtures.payments(entities));
+    }
+
+    /**
+     * Serialize the expenses.
+     *
+     * @return The JSON
+     * @throws JsonProcessingException if serialization fails
+     */
+    @Benchmark
+    public byte[] expenses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(expenses);
+    }
+
+    /**
+     * Serialize the commitments.
+     *
+     * @return The JSON
+     * @throws JsonProcessingException if serialization fails
+     */
+    @Benchmark
+    public byte[] commitments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(commitments);
+    }
+
+    /**
+     * Serialize the payments.
+     *
+     * @return The JSON
+     * @throws JsonProcessingException if serialization fails
+     */
+    @Benchmark
+    public byte[] payments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payments);
+    }
+}
@@ -0,0 +1,89 @@
+package com.sop.financialcontrol.mapper;
+
+import com.sop.financialcontrol.LedgerFixtures;
+import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.PaymentDTO;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.Payment;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the entity to DTO list mappings used by the paginated, batch and export endpoints.
+ * There are twice as many commitments and payments as expenses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"100", "10000"})
+    private int expenseCount;
+
+    private final ExpenseMapper expenseMapper = Mappers.getMapper(ExpenseMapper.class);
+    private final CommitmentMapper commitmentMapper = Mappers.getMapper(CommitmentMapper.class);
+    private final PaymentMapper paymentMapper = Mappers.getMapper(PaymentMapper.class);
+
+    private List<Expense> expenses;
+    private List<Commitment> commitments;
+    private List<Payment> payments;
+
+    /**
+     * Build the entities.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        expenses = LedgerFixtures.expenses(expenseCount);
+        commitments = LedgerFixtures.commitments(expenses);
+        payments = LedgerFixtures.payments(expenses);
+    }
+
+    /**
+     * Map the expenses.
+     *
+     * @return The DTOs
+     */
+    @Benchmark
+    public List<ExpenseDTO> expensesToDtoList() {
+        return expenseMapper.toDtoList(expenses);
+    }
+
+    /**
+     * Map the commitments.
+     *
+     * @return The DTOs
+     */
+    @Benchmark
+    public List<CommitmentDTO> commitmentsToDtoList() {
+        return commitmentMapper.toDtoList(commitments);
+    }
+
+    /**
+     * Map the payments.
+     *
+     * @return The DTOs
+     */
+    @Benchmark
+    public List<PaymentDTO> paymentsToDtoList() {
+        return paymentMapper.toDtoList(payments);
+    }
+}
@@ -0,0 +1,92 @@
+package com.sop.financialcontrol.model;
+
+import com.sop.financialcontrol.LedgerFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the expense status and running totals for expenses with 1 to 10,000 commitments,
+ * each with one payment. The status is derived from the running totals, so its cost must not
+ * depend on the number of children; the reduction over the children is the baseline the running
+ * totals replace, and the delta folding is what the batch write paths do per child.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseStatusBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int children;
+
+    private Expense expense;
+
+    /**
+     * Build the expense.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        expense = LedgerFixtures.expense(1, children);
+    }
+
+    /**
+     * Derive the status from the running totals.
+     *
+     * @return The status
+     */
+    @Benchmark
+    public ExpenseStatus updateStatus() {
+        expense.updateStatus();
+        return expense.getStatus();
+    }
+
+    /**
+     * Derive the status from totals reduced over the commitments and payments.
+     *
+     * @return The status
+     */
+    @Benchmark
+    public ExpenseStatus statusFromChildren() {
+        BigDecimal totalCommitted = expense.getCommitments().stream()
+                .map(Commitment::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalPaid = expense.getCommitments().stream()
+                .flatMap(commitment -> commitment.getPayments().stream())
+                .map(Payment::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Expense.statusOf(expense.getAmount(), expense.getCommitments().size(), totalCommitted, totalPaid);
+    }
+
+    /**
+     * Fold the amounts of the children into fresh running totals, one delta per child.
+     *
+     * @return The status
+     */
+    @Benchmark
+    public ExpenseStatus applyDeltas() {
+        Expense totals = Expense.builder().amount(expense.getAmount()).build();
+        for (Commitment commitment : expense.getCommitments()) {
+            totals.applyCommitmentDelta(commitment.getAmount(), 1);
+            for (Payment payment : commitment.getPayments()) {
+                totals.applyPaymentDelta(payment.getAmount());
+            }
+        }
+        totals.updateStatus();
+        return totals.getStatus();
+    }
+}
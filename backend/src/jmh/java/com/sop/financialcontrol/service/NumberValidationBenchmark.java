@@ -0,0 +1,102 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.exception.BusinessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the protocol, commitment and payment number validations, with valid numbers and with
+ * invalid ones, which throw a {@link BusinessException}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberValidationBenchmark {
+
+    private final String protocolNumber = "12345.123456/2026-01";
+    private final String commitmentNumber = LocalDate.now().getYear() + "NE0001";
+    private final String paymentNumber = LocalDate.now().getYear() + "NP0001";
+    private final String invalidNumber = "2026-XX-0001";
+
+    /**
+     * Validate a valid protocol number.
+     */
+    @Benchmark
+    public void validProtocolNumber() {
+        ExpenseService.validateProtocolNumber(protocolNumber);
+    }
+
+    /**
+     * Validate a valid commitment number.
+     */
+    @Benchmark
+    public void validCommitmentNumber() {
+        CommitmentService.validateCommitmentNumber(commitmentNumber);
+    }
+
+    /**
+     * Validate a valid payment number.
+     */
+    @Benchmark
+    public void validPaymentNumber() {
+        PaymentService.validatePaymentNumber(paymentNumber);
+    }
+
+    /**
+     * Validate an invalid protocol number.
+     *
+     * @return The rejection
+     */
+    @Benchmark
+    public BusinessException invalidProtocolNumber() {
+        try {
+            ExpenseService.validateProtocolNumber(invalidNumber);
+            return null;
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Validate an invalid commitment number.
+     *
+     * @return The rejection
+     */
+    @Benchmark
+    public BusinessException invalidCommitmentNumber() {
+        try {
+            CommitmentService.validateCommitmentNumber(invalidNumber);
+            return null;
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Validate an invalid payment number.
+     *
+     * @return The rejection
+     */
+    @Benchmark
+    public BusinessException invalidPaymentNumber() {
+        try {
+            PaymentService.validatePaymentNumber(invalidNumber);
+            return null;
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+}
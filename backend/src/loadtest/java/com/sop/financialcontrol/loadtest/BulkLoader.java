@@ -0,0 +1,158 @@
+package com.sop.financialcontrol.loadtest;
+
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers rows for several tables and writes them in chunks: with {@code COPY ... FROM STDIN} on
+ * PostgreSQL, and with batched inserts on other databases. Tables are written in the order they
+ * were registered, so rows referencing a parent table are written after their parents, and each
+ * chunk is committed on its own.
+ */
+final class BulkLoader {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Connection connection;
+    private final boolean copy;
+    private final int chunkSize;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+    private int buffered;
+
+    /**
+     * Create a loader on a connection, whose auto-commit is turned off.
+     *
+     * @param connection The connection
+     * @param chunkSize The number of buffered rows, across tables, that triggers a write
+     * @throws SQLException if the connection cannot be configured
+     */
+    BulkLoader(Connection connection, int chunkSize) throws SQLException {
+        this.connection = connection;
+        this.copy = connection.isWrapperFor(PGConnection.class);
+        this.chunkSize = chunkSize;
+        connection.setAutoCommit(false);
+    }
+
+    boolean usesCopy() {
+        return copy;
+    }
+
+    /**
+     * Register a table. Tables must be registered parents first.
+     *
+     * @param name The table name
+     * @param columns The columns of the rows added to the table
+     */
+    void table(String name, String... columns) {
+        tables.put(name, new Table(name, columns));
+    }
+
+    /**
+     * Add a row to a table, writing all the buffered rows when the chunk is full.
+     *
+     * @param name The table name
+     * @param values The column values: strings, numbers, dates, timestamps or null
+     * @throws SQLException if the chunk cannot be written
+     */
+    void add(String name, Object... values) throws SQLException {
+        tables.get(name).rows.add(values);
+        if (++buffered >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Write and commit all the buffered rows.
+     *
+     * @throws SQLException if the rows cannot be written
+     */
+    void flush() throws SQLException {
+        for (Table table : tables.values()) {
+            if (!table.rows.isEmpty()) {
+                if (copy) {
+                    copy(table);
+                } else {
+                    insert(table);
+                }
+                table.rows.clear();
+            }
+        }
+        connection.commit();
+        buffered = 0;
+    }
+
+    private void copy(Table table) throws SQLException {
+        StringBuilder csv = new StringBuilder(table.rows.size() * 128);
+        for (Object[] row : table.rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                appendCsv(csv, row[i]);
+            }
+            csv.append('\n');
+        }
+        String sql = "COPY " + table.name + " (" + String.join(", ", table.columns) + ") FROM STDIN WITH (FORMAT csv)";
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("Could not copy rows into " + table.name, e);
+        }
+    }
+
+    private void insert(Table table) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(table.columns.length, "?"));
+        String sql = "INSERT INTO " + table.name + " (" + String.join(", ", table.columns) + ") VALUES (" + placeholders + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Object[] row : table.rows) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void appendCsv(StringBuilder csv, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof LocalDateTime) {
+            csv.append(TIMESTAMP_FORMAT.format((LocalDateTime) value));
+        } else if (value instanceof LocalDate || value instanceof Number) {
+            csv.append(value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+        } else {
+            // Quote text, doubling the quotes it contains
+            csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /**
+     * A table and its buffered rows.
+     */
+    private static final class Table {
+        private final String name;
+        private final String[] columns;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        private Table(String name, String[] columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.sop.financialcontrol.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of the load test tools, given as {@code --name=value} arguments.
+ */
+final class CommandLine {
+
+    private final Map<String, String> options = new HashMap<>();
+
+    /**
+     * Parse the arguments.
+     *
+     * @param args The arguments
+     * @throws IllegalArgumentException if an argument is not of the form --name=value
+     */
+    CommandLine(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        return options.containsKey(name) ? Long.parseLong(options.get(name)) : defaultValue;
+    }
+
+    /**
+     * Get a duration given in seconds ({@code 30s}), minutes ({@code 5m}) or ISO-8601 ({@code PT30S}).
+     *
+     * @param name The option name
+     * @param defaultValue The value when the option is absent
+     * @return The duration
+     */
+    Duration getDuration(String name, Duration defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+}
@@ -0,0 +1,110 @@
+package com.sop.financialcontrol.loadtest;
+
+import com.sop.financialcontrol.service.ServiceOperationEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes the service operation events of a Flight Recorder file: for each operation, how many
+ * ran and rolled back, the p50, p99 and maximum durations, and how the mean duration splits between
+ * validation, balance checks, persistence, status updates, commit and the rest.
+ * <p>
+ * Options: {@code --file} (path of the .jfr file, required) and {@code --operation} (only report
+ * the operations whose name contains this text).
+ */
+public final class FlightRecordingAnalyzer {
+
+    private FlightRecordingAnalyzer() {
+    }
+
+    /**
+     * Analyze a recording.
+     *
+     * @param args The options, as --name=value
+     * @throws IOException if the recording cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        CommandLine options = new CommandLine(args);
+        String file = options.get("file", null);
+        if (file == null) {
+            throw new IllegalArgumentException("Missing --file=<recording.jfr>");
+        }
+        String filter = options.get("operation", "");
+
+        Map<String, Breakdown> operations = new TreeMap<>();
+        try (RecordingFile recording = new RecordingFile(Path.of(file))) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (!ServiceOperationEvent.NAME.equals(event.getEventType().getName())) {
+                    continue;
+                }
+                String operation = event.getString("operation");
+                if (operation != null && operation.contains(filter)) {
+                    operations.computeIfAbsent(operation, name -> new Breakdown()).add(event);
+                }
+            }
+        }
+
+        if (operations.isEmpty()) {
+            System.out.println("No " + ServiceOperationEvent.NAME + " events in " + file);
+            return;
+        }
+        System.out.printf("%-38s %7s %7s %9s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n", "Operation", "Count",
+                "Failed", "p50 ms", "p99 ms", "Max ms", "Valid ms", "Balance", "Persist", "Status", "Commit",
+                "Other", "Children");
+        operations.forEach((operation, breakdown) -> breakdown.print(operation));
+    }
+
+    /**
+     * Durations and mean phase times of one operation.
+     */
+    private static final class Breakdown {
+
+        private final LatencyHistogram durations = new LatencyHistogram();
+        private long failed;
+        private long validation;
+        private long balanceCheck;
+        private long persistence;
+        private long statusUpdate;
+        private long commit;
+        private long other;
+        private long children;
+
+        void add(RecordedEvent event) {
+            long duration = event.getDuration().toNanos();
+            long phases = event.getDuration("validationTime").toNanos() + event.getDuration("balanceCheckTime").toNanos()
+                    + event.getDuration("persistenceTime").toNanos() + event.getDuration("statusUpdateTime").toNanos()
+                    + event.getDuration("commitTime").toNanos();
+            durations.record(duration);
+            if (!event.getBoolean("committed")) {
+                failed++;
+            }
+            validation += event.getDuration("validationTime").toNanos();
+            balanceCheck += event.getDuration("balanceCheckTime").toNanos();
+            persistence += event.getDuration("persistenceTime").toNanos();
+            statusUpdate += event.getDuration("statusUpdateTime").toNanos();
+            commit += event.getDuration("commitTime").toNanos();
+            other += Math.max(0, duration - phases);
+            children += event.getInt("childrenLoaded");
+        }
+
+        void print(String operation) {
+            long count = durations.count();
+            System.out.printf(Locale.ROOT, "%-38s %7d %7d %9.2f %9.2f %9.2f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f %9.1f%n",
+                    operation, count, failed, durations.percentileMicros(50) / 1000.0,
+                    durations.percentileMicros(99) / 1000.0, durations.maxMicros() / 1000.0, meanMillis(validation),
+                    meanMillis(balanceCheck), meanMillis(persistence), meanMillis(statusUpdate), meanMillis(commit),
+                    meanMillis(other), (double) children / count);
+        }
+
+        private double meanMillis(long totalNanos) {
+            return totalNanos / 1e6 / durations.count();
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.sop.financialcontrol.loadtest;
+
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Generates a synthetic ledger of expenses, commitments and payments and bulk-loads it into an
+ * empty database, with the running totals, dashboard rollups and change log the application
+ * expects. Expenses are spread over the last years in ID order, and older expenses are further
+ * along their lifecycle. Creditors follow a Zipf distribution, amounts a log-normal one, and the
+ * numbers of commitments per expense and payments per commitment a geometric one.
+ * <p>
+ * Commitment and payment numbers ({@code YYYYNE####}, {@code YYYYNP####}) allow 9,999 numbers per
+ * year, so the generated ones count down from the previous year and leave the current year, which
+ * the API requires for new numbers, to the load driver.
+ * <p>
+ * Options: {@code --url}, {@code --user}, {@code --password}, {@code --expenses} (default
+ * 1,000,000), {@code --years} (default 5), {@code --creditors} (default 20,000),
+ * {@code --creditor-skew} (Zipf exponent, default 1.1), {@code --chunk-size} (default 50,000 rows)
+ * and {@code --seed}. Restart the application after loading, so its in-memory indexes and ID
+ * allocation pick up the new rows.
+ */
+public final class LedgerGenerator {
+
+    private static final int NUMBERS_PER_YEAR = 9999;
+    private static final int MAX_COMMITMENTS = 12;
+    private static final int MAX_PAYMENTS = 4;
+
+    private static final String[] COMPANY_PREFIXES = {"Construtora", "Engenharia", "Pavimentadora", "Comercial",
+            "Serviços", "Consultoria", "Transportes", "Distribuidora"};
+    private static final String[] SURNAMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes",
+            "Soares", "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes",
+            "Marques", "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira",
+            "Araújo", "Pinto", "Correia", "Batista", "Moura"};
+    private static final String[] COMPANY_SUFFIXES = {"Ltda", "S.A.", "ME", "EIRELI"};
+    private static final String[] PLACES = {"Centro", "Jardim América", "Vila Nova", "Santa Cruz", "São José",
+            "Boa Vista", "Industrial", "Esperança", "Primavera", "Bela Vista"};
+    private static final String[] OTHER_DESCRIPTIONS = {"Aquisição de material de expediente",
+            "Serviços de limpeza e conservação", "Locação de veículos", "Manutenção de equipamentos de informática",
+            "Fornecimento de combustível", "Serviços de vigilância patrimonial", "Aquisição de mobiliário",
+            "Consultoria em gestão de projetos"};
+
+    private final SplittableRandom random;
+    private final String[] creditors;
+    private final double[] creditorCdf;
+    private final String[] typeLabels;
+    private final String[] statusLabels;
+
+    // Rollups accumulated while generating, by due date, type and status (cents), and by flow date
+    private final Map<String, long[]> expenseRollups = new TreeMap<>();
+    private final Map<LocalDate, long[]> flowRollups = new TreeMap<>();
+
+    private long nextCommitmentId = 1;
+    private long nextPaymentId = 1;
+    private long sequence;
+
+    private LedgerGenerator(CommandLine options, String[] typeLabels, String[] statusLabels) {
+        this.random = new SplittableRandom(options.getLong("seed", 42));
+        this.creditors = creditorNames(options.getInt("creditors", 20000));
+        this.creditorCdf = zipfCdf(creditors.length, Double.parseDouble(options.get("creditor-skew", "1.1")));
+        this.typeLabels = typeLabels;
+        this.statusLabels = statusLabels;
+    }
+
+    /**
+     * Generate and load the ledger.
+     *
+     * @param args The options, as --name=value
+     * @throws SQLException if the ledger cannot be loaded
+     */
+    public static void main(String[] args) throws SQLException {
+        CommandLine options = new CommandLine(args);
+        int expenseCount = options.getInt("expenses", 1_000_000);
+        int years = options.getInt("years", 5);
+
+        try (Connection connection = DriverManager.getConnection(
+                options.get("url", "jdbc:postgresql://localhost:5432/sop_financial_control"),
+                options.get("user", "postgres"), options.get("password", "postgres"))) {
+            if (count(connection, "SELECT COUNT(*) FROM expenses") > 0) {
+                throw new IllegalStateException("The ledger is not empty; the generator only loads empty databases");
+            }
+
+            // Enum columns hold either the enum names or, in the PostgreSQL enum types, the display names
+            String[] typeLabels = enumLabels(connection, "expense_type", ExpenseType.values(),
+                    Arrays.stream(ExpenseType.values()).map(ExpenseType::getDisplayName).toArray(String[]::new));
+            String[] statusLabels = enumLabels(connection, "expense_status", ExpenseStatus.values(),
+                    Arrays.stream(ExpenseStatus.values()).map(ExpenseStatus::getDisplayName).toArray(String[]::new));
+
+            LedgerGenerator generator = new LedgerGenerator(options, typeLabels, statusLabels);
+            BulkLoader loader = new BulkLoader(connection, options.getInt("chunk-size", 50_000));
+            long started = System.nanoTime();
+            generator.load(connection, loader, expenseCount, years);
+            System.out.printf("Loaded %d expenses, %d commitments and %d payments in %d s using %s%n",
+                    expenseCount, generator.nextCommitmentId - 1, generator.nextPaymentId - 1,
+                    (System.nanoTime() - started) / 1_000_000_000L, loader.usesCopy() ? "COPY" : "batched inserts");
+        }
+    }
+
+    /**
+     * Generate the ledger and load it with its rollups, change log and ID sequences.
+     *
+     * @param connection The connection
+     * @param loader The loader writing on the connection
+     * @param expenseCount The number of expenses
+     * @param years The number of years the protocol dates span, up to today
+     * @throws SQLException if the ledger cannot be loaded
+     */
+    private void load(Connection connection, BulkLoader loader, int expenseCount, int years) throws SQLException {
+        sequence = lastSequence(connection);
+        loader.table("expenses", "id", "protocol_number", "expense_type", "protocol_date", "due_date", "creditor",
+                "description", "amount", "status", "total_committed", "total_paid", "commitment_count",
+                "created_at", "updated_at");
+        loader.table("commitments", "id", "commitment_number", "commitment_date", "amount", "note", "expense_id",
+                "total_paid", "payment_count", "created_at", "updated_at");
+        loader.table("payments", "id", "payment_number", "payment_date", "amount", "note", "commitment_id",
+                "created_at", "updated_at");
+        loader.table("change_log", "sequence", "entity_type", "entity_id", "operation", "entity_key", "changed_at");
+
+        LocalDateTime end = LocalDate.now().atStartOfDay();
+        LocalDateTime start = end.minusYears(years);
+        long spanMinutes = ChronoUnit.MINUTES.between(start, end);
+        for (long id = 1; id <= expenseCount; id++) {
+            // Protocol dates follow the IDs; age is 1 for the oldest expense and 0 for the newest
+            double position = (double) (id - 1) / expenseCount;
+            LocalDateTime protocolDate = start.plusMinutes((long) (spanMinutes * position))
+                    .withHour(8 + random.nextInt(10)).withMinute(random.nextInt(60)).withSecond(0);
+            generateExpense(loader, id, protocolDate, 1 - position);
+            if (id % 100_000 == 0) {
+                System.out.printf("Generated %d of %d expenses%n", id, expenseCount);
+            }
+        }
+        loader.flush();
+
+        writeRollups(connection);
+        writeSequences(connection, expenseCount);
+        connection.commit();
+    }
+
+    /**
+     * Generate an expense with its commitments and payments.
+     *
+     * @param loader The loader
+     * @param id The expense ID
+     * @param protocolDate The protocol date
+     * @param age Between 0 for the newest expense and 1 for the oldest
+     * @throws SQLException if a chunk cannot be written
+     */
+    private void generateExpense(BulkLoader loader, long id, LocalDateTime protocolDate, double age) throws SQLException {
+        ExpenseType type = pickType();
+        long amountCents = amountCents(type);
+        LocalDate dueDate = protocolDate.toLocalDate().plusDays(30 + random.nextInt(151));
+        String protocolNumber = String.format("%05d.%06d/%04d-%02d", 10000 + random.nextInt(90000),
+                id % 1_000_000, protocolDate.getYear(), (id / 1_000_000) % 100);
+
+        // Older expenses are further along their lifecycle
+        double stage = random.nextDouble();
+        boolean paid = stage < 0.75 * age;
+        boolean partiallyPaid = !paid && stage < 0.75 * age + 0.10;
+        boolean awaitingPayment = !paid && !partiallyPaid && stage < 0.75 * age + 0.17;
+        boolean partiallyCommitted = !paid && !partiallyPaid && !awaitingPayment && stage < 0.75 * age + 0.22;
+
+        long committedCents = paid || partiallyPaid || awaitingPayment ? amountCents
+                : partiallyCommitted ? Math.max(1, (long) (amountCents * (0.2 + 0.75 * random.nextDouble()))) : 0;
+        long paidTargetCents = paid ? committedCents
+                : partiallyPaid ? Math.max(1, Math.min(committedCents - 1, (long) (committedCents * (0.1 + 0.8 * random.nextDouble())))) : 0;
+
+        int commitmentCount = committedCents == 0 ? 0 : (int) Math.min(committedCents, geometric(0.55, MAX_COMMITMENTS));
+        long[] commitmentAmounts = split(committedCents, commitmentCount);
+        LocalDateTime updatedAt = protocolDate;
+        long paidCents = 0;
+        List<Object[]> commitmentRows = new ArrayList<>(commitmentCount);
+        List<Object[]> paymentRows = new ArrayList<>();
+        for (long commitmentAmount : commitmentAmounts) {
+            long commitmentId = nextCommitmentId++;
+            LocalDate commitmentDate = min(protocolDate.toLocalDate().plusDays(1 + random.nextInt(45)), LocalDate.now());
+            long commitmentPaid = Math.min(commitmentAmount, paidTargetCents - paidCents);
+            int paymentCount = commitmentPaid == 0 ? 0 : (int) Math.min(commitmentPaid, geometric(0.6, MAX_PAYMENTS));
+            LocalDateTime commitmentUpdatedAt = commitmentDate.atTime(10, 0);
+            for (long paymentAmount : split(commitmentPaid, paymentCount)) {
+                LocalDate paymentDate = min(commitmentDate.plusDays(5 + random.nextInt(116)), max(commitmentDate, LocalDate.now()));
+                LocalDateTime paymentAt = paymentDate.atTime(14, 0);
+                long paymentId = nextPaymentId++;
+                paymentRows.add(new Object[]{paymentId, number(paymentId, "NP"), paymentDate, cents(paymentAmount), null,
+                        commitmentId, paymentAt, paymentAt});
+                addFlow(paymentDate, 2, paymentAmount);
+                commitmentUpdatedAt = max(commitmentUpdatedAt, paymentAt);
+            }
+            paidCents += commitmentPaid;
+            commitmentRows.add(new Object[]{commitmentId, number(commitmentId, "NE"), commitmentDate,
+                    cents(commitmentAmount), null, id, cents(commitmentPaid), paymentCount,
+                    commitmentDate.atTime(10, 0), commitmentUpdatedAt});
+            addFlow(commitmentDate, 0, commitmentAmount);
+            updatedAt = max(updatedAt, commitmentUpdatedAt);
+        }
+
+        // The status follows the totals exactly as the application derives it
+        ExpenseStatus status = Expense.statusOf(cents(amountCents), commitmentCount, cents(committedCents), cents(paidCents));
+        long[] rollup = expenseRollups.computeIfAbsent(dueDate + "|" + type.name() + "|" + status.name(), key -> new long[4]);
+        rollup[0]++;
+        rollup[1] += amountCents;
+        rollup[2] += committedCents;
+        rollup[3] += paidCents;
+
+        // Add the rows of the expense together, parents first, so a chunk never holds a payment without its commitment
+        loader.add("expenses", id, protocolNumber, typeLabels[type.ordinal()], protocolDate, dueDate,
+                pickCreditor(), description(type), cents(amountCents), statusLabels[status.ordinal()],
+                cents(committedCents), cents(paidCents), commitmentCount, protocolDate, updatedAt);
+        loader.add("change_log", ++sequence, "EXPENSE", id, "UPSERT", protocolNumber, updatedAt);
+        for (Object[] commitment : commitmentRows) {
+            loader.add("commitments", commitment);
+            loader.add("change_log", ++sequence, "COMMITMENT", commitment[0], "UPSERT", commitment[1], commitment[9]);
+        }
+        for (Object[] payment : paymentRows) {
+            loader.add("payments", payment);
+            loader.add("change_log", ++sequence, "PAYMENT", payment[0], "UPSERT", payment[1], payment[7]);
+        }
+    }
+
+    /**
+     * Add a commitment or payment to the flow rollup of its date.
+     *
+     * @param flowDate The commitment or payment date
+     * @param offset 0 for a commitment, 2 for a payment
+     * @param amountCents The amount in cents
+     */
+    private void addFlow(LocalDate flowDate, int offset, long amountCents) {
+        long[] flow = flowRollups.computeIfAbsent(flowDate, date -> new long[4]);
+        flow[offset]++;
+        flow[offset + 1] += amountCents;
+    }
+
+    /**
+     * Write the dashboard rollups accumulated during generation, replacing the (empty) previous ones.
+     *
+     * @param connection The connection
+     * @throws SQLException if the rollups cannot be written
+     */
+    private void writeRollups(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM expense_rollups");
+            statement.executeUpdate("DELETE FROM ledger_flow_rollups");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO expense_rollups "
+                + "(due_date, expense_type, status, expense_count, amount, total_committed, total_paid) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (Map.Entry<String, long[]> rollup : expenseRollups.entrySet()) {
+                String[] key = rollup.getKey().split("\\|");
+                long[] totals = rollup.getValue();
+                insert.setObject(1, LocalDate.parse(key[0]));
+                insert.setString(2, key[1]);
+                insert.setString(3, key[2]);
+                insert.setLong(4, totals[0]);
+                insert.setBigDecimal(5, cents(totals[1]));
+                insert.setBigDecimal(6, cents(totals[2]));
+                insert.setBigDecimal(7, cents(totals[3]));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO ledger_flow_rollups "
+                + "(flow_date, commitment_count, committed_amount, payment_count, paid_amount) VALUES (?, ?, ?, ?, ?)")) {
+            for (Map.Entry<LocalDate, long[]> rollup : flowRollups.entrySet()) {
+                long[] totals = rollup.getValue();
+                insert.setObject(1, rollup.getKey());
+                insert.setLong(2, totals[0]);
+                insert.setBigDecimal(3, cents(totals[1]));
+                insert.setLong(4, totals[2]);
+                insert.setBigDecimal(5, cents(totals[3]));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Move the change log sequence and the ID sequences past the generated rows.
+     *
+     * @param connection The connection
+     * @param expenseCount The number of expenses
+     * @throws SQLException if the sequences cannot be updated
+     */
+    private void writeSequences(Connection connection, long expenseCount) throws SQLException {
+        boolean postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+        if (count(connection, "SELECT COUNT(*) FROM change_log_sequence") == 0) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO change_log_sequence (id, purged_through) VALUES (1, 0)");
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(postgres
+                    ? "SELECT setval('change_log_seq', " + Math.max(sequence, 1) + ")"
+                    : "ALTER SEQUENCE change_log_seq RESTART WITH " + (sequence + 1));
+        }
+
+        // Leave a full allocation block of 50 before the next ID
+        long[] lastIds = {expenseCount, nextCommitmentId - 1, nextPaymentId - 1};
+        String[] sequences = {"expenses_id_seq", "commitments_id_seq", "payments_id_seq"};
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i < sequences.length; i++) {
+                statement.execute(postgres
+                        ? "SELECT setval('" + sequences[i] + "', " + (lastIds[i] + 50) + ")"
+                        : "ALTER SEQUENCE " + sequences[i] + " RESTART WITH " + (lastIds[i] + 51));
+            }
+        }
+    }
+
+    private ExpenseType pickType() {
+        double r = random.nextDouble();
+        return r < 0.6 ? ExpenseType.OTHER : r < 0.85 ? ExpenseType.BUILDING_WORK : ExpenseType.HIGHWAY_WORK;
+    }
+
+    /**
+     * Draw an amount from a log-normal distribution with a median of 25,000.00, larger for works.
+     *
+     * @param type The expense type
+     * @return The amount in cents
+     */
+    private long amountCents(ExpenseType type) {
+        double scale = type == ExpenseType.HIGHWAY_WORK ? 10 : type == ExpenseType.BUILDING_WORK ? 4 : 1;
+        double amount = Math.exp(Math.log(25_000) + 1.3 * gaussian()) * scale;
+        return Math.max(5_000, Math.min(5_000_000_000L, Math.round(amount * 100)));
+    }
+
+    private String pickCreditor() {
+        int index = Arrays.binarySearch(creditorCdf, random.nextDouble());
+        return creditors[Math.min(creditors.length - 1, index >= 0 ? index : -index - 1)];
+    }
+
+    private String description(ExpenseType type) {
+        switch (type) {
+            case BUILDING_WORK:
+                return (random.nextBoolean() ? "Reforma da escola municipal " : "Construção da unidade de saúde ")
+                        + SURNAMES[random.nextInt(SURNAMES.length)] + " no bairro " + PLACES[random.nextInt(PLACES.length)];
+            case HIGHWAY_WORK:
+                return (random.nextBoolean() ? "Pavimentação da rodovia SP-" : "Recuperação de pontes da rodovia BR-")
+                        + (100 + random.nextInt(400)) + " km " + random.nextInt(300);
+            default:
+                return OTHER_DESCRIPTIONS[random.nextInt(OTHER_DESCRIPTIONS.length)];
+        }
+    }
+
+    /**
+     * Draw from a geometric distribution starting at 1.
+     *
+     * @param p The probability of stopping at each step
+     * @param max The largest value
+     * @return The value
+     */
+    private int geometric(double p, int max) {
+        int value = 1;
+        while (value < max && random.nextDouble() > p) {
+            value++;
+        }
+        return value;
+    }
+
+    /**
+     * Split an amount into random positive parts.
+     *
+     * @param totalCents The amount in cents, at least the number of parts
+     * @param parts The number of parts
+     * @return The parts, summing to the amount
+     */
+    private long[] split(long totalCents, int parts) {
+        long[] split = new long[parts];
+        if (parts == 0) {
+            return split;
+        }
+        double[] weights = new double[parts];
+        double sum = 0;
+        for (int i = 0; i < parts; i++) {
+            weights[i] = 0.2 + random.nextDouble();
+            sum += weights[i];
+        }
+        long remaining = totalCents - parts;
+        long assigned = 0;
+        for (int i = 0; i < parts - 1; i++) {
+            split[i] = 1 + (long) (remaining * weights[i] / sum);
+            assigned += split[i];
+        }
+        split[parts - 1] = totalCents - assigned;
+        return split;
+    }
+
+    private double gaussian() {
+        // Box-Muller transform
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Format the number of a commitment or payment, counting down from the previous year.
+     *
+     * @param id The commitment or payment ID, from 1
+     * @param kind NE for commitments, NP for payments
+     * @return The number
+     */
+    private static String number(long id, String kind) {
+        int year = LocalDate.now().getYear() - 1 - (int) ((id - 1) / NUMBERS_PER_YEAR);
+        if (year < 1000) {
+            throw new IllegalStateException("Too many commitments or payments for the " + kind + " number format");
+        }
+        return String.format("%04d%s%04d", year, kind, (id - 1) % NUMBERS_PER_YEAR + 1);
+    }
+
+    private static String[] creditorNames(int count) {
+        Set<String> names = new HashSet<>();
+        String[] creditors = new String[count];
+        for (int i = 0; i < count; i++) {
+            // Enumerate the combinations of two different surnames, then number the repeats
+            int prefix = i % COMPANY_PREFIXES.length;
+            int first = (i / COMPANY_PREFIXES.length) % SURNAMES.length;
+            int second = (first + 1 + (i / COMPANY_PREFIXES.length / SURNAMES.length) % (SURNAMES.length - 1)) % SURNAMES.length;
+            int suffix = (i / COMPANY_PREFIXES.length / SURNAMES.length / (SURNAMES.length - 1)) % COMPANY_SUFFIXES.length;
+            String name = COMPANY_PREFIXES[prefix] + " " + SURNAMES[first] + " " + SURNAMES[second] + " " + COMPANY_SUFFIXES[suffix];
+            creditors[i] = names.add(name) ? name : name + " " + (i + 1);
+        }
+        return creditors;
+    }
+
+    private static double[] zipfCdf(int count, double exponent) {
+        double[] cdf = new double[count];
+        double sum = 0;
+        for (int rank = 1; rank <= count; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < count; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static <E extends Enum<E>> String[] enumLabels(Connection connection, String typeName, E[] values,
+                                                          String[] displayNames) throws SQLException {
+        Set<String> labels = new HashSet<>();
+        if (connection.getMetaData().getDatabaseProductName().equals("PostgreSQL")) {
+            try (PreparedStatement query = connection.prepareStatement("SELECT e.enumlabel FROM pg_enum e "
+                    + "JOIN pg_type t ON t.oid = e.enumtypid WHERE t.typname = ?")) {
+                query.setString(1, typeName);
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        labels.add(rows.getString(1));
+                    }
+                }
+            }
+        }
+        String[] result = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = labels.contains(displayNames[i]) ? displayNames[i] : values[i].name();
+        }
+        return result;
+    }
+
+    private static long lastSequence(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(sequence), 0) FROM change_log")) {
+            return rows.next() ? rows.getLong(1) : 0;
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
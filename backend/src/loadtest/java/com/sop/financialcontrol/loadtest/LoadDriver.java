@@ -0,0 +1,528 @@
+package com.sop.financialcontrol.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a running application with a closed-loop mix of reads and writes over HTTP, and reports
+ * the throughput and the p50, p99 and p99.9 latencies of each endpoint. Each thread sends its next
+ * request as soon as the previous one completes; requests of the warmup period are not measured.
+ * <p>
+ * The driver first samples the ledger through the API for expense IDs, creditors and search words,
+ * and reserves the unused commitment and payment numbers of the current year. Writes create
+ * expenses, commit the expenses it created and pay the commitments it created, so the ledger only
+ * grows.
+ * <p>
+ * Options: {@code --base-url} (default http://localhost:8080/api), {@code --threads} (default 16),
+ * {@code --duration} (default 60s), {@code --warmup} (default 10s), {@code --sample} (expenses to
+ * sample, default 5000), {@code --mix} (weights, as {@code list:20,get:20,...}), {@code --seed} and
+ * {@code --report} (path of a JSON report).
+ */
+public final class LoadDriver {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final String[] STATUSES = {"AWAITING_COMMITMENT", "PARTIALLY_COMMITTED", "AWAITING_PAYMENT",
+            "PARTIALLY_PAID", "PAID"};
+    private static final String[] EXPENSE_TYPES = {"BUILDING_WORK", "HIGHWAY_WORK", "OTHER"};
+    private static final int LOOKUP_CHUNK = 1000;
+
+    /**
+     * The endpoints of the mix, with their default weights.
+     */
+    private enum Endpoint {
+        LIST("list", 20, "GET /expenses"),
+        GET("get", 20, "GET /expenses/{id}"),
+        TREE("tree", 8, "GET /expenses/{id}/tree"),
+        SEARCH("search", 10, "GET /expenses/search"),
+        TEXT_SEARCH("text", 8, "GET /expenses/search/text"),
+        SUGGEST("suggest", 7, "GET /expenses/creditors/suggest"),
+        DASHBOARD("dashboard", 4, "GET /dashboard"),
+        CHANGES("changes", 8, "GET /changes"),
+        CREATE_EXPENSE("create-expense", 6, "POST /expenses"),
+        CREATE_COMMITMENT("create-commitment", 5, "POST /commitments"),
+        CREATE_PAYMENT("create-payment", 4, "POST /payments");
+
+        private final String key;
+        private final int defaultWeight;
+        private final String label;
+
+        Endpoint(String key, int defaultWeight, String label) {
+            this.key = key;
+            this.defaultWeight = defaultWeight;
+            this.label = label;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final SplittableRandom random;
+    private final Map<Endpoint, Integer> weights;
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+
+    // Sampled from the ledger before the run
+    private final List<Long> expenseIds = new ArrayList<>();
+    private final List<String> pageCursors = new ArrayList<>();
+    private final List<String> creditors = new ArrayList<>();
+    private final List<String> words = new ArrayList<>();
+    private final Queue<String> freeCommitmentNumbers = new ConcurrentLinkedQueue<>();
+    private final Queue<String> freePaymentNumbers = new ConcurrentLinkedQueue<>();
+
+    // Grown by the writes of the run
+    private final Queue<long[]> uncommittedExpenses = new ConcurrentLinkedQueue<>();
+    private final Queue<long[]> unpaidCommitments = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger protocolCounter = new AtomicInteger();
+    private final AtomicLong watermark = new AtomicLong();
+    private final int protocolPrefix;
+
+    private LoadDriver(CommandLine options) {
+        this.baseUrl = options.get("base-url", "http://localhost:8080/api").replaceAll("/+$", "");
+        this.timeout = options.getDuration("timeout", Duration.ofSeconds(30));
+        this.random = new SplittableRandom(options.getLong("seed", System.nanoTime()));
+        this.weights = weights(options.get("mix", ""));
+        this.protocolPrefix = 10000 + random.nextInt(90000);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    /**
+     * Run the load test.
+     *
+     * @param args The options, as --name=value
+     * @throws Exception if the ledger cannot be sampled or the report cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLine options = new CommandLine(args);
+        LoadDriver driver = new LoadDriver(options);
+        driver.sample(options.getInt("sample", 5000));
+        Duration measured = driver.run(options.getInt("threads", 16),
+                options.getDuration("warmup", Duration.ofSeconds(10)), options.getDuration("duration", Duration.ofSeconds(60)));
+        driver.printReport(measured);
+        String report = options.get("report", null);
+        if (report != null) {
+            driver.objectMapper.writeValue(Path.of(report).toFile(), driver.jsonReport(measured, options.getInt("threads", 16)));
+            System.out.println("Report written to " + report);
+        }
+    }
+
+    /**
+     * Sample the ledger for the parameters of the requests, and reserve the free commitment and
+     * payment numbers of the current year.
+     *
+     * @param sampleSize The number of expenses to sample
+     * @throws IOException if the API cannot be read
+     */
+    private void sample(int sampleSize) throws IOException {
+        String cursor = null;
+        do {
+            JsonNode page = getJson("/expenses?size=500" + (cursor != null ? "&cursor=" + encode(cursor) : ""));
+            for (JsonNode expense : page.path("content")) {
+                expenseIds.add(expense.path("id").asLong());
+                creditors.add(expense.path("creditor").asText());
+                for (String word : expense.path("description").asText().split("\\s+")) {
+                    if (word.length() >= 5 && words.size() < 1000) {
+                        words.add(word);
+                    }
+                }
+            }
+            cursor = page.path("hasNext").asBoolean() ? page.path("nextCursor").asText() : null;
+            if (cursor != null) {
+                pageCursors.add(cursor);
+            }
+        } while (cursor != null && expenseIds.size() < sampleSize);
+        if (expenseIds.isEmpty()) {
+            throw new IllegalStateException("The ledger is empty; load it with the ledger generator first");
+        }
+
+        int year = LocalDate.now().getYear();
+        freeCommitmentNumbers.addAll(freeNumbers("/commitments/lookup", year + "NE"));
+        freePaymentNumbers.addAll(freeNumbers("/payments/lookup", year + "NP"));
+        System.out.printf("Sampled %d expenses, %d creditors and %d words; %d commitment and %d payment numbers free%n",
+                expenseIds.size(), creditors.size(), words.size(), freeCommitmentNumbers.size(), freePaymentNumbers.size());
+    }
+
+    /**
+     * Find the numbers of a year that are not in use.
+     *
+     * @param lookupPath The path of the batch lookup endpoint
+     * @param prefix The year and kind of the numbers
+     * @return The free numbers, in order
+     * @throws IOException if the API cannot be read
+     */
+    private List<String> freeNumbers(String lookupPath, String prefix) throws IOException {
+        List<String> free = new ArrayList<>();
+        for (int first = 1; first <= 9999; first += LOOKUP_CHUNK) {
+            ArrayNode numbers = objectMapper.createArrayNode();
+            for (int sequence = first; sequence < Math.min(first + LOOKUP_CHUNK, 10000); sequence++) {
+                numbers.add(String.format("%s%04d", prefix, sequence));
+            }
+            HttpResponse<byte[]> response = send(post(lookupPath, numbers));
+            if (response.statusCode() != 200) {
+                throw new IOException(lookupPath + " returned " + response.statusCode());
+            }
+            objectMapper.readTree(response.body()).path("missing").forEach(number -> free.add(number.asText()));
+        }
+        return free;
+    }
+
+    /**
+     * Run the worker threads through the warmup and the measured period.
+     *
+     * @param threads The number of worker threads
+     * @param warmup The warmup period
+     * @param duration The measured period
+     * @return The measured time
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private Duration run(int threads, Duration warmup, Duration duration) throws InterruptedException {
+        Endpoint[] table = weightTable();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom workerRandom = random.split();
+            Thread worker = new Thread(() -> {
+                while (true) {
+                    long started = System.nanoTime();
+                    if (started >= end) {
+                        return;
+                    }
+                    Endpoint endpoint = table[workerRandom.nextInt(table.length)];
+                    execute(endpoint, workerRandom, started >= measureFrom);
+                }
+            }, "load-driver-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        System.out.printf("Running %d threads: %d s warmup, %d s measured%n", threads, warmup.toSeconds(), duration.toSeconds());
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return duration;
+    }
+
+    /**
+     * Send one request of an endpoint and record its outcome.
+     *
+     * @param endpoint The endpoint
+     * @param random The random source of the worker
+     * @param measured Whether the request is past the warmup
+     */
+    private void execute(Endpoint endpoint, SplittableRandom random, boolean measured) {
+        // Writes without a parent to write to create the parent instead
+        long[] parent = null;
+        if (endpoint == Endpoint.CREATE_PAYMENT && (parent = unpaidCommitments.poll()) == null) {
+            endpoint = Endpoint.CREATE_COMMITMENT;
+        }
+        if (endpoint == Endpoint.CREATE_COMMITMENT && parent == null && (parent = uncommittedExpenses.poll()) == null) {
+            endpoint = Endpoint.CREATE_EXPENSE;
+        }
+
+        HttpRequest request = request(endpoint, random, parent);
+        if (request == null) {
+            // The numbers of the year are exhausted
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = send(request);
+            long elapsed = System.nanoTime() - started;
+            boolean ok = response.statusCode() / 100 == 2 || response.statusCode() == 304;
+            if (ok) {
+                afterResponse(endpoint, response.body(), parent);
+            }
+            if (measured) {
+                stats.get(endpoint).record(elapsed, ok);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (measured) {
+                stats.get(endpoint).record(System.nanoTime() - started, false);
+            }
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, SplittableRandom random, long[] parent) {
+        switch (endpoint) {
+            case LIST:
+                int page = random.nextInt(pageCursors.size() + 1);
+                return get("/expenses?size=50" + (page == 0 ? "" : "&cursor=" + encode(pageCursors.get(page - 1))));
+            case GET:
+                return get("/expenses/" + pick(expenseIds, random));
+            case TREE:
+                return get("/expenses/" + pick(expenseIds, random) + "/tree");
+            case SEARCH:
+                return get("/expenses/search?size=50&status=" + STATUSES[random.nextInt(STATUSES.length)]
+                        + "&expenseType=" + EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)]);
+            case TEXT_SEARCH:
+                return get("/expenses/search/text?size=20&q=" + encode(words.isEmpty() ? "obra" : pick(words, random)));
+            case SUGGEST:
+                String creditor = pick(creditors, random);
+                return get("/expenses/creditors/suggest?prefix=" + encode(creditor.substring(0, Math.min(3, creditor.length()))));
+            case DASHBOARD:
+                return get("/dashboard");
+            case CHANGES:
+                return get("/changes?size=100&since=" + watermark.get());
+            case CREATE_EXPENSE:
+                return post("/expenses", newExpense(random));
+            case CREATE_COMMITMENT:
+                String commitmentNumber = freeCommitmentNumbers.poll();
+                if (commitmentNumber == null) {
+                    return null;
+                }
+                ObjectNode commitment = objectMapper.createObjectNode()
+                        .put("commitmentNumber", commitmentNumber)
+                        .put("commitmentDate", LocalDate.now().format(DATE_FORMAT))
+                        .put("amount", BigDecimal.valueOf(parent[1], 2))
+                        .put("expenseId", parent[0]);
+                return post("/commitments", commitment);
+            default:
+                String paymentNumber = freePaymentNumbers.poll();
+                if (paymentNumber == null) {
+                    return null;
+                }
+                ObjectNode payment = objectMapper.createObjectNode()
+                        .put("paymentNumber", paymentNumber)
+                        .put("paymentDate", LocalDate.now().format(DATE_FORMAT))
+                        .put("amount", BigDecimal.valueOf(parent[1], 2))
+                        .put("commitmentId", parent[0]);
+                return post("/payments", payment);
+        }
+    }
+
+    private ObjectNode newExpense(SplittableRandom random) {
+        LocalDateTime now = LocalDateTime.now();
+        String protocolNumber = String.format("%05d.%06d/%04d-99", protocolPrefix,
+                protocolCounter.incrementAndGet() % 1_000_000, now.getYear());
+        return objectMapper.createObjectNode()
+                .put("protocolNumber", protocolNumber)
+                .put("expenseType", EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)])
+                .put("protocolDate", now.format(DATE_TIME_FORMAT))
+                .put("dueDate", now.toLocalDate().plusDays(60).format(DATE_FORMAT))
+                .put("creditor", pick(creditors, random))
+                .put("description", "Despesa de teste de carga " + protocolNumber)
+                .put("amount", BigDecimal.valueOf(100_000 + random.nextInt(10_000_000), 2));
+    }
+
+    /**
+     * Keep track of what the writes created, for the writes that follow.
+     *
+     * @param endpoint The endpoint
+     * @param body The response body
+     * @param parent The expense or commitment written to, if any
+     * @throws IOException if the body cannot be parsed
+     */
+    private void afterResponse(Endpoint endpoint, byte[] body, long[] parent) throws IOException {
+        switch (endpoint) {
+            case CHANGES:
+                watermark.accumulateAndGet(objectMapper.readTree(body).path("watermark").asLong(), Math::max);
+                break;
+            case CREATE_EXPENSE:
+                JsonNode expense = objectMapper.readTree(body);
+                uncommittedExpenses.add(new long[]{expense.path("id").asLong(), cents(expense.path("amount"))});
+                break;
+            case CREATE_COMMITMENT:
+                JsonNode commitment = objectMapper.readTree(body);
+                unpaidCommitments.add(new long[]{commitment.path("id").asLong(), cents(commitment.path("amount"))});
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void printReport(Duration measured) {
+        double seconds = measured.toMillis() / 1000.0;
+        System.out.printf("%n%-32s %9s %7s %9s %9s %9s %9s %9s%n", "Endpoint", "Requests", "Errors", "Req/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "Max ms");
+        long total = 0;
+        long errors = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Stats endpointStats = stats.get(endpoint);
+            long requests = endpointStats.requests.get();
+            if (requests == 0) {
+                continue;
+            }
+            total += requests;
+            errors += endpointStats.errors.get();
+            LatencyHistogram latencies = endpointStats.latencies;
+            System.out.printf(Locale.ROOT, "%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.label, requests,
+                    endpointStats.errors.get(), requests / seconds, millis(latencies.percentileMicros(50)),
+                    millis(latencies.percentileMicros(99)), millis(latencies.percentileMicros(99.9)),
+                    millis(latencies.maxMicros()));
+        }
+        System.out.printf(Locale.ROOT, "%-32s %9d %7d %9.1f%n", "Total", total, errors, total / seconds);
+    }
+
+    private Map<String, Object> jsonReport(Duration measured, int threads) {
+        double seconds = measured.toMillis() / 1000.0;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            Stats endpointStats = stats.get(endpoint);
+            LatencyHistogram latencies = endpointStats.latencies;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint.label);
+            row.put("requests", endpointStats.requests.get());
+            row.put("errors", endpointStats.errors.get());
+            row.put("throughput", endpointStats.requests.get() / seconds);
+            row.put("p50Ms", millis(latencies.percentileMicros(50)));
+            row.put("p99Ms", millis(latencies.percentileMicros(99)));
+            row.put("p999Ms", millis(latencies.percentileMicros(99.9)));
+            row.put("maxMs", millis(latencies.maxMicros()));
+            endpoints.add(row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("threads", threads);
+        report.put("durationSeconds", seconds);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private Endpoint[] weightTable() {
+        List<Endpoint> table = new ArrayList<>();
+        weights.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(endpoint);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no endpoint with a positive weight");
+        }
+        return table.toArray(new Endpoint[0]);
+    }
+
+    /**
+     * Parse the weights of the mix, starting from the defaults.
+     *
+     * @param mix The weights to override, as key:weight pairs separated by commas
+     * @return The weights by endpoint
+     */
+    private static Map<Endpoint, Integer> weights(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            weights.put(endpoint, endpoint.defaultWeight);
+        }
+        for (String pair : mix.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            String[] parts = pair.split(":");
+            Endpoint endpoint = null;
+            for (Endpoint candidate : Endpoint.values()) {
+                if (candidate.key.equals(parts[0].trim())) {
+                    endpoint = candidate;
+                }
+            }
+            if (endpoint == null || parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + pair);
+            }
+            weights.put(endpoint, Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest post(String path, JsonNode body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private JsonNode getJson(String path) throws IOException {
+        HttpResponse<byte[]> response = send(get(path));
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + path + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static <T> T pick(List<T> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static long cents(JsonNode amount) {
+        return amount.decimalValue().movePointRight(2).longValueExact();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * The outcomes of the measured requests of an endpoint.
+     */
+    private static final class Stats {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private void record(long nanos, boolean ok) {
+            requests.incrementAndGet();
+            if (ok) {
+                latencies.record(nanos);
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
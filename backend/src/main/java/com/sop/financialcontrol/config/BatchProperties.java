@@ -0,0 +1,20 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for batch endpoints.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.batch")
+@Data
+public class BatchProperties {
+
+    // Maximum number of items accepted in a single batch request
+    private int maxSize = 10000;
+
+    // Maximum number of keys accepted in a single lookup request
+    private int maxLookupSize = 1000;
+}
@@ -0,0 +1,45 @@
+package com.sop.financialcontrol.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Cache configuration for the application.
+ * Configures the local Caffeine caches in front of the hottest lookups. Statistics are recorded
+ * so that hits, misses and evictions are published as cache metrics by the actuator.
+ */
+@Configuration
+// Run the cache advice outside the transactional advice, so a cache hit does not open a transaction
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String EXPENSES = "expenses";
+    public static final String EXPENSES_BY_PROTOCOL_NUMBER = "expensesByProtocolNumber";
+    public static final String COMMITMENTS_BY_NUMBER = "commitmentsByNumber";
+    public static final String PAYMENTS_BY_NUMBER = "paymentsByNumber";
+
+    /**
+     * Create the cache manager.
+     * Evictions made inside a transaction are deferred until it commits, so a concurrent
+     * lookup cannot cache the old data again between the eviction and the commit.
+     *
+     * @param properties The cache properties
+     * @return The transaction-aware cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(LookupCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                EXPENSES, EXPENSES_BY_PROTOCOL_NUMBER, COMMITMENTS_BY_NUMBER, PAYMENTS_BY_NUMBER);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
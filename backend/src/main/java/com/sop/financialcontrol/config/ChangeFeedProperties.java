@@ -0,0 +1,38 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the change feed.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.changes")
+@Data
+public class ChangeFeedProperties {
+
+    // Number of changes returned when the client does not request a page size
+    private int defaultSize = 500;
+
+    // Upper bound for the page size requested by the client
+    private int maxSize = 5000;
+
+    // How long tombstones are kept; clients must sync at least this often to see every delete
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    /**
+     * Resolve the page size to use for a request.
+     *
+     * @param requestedSize The page size requested by the client, or null
+     * @return The requested size clamped to [1, maxSize], or the default size
+     */
+    public int resolveSize(Integer requestedSize) {
+        if (requestedSize == null || requestedSize <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requestedSize, maxSize);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the creditor autocomplete index.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.creditor-index")
+@Data
+public class CreditorIndexProperties {
+
+    // Number of suggestions returned when no limit is requested
+    private int defaultLimit = 10;
+
+    // Maximum number of suggestions returned
+    private int maxLimit = 50;
+
+    // Interval between rebuilds from the database, which pick up the writes made by other nodes
+    private long refreshIntervalMs = 600000;
+}
@@ -0,0 +1,36 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the dashboard.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.dashboard")
+@Data
+public class DashboardProperties {
+
+    // Number of months of committed and paid amounts returned when the client does not request one
+    private int defaultMonths = 12;
+
+    // Upper bound for the number of months requested by the client
+    private int maxMonths = 60;
+
+    // Number of rows each rollup key is split over; each transaction updates one of them, picked at random
+    private int rollupShards = 8;
+
+    /**
+     * Resolve the number of months to return for a request.
+     *
+     * @param requestedMonths The number of months requested by the client, or null
+     * @return The requested number clamped to [1, maxMonths], or the default number
+     */
+    public int resolveMonths(Integer requestedMonths) {
+        if (requestedMonths == null || requestedMonths <= 0) {
+            return defaultMonths;
+        }
+        return Math.min(requestedMonths, maxMonths);
+    }
+}
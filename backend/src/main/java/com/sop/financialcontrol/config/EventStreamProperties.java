@@ -0,0 +1,43 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the ledger event stream.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.events")
+@Data
+public class EventStreamProperties {
+
+    // Events buffered per subscriber; beyond it the oldest events are dropped and the subscriber is told
+    private int bufferSize = 256;
+
+    // Interval between heartbeats, keeping idle connections open through proxies
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // Lifetime of a connection, after which the client reconnects
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // Threads writing events to the subscribers
+    private int senderThreads = 4;
+
+    // Upper bound for the number of concurrent subscribers of a node
+    private int maxSubscribers = 1000;
+
+    // Bus fanning the events out to the subscribers of every node: postgres (LISTEN/NOTIFY) or local (this JVM only)
+    private String bus = "local";
+
+    // Postgres notification channel of the event bus
+    private String channel = "ledger_events";
+
+    // How long the listener waits for notifications before checking whether it should stop
+    private Duration listenerPollTimeout = Duration.ofSeconds(1);
+
+    // Delay before the listener reconnects after losing its connection
+    private Duration listenerReconnectDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the recomputation of the expense statuses after commitment and payment writes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.expense-status")
+@Data
+public class ExpenseStatusProperties {
+
+    // Whether statuses are recomputed by a background worker instead of in the writing transaction
+    private boolean async = false;
+
+    // Interval between worker runs; all the writes to an expense within it cause a single recomputation
+    private long windowMs = 200;
+
+    // Number of expenses recomputed per transaction
+    private int batchSize = 500;
+}
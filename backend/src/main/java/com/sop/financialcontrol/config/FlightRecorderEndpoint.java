@@ -0,0 +1,50 @@
+package com.sop.financialcontrol.config;
+
+import com.sop.financialcontrol.service.OperationProfiler;
+import com.sop.financialcontrol.service.ServiceOperationEvent;
+import jdk.jfr.EventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint switching the Flight Recorder events of the service operations at runtime.
+ * Events are written only while a recording is running, started with
+ * {@code jcmd <pid> JFR.start} or {@code -XX:StartFlightRecording}.
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+@RequiredArgsConstructor
+public class FlightRecorderEndpoint {
+
+    private final OperationProfiler operationProfiler;
+
+    /**
+     * Get whether service operations emit events, and whether a recording takes them.
+     *
+     * @return The state of the events
+     */
+    @ReadOperation
+    public Map<String, Object> state() {
+        return Map.of(
+                "enabled", operationProfiler.isEnabled(),
+                "event", ServiceOperationEvent.NAME,
+                "recording", EventType.getEventType(ServiceOperationEvent.class).isEnabled());
+    }
+
+    /**
+     * Switch the events of the service operations on or off.
+     *
+     * @param enabled Whether service operations emit events
+     * @return The new state of the events
+     */
+    @WriteOperation
+    public Map<String, Object> switchEvents(boolean enabled) {
+        operationProfiler.setEnabled(enabled);
+        return state();
+    }
+}
@@ -0,0 +1,17 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the Flight Recorder events of the service operations.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.flight-recorder")
+@Data
+public class FlightRecorderProperties {
+
+    // Whether service operations emit events at startup (switched at runtime through the flightrecorder endpoint)
+    private boolean enabled = false;
+}
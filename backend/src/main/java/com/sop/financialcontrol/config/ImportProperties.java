@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for file imports.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.import")
+@Data
+public class ImportProperties {
+
+    // Number of rows validated, de-duplicated and inserted per transaction
+    private int chunkSize = 1000;
+
+    // Maximum number of rejected lines listed in the import result
+    private int maxReportedErrors = 1000;
+
+    // Maximum number of characters of a record; a longer record (e.g. after a stray quote) aborts the import
+    private int maxRecordLength = 100_000;
+}
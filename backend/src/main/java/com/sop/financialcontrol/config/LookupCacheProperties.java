@@ -0,0 +1,34 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the local lookup caches.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+@Data
+public class LookupCacheProperties {
+
+    // Maximum number of entries kept in each cache
+    private long maximumSize = 10000;
+
+    // Time after which an entry expires, bounding how long a missed invalidation can serve stale data
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+    // Bus propagating evictions to the other nodes: postgres (LISTEN/NOTIFY) or local (this JVM only)
+    private String invalidationBus = "local";
+
+    // Postgres notification channel of the invalidation bus
+    private String invalidationChannel = "cache_invalidation";
+
+    // How long the listener waits for notifications before checking whether it should stop
+    private Duration listenerPollTimeout = Duration.ofSeconds(1);
+
+    // Delay before the listener reconnects after losing its connection
+    private Duration listenerReconnectDelay = Duration.ofSeconds(5);
+}
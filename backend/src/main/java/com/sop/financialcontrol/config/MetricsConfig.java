@@ -0,0 +1,74 @@
+package com.sop.financialcontrol.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * Metrics configuration for the application.
+ * The request timers ({@code http.server.requests}) are tagged with the controller method that
+ * handled the request, and the database work of each request is published under
+ * {@code request.db.*} with the same tag and checked against the query budget. Hibernate
+ * statistics and connection pool metrics are published by the actuator, and all metrics can be
+ * scraped by Prometheus.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetProperties queryBudgetProperties;
+
+    /**
+     * Register the Hibernate listeners collecting the database work of each request.
+     *
+     * @return The Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer requestQueryStatisticsCustomizer() {
+        return properties -> {
+            properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(RequestQueryStatistics.integrator()));
+            properties.put("hibernate.session.events.auto", RequestQueryStatistics.SessionListener.class.getName());
+            properties.put("hibernate.session_factory.statement_inspector", RequestQueryStatistics.Inspector.class.getName());
+        };
+    }
+
+    /**
+     * Tag the request timers with the controller method that handled the request.
+     *
+     * @return The tags contributor
+     */
+    @Bean
+    public WebMvcTagsContributor handlerTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Throwable exception) {
+                return Tags.of("handler", RequestQueryMetricsInterceptor.handlerName(handler));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestQueryMetricsInterceptor(meterRegistry, queryBudgetProperties));
+    }
+}
@@ -0,0 +1,67 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the transactional outbox and its relay.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+@Data
+public class OutboxProperties {
+
+    // Whether the write paths record domain events in the outbox
+    private boolean enabled = true;
+
+    // Number of events delivered to a sink per transaction
+    private int batchSize = 500;
+
+    // Interval between polls of the outbox, which pick up the events committed by other nodes
+    private long pollIntervalMs = 1000;
+
+    // Upper bound of the delay between retries of a failing sink, which doubles on each failure
+    private Duration maxRetryDelay = Duration.ofMinutes(5);
+
+    // How long delivered events are kept before they are purged
+    private Duration retention = Duration.ofDays(7);
+
+    private Listener listener = new Listener();
+
+    private File file = new File();
+
+    private Http http = new Http();
+
+    /**
+     * Sink publishing the events to the in-process listeners.
+     */
+    @Data
+    public static class Listener {
+        private boolean enabled = true;
+    }
+
+    /**
+     * Sink appending the events to a newline-delimited JSON file.
+     */
+    @Data
+    public static class File {
+        private boolean enabled = false;
+        private String path = "outbox-events.ndjson";
+    }
+
+    /**
+     * Sink posting the events as a JSON array to an HTTP endpoint.
+     */
+    @Data
+    public static class Http {
+        private boolean enabled = false;
+        private String url = "http://localhost:8080/api/outbox/stub/events";
+        private Duration timeout = Duration.ofSeconds(10);
+
+        // Whether this application exposes the stub endpoint receiving the events, for local development
+        private boolean stubEnabled = false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for paginated listings.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.pagination")
+@Data
+public class PaginationProperties {
+
+    // Page size used when the client does not request one
+    private int defaultSize = 50;
+
+    // Upper bound for the page size requested by the client
+    private int maxSize = 500;
+
+    /**
+     * Resolve the page size to use for a request.
+     *
+     * @param requestedSize The page size requested by the client, or null
+     * @return The requested size clamped to [1, maxSize], or the default size
+     */
+    public int resolveSize(Integer requestedSize) {
+        if (requestedSize == null || requestedSize <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requestedSize, maxSize);
+    }
+}
@@ -0,0 +1,31 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the per-request SQL budget and the N+1 detector.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.query-budget")
+@Data
+public class QueryBudgetProperties {
+
+    // Whether requests over budget or repeating a statement are logged as warnings
+    private boolean enabled = true;
+
+    // Statements and batches a request may execute before it is reported
+    private int maxStatements = 25;
+
+    // Time a request may spend executing statements before it is reported
+    private Duration maxDbTime = Duration.ofMillis(500);
+
+    // Times a request must prepare the same statement shape to be reported as a likely N+1
+    private int repeatedStatementThreshold = 10;
+
+    // Whether responses carry the X-Query-Count and X-DB-Time headers (keep disabled in production)
+    private boolean exposeHeaders = false;
+}
@@ -0,0 +1,43 @@
+package com.sop.financialcontrol.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Adds the database work of a request to its response, for development: {@code X-Query-Count}
+ * holds the statements and batches executed, and {@code X-DB-Time} the milliseconds spent
+ * executing them. The headers are written with the response body, so they cover the work done
+ * before serialization; responses without a body do not carry them.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "app.query-budget", name = "expose-headers", havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String DB_TIME_HEADER = "X-DB-Time";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueryStatistics statistics = RequestQueryStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(statistics.getStatements() + statistics.getBatches()));
+            response.getHeaders().set(DB_TIME_HEADER, String.format(Locale.ROOT, "%.3f", statistics.getExecutionNanos() / 1_000_000.0));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sop.financialcontrol.config;
+
+/**
+ * Counts the statements run by a piece of code, to pin the query count of service methods in
+ * tests and benchmarks. Only the Hibernate work done on the calling thread is counted, including
+ * the flush when the code commits its transaction. Counting can be nested, and inside a request the
+ * counted work still adds to the statistics of the request.
+ */
+public final class QueryCounter {
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Run code and count its database work.
+     *
+     * @param work The code to run
+     * @return The database work of the code
+     */
+    public static RequestQueryStatistics count(Runnable work) {
+        RequestQueryStatistics statistics = new RequestQueryStatistics();
+        RequestQueryStatistics outer = RequestQueryStatistics.swap(statistics);
+        try {
+            work.run();
+        } finally {
+            RequestQueryStatistics.swap(outer);
+            if (outer != null) {
+                outer.add(statistics);
+            }
+        }
+        return statistics;
+    }
+}
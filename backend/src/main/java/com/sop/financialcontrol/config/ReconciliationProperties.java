@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the running totals reconciliation job.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.reconciliation")
+@Data
+public class ReconciliationProperties {
+
+    // Whether the scheduled reconciliation runs at all
+    private boolean enabled = true;
+
+    // Whether drifted totals are repaired or only reported
+    private boolean repair = true;
+
+    // Number of rows verified per transaction
+    private int batchSize = 500;
+}
@@ -0,0 +1,120 @@
+package com.sop.financialcontrol.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the database work of each request to a controller method, tagged with the handler, and
+ * logs a warning when a request goes over the query budget or prepares the same statement shape
+ * many times, the signature of an N+1 query. Asynchronous requests record the work of the handler
+ * itself, up to the start of the asynchronous processing.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RequestQueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetProperties budget;
+
+    /**
+     * Get the name a handler is tagged with.
+     *
+     * @param handler The handler of a request
+     * @return The controller class and method names, or "none" if the handler is not a controller method
+     */
+    public static String handlerName(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return "none";
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestQueryStatistics.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request, handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(request, handler);
+    }
+
+    private void record(HttpServletRequest request, Object handler) {
+        RequestQueryStatistics statistics = RequestQueryStatistics.stop();
+        if (statistics == null) {
+            return;
+        }
+        Tags tags = Tags.of("handler", handlerName(handler));
+        summary("request.db.statements", "JDBC statements and batches executed", tags,
+                statistics.getStatements() + statistics.getBatches());
+        Timer.builder("request.db.time")
+                .description("Time spent executing JDBC statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getExecutionNanos(), TimeUnit.NANOSECONDS);
+        summary("request.db.entity.loads", "Entities loaded", tags, statistics.getEntityLoads());
+        summary("request.db.collection.fetches", "Lazy collections fetched", tags, statistics.getCollectionFetches());
+        summary("request.db.cache.hits", "Second-level cache hits", tags, statistics.getCacheHits());
+        summary("request.db.cache.misses", "Second-level cache misses", tags, statistics.getCacheMisses());
+
+        log.debug("{} {}: {} statements, {} batches in {} ms, {} entity loads, {} collection fetches",
+                request.getMethod(), request.getRequestURI(), statistics.getStatements(), statistics.getBatches(),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getExecutionNanos()), statistics.getEntityLoads(),
+                statistics.getCollectionFetches());
+        if (budget.isEnabled()) {
+            checkBudget(request, handler, statistics);
+        }
+    }
+
+    /**
+     * Warn about a request over the query budget, or repeating a statement.
+     *
+     * @param request The request
+     * @param handler The handler of the request
+     * @param statistics The database work of the request
+     */
+    private void checkBudget(HttpServletRequest request, Object handler, RequestQueryStatistics statistics) {
+        long statements = statistics.getStatements() + statistics.getBatches();
+        long dbTimeMillis = TimeUnit.NANOSECONDS.toMillis(statistics.getExecutionNanos());
+        if (statements > budget.getMaxStatements() || dbTimeMillis > budget.getMaxDbTime().toMillis()) {
+            log.warn("{} {} ({}) is over the query budget: {} statements in {} ms (budget {} statements, {} ms)",
+                    request.getMethod(), request.getRequestURI(), handlerName(handler), statements, dbTimeMillis,
+                    budget.getMaxStatements(), budget.getMaxDbTime().toMillis());
+        }
+        Map.Entry<String, Integer> repeated = statistics.getMostRepeatedStatement();
+        if (repeated != null && repeated.getValue() >= budget.getRepeatedStatementThreshold()) {
+            log.warn("{} {} ({}) prepared the same statement {} times, a likely N+1 query: {}",
+                    request.getMethod(), request.getRequestURI(), handlerName(handler), repeated.getValue(),
+                    repeated.getKey());
+        }
+    }
+
+    private void summary(String name, String description, Tags tags, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -0,0 +1,256 @@
+package com.sop.financialcontrol.config;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The database work done while handling a request: JDBC statements and the time spent executing
+ * them, entities loaded, lazy collections fetched and second-level cache lookups, and how many
+ * times each statement shape was prepared.
+ * Statistics are collected on the thread handling the request, between {@link #start()} and
+ * {@link #stop()}, by a Hibernate session event listener, a statement inspector and load and
+ * collection initialization event listeners. Work done outside a request, or on another thread,
+ * is not counted.
+ */
+public final class RequestQueryStatistics {
+
+    private static final ThreadLocal<RequestQueryStatistics> CURRENT = new ThreadLocal<>();
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private long statements;
+    private long batches;
+    private long executionNanos;
+    private long entityLoads;
+    private long collectionFetches;
+    private long cacheHits;
+    private long cacheMisses;
+    private final Map<String, Integer> statementShapes = new HashMap<>();
+
+    RequestQueryStatistics() {
+    }
+
+    /**
+     * Start collecting the statistics of the current thread.
+     */
+    public static void start() {
+        CURRENT.set(new RequestQueryStatistics());
+    }
+
+    /**
+     * Stop collecting the statistics of the current thread.
+     *
+     * @return The statistics collected since {@link #start()}, or null if collection was not started
+     */
+    public static RequestQueryStatistics stop() {
+        RequestQueryStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    /**
+     * Get the statistics collected on the current thread so far.
+     *
+     * @return The statistics, or null if collection was not started
+     */
+    public static RequestQueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Replace the statistics collected on the current thread.
+     *
+     * @param statistics The statistics to collect into, or null to stop collecting
+     * @return The statistics collected until now, or null if collection was not started
+     */
+    static RequestQueryStatistics swap(RequestQueryStatistics statistics) {
+        RequestQueryStatistics previous = CURRENT.get();
+        if (statistics != null) {
+            CURRENT.set(statistics);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Add other statistics to these ones.
+     *
+     * @param other The statistics to add
+     */
+    void add(RequestQueryStatistics other) {
+        statements += other.statements;
+        batches += other.batches;
+        executionNanos += other.executionNanos;
+        entityLoads += other.entityLoads;
+        collectionFetches += other.collectionFetches;
+        cacheHits += other.cacheHits;
+        cacheMisses += other.cacheMisses;
+        other.statementShapes.forEach((shape, count) -> statementShapes.merge(shape, count, Integer::sum));
+    }
+
+    /**
+     * Reduce a SQL statement to its shape: literals and IN lists are replaced by placeholders and
+     * whitespace is collapsed, so the statements of an N+1 loop share one shape.
+     *
+     * @param sql The SQL statement
+     * @return The shape of the statement
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Create the integrator registering the entity load and collection fetch listeners.
+     *
+     * @return The integrator
+     */
+    public static Integrator integrator() {
+        return new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                                  SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+                listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+                    RequestQueryStatistics statistics = CURRENT.get();
+                    if (statistics != null) {
+                        statistics.entityLoads++;
+                    }
+                });
+                // Only fired for collections that are not initialized yet
+                listeners.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> {
+                    RequestQueryStatistics statistics = CURRENT.get();
+                    if (statistics != null) {
+                        statistics.collectionFetches++;
+                    }
+                });
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Get the statement prepared the most times.
+     *
+     * @return The shape of the statement and how many times it was prepared, or null if no statement was prepared
+     */
+    public Map.Entry<String, Integer> getMostRepeatedStatement() {
+        return statementShapes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+
+    /**
+     * Statement inspector counting the statements prepared by the current request, by shape.
+     * Hibernate creates a single instance, from its class name.
+     */
+    public static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            RequestQueryStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.statementShapes.merge(shapeOf(sql), 1, Integer::sum);
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Session event listener counting the statements, batches and cache lookups of the current
+     * request and timing their execution. Hibernate creates one per session, from its class name.
+     */
+    public static class SessionListener extends BaseSessionEventListener {
+
+        private long statementStart;
+        private long batchStart;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statementStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            RequestQueryStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.statements++;
+                statistics.executionNanos += System.nanoTime() - statementStart;
+            }
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batchStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            RequestQueryStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.batches++;
+                statistics.executionNanos += System.nanoTime() - batchStart;
+            }
+        }
+
+        @Override
+        public void cacheGetEnd(boolean hit) {
+            RequestQueryStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                if (hit) {
+                    statistics.cacheHits++;
+                } else {
+                    statistics.cacheMisses++;
+                }
+            }
+        }
+    }
+}
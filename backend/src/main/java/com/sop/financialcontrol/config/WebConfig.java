@@ -23,6 +23,8 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000") // Frontend URL
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag", "Last-Modified", // Readable by the frontend for conditional requests
+                        QueryCountHeaderAdvice.QUERY_COUNT_HEADER, QueryCountHeaderAdvice.DB_TIME_HEADER)
                 .allowCredentials(true)
                 .maxAge(3600); // 1 hour
     }
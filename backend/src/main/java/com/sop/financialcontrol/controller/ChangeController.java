@@ -0,0 +1,48 @@
+package com.sop.financialcontrol.controller;
+
+import com.sop.financialcontrol.dto.ChangeFeedDTO;
+import com.sop.financialcontrol.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the change feed.
+ */
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+@Tag(name = "Changes", description = "Incremental sync APIs")
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Get the changes after a watermark.
+     *
+     * @param since The watermark returned by the previous call
+     * @param size The page size
+     * @return A page of changes with the watermark for the next call
+     */
+    @GetMapping
+    @Operation(summary = "Get changes since a watermark",
+            description = "Retrieve the expenses, commitments and payments created, updated or deleted after a watermark, "
+                    + "ordered by sequence number. Pass the returned watermark back as since to get the next changes")
+    @ApiResponse(responseCode = "200", description = "Changes retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid or expired watermark", content = @Content)
+    public ResponseEntity<ChangeFeedDTO> getChanges(
+            @Parameter(description = "Watermark returned by the previous call; 0 or absent for a full sync")
+            @RequestParam(required = false) Long since,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(changeFeedService.getChanges(since, size));
+    }
+}
@@ -1,6 +1,9 @@
 package com.sop.financialcontrol.controller;
 
+import com.sop.financialcontrol.dto.BatchResultDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
 import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
 import com.sop.financialcontrol.service.CommitmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -28,31 +32,48 @@ public class CommitmentController {
     private final CommitmentService commitmentService;
 
     /**
-     * Get all commitments.
+     * Get a page of commitments.
      *
-     * @return A list of all commitments
+     * @param cursor The cursor returned by the previous page
+     * @param size The page size
+     * @param request The current request, checked for If-None-Match and If-Modified-Since
+     * @return A page of commitments with the cursor for the next page, or 304 if the page has not changed
      */
     @GetMapping
-    @Operation(summary = "Get all commitments", description = "Retrieve a list of all commitments")
+    @Operation(summary = "Get all commitments", description = "Retrieve a page of commitments ordered by ID, using cursor-based pagination. "
+            + "Supports conditional requests with the ETag and Last-Modified headers")
     @ApiResponse(responseCode = "200", description = "Commitments retrieved successfully")
-    public ResponseEntity<List<CommitmentDTO>> getAllCommitments() {
-        return ResponseEntity.ok(commitmentService.getAllCommitments());
+    @ApiResponse(responseCode = "304", description = "Page not modified", content = @Content)
+    @ApiResponse(responseCode = "400", description = "Invalid pagination cursor", content = @Content)
+    public ResponseEntity<CursorPageDTO<CommitmentDTO>> getAllCommitments(
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer size,
+            @Parameter(hidden = true) WebRequest request) {
+        return ConditionalResponses.ifModified(request, commitmentService.getCommitmentPageVersion(cursor, size),
+                () -> commitmentService.getAllCommitments(cursor, size));
     }
 
     /**
      * Get a commitment by its ID.
      *
      * @param id The ID of the commitment to retrieve
-     * @return The commitment with the given ID
+     * @param request The current request, checked for If-None-Match and If-Modified-Since
+     * @return The commitment with the given ID, or 304 if it has not changed
      */
     @GetMapping("/{id}")
-    @Operation(summary = "Get commitment by ID", description = "Retrieve a commitment by its ID")
+    @Operation(summary = "Get commitment by ID", description = "Retrieve a commitment by its ID. "
+            + "Supports conditional requests with the ETag and Last-Modified headers")
     @ApiResponse(responseCode = "200", description = "Commitment retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "Commitment not modified", content = @Content)
     @ApiResponse(responseCode = "404", description = "Commitment not found", content = @Content)
     public ResponseEntity<CommitmentDTO> getCommitmentById(
             @Parameter(description = "Commitment ID", required = true)
-            @PathVariable Long id) {
-        return ResponseEntity.ok(commitmentService.getCommitmentById(id));
+            @PathVariable Long id,
+            @Parameter(hidden = true) WebRequest request) {
+        return ConditionalResponses.ifModified(request, commitmentService.getCommitmentVersion(id),
+                () -> commitmentService.getCommitmentById(id));
     }
 
     /**
@@ -71,6 +92,23 @@ public class CommitmentController {
         return ResponseEntity.ok(commitmentService.getCommitmentByCommitmentNumber(commitmentNumber));
     }
 
+    /**
+     * Look up several commitments by their commitment number.
+     *
+     * @param commitmentNumbers The commitment numbers of the commitments to retrieve
+     * @return The commitments found in request order, and the commitment numbers not found
+     */
+    @PostMapping("/lookup")
+    @Operation(summary = "Look up commitments by commitment number",
+            description = "Retrieve several commitments by commitment number in one request, in request order, listing the commitment numbers not found")
+    @ApiResponse(responseCode = "200", description = "Commitments retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "No commitment number given or too many commitment numbers", content = @Content)
+    public ResponseEntity<LookupResultDTO<CommitmentDTO, String>> getCommitmentsByCommitmentNumbers(
+            @Parameter(description = "Commitment numbers", required = true)
+            @RequestBody List<String> commitmentNumbers) {
+        return ResponseEntity.ok(commitmentService.getCommitmentsByCommitmentNumbers(commitmentNumbers));
+    }
+
     /**
      * Get all commitments for an expense.
      *
@@ -105,6 +143,22 @@ public class CommitmentController {
         return new ResponseEntity<>(commitmentService.createCommitment(commitmentDTO), HttpStatus.CREATED);
     }
 
+    /**
+     * Create a batch of commitments.
+     *
+     * @param commitmentDTOs The commitment data to create
+     * @return The result of each item, in request order
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Create commitments in batch", description = "Create several commitments in one request, reporting the result of each item")
+    @ApiResponse(responseCode = "200", description = "Batch processed; see the result of each item")
+    @ApiResponse(responseCode = "400", description = "Batch exceeds the maximum size", content = @Content)
+    public ResponseEntity<BatchResultDTO<CommitmentDTO>> createCommitments(
+            @Parameter(description = "Commitment data", required = true)
+            @RequestBody List<CommitmentDTO> commitmentDTOs) {
+        return ResponseEntity.ok(commitmentService.createCommitments(commitmentDTOs));
+    }
+
     /**
      * Update an existing commitment.
      *
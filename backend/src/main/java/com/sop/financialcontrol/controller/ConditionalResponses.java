@@ -0,0 +1,53 @@
+package com.sop.financialcontrol.controller;
+
+import com.sop.financialcontrol.service.ResourceVersion;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Helper for answering conditional GET requests.
+ * The version of the response is checked against the If-None-Match and If-Modified-Since headers
+ * before the body is loaded, so an unchanged resource costs one fingerprint query and no mapping
+ * or serialization.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Answer 304 Not Modified if the client already has the current version, or build the response.
+     * The ETag and Last-Modified headers are set on the response in both cases.
+     *
+     * @param request The current request
+     * @param version The current version, or empty if the resource does not exist
+     * @param body Loads the response body
+     * @param <T> The body type
+     * @return An empty 304 response, or a 200 response with the body
+     */
+    static <T> ResponseEntity<T> ifModified(WebRequest request, Optional<ResourceVersion> version, Supplier<T> body) {
+        // A missing resource falls through, so the body supplier reports it
+        if (version.isPresent()
+                && request.checkNotModified(version.get().getEtag(), version.get().getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(body.get());
+    }
+
+    /**
+     * Answer 304 Not Modified if the client already has the current version, or build the response.
+     *
+     * @param request The current request
+     * @param version The current version
+     * @param body Loads the response body
+     * @param <T> The body type
+     * @return An empty 304 response, or a 200 response with the body
+     */
+    static <T> ResponseEntity<T> ifModified(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        return ifModified(request, Optional.of(version), body);
+    }
+}
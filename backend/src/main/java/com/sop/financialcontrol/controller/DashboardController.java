@@ -0,0 +1,43 @@
+package com.sop.financialcontrol.controller;
+
+import com.sop.financialcontrol.dto.DashboardDTO;
+import com.sop.financialcontrol.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the dashboard summary.
+ */
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+@Tag(name = "Dashboard", description = "Dashboard summary APIs")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Get the dashboard summary.
+     *
+     * @param months The number of months of committed and paid amounts to return
+     * @return The dashboard summary
+     */
+    @GetMapping
+    @Operation(summary = "Get the dashboard summary",
+            description = "Retrieve the expense totals by status and type, the overdue amount and the amounts "
+                    + "committed and paid per month, read from precomputed rollups")
+    @ApiResponse(responseCode = "200", description = "Dashboard retrieved successfully")
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @Parameter(description = "Number of months of committed and paid amounts, ending with the current month")
+            @RequestParam(required = false) Integer months) {
+        return ResponseEntity.ok(dashboardService.getDashboard(months));
+    }
+}
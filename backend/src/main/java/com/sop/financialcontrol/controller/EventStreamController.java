@@ -0,0 +1,60 @@
+package com.sop.financialcontrol.controller;
+
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.service.LedgerEventStream;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST controller for the ledger event stream.
+ */
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+@Tag(name = "Events", description = "Ledger event stream APIs")
+public class EventStreamController {
+
+    private final LedgerEventStream ledgerEventStream;
+
+    /**
+     * Subscribe to the ledger events.
+     *
+     * @param status The expense statuses to receive
+     * @param type The expense types to receive
+     * @return The Server-Sent Events stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream ledger events",
+            description = "Push expense status transitions and new commitments and payments as Server-Sent Events "
+                    + "once they are committed, filtered by the status (after the change) and type of the expense. "
+                    + "Event IDs are change feed sequence numbers; an OVERFLOW event means events were dropped "
+                    + "and the client should catch up from the change feed")
+    @ApiResponse(responseCode = "200", description = "Stream opened")
+    @ApiResponse(responseCode = "400", description = "Invalid filter or too many subscribers", content = @Content)
+    public SseEmitter streamEvents(
+            @Parameter(description = "Expense statuses to receive; all when absent")
+            @RequestParam(required = false) List<ExpenseStatus> status,
+            @Parameter(description = "Expense types to receive; all when absent")
+            @RequestParam(required = false) List<ExpenseType> type) {
+        return ledgerEventStream.subscribe(toSet(status, ExpenseStatus.class), toSet(type, ExpenseType.class));
+    }
+
+    private static <E extends Enum<E>> Set<E> toSet(List<E> values, Class<E> type) {
+        return values == null || values.isEmpty() ? EnumSet.noneOf(type) : EnumSet.copyOf(values);
+    }
+}
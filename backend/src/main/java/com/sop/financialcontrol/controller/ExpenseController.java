@@ -1,7 +1,16 @@
 package com.sop.financialcontrol.controller;
 
+import com.sop.financialcontrol.dto.CreditorSuggestionDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
 import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.ExpenseSearchCriteria;
+import com.sop.financialcontrol.dto.ExpenseTextMatchDTO;
+import com.sop.financialcontrol.dto.ImportResultDTO;
+import com.sop.financialcontrol.dto.LedgerExpenseDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
 import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.service.ExpenseExportService;
+import com.sop.financialcontrol.service.ExpenseImportService;
 import com.sop.financialcontrol.service.ExpenseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,11 +19,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -27,33 +45,166 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
+    private final ExpenseExportService expenseExportService;
 
     /**
-     * Get all expenses.
+     * Get a page of expenses.
      *
-     * @return A list of all expenses
+     * @param cursor The cursor returned by the previous page
+     * @param size The page size
+     * @param request The current request, checked for If-None-Match and If-Modified-Since
+     * @return A page of expenses with the cursor for the next page, or 304 if the page has not changed
      */
     @GetMapping
-    @Operation(summary = "Get all expenses", description = "Retrieve a list of all expenses")
+    @Operation(summary = "Get all expenses", description = "Retrieve a page of expenses ordered by ID, using cursor-based pagination. "
+            + "Supports conditional requests with the ETag and Last-Modified headers")
     @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully")
-    public ResponseEntity<List<ExpenseDTO>> getAllExpenses() {
-        return ResponseEntity.ok(expenseService.getAllExpenses());
+    @ApiResponse(responseCode = "304", description = "Page not modified", content = @Content)
+    @ApiResponse(responseCode = "400", description = "Invalid pagination cursor", content = @Content)
+    public ResponseEntity<CursorPageDTO<ExpenseDTO>> getAllExpenses(
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer size,
+            @Parameter(hidden = true) WebRequest request) {
+        return ConditionalResponses.ifModified(request, expenseService.getExpensePageVersion(cursor, size),
+                () -> expenseService.getAllExpenses(cursor, size));
+    }
+
+    /**
+     * Get several expenses by their IDs.
+     *
+     * @param ids The IDs of the expenses to retrieve
+     * @return The expenses found in request order, and the IDs not found
+     */
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get expenses by IDs",
+            description = "Retrieve several expenses by ID in one request, in request order, listing the IDs not found")
+    @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "No ID given or too many IDs", content = @Content)
+    public ResponseEntity<LookupResultDTO<ExpenseDTO, Long>> getExpensesByIds(
+            @Parameter(description = "Comma-separated expense IDs", required = true)
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(expenseService.getExpensesByIds(ids));
+    }
+
+    /**
+     * Search expenses by any combination of filters.
+     *
+     * @param criteria The search filters
+     * @param cursor The cursor returned by the previous page
+     * @param size The page size
+     * @return A page of matching expenses with the cursor for the next page
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search expenses",
+            description = "Retrieve a page of expenses matching every given filter: status, type, creditor, "
+                    + "and due date, amount and protocol date ranges. Dates use the dd/MM/yyyy format")
+    @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid filter or pagination cursor", content = @Content)
+    public ResponseEntity<CursorPageDTO<ExpenseDTO>> searchExpenses(
+            @ParameterObject ExpenseSearchCriteria criteria,
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(expenseService.searchExpenses(criteria, cursor, size));
+    }
+
+    /**
+     * Search expenses by the words of their creditor and description.
+     *
+     * @param q The words to search for
+     * @param cursor The cursor returned by the previous page
+     * @param size The page size
+     * @return A page of matching expenses, most relevant first, with the cursor for the next page
+     */
+    @GetMapping("/search/text")
+    @Operation(summary = "Full-text search of expenses",
+            description = "Retrieve a page of expenses whose creditor or description contain every given word, "
+                    + "most relevant first, using cursor-based pagination")
+    @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Missing search text or invalid pagination cursor", content = @Content)
+    public ResponseEntity<CursorPageDTO<ExpenseTextMatchDTO>> searchExpensesByText(
+            @Parameter(description = "Words to search for", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(expenseService.searchExpensesByText(q, cursor, size));
+    }
+
+    /**
+     * Suggest creditors for autocomplete.
+     *
+     * @param prefix The typed prefix
+     * @param limit The maximum number of suggestions
+     * @return The creditors starting with the prefix, most used first
+     */
+    @GetMapping("/creditors/suggest")
+    @Operation(summary = "Suggest creditors",
+            description = "Suggest the creditors starting with a prefix, ignoring case and accents, most used first")
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    public ResponseEntity<List<CreditorSuggestionDTO>> suggestCreditors(
+            @Parameter(description = "Typed prefix", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(expenseService.suggestCreditors(prefix, limit));
     }
 
     /**
      * Get an expense by its ID.
      *
      * @param id The ID of the expense to retrieve
-     * @return The expense with the given ID
+     * @param freshStatus Whether to recompute a pending status first
+     * @param request The current request, checked for If-None-Match and If-Modified-Since
+     * @return The expense with the given ID, or 304 if it has not changed
      */
     @GetMapping("/{id}")
-    @Operation(summary = "Get expense by ID", description = "Retrieve an expense by its ID")
+    @Operation(summary = "Get expense by ID", description = "Retrieve an expense by its ID. "
+            + "Supports conditional requests with the ETag and Last-Modified headers")
     @ApiResponse(responseCode = "200", description = "Expense retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "Expense not modified", content = @Content)
     @ApiResponse(responseCode = "404", description = "Expense not found", content = @Content)
     public ResponseEntity<ExpenseDTO> getExpenseById(
             @Parameter(description = "Expense ID", required = true)
-            @PathVariable Long id) {
-        return ResponseEntity.ok(expenseService.getExpenseById(id));
+            @PathVariable Long id,
+            @Parameter(description = "Recompute the status first when status recomputation is asynchronous, "
+                    + "to read the status resulting from your own commitment and payment writes")
+            @RequestParam(defaultValue = "false") boolean freshStatus,
+            @Parameter(hidden = true) WebRequest request) {
+        if (freshStatus) {
+            expenseService.refreshStatus(id);
+        }
+        return ConditionalResponses.ifModified(request, expenseService.getExpenseVersion(id),
+                () -> expenseService.getExpenseById(id));
+    }
+
+    /**
+     * Get an expense with its commitments and their payments.
+     *
+     * @param id The ID of the expense to retrieve
+     * @param freshStatus Whether to recompute a pending status first
+     * @return The expense with its commitments, each with its payments
+     */
+    @GetMapping("/{id}/tree")
+    @Operation(summary = "Get expense tree by ID",
+            description = "Retrieve an expense with its commitments and all their payments in a single response")
+    @ApiResponse(responseCode = "200", description = "Expense tree retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Expense not found", content = @Content)
+    public ResponseEntity<LedgerExpenseDTO> getExpenseTree(
+            @Parameter(description = "Expense ID", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Recompute the status first when status recomputation is asynchronous, "
+                    + "to read the status resulting from your own commitment and payment writes")
+            @RequestParam(defaultValue = "false") boolean freshStatus) {
+        if (freshStatus) {
+            expenseService.refreshStatus(id);
+        }
+        return ResponseEntity.ok(expenseService.getExpenseTree(id));
     }
 
     /**
@@ -72,6 +223,23 @@ public class ExpenseController {
         return ResponseEntity.ok(expenseService.getExpenseByProtocolNumber(protocolNumber));
     }
 
+    /**
+     * Look up several expenses by their protocol number.
+     *
+     * @param protocolNumbers The protocol numbers of the expenses to retrieve
+     * @return The expenses found in request order, and the protocol numbers not found
+     */
+    @PostMapping("/lookup")
+    @Operation(summary = "Look up expenses by protocol number",
+            description = "Retrieve several expenses by protocol number in one request, in request order, listing the protocol numbers not found")
+    @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "No protocol number given or too many protocol numbers", content = @Content)
+    public ResponseEntity<LookupResultDTO<ExpenseDTO, String>> getExpensesByProtocolNumbers(
+            @Parameter(description = "Expense protocol numbers", required = true)
+            @RequestBody List<String> protocolNumbers) {
+        return ResponseEntity.ok(expenseService.getExpensesByProtocolNumbers(protocolNumbers));
+    }
+
     /**
      * Get expenses by their status.
      *
@@ -104,6 +272,59 @@ public class ExpenseController {
         return new ResponseEntity<>(expenseService.createExpense(expenseDTO), HttpStatus.CREATED);
     }
 
+    /**
+     * Export every expense with its commitments and payments.
+     *
+     * @param format The export format, ndjson or csv
+     * @param delimiter The CSV field delimiter
+     * @return The ledger, streamed as it is read from the database
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export the ledger",
+            description = "Stream every expense with its commitments and payments, as NDJSON (one expense per line) "
+                    + "or CSV (one row per payment)")
+    @ApiResponse(responseCode = "200", description = "Ledger streamed successfully")
+    @ApiResponse(responseCode = "400", description = "Unsupported export format", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @Parameter(description = "Export format: ndjson or csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "CSV field delimiter")
+            @RequestParam(defaultValue = ",") char delimiter) {
+        ExpenseExportService.Format exportFormat = ExpenseExportService.Format.fromValue(format);
+        StreamingResponseBody body = output -> expenseExportService.exportLedger(output, exportFormat, delimiter);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("ledger." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Import expenses from a CSV file.
+     *
+     * @param file The CSV file, with a header naming the expense columns
+     * @param delimiter The field delimiter
+     * @return The import result with the rejected lines
+     * @throws IOException if the uploaded file cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import expenses from CSV",
+            description = "Import expenses from a CSV file with the columns protocolNumber, expenseType, protocolDate, "
+                    + "dueDate, creditor, description and amount, reporting the lines that were rejected")
+    @ApiResponse(responseCode = "200", description = "File processed; see the rejected lines")
+    @ApiResponse(responseCode = "400", description = "Invalid or unreadable file", content = @Content)
+    public ResponseEntity<ImportResultDTO> importExpenses(
+            @Parameter(description = "CSV file", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Field delimiter")
+            @RequestParam(defaultValue = ",") char delimiter) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(expenseImportService.importExpenses(input, delimiter));
+        }
+    }
+
     /**
      * Update an existing expense.
      *
@@ -0,0 +1,72 @@
+package com.sop.financialcontrol.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * REST controller receiving the outbox events posted by the HTTP sink, for local development.
+ * It keeps the most recent events in memory and ignores the IDs it has already received, as an
+ * idempotent consumer of the at-least-once delivery would.
+ */
+@RestController
+@RequestMapping("/outbox/stub/events")
+@ConditionalOnProperty(name = "app.outbox.http.stub-enabled", havingValue = "true")
+@Tag(name = "Outbox stub", description = "Local receiver of the outbox HTTP sink")
+public class OutboxStubController {
+
+    private static final int MAX_RETAINED_EVENTS = 1000;
+
+    private final Deque<JsonNode> received = new ArrayDeque<>();
+    private long lastReceivedId;
+
+    /**
+     * Receive a batch of outbox events.
+     *
+     * @param events The events, in ID order
+     * @return An empty response
+     */
+    @PostMapping
+    @Operation(summary = "Receive outbox events", description = "Accept a batch posted by the outbox HTTP sink")
+    @ApiResponse(responseCode = "204", description = "Events received")
+    public synchronized ResponseEntity<Void> receive(@RequestBody List<JsonNode> events) {
+        for (JsonNode event : events) {
+            // Events delivered again after a failure are skipped
+            long id = event.path("id").asLong();
+            if (id <= lastReceivedId) {
+                continue;
+            }
+            lastReceivedId = id;
+            received.addLast(event);
+            if (received.size() > MAX_RETAINED_EVENTS) {
+                received.removeFirst();
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Get the most recent events received.
+     *
+     * @return The events, in ID order
+     */
+    @GetMapping
+    @Operation(summary = "Get received outbox events", description = "Retrieve the most recent events received by the stub")
+    @ApiResponse(responseCode = "200", description = "Events retrieved successfully")
+    public synchronized ResponseEntity<List<JsonNode>> getReceived() {
+        return ResponseEntity.ok(new ArrayList<>(received));
+    }
+}
@@ -1,5 +1,8 @@
 package com.sop.financialcontrol.controller;
 
+import com.sop.financialcontrol.dto.BatchResultDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
 import com.sop.financialcontrol.dto.PaymentDTO;
 import com.sop.financialcontrol.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -28,31 +32,48 @@ public class PaymentController {
     private final PaymentService paymentService;
 
     /**
-     * Get all payments.
+     * Get a page of payments.
      *
-     * @return A list of all payments
+     * @param cursor The cursor returned by the previous page
+     * @param size The page size
+     * @param request The current request, checked for If-None-Match and If-Modified-Since
+     * @return A page of payments with the cursor for the next page, or 304 if the page has not changed
      */
     @GetMapping
-    @Operation(summary = "Get all payments", description = "Retrieve a list of all payments")
+    @Operation(summary = "Get all payments", description = "Retrieve a page of payments ordered by ID, using cursor-based pagination. "
+            + "Supports conditional requests with the ETag and Last-Modified headers")
     @ApiResponse(responseCode = "200", description = "Payments retrieved successfully")
-    public ResponseEntity<List<PaymentDTO>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    @ApiResponse(responseCode = "304", description = "Page not modified", content = @Content)
+    @ApiResponse(responseCode = "400", description = "Invalid pagination cursor", content = @Content)
+    public ResponseEntity<CursorPageDTO<PaymentDTO>> getAllPayments(
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer size,
+            @Parameter(hidden = true) WebRequest request) {
+        return ConditionalResponses.ifModified(request, paymentService.getPaymentPageVersion(cursor, size),
+                () -> paymentService.getAllPayments(cursor, size));
     }
 
     /**
      * Get a payment by its ID.
      *
      * @param id The ID of the payment to retrieve
-     * @return The payment with the given ID
+     * @param request The current request, checked for If-None-Match and If-Modified-Since
+     * @return The payment with the given ID, or 304 if it has not changed
      */
     @GetMapping("/{id}")
-    @Operation(summary = "Get payment by ID", description = "Retrieve a payment by its ID")
+    @Operation(summary = "Get payment by ID", description = "Retrieve a payment by its ID. "
+            + "Supports conditional requests with the ETag and Last-Modified headers")
     @ApiResponse(responseCode = "200", description = "Payment retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "Payment not modified", content = @Content)
     @ApiResponse(responseCode = "404", description = "Payment not found", content = @Content)
     public ResponseEntity<PaymentDTO> getPaymentById(
             @Parameter(description = "Payment ID", required = true)
-            @PathVariable Long id) {
-        return ResponseEntity.ok(paymentService.getPaymentById(id));
+            @PathVariable Long id,
+            @Parameter(hidden = true) WebRequest request) {
+        return ConditionalResponses.ifModified(request, paymentService.getPaymentVersion(id),
+                () -> paymentService.getPaymentById(id));
     }
 
     /**
@@ -71,6 +92,23 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getPaymentByPaymentNumber(paymentNumber));
     }
 
+    /**
+     * Look up several payments by their payment number.
+     *
+     * @param paymentNumbers The payment numbers of the payments to retrieve
+     * @return The payments found in request order, and the payment numbers not found
+     */
+    @PostMapping("/lookup")
+    @Operation(summary = "Look up payments by payment number",
+            description = "Retrieve several payments by payment number in one request, in request order, listing the payment numbers not found")
+    @ApiResponse(responseCode = "200", description = "Payments retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "No payment number given or too many payment numbers", content = @Content)
+    public ResponseEntity<LookupResultDTO<PaymentDTO, String>> getPaymentsByPaymentNumbers(
+            @Parameter(description = "Payment numbers", required = true)
+            @RequestBody List<String> paymentNumbers) {
+        return ResponseEntity.ok(paymentService.getPaymentsByPaymentNumbers(paymentNumbers));
+    }
+
     /**
      * Get all payments for a commitment.
      *
@@ -105,6 +143,22 @@ public class PaymentController {
         return new ResponseEntity<>(paymentService.createPayment(paymentDTO), HttpStatus.CREATED);
     }
 
+    /**
+     * Create a batch of payments.
+     *
+     * @param paymentDTOs The payment data to create
+     * @return The result of each item, in request order
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Create payments in batch", description = "Create several payments in one request, reporting the result of each item")
+    @ApiResponse(responseCode = "200", description = "Batch processed; see the result of each item")
+    @ApiResponse(responseCode = "400", description = "Batch exceeds the maximum size", content = @Content)
+    public ResponseEntity<BatchResultDTO<PaymentDTO>> createPayments(
+            @Parameter(description = "Payment data", required = true)
+            @RequestBody List<PaymentDTO> paymentDTOs) {
+        return ResponseEntity.ok(paymentService.createPayments(paymentDTOs));
+    }
+
     /**
      * Update an existing payment.
      *
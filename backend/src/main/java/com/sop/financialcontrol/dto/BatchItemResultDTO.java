@@ -0,0 +1,29 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of a single item of a batch request.
+ *
+ * @param <T> The type of the created resource
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO<T> {
+
+    // Position of the item in the request array
+    private int index;
+
+    private boolean success;
+
+    // The created resource, null when the item failed
+    private T data;
+
+    // The reason the item was rejected, null when the item succeeded
+    private String error;
+}
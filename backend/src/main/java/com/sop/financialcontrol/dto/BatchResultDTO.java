@@ -0,0 +1,28 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a batch request, with one result per request item in request order.
+ *
+ * @param <T> The type of the created resources
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO<T> {
+
+    private int total;
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BatchItemResultDTO<T>> items;
+}
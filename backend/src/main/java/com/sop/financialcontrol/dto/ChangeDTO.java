@@ -0,0 +1,42 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.sop.financialcontrol.model.ChangeEntityType;
+import com.sop.financialcontrol.model.ChangeOperation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one entry of the change feed.
+ * Upserts carry the current state of the entity in the field matching its type; deletes are
+ * tombstones carrying only the ID and natural key.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeDTO {
+
+    private long sequence;
+
+    private ChangeEntityType entityType;
+
+    private Long entityId;
+
+    // Protocol, commitment or payment number of the entity
+    private String entityKey;
+
+    private ChangeOperation operation;
+
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss")
+    private LocalDateTime changedAt;
+
+    // Current state of the entity, set for upserts of the matching type only
+    private ExpenseDTO expense;
+    private CommitmentDTO commitment;
+    private PaymentDTO payment;
+}
@@ -0,0 +1,30 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of the change feed.
+ * The next page, or the next sync, is requested by passing {@code watermark} back as the {@code since} parameter.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedDTO {
+
+    // Changes ordered by sequence number
+    private List<ChangeDTO> changes;
+
+    private int size;
+
+    // Whether more changes are available right away
+    private boolean hasMore;
+
+    // Sequence number of the last change read, to be passed back as since
+    private long watermark;
+}
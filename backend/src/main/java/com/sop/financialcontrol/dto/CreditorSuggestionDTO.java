@@ -0,0 +1,20 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a creditor suggested by the autocomplete.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditorSuggestionDTO {
+
+    private String creditor;
+
+    private long expenseCount;
+}
@@ -0,0 +1,30 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a single page of a cursor-paginated listing.
+ * The next page is requested by passing {@code nextCursor} back as the {@code cursor} parameter.
+ *
+ * @param <T> The type of the page elements
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    // Opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+}
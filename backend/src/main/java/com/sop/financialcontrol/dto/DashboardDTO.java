@@ -0,0 +1,40 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the dashboard summary of the ledger.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+
+    // The day the overdue amounts are computed against
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate asOf;
+
+    // One entry per expense status, in declaration order
+    private List<DashboardTotalDTO> totalsByStatus;
+
+    // One entry per expense type, in declaration order
+    private List<DashboardTotalDTO> totalsByType;
+
+    // Number of unpaid expenses due before asOf
+    private long overdueCount;
+
+    // Amount still to be paid on the unpaid expenses due before asOf
+    private BigDecimal overdueAmount;
+
+    // Committed and paid amounts per month, oldest first, ending with the current month
+    private List<MonthlyFlowDTO> monthlyFlows;
+}
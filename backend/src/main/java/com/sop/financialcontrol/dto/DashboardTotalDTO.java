@@ -0,0 +1,29 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for the totals of a group of expenses shown on the dashboard.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardTotalDTO {
+
+    // The status or expense type the expenses are grouped by
+    private String key;
+
+    private long expenseCount;
+
+    private BigDecimal amount;
+
+    private BigDecimal totalCommitted;
+
+    private BigDecimal totalPaid;
+}
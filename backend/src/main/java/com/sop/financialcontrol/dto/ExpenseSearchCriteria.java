@@ -0,0 +1,46 @@
+package com.sop.financialcontrol.dto;
+
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO holding the optional filters of an expense search. Every filter that is set must match.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseSearchCriteria {
+
+    private ExpenseStatus status;
+
+    private ExpenseType expenseType;
+
+    // Case-insensitive partial match
+    private String creditor;
+
+    // Inclusive ranges; either bound may be omitted
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
+    private LocalDate dueDateFrom;
+
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
+    private LocalDate dueDateTo;
+
+    private BigDecimal amountMin;
+
+    private BigDecimal amountMax;
+
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
+    private LocalDate protocolDateFrom;
+
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
+    private LocalDate protocolDateTo;
+}
@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an expense found by a full-text search, with its relevance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseTextMatchDTO {
+
+    @JsonUnwrapped
+    private ExpenseDTO expense;
+
+    // Higher is more relevant; only comparable between results of the same search
+    private double rank;
+}
@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing a line of an import file that was rejected.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErrorDTO {
+
+    // Line of the file where the rejected record starts
+    private int line;
+
+    private String protocolNumber;
+
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO summarizing the outcome of a file import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+
+    private long totalRows;
+
+    private long imported;
+
+    private long failed;
+
+    // Rejected lines ordered by line number, limited to the configured maximum
+    private List<ImportErrorDTO> errors;
+
+    // Whether more lines were rejected than are listed in errors
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,26 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a commitment with its payments (ledger export and expense tree).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCommitmentDTO {
+
+    @JsonUnwrapped
+    private CommitmentDTO commitment;
+
+    @Builder.Default
+    private List<PaymentDTO> payments = new ArrayList<>();
+}
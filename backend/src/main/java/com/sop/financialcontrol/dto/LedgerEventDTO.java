@@ -0,0 +1,49 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.LedgerEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an event of the ledger event stream, published once the change has been committed.
+ * Every event carries the expense it concerns, with its status after the change.
+ */
+@Data
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEventDTO {
+
+    private LedgerEventType type;
+
+    // Change feed sequence number of the entity the event is about; clients can resume from the change feed
+    private long sequence;
+
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss")
+    private LocalDateTime occurredAt;
+
+    private Long expenseId;
+    private String protocolNumber;
+    private ExpenseType expenseType;
+    private ExpenseStatus status;
+
+    // Status before the change, for status transitions
+    private ExpenseStatus previousStatus;
+
+    // The new commitment or payment, for creations
+    private Long commitmentId;
+    private String commitmentNumber;
+    private Long paymentId;
+    private String paymentNumber;
+    private BigDecimal amount;
+}
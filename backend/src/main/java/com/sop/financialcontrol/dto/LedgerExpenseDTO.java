@@ -0,0 +1,26 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for an expense with its commitments and their payments (ledger export and expense tree).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerExpenseDTO {
+
+    @JsonUnwrapped
+    private ExpenseDTO expense;
+
+    @Builder.Default
+    private List<LedgerCommitmentDTO> commitments = new ArrayList<>();
+}
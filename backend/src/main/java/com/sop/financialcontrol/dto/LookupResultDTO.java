@@ -0,0 +1,25 @@
+package com.sop.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a lookup by key, with the records found in request order and the keys not found.
+ *
+ * @param <T> The type of the records
+ * @param <K> The type of the keys
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupResultDTO<T, K> {
+
+    private List<T> items;
+
+    private List<K> missing;
+}
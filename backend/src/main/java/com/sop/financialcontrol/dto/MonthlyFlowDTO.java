@@ -0,0 +1,31 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * DTO for the amounts committed and paid in a month, by commitment and payment date.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyFlowDTO {
+
+    @JsonFormat(pattern = "yyyy-MM")
+    private YearMonth month;
+
+    private long commitmentCount;
+
+    private BigDecimal committedAmount;
+
+    private long paymentCount;
+
+    private BigDecimal paidAmount;
+}
@@ -0,0 +1,41 @@
+package com.sop.financialcontrol.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.sop.financialcontrol.model.ChangeEntityType;
+import com.sop.financialcontrol.model.DomainEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a domain event delivered by the outbox relay.
+ * Delivery is at least once: consumers must ignore the IDs they have already processed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventDTO {
+
+    // Increasing in delivery order
+    private long id;
+
+    private DomainEventType type;
+
+    private ChangeEntityType aggregateType;
+
+    private Long aggregateId;
+
+    private String aggregateKey;
+
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss")
+    private LocalDateTime occurredAt;
+
+    // The expense, commitment or payment DTO after the change, or its ID and key for deletes
+    @JsonRawValue
+    private String payload;
+}
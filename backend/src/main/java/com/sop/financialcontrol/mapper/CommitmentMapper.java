@@ -5,13 +5,12 @@ import com.sop.financialcontrol.model.Commitment;
 import com.sop.financialcontrol.model.Expense;
 import org.mapstruct.*;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 /**
  * Mapper for converting between Commitment entity and CommitmentDTO.
  */
-@Mapper(componentModel = "spring", uses = {PaymentMapper.class})
+@Mapper(componentModel = "spring", uses = {PaymentMapper.class}, builder = @Builder(disableBuilder = true))
 public interface CommitmentMapper {
 
     /**
@@ -23,9 +22,8 @@ public interface CommitmentMapper {
     @Mapping(target = "expenseId", source = "expense.id")
     @Mapping(target = "expenseProtocolNumber", source = "expense.protocolNumber")
     @Mapping(target = "expenseAmount", source = "expense.amount")
-    @Mapping(target = "totalPaidAmount", ignore = true)
+    @Mapping(target = "totalPaidAmount", source = "totalPaid")
     @Mapping(target = "remainingAmount", ignore = true)
-    @Mapping(target = "paymentCount", expression = "java(commitment.getPayments().size())")
     CommitmentDTO toDto(Commitment commitment);
 
     /**
@@ -35,7 +33,11 @@ public interface CommitmentMapper {
      * @param expense The associated Expense entity
      * @return The resulting Commitment entity
      */
+    @Mapping(target = "id", source = "commitmentDTO.id")
+    @Mapping(target = "amount", source = "commitmentDTO.amount")
     @Mapping(target = "expense", source = "expense")
+    @Mapping(target = "totalPaid", ignore = true)
+    @Mapping(target = "paymentCount", ignore = true)
     @Mapping(target = "payments", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
@@ -58,6 +60,8 @@ public interface CommitmentMapper {
      */
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "expense", ignore = true)
+    @Mapping(target = "totalPaid", ignore = true)
+    @Mapping(target = "paymentCount", ignore = true)
     @Mapping(target = "payments", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
@@ -71,9 +75,6 @@ public interface CommitmentMapper {
      */
     @AfterMapping
     default void calculateAdditionalFields(@MappingTarget CommitmentDTO commitmentDTO, Commitment commitment) {
-        BigDecimal totalPaid = commitment.getTotalPaidAmount();
-        
-        commitmentDTO.setTotalPaidAmount(totalPaid);
-        commitmentDTO.setRemainingAmount(commitment.getAmount().subtract(totalPaid));
+        commitmentDTO.setRemainingAmount(commitment.getAmount().subtract(commitment.getTotalPaid()));
     }
 }
\ No newline at end of file
@@ -4,13 +4,12 @@ import com.sop.financialcontrol.dto.ExpenseDTO;
 import com.sop.financialcontrol.model.Expense;
 import org.mapstruct.*;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 /**
  * Mapper for converting between Expense entity and ExpenseDTO.
  */
-@Mapper(componentModel = "spring", uses = {CommitmentMapper.class})
+@Mapper(componentModel = "spring", uses = {CommitmentMapper.class}, builder = @Builder(disableBuilder = true))
 public interface ExpenseMapper {
 
     /**
@@ -19,10 +18,9 @@ public interface ExpenseMapper {
      * @param expense The Expense entity to convert
      * @return The resulting ExpenseDTO
      */
-    @Mapping(target = "totalCommittedAmount", ignore = true)
-    @Mapping(target = "totalPaidAmount", ignore = true)
+    @Mapping(target = "totalCommittedAmount", source = "totalCommitted")
+    @Mapping(target = "totalPaidAmount", source = "totalPaid")
     @Mapping(target = "remainingAmount", ignore = true)
-    @Mapping(target = "commitmentCount", expression = "java(expense.getCommitments().size())")
     ExpenseDTO toDto(Expense expense);
 
     /**
@@ -31,9 +29,13 @@ public interface ExpenseMapper {
      * @param expenseDTO The ExpenseDTO to convert
      * @return The resulting Expense entity
      */
+    @Mapping(target = "totalCommitted", ignore = true)
+    @Mapping(target = "totalPaid", ignore = true)
+    @Mapping(target = "commitmentCount", ignore = true)
     @Mapping(target = "commitments", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "loadedStatus", ignore = true)
     Expense toEntity(ExpenseDTO expenseDTO);
 
     /**
@@ -52,9 +54,13 @@ public interface ExpenseMapper {
      * @return The updated Expense entity
      */
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "totalCommitted", ignore = true)
+    @Mapping(target = "totalPaid", ignore = true)
+    @Mapping(target = "commitmentCount", ignore = true)
     @Mapping(target = "commitments", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "loadedStatus", ignore = true)
     Expense updateEntityFromDto(ExpenseDTO expenseDTO, @MappingTarget Expense expense);
 
     /**
@@ -65,11 +71,6 @@ public interface ExpenseMapper {
      */
     @AfterMapping
     default void calculateAdditionalFields(@MappingTarget ExpenseDTO expenseDTO, Expense expense) {
-        BigDecimal totalCommitted = expense.getTotalCommittedAmount();
-        BigDecimal totalPaid = expense.getTotalPaidAmount();
-        
-        expenseDTO.setTotalCommittedAmount(totalCommitted);
-        expenseDTO.setTotalPaidAmount(totalPaid);
-        expenseDTO.setRemainingAmount(expense.getAmount().subtract(totalPaid));
+        expenseDTO.setRemainingAmount(expense.getAmount().subtract(expense.getTotalPaid()));
     }
 }
\ No newline at end of file
@@ -33,6 +33,9 @@ public interface PaymentMapper {
      * @param commitment The associated Commitment entity
      * @return The resulting Payment entity
      */
+    @Mapping(target = "id", source = "paymentDTO.id")
+    @Mapping(target = "amount", source = "paymentDTO.amount")
+    @Mapping(target = "note", source = "paymentDTO.note")
     @Mapping(target = "commitment", source = "commitment")
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
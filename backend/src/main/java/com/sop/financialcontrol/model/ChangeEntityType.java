@@ -0,0 +1,10 @@
+package com.sop.financialcontrol.model;
+
+/**
+ * Enum representing the kinds of entities published in the change feed.
+ */
+public enum ChangeEntityType {
+    EXPENSE,
+    COMMITMENT,
+    PAYMENT
+}
@@ -0,0 +1,61 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the latest change of an expense, commitment or payment.
+ * The log is compacted: each entity has a single entry, replaced with a new sequence number on every
+ * change, so reading the log from sequence 0 returns every live entity once.
+ */
+@Entity
+@Table(name = "change_log")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry implements Persistable<Long> {
+
+    @Id
+    @Column(name = "sequence", nullable = false)
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private ChangeEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 10)
+    private ChangeOperation operation;
+
+    // Protocol, commitment or payment number, so tombstones can be matched by natural key
+    @Column(name = "entity_key", length = 50)
+    private String entityKey;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    @Override
+    public Long getId() {
+        return sequence;
+    }
+
+    /**
+     * Entries are never updated, only inserted and deleted, so saving never needs to look them up first.
+     *
+     * @return Always true
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
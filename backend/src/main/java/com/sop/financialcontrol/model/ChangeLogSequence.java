@@ -0,0 +1,32 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Entity representing the single row holding the state of the change log sequence that is not
+ * kept by the change_log_seq database sequence itself.
+ */
+@Entity
+@Table(name = "change_log_sequence")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogSequence {
+
+    // The ID of the single row
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    // Highest sequence number of the purged tombstones; older watermarks may have missed deletes
+    @Column(name = "purged_through", nullable = false)
+    private long purgedThrough;
+}
@@ -0,0 +1,11 @@
+package com.sop.financialcontrol.model;
+
+/**
+ * Enum representing the kinds of changes published in the change feed.
+ */
+public enum ChangeOperation {
+    // The entity was created or updated; the feed carries its current state
+    UPSERT,
+    // The entity was deleted; the feed carries a tombstone
+    DELETE
+}
@@ -28,8 +28,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Commitment {
 
+    // Sequence with a pooled optimizer, so that inserts can be batched by JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commitments_id_seq")
+    @SequenceGenerator(name = "commitments_id_seq", sequenceName = "commitments_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -53,6 +55,15 @@ public class Commitment {
     @JoinColumn(name = "expense_id", nullable = false)
     private Expense expense;
 
+    // Running totals maintained incrementally by the payment write paths
+    @Builder.Default
+    @Column(name = "total_paid", nullable = false)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "payment_count", nullable = false)
+    private int paymentCount = 0;
+
     @OneToMany(mappedBy = "commitment", cascade = CascadeType.ALL, orphanRemoval = false)
     private List<Payment> payments = new ArrayList<>();
 
@@ -65,15 +76,14 @@ public class Commitment {
     private LocalDateTime updatedAt;
 
     /**
-     * Calculate the total paid amount for this commitment.
+     * Apply a change in the paid amount of this commitment.
      *
-     * @return The sum of all payment amounts
+     * @param amountDelta The change in the total paid amount
+     * @param countDelta The change in the number of payments
      */
-    @Transient
-    public BigDecimal getTotalPaidAmount() {
-        return payments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void applyPaymentDelta(BigDecimal amountDelta, int countDelta) {
+        this.totalPaid = this.totalPaid.add(amountDelta);
+        this.paymentCount += countDelta;
     }
 
     /**
@@ -83,6 +93,6 @@ public class Commitment {
      */
     @Transient
     public boolean hasPayments() {
-        return !payments.isEmpty();
+        return paymentCount > 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.sop.financialcontrol.model;
+
+/**
+ * Enum representing the kinds of domain events written to the outbox.
+ */
+public enum DomainEventType {
+    EXPENSE_CREATED,
+    EXPENSE_UPDATED,
+    EXPENSE_DELETED,
+    COMMITMENT_CREATED,
+    COMMITMENT_UPDATED,
+    COMMITMENT_DELETED,
+    PAYMENT_CREATED,
+    PAYMENT_UPDATED,
+    PAYMENT_DELETED;
+
+    /**
+     * Get the event type of a change.
+     *
+     * @param entityType The type of the changed entity
+     * @param operation The operation
+     * @param created Whether the entity was created
+     * @return The event type
+     */
+    public static DomainEventType of(ChangeEntityType entityType, ChangeOperation operation, boolean created) {
+        String suffix = operation == ChangeOperation.DELETE ? "_DELETED" : created ? "_CREATED" : "_UPDATED";
+        return valueOf(entityType.name() + suffix);
+    }
+}
@@ -3,7 +3,9 @@ package com.sop.financialcontrol.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -28,8 +30,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Expense {
 
+    // Sequence with a pooled optimizer, so that inserts can be batched by JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_id_seq")
+    @SequenceGenerator(name = "expenses_id_seq", sequenceName = "expenses_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -66,6 +70,19 @@ public class Expense {
     @Column(name = "status")
     private ExpenseStatus status;
 
+    // Running totals maintained incrementally by the commitment and payment write paths
+    @Builder.Default
+    @Column(name = "total_committed", nullable = false)
+    private BigDecimal totalCommitted = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "total_paid", nullable = false)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "commitment_count", nullable = false)
+    private int commitmentCount = 0;
+
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, orphanRemoval = false)
     private List<Commitment> commitments = new ArrayList<>();
 
@@ -77,48 +94,68 @@ public class Expense {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Status when the expense was loaded, to detect status transitions at commit; null for new expenses
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ExpenseStatus loadedStatus;
+
+    /**
+     * Remember the status read from the database.
+     */
+    @PostLoad
+    void rememberLoadedStatus() {
+        this.loadedStatus = status;
+    }
+
     /**
-     * Calculate the total committed amount for this expense.
+     * Apply a change in the committed amount of this expense.
      *
-     * @return The sum of all commitment amounts
+     * @param amountDelta The change in the total committed amount
+     * @param countDelta The change in the number of commitments
      */
-    @Transient
-    public BigDecimal getTotalCommittedAmount() {
-        return commitments.stream()
-                .map(Commitment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void applyCommitmentDelta(BigDecimal amountDelta, int countDelta) {
+        this.totalCommitted = this.totalCommitted.add(amountDelta);
+        this.commitmentCount += countDelta;
     }
 
     /**
-     * Calculate the total paid amount for this expense.
+     * Apply a change in the paid amount of this expense.
      *
-     * @return The sum of all payment amounts across all commitments
+     * @param amountDelta The change in the total paid amount
      */
-    @Transient
-    public BigDecimal getTotalPaidAmount() {
-        return commitments.stream()
-                .flatMap(commitment -> commitment.getPayments().stream())
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void applyPaymentDelta(BigDecimal amountDelta) {
+        this.totalPaid = this.totalPaid.add(amountDelta);
     }
 
     /**
-     * Update the status of the expense based on its commitments and payments.
+     * Update the status of the expense based on its running commitment and payment totals.
      */
     public void updateStatus() {
-        BigDecimal committedAmount = getTotalCommittedAmount();
-        BigDecimal paidAmount = getTotalPaidAmount();
-
-        if (commitments.isEmpty()) {
-            this.status = ExpenseStatus.AWAITING_COMMITMENT;
-        } else if (committedAmount.compareTo(amount) < 0) {
-            this.status = ExpenseStatus.PARTIALLY_COMMITTED;
-        } else if (paidAmount.compareTo(BigDecimal.ZERO) == 0) {
-            this.status = ExpenseStatus.AWAITING_PAYMENT;
-        } else if (paidAmount.compareTo(amount) < 0) {
-            this.status = ExpenseStatus.PARTIALLY_PAID;
+        this.status = statusOf(amount, commitmentCount, totalCommitted, totalPaid);
+    }
+
+    /**
+     * Derive the status of an expense from its commitment and payment totals.
+     *
+     * @param amount The expense amount
+     * @param commitmentCount The number of commitments
+     * @param totalCommitted The total committed amount
+     * @param totalPaid The total paid amount
+     * @return The status
+     */
+    public static ExpenseStatus statusOf(BigDecimal amount, int commitmentCount, BigDecimal totalCommitted,
+                                         BigDecimal totalPaid) {
+        if (commitmentCount == 0) {
+            return ExpenseStatus.AWAITING_COMMITMENT;
+        } else if (totalCommitted.compareTo(amount) < 0) {
+            return ExpenseStatus.PARTIALLY_COMMITTED;
+        } else if (totalPaid.compareTo(BigDecimal.ZERO) == 0) {
+            return ExpenseStatus.AWAITING_PAYMENT;
+        } else if (totalPaid.compareTo(amount) < 0) {
+            return ExpenseStatus.PARTIALLY_PAID;
         } else {
-            this.status = ExpenseStatus.PAID;
+            return ExpenseStatus.PAID;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entity representing the totals of the expenses due on a day, with a given type and status.
+ * Rows are maintained incrementally by the write paths, so the dashboard reads a few rows per day
+ * instead of aggregating the whole ledger. The totals of a key are split over a few shard rows,
+ * summed when read, so concurrent writers rarely wait on the same row.
+ */
+@Entity
+@Table(name = "expense_rollups")
+@IdClass(ExpenseRollupId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseRollup {
+
+    @Id
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "expense_type", nullable = false, length = 30)
+    private ExpenseType expenseType;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 30)
+    private ExpenseStatus status;
+
+    @Id
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    @Column(name = "amount", nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "total_committed", nullable = false)
+    private BigDecimal totalCommitted;
+
+    @Column(name = "total_paid", nullable = false)
+    private BigDecimal totalPaid;
+}
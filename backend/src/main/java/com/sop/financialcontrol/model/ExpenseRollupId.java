@@ -0,0 +1,27 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Composite key of an {@link ExpenseRollup}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate dueDate;
+
+    private ExpenseType expenseType;
+
+    private ExpenseStatus status;
+
+    private int shard;
+}
@@ -0,0 +1,11 @@
+package com.sop.financialcontrol.model;
+
+/**
+ * Enum representing the kinds of events pushed to the ledger event stream.
+ */
+public enum LedgerEventType {
+    // The status of an existing expense changed
+    EXPENSE_STATUS_CHANGED,
+    COMMITMENT_CREATED,
+    PAYMENT_CREATED
+}
@@ -0,0 +1,45 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entity representing the amounts committed and paid on a day, by commitment and payment date.
+ * Rows are maintained incrementally by the write paths. The amounts of a day are split over a few
+ * shard rows, summed when read, so the writers of the current day rarely wait on the same row.
+ */
+@Entity
+@Table(name = "ledger_flow_rollups")
+@IdClass(LedgerFlowRollupId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerFlowRollup {
+
+    @Id
+    @Column(name = "flow_date", nullable = false)
+    private LocalDate flowDate;
+
+    @Id
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    @Column(name = "commitment_count", nullable = false)
+    private long commitmentCount;
+
+    @Column(name = "committed_amount", nullable = false)
+    private BigDecimal committedAmount;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    @Column(name = "paid_amount", nullable = false)
+    private BigDecimal paidAmount;
+}
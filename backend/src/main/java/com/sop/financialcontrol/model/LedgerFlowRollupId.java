@@ -0,0 +1,23 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Composite key of a {@link LedgerFlowRollup}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerFlowRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate flowDate;
+
+    private int shard;
+}
@@ -0,0 +1,33 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing how far the outbox has been delivered to a sink.
+ * The relay locks the row while it delivers a batch, so a single node delivers to a sink at a time.
+ */
+@Entity
+@Table(name = "outbox_cursors")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxCursor {
+
+    @Id
+    @Column(name = "sink", nullable = false, length = 50)
+    private String sink;
+
+    // ID of the last event delivered to the sink
+    @Column(name = "delivered_through", nullable = false)
+    private long deliveredThrough;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
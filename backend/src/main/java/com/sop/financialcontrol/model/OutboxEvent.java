@@ -0,0 +1,60 @@
+package com.sop.financialcontrol.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a domain event written in the transaction of the change it describes.
+ * Its ID is the change log sequence number of the change, so the relay can deliver the events in
+ * order by reading past the last delivered ID, up to the safe sequence number.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent implements Persistable<Long> {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private DomainEventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private ChangeEntityType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // Protocol, commitment or payment number of the aggregate
+    @Column(name = "aggregate_key", length = 50)
+    private String aggregateKey;
+
+    // JSON state of the aggregate after the change, or its ID and key for deletes
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    /**
+     * Events are never updated, only inserted and purged, so saving never needs to look them up first.
+     *
+     * @return Always true
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -26,8 +26,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Payment {
 
+    // Sequence with a pooled optimizer, so that inserts can be batched by JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -0,0 +1,24 @@
+package com.sop.financialcontrol.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for an aggregated amount (SUM and COUNT) of child records grouped by their parent ID.
+ */
+public interface AmountTotal {
+
+    /**
+     * @return The ID of the parent the children are grouped by
+     */
+    Long getParentId();
+
+    /**
+     * @return The sum of the children amounts
+     */
+    BigDecimal getTotalAmount();
+
+    /**
+     * @return The number of children
+     */
+    Long getItemCount();
+}
@@ -0,0 +1,74 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.ChangeEntityType;
+import com.sop.financialcontrol.model.ChangeLogEntry;
+import com.sop.financialcontrol.model.ChangeOperation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for ChangeLogEntry entity operations.
+ */
+@Repository
+public interface ChangeLogEntryRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    /**
+     * Find a page of change log entries in a sequence number range, ordered by sequence number.
+     *
+     * @param sequence The sequence number after which the page starts (exclusive)
+     * @param maxSequence The highest sequence number to return (inclusive)
+     * @param pageable The page limit
+     * @return The entries with sequence numbers in the range
+     */
+    List<ChangeLogEntry> findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(
+            Long sequence, Long maxSequence, Pageable pageable);
+
+    /**
+     * Find the highest sequence number in the change log.
+     *
+     * @return The highest sequence number, or null if the change log is empty
+     */
+    @Query("SELECT MAX(e.sequence) FROM ChangeLogEntry e")
+    Long findMaxSequence();
+
+    /**
+     * Delete the entries of the given entities, before they are replaced with newer ones.
+     *
+     * @param entityType The entity type
+     * @param entityIds The entity IDs
+     * @return The number of entries deleted
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.entityType = :entityType AND e.entityId IN :entityIds")
+    int deleteByEntities(@Param("entityType") ChangeEntityType entityType, @Param("entityIds") Collection<Long> entityIds);
+
+    /**
+     * Find the highest sequence number of the entries of an operation changed before a time.
+     *
+     * @param operation The operation
+     * @param changedAt The time before which the entries changed (exclusive)
+     * @return The highest sequence number, or null if there are no such entries
+     */
+    @Query("SELECT MAX(e.sequence) FROM ChangeLogEntry e WHERE e.operation = :operation AND e.changedAt < :changedAt")
+    Long findMaxSequenceByOperationChangedBefore(@Param("operation") ChangeOperation operation,
+                                                 @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * Delete the entries of an operation up to a sequence number.
+     *
+     * @param operation The operation
+     * @param sequence The highest sequence number to delete (inclusive)
+     * @return The number of entries deleted
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.operation = :operation AND e.sequence <= :sequence")
+    int deleteByOperationUpTo(@Param("operation") ChangeOperation operation, @Param("sequence") long sequence);
+}
@@ -0,0 +1,45 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.ChangeLogSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for ChangeLogSequence entity operations.
+ */
+@Repository
+public interface ChangeLogSequenceRepository extends JpaRepository<ChangeLogSequence, Integer> {
+
+    /**
+     * Read the highest sequence number of the purged tombstones.
+     *
+     * @return The highest purged sequence number, or empty when the row does not exist yet
+     */
+    @Query("SELECT s.purgedThrough FROM ChangeLogSequence s WHERE s.id = " + ChangeLogSequence.SINGLETON_ID)
+    Optional<Long> findPurgedThrough();
+
+    /**
+     * Record that the tombstones up to a sequence number were purged.
+     *
+     * @param sequence The highest purged sequence number
+     * @return The number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE ChangeLogSequence s SET s.purgedThrough = :sequence "
+            + "WHERE s.id = " + ChangeLogSequence.SINGLETON_ID + " AND s.purgedThrough < :sequence")
+    int markPurgedThrough(@Param("sequence") long sequence);
+
+    /**
+     * Create the row, unless a concurrent transaction already created it.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO change_log_sequence (id, purged_through) VALUES ("
+            + ChangeLogSequence.SINGLETON_ID + ", 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent();
+}
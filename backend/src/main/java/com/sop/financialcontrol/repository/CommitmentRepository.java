@@ -1,12 +1,15 @@
 package com.sop.financialcontrol.repository;
 
 import com.sop.financialcontrol.model.Commitment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +19,40 @@ import java.util.Optional;
 @Repository
 public interface CommitmentRepository extends JpaRepository<Commitment, Long> {
 
+    /**
+     * Find a keyset page of commitments ordered by ID.
+     *
+     * @param id The ID after which the page starts (exclusive)
+     * @param pageable The page limit
+     * @return A list of commitments with IDs greater than the given ID
+     */
+    @EntityGraph(attributePaths = "expense")
+    List<Commitment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Fingerprint a commitment, without loading it.
+     *
+     * @param id The commitment ID
+     * @return The fingerprint; its item count is 0 if the commitment does not exist
+     */
+    @Query(value = "SELECT COUNT(*) AS itemCount, COALESCE(SUM(c.id), 0) AS idSum, MAX(GREATEST(c.updated_at, e.updated_at)) AS lastModified "
+            + "FROM commitments c JOIN expenses e ON e.id = c.expense_id WHERE c.id = :id",
+            nativeQuery = true)
+    VersionFingerprint fingerprintById(@Param("id") Long id);
+
+    /**
+     * Fingerprint a keyset page of commitments, reading the same rows as the page query (page size + 1).
+     *
+     * @param afterId The ID after which the page starts (exclusive)
+     * @param limit The number of rows of the page query
+     * @return The fingerprint of the page
+     */
+    @Query(value = "SELECT COUNT(*) AS itemCount, COALESCE(SUM(page.id), 0) AS idSum, MAX(page.last_modified) AS lastModified "
+            + "FROM (SELECT c.id, GREATEST(c.updated_at, e.updated_at) AS last_modified FROM commitments c JOIN expenses e ON e.id = c.expense_id "
+            + "WHERE c.id > :afterId ORDER BY c.id LIMIT :limit) page",
+            nativeQuery = true)
+    VersionFingerprint fingerprintPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
     /**
      * Find a commitment by its commitment number.
      *
@@ -24,6 +61,24 @@ public interface CommitmentRepository extends JpaRepository<Commitment, Long> {
      */
     Optional<Commitment> findByCommitmentNumber(String commitmentNumber);
 
+    /**
+     * Find the commitments with the given IDs, with their expenses.
+     *
+     * @param ids The commitment IDs
+     * @return The commitments found, in no particular order
+     */
+    @EntityGraph(attributePaths = "expense")
+    List<Commitment> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Find the commitments with the given commitment numbers, with their expenses.
+     *
+     * @param commitmentNumbers The commitment numbers
+     * @return The commitments found, in no particular order
+     */
+    @EntityGraph(attributePaths = "expense")
+    List<Commitment> findByCommitmentNumberIn(Collection<String> commitmentNumbers);
+
     /**
      * Check if a commitment with the given commitment number exists.
      *
@@ -32,14 +87,59 @@ public interface CommitmentRepository extends JpaRepository<Commitment, Long> {
      */
     boolean existsByCommitmentNumber(String commitmentNumber);
 
+    /**
+     * Find the commitment numbers of the commitments of an expense.
+     *
+     * @param expenseId The expense ID
+     * @return The commitment numbers
+     */
+    @Query("SELECT c.commitmentNumber FROM Commitment c WHERE c.expense.id = :expenseId")
+    List<String> findCommitmentNumbersByExpenseId(@Param("expenseId") Long expenseId);
+
+    /**
+     * Find the ID of the expense a commitment belongs to, without loading the commitment.
+     *
+     * @param commitmentId The commitment ID
+     * @return An Optional containing the expense ID if the commitment exists
+     */
+    @Query("SELECT c.expense.id FROM Commitment c WHERE c.id = :commitmentId")
+    Optional<Long> findExpenseIdById(@Param("commitmentId") Long commitmentId);
+
+    /**
+     * Find the IDs of the expenses the given commitments belong to.
+     *
+     * @param commitmentIds The commitment IDs
+     * @return The distinct expense IDs of the commitments that exist
+     */
+    @Query("SELECT DISTINCT c.expense.id FROM Commitment c WHERE c.id IN :commitmentIds")
+    List<Long> findExpenseIdsByIds(@Param("commitmentIds") Collection<Long> commitmentIds);
+
+    /**
+     * Find which of the given commitment numbers are already in use.
+     *
+     * @param commitmentNumbers The commitment numbers to check
+     * @return The commitment numbers that already exist
+     */
+    @Query("SELECT c.commitmentNumber FROM Commitment c WHERE c.commitmentNumber IN :commitmentNumbers")
+    List<String> findExistingCommitmentNumbers(@Param("commitmentNumbers") Collection<String> commitmentNumbers);
+
     /**
      * Find commitments by expense ID.
      *
      * @param expenseId The expense ID to search for
      * @return A list of commitments associated with the given expense
      */
+    @EntityGraph(attributePaths = "expense")
     List<Commitment> findByExpenseId(Long expenseId);
 
+    /**
+     * Count the commitments of an expense.
+     *
+     * @param expenseId The expense ID
+     * @return The number of commitments associated with the given expense
+     */
+    long countByExpenseId(Long expenseId);
+
     /**
      * Find commitments with commitment dates between the given dates.
      *
@@ -74,6 +174,17 @@ public interface CommitmentRepository extends JpaRepository<Commitment, Long> {
     @Query("SELECT COALESCE(SUM(c.amount), 0) FROM Commitment c WHERE c.expense.id = :expenseId")
     java.math.BigDecimal calculateTotalCommittedAmountForExpense(@Param("expenseId") Long expenseId);
 
+    /**
+     * Calculate the total committed amount and commitment count for each of the given expenses.
+     * Expenses without commitments are not included in the result.
+     *
+     * @param expenseIds The expense IDs
+     * @return The commitment totals grouped by expense ID
+     */
+    @Query("SELECT c.expense.id AS parentId, SUM(c.amount) AS totalAmount, COUNT(c) AS itemCount " +
+           "FROM Commitment c WHERE c.expense.id IN :expenseIds GROUP BY c.expense.id")
+    List<AmountTotal> sumAmountsByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
     /**
      * Check if a commitment has any associated payments.
      *
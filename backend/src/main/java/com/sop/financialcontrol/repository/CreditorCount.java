@@ -0,0 +1,17 @@
+package com.sop.financialcontrol.repository;
+
+/**
+ * Projection for the number of expenses of a creditor.
+ */
+public interface CreditorCount {
+
+    /**
+     * @return The creditor name
+     */
+    String getCreditor();
+
+    /**
+     * @return The number of expenses of the creditor
+     */
+    Long getExpenseCount();
+}
@@ -3,19 +3,81 @@ package com.sop.financialcontrol.repository;
 import com.sop.financialcontrol.model.Expense;
 import com.sop.financialcontrol.model.ExpenseStatus;
 import com.sop.financialcontrol.model.ExpenseType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Repository for Expense entity operations.
  */
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, ExpenseSearchRepository {
+
+    /**
+     * Find a keyset page of expenses ordered by ID.
+     *
+     * @param id The ID after which the page starts (exclusive)
+     * @param pageable The page limit
+     * @return A list of expenses with IDs greater than the given ID
+     */
+    List<Expense> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Fingerprint a expense, without loading it.
+     *
+     * @param id The expense ID
+     * @return The fingerprint; its item count is 0 if the expense does not exist
+     */
+    @Query(value = "SELECT COUNT(*) AS itemCount, COALESCE(SUM(e.id), 0) AS idSum, MAX(e.updated_at) AS lastModified "
+            + "FROM expenses e WHERE e.id = :id",
+            nativeQuery = true)
+    VersionFingerprint fingerprintById(@Param("id") Long id);
+
+    /**
+     * Fingerprint a keyset page of expenses, reading the same rows as the page query (page size + 1).
+     *
+     * @param afterId The ID after which the page starts (exclusive)
+     * @param limit The number of rows of the page query
+     * @return The fingerprint of the page
+     */
+    @Query(value = "SELECT COUNT(*) AS itemCount, COALESCE(SUM(page.id), 0) AS idSum, MAX(page.last_modified) AS lastModified "
+            + "FROM (SELECT e.id, e.updated_at AS last_modified FROM expenses e "
+            + "WHERE e.id > :afterId ORDER BY e.id LIMIT :limit) page",
+            nativeQuery = true)
+    VersionFingerprint fingerprintPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Stream every expense joined with its commitments and their payments.
+     * Rows are ordered by expense, commitment and payment ID, so the rows of an expense are contiguous.
+     * Results are read through a database cursor and are not tracked for changes; the caller must
+     * consume the stream inside a transaction and close it.
+     *
+     * @return A stream of rows holding the expense, the commitment or null, and the payment or null
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT e, c, p FROM Expense e LEFT JOIN e.commitments c LEFT JOIN c.payments p ORDER BY e.id, c.id, p.id")
+    Stream<Object[]> streamLedger();
 
     /**
      * Find an expense by its protocol number.
@@ -25,6 +87,78 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     Optional<Expense> findByProtocolNumber(String protocolNumber);
 
+    /**
+     * Find the expenses with the given IDs.
+     *
+     * @param ids The expense IDs
+     * @return The expenses found, in no particular order
+     */
+    List<Expense> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Find the expenses with the given protocol numbers.
+     *
+     * @param protocolNumbers The protocol numbers
+     * @return The expenses found, in no particular order
+     */
+    List<Expense> findByProtocolNumberIn(Collection<String> protocolNumbers);
+
+    /**
+     * Find an expense by its ID together with its commitments, in a single query.
+     *
+     * @param id The expense ID
+     * @return An Optional containing the expense with its commitments initialized if found
+     */
+    @EntityGraph(attributePaths = "commitments")
+    @Query("SELECT e FROM Expense e WHERE e.id = :id")
+    Optional<Expense> findWithCommitmentsById(@Param("id") Long id);
+
+    /**
+     * Find an expense by its ID and lock its row until the end of the transaction.
+     * Every mutation of an expense, its commitments or their payments takes this lock first,
+     * so balance checks and running totals are serialized per expense only.
+     *
+     * @param id The expense ID
+     * @return An Optional containing the locked expense if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Expense e WHERE e.id = :id")
+    Optional<Expense> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Find expenses by their IDs and lock their rows until the end of the transaction.
+     * Rows are locked in ID order so that concurrent batches cannot deadlock each other.
+     *
+     * @param ids The expense IDs
+     * @return A list of the locked expenses that exist, ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Expense e WHERE e.id IN :ids ORDER BY e.id")
+    List<Expense> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the expenses whose status does not match their running totals, for example because a
+     * deferred status recomputation was lost. Mirrors {@link Expense#statusOf}.
+     *
+     * @param awaitingCommitment The AWAITING_COMMITMENT status
+     * @param partiallyCommitted The PARTIALLY_COMMITTED status
+     * @param awaitingPayment The AWAITING_PAYMENT status
+     * @param partiallyPaid The PARTIALLY_PAID status
+     * @param paid The PAID status
+     * @return The IDs of the expenses with a stale status
+     */
+    @Query("SELECT e.id FROM Expense e WHERE e.status IS NULL "
+            + "OR (e.commitmentCount = 0 AND e.status <> :awaitingCommitment) "
+            + "OR (e.commitmentCount > 0 AND e.totalCommitted < e.amount AND e.status <> :partiallyCommitted) "
+            + "OR (e.commitmentCount > 0 AND e.totalCommitted >= e.amount AND e.totalPaid = 0 AND e.status <> :awaitingPayment) "
+            + "OR (e.commitmentCount > 0 AND e.totalCommitted >= e.amount AND e.totalPaid > 0 AND e.totalPaid < e.amount AND e.status <> :partiallyPaid) "
+            + "OR (e.commitmentCount > 0 AND e.totalCommitted >= e.amount AND e.totalPaid > 0 AND e.totalPaid >= e.amount AND e.status <> :paid)")
+    List<Long> findIdsWithStaleStatus(@Param("awaitingCommitment") ExpenseStatus awaitingCommitment,
+                                      @Param("partiallyCommitted") ExpenseStatus partiallyCommitted,
+                                      @Param("awaitingPayment") ExpenseStatus awaitingPayment,
+                                      @Param("partiallyPaid") ExpenseStatus partiallyPaid,
+                                      @Param("paid") ExpenseStatus paid);
+
     /**
      * Check if an expense with the given protocol number exists.
      *
@@ -33,6 +167,15 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     boolean existsByProtocolNumber(String protocolNumber);
 
+    /**
+     * Find which of the given protocol numbers are already in use.
+     *
+     * @param protocolNumbers The protocol numbers to check
+     * @return The protocol numbers that already exist
+     */
+    @Query("SELECT e.protocolNumber FROM Expense e WHERE e.protocolNumber IN :protocolNumbers")
+    List<String> findExistingProtocolNumbers(@Param("protocolNumbers") Collection<String> protocolNumbers);
+
     /**
      * Find expenses by their status.
      *
@@ -65,6 +208,14 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     List<Expense> findByCreditorContainingIgnoreCase(String creditor);
 
+    /**
+     * Count the expenses of each distinct creditor.
+     *
+     * @return The number of expenses of each creditor
+     */
+    @Query("SELECT e.creditor AS creditor, COUNT(e) AS expenseCount FROM Expense e GROUP BY e.creditor")
+    List<CreditorCount> countByCreditor();
+
     /**
      * Find expenses that have no associated commitments.
      *
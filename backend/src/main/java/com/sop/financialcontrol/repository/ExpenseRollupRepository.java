@@ -0,0 +1,81 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.ExpenseRollup;
+import com.sop.financialcontrol.model.ExpenseRollupId;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for ExpenseRollup entity operations.
+ */
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, ExpenseRollupId> {
+
+    /**
+     * Add a delta to an existing rollup row. The increment happens in the database, so concurrent
+     * transactions never overwrite each other.
+     *
+     * @param dueDate The due date of the row
+     * @param expenseType The expense type of the row
+     * @param status The expense status of the row
+     * @param shard The shard of the row
+     * @param expenseCount The change in the number of expenses
+     * @param amount The change in the expense amounts
+     * @param totalCommitted The change in the committed amounts
+     * @param totalPaid The change in the paid amounts
+     * @return The number of rows updated, 0 when the row does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE ExpenseRollup r SET r.expenseCount = r.expenseCount + :expenseCount, r.amount = r.amount + :amount, "
+            + "r.totalCommitted = r.totalCommitted + :totalCommitted, r.totalPaid = r.totalPaid + :totalPaid "
+            + "WHERE r.dueDate = :dueDate AND r.expenseType = :expenseType AND r.status = :status AND r.shard = :shard")
+    int addDelta(@Param("dueDate") LocalDate dueDate, @Param("expenseType") ExpenseType expenseType,
+                 @Param("status") ExpenseStatus status, @Param("shard") int shard, @Param("expenseCount") long expenseCount,
+                 @Param("amount") BigDecimal amount, @Param("totalCommitted") BigDecimal totalCommitted,
+                 @Param("totalPaid") BigDecimal totalPaid);
+
+    /**
+     * Create an empty rollup row, unless a concurrent transaction already created it.
+     *
+     * @param dueDate The due date of the row
+     * @param expenseType The expense type of the row (enum name)
+     * @param status The expense status of the row (enum name)
+     * @param shard The shard of the row
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_rollups (due_date, expense_type, status, shard, expense_count, amount, total_committed, total_paid) "
+            + "VALUES (:dueDate, :expenseType, :status, :shard, 0, 0, 0, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("dueDate") LocalDate dueDate, @Param("expenseType") String expenseType,
+                        @Param("status") String status, @Param("shard") int shard);
+
+    /**
+     * Sum the rollups by status and expense type.
+     *
+     * @return One total per status and expense type present in the rollups
+     */
+    @Query("SELECT r.status AS status, r.expenseType AS expenseType, SUM(r.expenseCount) AS expenseCount, "
+            + "SUM(r.amount) AS amount, SUM(r.totalCommitted) AS totalCommitted, SUM(r.totalPaid) AS totalPaid "
+            + "FROM ExpenseRollup r GROUP BY r.status, r.expenseType")
+    List<ExpenseRollupTotal> sumByStatusAndType();
+
+    /**
+     * Sum the rollups of the expenses due before a date, by status and expense type.
+     *
+     * @param dueDate The date before which the expenses are due (exclusive)
+     * @return One total per status and expense type present in the rollups before the date
+     */
+    @Query("SELECT r.status AS status, r.expenseType AS expenseType, SUM(r.expenseCount) AS expenseCount, "
+            + "SUM(r.amount) AS amount, SUM(r.totalCommitted) AS totalCommitted, SUM(r.totalPaid) AS totalPaid "
+            + "FROM ExpenseRollup r WHERE r.dueDate < :dueDate GROUP BY r.status, r.expenseType")
+    List<ExpenseRollupTotal> sumByStatusAndTypeDueBefore(@Param("dueDate") LocalDate dueDate);
+}
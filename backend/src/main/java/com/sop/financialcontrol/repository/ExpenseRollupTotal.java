@@ -0,0 +1,42 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for the expense rollups summed by status and expense type.
+ */
+public interface ExpenseRollupTotal {
+
+    /**
+     * @return The expense status
+     */
+    ExpenseStatus getStatus();
+
+    /**
+     * @return The expense type
+     */
+    ExpenseType getExpenseType();
+
+    /**
+     * @return The number of expenses
+     */
+    Long getExpenseCount();
+
+    /**
+     * @return The sum of the expense amounts
+     */
+    BigDecimal getAmount();
+
+    /**
+     * @return The sum of the committed amounts
+     */
+    BigDecimal getTotalCommitted();
+
+    /**
+     * @return The sum of the paid amounts
+     */
+    BigDecimal getTotalPaid();
+}
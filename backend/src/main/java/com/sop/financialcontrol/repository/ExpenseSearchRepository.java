@@ -0,0 +1,22 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.Expense;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Repository fragment for searching expenses with dynamic filters.
+ */
+public interface ExpenseSearchRepository {
+
+    /**
+     * Find the first expenses matching a specification, ordered by ID.
+     * Unlike the paged {@code findAll} of Spring Data, no count query is issued.
+     *
+     * @param specification The filters to apply, or null to match every expense
+     * @param limit The maximum number of expenses to return
+     * @return A list of matching expenses ordered by ID
+     */
+    List<Expense> search(Specification<Expense> specification, int limit);
+}
@@ -0,0 +1,96 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Specifications for filtering expenses.
+ * Each factory returns null when its filter is not set, so filters can be combined with
+ * {@link Specification#and} without checking them first.
+ */
+public final class ExpenseSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ExpenseSpecifications() {
+    }
+
+    /**
+     * @param id The ID after which the results start (exclusive)
+     * @return A specification matching expenses with a greater ID
+     */
+    public static Specification<Expense> idGreaterThan(Long id) {
+        return id == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * @param status The status to match
+     * @return A specification matching expenses with the status
+     */
+    public static Specification<Expense> hasStatus(ExpenseStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * @param expenseType The type to match
+     * @return A specification matching expenses of the type
+     */
+    public static Specification<Expense> hasExpenseType(ExpenseType expenseType) {
+        return expenseType == null ? null : (root, query, cb) -> cb.equal(root.get("expenseType"), expenseType);
+    }
+
+    /**
+     * @param creditor The text to search for
+     * @return A specification matching expenses whose creditor contains the text, ignoring case
+     */
+    public static Specification<Expense> creditorContains(String creditor) {
+        if (creditor == null || creditor.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(creditor.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("creditor")), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * @param from The earliest due date, inclusive
+     * @param to The latest due date, inclusive
+     * @return A specification matching expenses due within the range
+     */
+    public static Specification<Expense> dueDateBetween(LocalDate from, LocalDate to) {
+        return Specification.<Expense>where(from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), from))
+                .and(to == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), to));
+    }
+
+    /**
+     * @param min The minimum amount, inclusive
+     * @param max The maximum amount, inclusive
+     * @return A specification matching expenses with an amount within the range
+     */
+    public static Specification<Expense> amountBetween(BigDecimal min, BigDecimal max) {
+        return Specification.<Expense>where(min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min))
+                .and(max == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max));
+    }
+
+    /**
+     * @param from The earliest protocol day, inclusive
+     * @param to The latest protocol day, inclusive
+     * @return A specification matching expenses protocolled within the range
+     */
+    public static Specification<Expense> protocolDateBetween(LocalDate from, LocalDate to) {
+        // Compare against day boundaries rather than casting the column, so the index on protocol_date is usable
+        return Specification.<Expense>where(from == null ? null
+                        : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("protocolDate"), from.atStartOfDay()))
+                .and(to == null ? null
+                        : (root, query, cb) -> cb.lessThan(root.get("protocolDate"), to.plusDays(1).atStartOfDay()));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,61 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.LedgerFlowRollup;
+import com.sop.financialcontrol.model.LedgerFlowRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for LedgerFlowRollup entity operations.
+ */
+@Repository
+public interface LedgerFlowRollupRepository extends JpaRepository<LedgerFlowRollup, LedgerFlowRollupId> {
+
+    /**
+     * Add a delta to an existing rollup row. The increment happens in the database, so concurrent
+     * transactions never overwrite each other.
+     *
+     * @param flowDate The date of the row
+     * @param shard The shard of the row
+     * @param commitmentCount The change in the number of commitments
+     * @param committedAmount The change in the committed amount
+     * @param paymentCount The change in the number of payments
+     * @param paidAmount The change in the paid amount
+     * @return The number of rows updated, 0 when the row does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE LedgerFlowRollup r SET r.commitmentCount = r.commitmentCount + :commitmentCount, "
+            + "r.committedAmount = r.committedAmount + :committedAmount, r.paymentCount = r.paymentCount + :paymentCount, "
+            + "r.paidAmount = r.paidAmount + :paidAmount WHERE r.flowDate = :flowDate AND r.shard = :shard")
+    int addDelta(@Param("flowDate") LocalDate flowDate, @Param("shard") int shard, @Param("commitmentCount") long commitmentCount,
+                 @Param("committedAmount") BigDecimal committedAmount, @Param("paymentCount") long paymentCount,
+                 @Param("paidAmount") BigDecimal paidAmount);
+
+    /**
+     * Create an empty rollup row, unless a concurrent transaction already created it.
+     *
+     * @param flowDate The date of the row
+     * @param shard The shard of the row
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ledger_flow_rollups (flow_date, shard, commitment_count, committed_amount, payment_count, paid_amount) "
+            + "VALUES (:flowDate, :shard, 0, 0, 0, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("flowDate") LocalDate flowDate, @Param("shard") int shard);
+
+    /**
+     * Find the rollups of a date range.
+     *
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return The rollups of the range ordered by date, several shards per date
+     */
+    List<LedgerFlowRollup> findByFlowDateBetweenOrderByFlowDateAsc(LocalDate from, LocalDate to);
+}
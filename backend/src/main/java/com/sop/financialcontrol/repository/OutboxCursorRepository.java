@@ -0,0 +1,40 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.OutboxCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+/**
+ * Repository for OutboxCursor entity operations.
+ */
+@Repository
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+
+    /**
+     * Find the cursor of a sink and lock its row until the end of the transaction.
+     *
+     * @param sink The sink name
+     * @return An Optional containing the locked cursor if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM OutboxCursor c WHERE c.sink = :sink")
+    Optional<OutboxCursor> findBySinkForUpdate(@Param("sink") String sink);
+
+    /**
+     * Create the cursor of a sink at the start of the outbox, unless another node already created it.
+     *
+     * @param sink The sink name
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_cursors (sink, delivered_through) VALUES (:sink, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("sink") String sink);
+
+}
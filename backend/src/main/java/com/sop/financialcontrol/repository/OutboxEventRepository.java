@@ -0,0 +1,40 @@
+package com.sop.financialcontrol.repository;
+
+import com.sop.financialcontrol.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for OutboxEvent entity operations.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find a batch of events in an ID range, ordered by ID.
+     *
+     * @param id The ID after which the batch starts (exclusive)
+     * @param maxId The highest ID to return (inclusive)
+     * @param pageable The batch limit
+     * @return The events with IDs in the range
+     */
+    List<OutboxEvent> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long id, Long maxId, Pageable pageable);
+
+    /**
+     * Delete the events up to an ID that occurred before a time.
+     *
+     * @param id The highest ID to delete (inclusive)
+     * @param occurredAt The time before which the events occurred (exclusive)
+     * @return The number of events deleted
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :id AND e.occurredAt < :occurredAt")
+    int deleteDeliveredBefore(@Param("id") long id, @Param("occurredAt") LocalDateTime occurredAt);
+}
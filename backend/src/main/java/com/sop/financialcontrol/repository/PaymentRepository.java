@@ -1,12 +1,15 @@
 package com.sop.financialcontrol.repository;
 
 import com.sop.financialcontrol.model.Payment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +19,40 @@ import java.util.Optional;
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
+    /**
+     * Find a keyset page of payments ordered by ID.
+     *
+     * @param id The ID after which the page starts (exclusive)
+     * @param pageable The page limit
+     * @return A list of payments with IDs greater than the given ID
+     */
+    @EntityGraph(attributePaths = {"commitment", "commitment.expense"})
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Fingerprint a payment, without loading it.
+     *
+     * @param id The payment ID
+     * @return The fingerprint; its item count is 0 if the payment does not exist
+     */
+    @Query(value = "SELECT COUNT(*) AS itemCount, COALESCE(SUM(p.id), 0) AS idSum, MAX(GREATEST(p.updated_at, c.updated_at, e.updated_at)) AS lastModified "
+            + "FROM payments p JOIN commitments c ON c.id = p.commitment_id JOIN expenses e ON e.id = c.expense_id WHERE p.id = :id",
+            nativeQuery = true)
+    VersionFingerprint fingerprintById(@Param("id") Long id);
+
+    /**
+     * Fingerprint a keyset page of payments, reading the same rows as the page query (page size + 1).
+     *
+     * @param afterId The ID after which the page starts (exclusive)
+     * @param limit The number of rows of the page query
+     * @return The fingerprint of the page
+     */
+    @Query(value = "SELECT COUNT(*) AS itemCount, COALESCE(SUM(page.id), 0) AS idSum, MAX(page.last_modified) AS lastModified "
+            + "FROM (SELECT p.id, GREATEST(p.updated_at, c.updated_at, e.updated_at) AS last_modified FROM payments p JOIN commitments c ON c.id = p.commitment_id JOIN expenses e ON e.id = c.expense_id "
+            + "WHERE p.id > :afterId ORDER BY p.id LIMIT :limit) page",
+            nativeQuery = true)
+    VersionFingerprint fingerprintPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
     /**
      * Find a payment by its payment number.
      *
@@ -24,6 +61,24 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     Optional<Payment> findByPaymentNumber(String paymentNumber);
 
+    /**
+     * Find the payments with the given IDs, with their commitments and expenses.
+     *
+     * @param ids The payment IDs
+     * @return The payments found, in no particular order
+     */
+    @EntityGraph(attributePaths = {"commitment", "commitment.expense"})
+    List<Payment> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Find the payments with the given payment numbers, with their commitments and expenses.
+     *
+     * @param paymentNumbers The payment numbers
+     * @return The payments found, in no particular order
+     */
+    @EntityGraph(attributePaths = {"commitment", "commitment.expense"})
+    List<Payment> findByPaymentNumberIn(Collection<String> paymentNumbers);
+
     /**
      * Check if a payment with the given payment number exists.
      *
@@ -32,14 +87,69 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     boolean existsByPaymentNumber(String paymentNumber);
 
+    /**
+     * Find the payment numbers of the payments of a commitment.
+     *
+     * @param commitmentId The commitment ID
+     * @return The payment numbers
+     */
+    @Query("SELECT p.paymentNumber FROM Payment p WHERE p.commitment.id = :commitmentId")
+    List<String> findPaymentNumbersByCommitmentId(@Param("commitmentId") Long commitmentId);
+
+    /**
+     * Find the payment numbers of the payments of all commitments of an expense.
+     *
+     * @param expenseId The expense ID
+     * @return The payment numbers
+     */
+    @Query("SELECT p.paymentNumber FROM Payment p WHERE p.commitment.expense.id = :expenseId")
+    List<String> findPaymentNumbersByExpenseId(@Param("expenseId") Long expenseId);
+
+    /**
+     * Find the payments of all commitments of an expense.
+     * Their commitments are not fetched: they resolve to the commitments already loaded with the expense.
+     *
+     * @param expenseId The expense ID
+     * @return The payments ordered by commitment ID and payment ID
+     */
+    @Query("SELECT p FROM Payment p JOIN p.commitment c WHERE c.expense.id = :expenseId ORDER BY c.id, p.id")
+    List<Payment> findByExpenseIdOrderByCommitmentId(@Param("expenseId") Long expenseId);
+
+    /**
+     * Find the ID of the expense a payment belongs to (through its commitment), without loading the payment.
+     *
+     * @param paymentId The payment ID
+     * @return An Optional containing the expense ID if the payment exists
+     */
+    @Query("SELECT c.expense.id FROM Payment p JOIN p.commitment c WHERE p.id = :paymentId")
+    Optional<Long> findExpenseIdById(@Param("paymentId") Long paymentId);
+
+    /**
+     * Find which of the given payment numbers are already in use.
+     *
+     * @param paymentNumbers The payment numbers to check
+     * @return The payment numbers that already exist
+     */
+    @Query("SELECT p.paymentNumber FROM Payment p WHERE p.paymentNumber IN :paymentNumbers")
+    List<String> findExistingPaymentNumbers(@Param("paymentNumbers") Collection<String> paymentNumbers);
+
     /**
      * Find payments by commitment ID.
      *
      * @param commitmentId The commitment ID to search for
      * @return A list of payments associated with the given commitment
      */
+    @EntityGraph(attributePaths = {"commitment", "commitment.expense"})
     List<Payment> findByCommitmentId(Long commitmentId);
 
+    /**
+     * Count the payments of a commitment.
+     *
+     * @param commitmentId The commitment ID
+     * @return The number of payments associated with the given commitment
+     */
+    long countByCommitmentId(Long commitmentId);
+
     /**
      * Find payments with payment dates between the given dates.
      *
@@ -66,4 +176,26 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p JOIN p.commitment c WHERE c.expense.id = :expenseId")
     java.math.BigDecimal calculateTotalPaidAmountForExpense(@Param("expenseId") Long expenseId);
+
+    /**
+     * Calculate the total paid amount and payment count for each of the given commitments.
+     * Commitments without payments are not included in the result.
+     *
+     * @param commitmentIds The commitment IDs
+     * @return The payment totals grouped by commitment ID
+     */
+    @Query("SELECT p.commitment.id AS parentId, SUM(p.amount) AS totalAmount, COUNT(p) AS itemCount " +
+           "FROM Payment p WHERE p.commitment.id IN :commitmentIds GROUP BY p.commitment.id")
+    List<AmountTotal> sumAmountsByCommitmentIds(@Param("commitmentIds") Collection<Long> commitmentIds);
+
+    /**
+     * Calculate the total paid amount and payment count for each of the given expenses
+     * (across all their commitments). Expenses without payments are not included in the result.
+     *
+     * @param expenseIds The expense IDs
+     * @return The payment totals grouped by expense ID
+     */
+    @Query("SELECT c.expense.id AS parentId, SUM(p.amount) AS totalAmount, COUNT(p) AS itemCount " +
+           "FROM Payment p JOIN p.commitment c WHERE c.expense.id IN :expenseIds GROUP BY c.expense.id")
+    List<AmountTotal> sumAmountsByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.sop.financialcontrol.repository;
+
+import java.util.Date;
+
+/**
+ * Projection for the fingerprint of a resource or a page of resources, used to answer conditional requests
+ * without loading the resources. The ID sum changes when a row enters or leaves the page; the last
+ * modification time changes when a row, or a parent whose fields are embedded in its DTO, is updated.
+ */
+public interface VersionFingerprint {
+
+    /**
+     * @return The number of rows
+     */
+    Number getItemCount();
+
+    /**
+     * @return The sum of the row IDs
+     */
+    Number getIdSum();
+
+    /**
+     * @return The most recent update time of the rows and their embedded parents, or null if there are no rows
+     */
+    Date getLastModified();
+}
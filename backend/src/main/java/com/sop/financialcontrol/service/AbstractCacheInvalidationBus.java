@@ -0,0 +1,67 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.service.CacheInvalidationMessage.CacheKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.UUID;
+
+/**
+ * Base class for cache invalidation buses, evicting the keys received from other nodes.
+ */
+@Slf4j
+public abstract class AbstractCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final CacheManager cacheManager;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    protected AbstractCacheInvalidationBus(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @return The identifier of this node, sent as the origin of its messages
+     */
+    protected String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Evict the keys of a message received from another node.
+     * Messages sent by this node are ignored, since it evicted the keys when its transaction committed.
+     *
+     * @param message The received message
+     */
+    protected void receive(CacheInvalidationMessage message) {
+        if (nodeId.equals(message.getOrigin())) {
+            return;
+        }
+        for (CacheKey key : message.getKeys()) {
+            Cache cache = cacheManager.getCache(key.getCache());
+            if (cache != null) {
+                // evictIfPresent is applied immediately, even when called while a transaction completes
+                cache.evictIfPresent(normalize(key.getKey()));
+            }
+        }
+        log.debug("Evicted {} cache keys changed on node {}", message.getKeys().size(), message.getOrigin());
+    }
+
+    /**
+     * Clear every cache, when messages from the other nodes may have been missed.
+     */
+    protected void evictAll() {
+        cacheManager.getCacheNames().forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.invalidate();
+            }
+        });
+        log.info("Cleared all caches after losing cache invalidation messages");
+    }
+
+    // Numeric keys are entity IDs, which are cached as Long but may arrive as Integer once decoded
+    private static Object normalize(Object key) {
+        return key instanceof Number ? (Object) ((Number) key).longValue() : key;
+    }
+}
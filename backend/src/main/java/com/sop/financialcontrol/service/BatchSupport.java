@@ -0,0 +1,150 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.BatchItemResultDTO;
+import com.sop.financialcontrol.dto.BatchResultDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for batch operations that validate every item up front and report per-item results,
+ * and for lookups of many records by key.
+ */
+final class BatchSupport {
+
+    private BatchSupport() {
+    }
+
+    /**
+     * Check that a batch does not exceed the configured maximum size.
+     *
+     * @param size The number of items in the batch
+     * @param maxSize The maximum number of items accepted
+     * @throws BusinessException if the batch is too large
+     */
+    static void checkSize(int size, int maxSize) {
+        if (size > maxSize) {
+            throw new BusinessException("Batch size " + size + " exceeds the maximum of " + maxSize + " items");
+        }
+    }
+
+    /**
+     * Build the result of a lookup by key: the items found in the order of their keys, and the missing keys.
+     * Duplicate keys are resolved once, at their first position.
+     *
+     * @param keys The requested keys, deduplicated in request order
+     * @param found The entities found, in any order
+     * @param keyOf Extracts the key of an entity
+     * @param toDto Converts an entity to its DTO
+     * @param <E> The type of the entities
+     * @param <K> The type of the keys
+     * @param <T> The type of the DTOs
+     * @return The lookup result
+     */
+    static <E, K, T> LookupResultDTO<T, K> toLookupResult(Collection<K> keys, List<E> found,
+                                                          Function<E, K> keyOf, Function<E, T> toDto) {
+        Map<K, E> byKey = new HashMap<>();
+        found.forEach(entity -> byKey.put(keyOf.apply(entity), entity));
+
+        List<T> items = new ArrayList<>(found.size());
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            E entity = byKey.get(key);
+            if (entity != null) {
+                items.add(toDto.apply(entity));
+            } else {
+                missing.add(key);
+            }
+        }
+        return LookupResultDTO.<T, K>builder().items(items).missing(missing).build();
+    }
+
+    /**
+     * Deduplicate the keys of a lookup, keeping request order, and check their number.
+     *
+     * @param keys The requested keys
+     * @param maxSize The maximum number of keys accepted
+     * @param <K> The type of the keys
+     * @return The distinct keys in request order
+     * @throws BusinessException if a key is null or there are too many keys
+     */
+    static <K> Set<K> lookupKeys(List<K> keys, int maxSize) {
+        if (keys == null || keys.isEmpty()) {
+            throw new BusinessException("At least one key is required");
+        }
+        if (keys.size() > maxSize) {
+            throw new BusinessException("Lookup size " + keys.size() + " exceeds the maximum of " + maxSize + " keys");
+        }
+        Set<K> distinct = new LinkedHashSet<>(keys);
+        if (distinct.contains(null)) {
+            throw new BusinessException("Lookup keys must not be null");
+        }
+        return distinct;
+    }
+
+    /**
+     * Run bean validation on a batch item.
+     * Batch items are validated here rather than by the controller so that an invalid item
+     * is reported in its result instead of rejecting the whole request.
+     *
+     * @param validator The bean validator
+     * @param item The item to validate
+     * @return The validation error message, or null if the item is valid
+     */
+    static String validateItem(Validator validator, Object item) {
+        if (item == null) {
+            return "Item is required";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Build the batch result from the per-item errors and created resources.
+     *
+     * @param errors The error of each item, null for items that succeeded
+     * @param created The created resource of each item, null for items that failed
+     * @param <T> The type of the created resources
+     * @return The batch result in request order
+     */
+    static <T> BatchResultDTO<T> toResult(String[] errors, List<T> created) {
+        List<BatchItemResultDTO<T>> items = new ArrayList<>(errors.length);
+        int succeeded = 0;
+        for (int i = 0; i < errors.length; i++) {
+            boolean success = errors[i] == null;
+            if (success) {
+                succeeded++;
+            }
+            items.add(BatchItemResultDTO.<T>builder()
+                    .index(i)
+                    .success(success)
+                    .data(success ? created.get(i) : null)
+                    .error(errors[i])
+                    .build());
+        }
+
+        return BatchResultDTO.<T>builder()
+                .total(errors.length)
+                .succeeded(succeeded)
+                .failed(errors.length - succeeded)
+                .items(items)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.service.CacheInvalidationMessage.CacheKey;
+
+import java.util.List;
+
+/**
+ * Bus that propagates cache evictions to the other nodes running the application.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Tell the other nodes to evict the given keys.
+     * Called after the change that made the keys stale has been committed.
+     *
+     * @param keys The keys to evict
+     */
+    void publish(List<CacheKey> keys);
+}
@@ -0,0 +1,32 @@
+package com.sop.financialcontrol.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Message telling the other nodes which cached lookups to evict after a committed change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+
+    // Identifier of the node that made the change, which has already evicted the keys itself
+    private String origin;
+
+    private List<CacheKey> keys;
+
+    /**
+     * A key of a named cache.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheKey {
+        private String cache;
+        private Object key;
+    }
+}
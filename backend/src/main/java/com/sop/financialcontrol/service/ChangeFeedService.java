@@ -0,0 +1,183 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.ChangeFeedProperties;
+import com.sop.financialcontrol.dto.ChangeDTO;
+import com.sop.financialcontrol.dto.ChangeFeedDTO;
+import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.PaymentDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+import com.sop.financialcontrol.mapper.CommitmentMapper;
+import com.sop.financialcontrol.mapper.ExpenseMapper;
+import com.sop.financialcontrol.mapper.PaymentMapper;
+import com.sop.financialcontrol.model.ChangeEntityType;
+import com.sop.financialcontrol.model.ChangeLogEntry;
+import com.sop.financialcontrol.model.ChangeOperation;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.ChangeLogEntryRepository;
+import com.sop.financialcontrol.repository.ChangeLogSequenceRepository;
+import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import com.sop.financialcontrol.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the change feed, which lets downstream systems sync incrementally.
+ * Changes are read from the compacted change log maintained by {@link ChangeLogRecorder}, so a sync
+ * reads one log entry and one entity per changed entity, whatever the size of the ledger.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeFeedService {
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeLogSequenceRepository changeLogSequenceRepository;
+    private final ChangeSequence changeSequence;
+    private final ExpenseRepository expenseRepository;
+    private final CommitmentRepository commitmentRepository;
+    private final PaymentRepository paymentRepository;
+    private final ExpenseMapper expenseMapper;
+    private final CommitmentMapper commitmentMapper;
+    private final PaymentMapper paymentMapper;
+    private final ChangeFeedProperties changeFeedProperties;
+
+    /**
+     * Get the changes after a watermark, ordered by sequence number.
+     * Each entity appears once, with its current state, at the sequence number of its latest change.
+     * Changes numbered above a number that is still being committed are left for a later call.
+     *
+     * @param since The watermark returned by the previous call, or null or 0 for a full sync
+     * @param size The requested page size, or null for the default size
+     * @return A page of changes with the watermark for the next call
+     * @throws BusinessException if the watermark is negative, or older than the purged tombstones
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO getChanges(Long since, Integer size) {
+        long watermark = since != null ? since : 0L;
+        if (watermark < 0) {
+            throw new BusinessException("The watermark cannot be negative");
+        }
+        // A client behind the purged tombstones may have missed deletes
+        long purgedThrough = changeLogSequenceRepository.findPurgedThrough().orElse(0L);
+        if (watermark > 0 && watermark < purgedThrough) {
+            throw new BusinessException("The watermark " + watermark + " is older than the retained tombstones; "
+                    + "sync again from 0");
+        }
+
+        // Stop below the numbers that may still commit, so the next call never skips one
+        long safeSequence = changeSequence.safeSequence();
+        int pageSize = changeFeedProperties.resolveSize(size);
+        List<ChangeLogEntry> entries = changeLogEntryRepository
+                .findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(
+                        watermark, safeSequence, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = entries.size() > pageSize;
+        List<ChangeLogEntry> pageEntries = hasMore ? entries.subList(0, pageSize) : entries;
+
+        // Load the current state of the upserted entities, one query per type
+        Map<ChangeEntityType, Set<Long>> upserted = new EnumMap<>(ChangeEntityType.class);
+        for (ChangeLogEntry entry : pageEntries) {
+            if (entry.getOperation() == ChangeOperation.UPSERT) {
+                upserted.computeIfAbsent(entry.getEntityType(), type -> new HashSet<>()).add(entry.getEntityId());
+            }
+        }
+        Map<Long, ExpenseDTO> expenses = load(upserted.get(ChangeEntityType.EXPENSE),
+                expenseRepository::findByIdIn, Expense::getId, expenseMapper::toDto);
+        Map<Long, CommitmentDTO> commitments = load(upserted.get(ChangeEntityType.COMMITMENT),
+                commitmentRepository::findByIdIn, Commitment::getId, commitmentMapper::toDto);
+        Map<Long, PaymentDTO> payments = load(upserted.get(ChangeEntityType.PAYMENT),
+                paymentRepository::findByIdIn, Payment::getId, paymentMapper::toDto);
+
+        List<ChangeDTO> changes = new ArrayList<>(pageEntries.size());
+        for (ChangeLogEntry entry : pageEntries) {
+            ChangeDTO change = ChangeDTO.builder()
+                    .sequence(entry.getSequence())
+                    .entityType(entry.getEntityType())
+                    .entityId(entry.getEntityId())
+                    .entityKey(entry.getEntityKey())
+                    .operation(entry.getOperation())
+                    .changedAt(entry.getChangedAt())
+                    .build();
+            if (entry.getOperation() == ChangeOperation.UPSERT) {
+                switch (entry.getEntityType()) {
+                    case EXPENSE:
+                        change.setExpense(expenses.get(entry.getEntityId()));
+                        break;
+                    case COMMITMENT:
+                        change.setCommitment(commitments.get(entry.getEntityId()));
+                        break;
+                    case PAYMENT:
+                        change.setPayment(payments.get(entry.getEntityId()));
+                        break;
+                }
+                // Deleted since the page was read; its tombstone follows the watermark
+                if (change.getExpense() == null && change.getCommitment() == null && change.getPayment() == null) {
+                    continue;
+                }
+            }
+            changes.add(change);
+        }
+
+        return ChangeFeedDTO.builder()
+                .changes(changes)
+                .size(changes.size())
+                .hasMore(hasMore)
+                .watermark(pageEntries.isEmpty() ? watermark : pageEntries.get(pageEntries.size() - 1).getSequence())
+                .build();
+    }
+
+    /**
+     * Purge the tombstones older than the retention on the configured schedule.
+     */
+    @Scheduled(cron = "${app.changes.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(changeFeedProperties.getTombstoneRetention());
+        Long purgeThrough = changeLogEntryRepository.findMaxSequenceByOperationChangedBefore(ChangeOperation.DELETE, cutoff);
+        if (purgeThrough == null) {
+            return;
+        }
+        // Record the purge first, so clients behind it are told to sync again
+        changeLogSequenceRepository.insertIfAbsent();
+        changeLogSequenceRepository.markPurgedThrough(purgeThrough);
+        int purged = changeLogEntryRepository.deleteByOperationUpTo(ChangeOperation.DELETE, purgeThrough);
+        log.info("Purged {} change log tombstones up to sequence {}", purged, purgeThrough);
+    }
+
+    /**
+     * Load entities by ID and map them to DTOs.
+     *
+     * @param ids The IDs, or null if there are none
+     * @param finder Loads the entities with the given IDs
+     * @param idOf Reads the ID of an entity
+     * @param toDto Maps an entity to its DTO
+     * @param <E> The entity type
+     * @param <D> The DTO type
+     * @return The DTOs by entity ID
+     */
+    private static <E, D> Map<Long, D> load(Set<Long> ids, Function<Collection<Long>, List<E>> finder,
+                                            Function<E, Long> idOf, Function<E, D> toDto) {
+        if (ids == null) {
+            return Map.of();
+        }
+        return finder.apply(ids).stream().collect(Collectors.toMap(idOf, toDto));
+    }
+}
@@ -0,0 +1,338 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.LedgerEventDTO;
+import com.sop.financialcontrol.model.ChangeEntityType;
+import com.sop.financialcontrol.model.ChangeLogEntry;
+import com.sop.financialcontrol.model.ChangeOperation;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.LedgerEventType;
+import com.sop.financialcontrol.model.OutboxEvent;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.ChangeLogEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Records the changes published by the change feed and the ledger event stream.
+ * The write paths report each expense, commitment and payment they create, update or delete,
+ * including the parents whose running totals change. Just before commit, the entities of the
+ * transaction receive sequence numbers from the {@link ChangeSequence} and replace their previous
+ * change log entries. Concurrent writers do not wait for each other, so entries may become visible
+ * out of sequence order; readers stay below the safe sequence number of the {@link ChangeSequence}.
+ * The domain events of the changes are written to the outbox at the same time,
+ * with the same sequence numbers. Once the transaction has committed, the status transitions and
+ * the new commitments and payments are published as {@link LedgerEventDTO} application events.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogRecorder {
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeSequence changeSequence;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final OutboxWriter outboxWriter;
+
+    /**
+     * Report a new expense, before or after it is saved.
+     *
+     * @param expense The new expense
+     */
+    public void expenseCreated(Expense expense) {
+        record(expense, ChangeEntityType.EXPENSE, ChangeOperation.UPSERT, true);
+    }
+
+    /**
+     * Report an updated expense.
+     *
+     * @param expense The expense
+     */
+    public void expenseChanged(Expense expense) {
+        record(expense, ChangeEntityType.EXPENSE, ChangeOperation.UPSERT, false);
+    }
+
+    /**
+     * Report a deleted expense.
+     *
+     * @param expense The expense
+     */
+    public void expenseDeleted(Expense expense) {
+        record(expense, ChangeEntityType.EXPENSE, ChangeOperation.DELETE, false);
+    }
+
+    /**
+     * Report a new commitment, before or after it is saved.
+     *
+     * @param commitment The new commitment
+     */
+    public void commitmentCreated(Commitment commitment) {
+        record(commitment, ChangeEntityType.COMMITMENT, ChangeOperation.UPSERT, true);
+    }
+
+    /**
+     * Report an updated commitment.
+     *
+     * @param commitment The commitment
+     */
+    public void commitmentChanged(Commitment commitment) {
+        record(commitment, ChangeEntityType.COMMITMENT, ChangeOperation.UPSERT, false);
+    }
+
+    /**
+     * Report a deleted commitment.
+     *
+     * @param commitment The commitment
+     */
+    public void commitmentDeleted(Commitment commitment) {
+        record(commitment, ChangeEntityType.COMMITMENT, ChangeOperation.DELETE, false);
+    }
+
+    /**
+     * Report a new payment, before or after it is saved.
+     *
+     * @param payment The new payment
+     */
+    public void paymentCreated(Payment payment) {
+        record(payment, ChangeEntityType.PAYMENT, ChangeOperation.UPSERT, true);
+    }
+
+    /**
+     * Report an updated payment.
+     *
+     * @param payment The payment
+     */
+    public void paymentChanged(Payment payment) {
+        record(payment, ChangeEntityType.PAYMENT, ChangeOperation.UPSERT, false);
+    }
+
+    /**
+     * Report a deleted payment.
+     *
+     * @param payment The payment
+     */
+    public void paymentDeleted(Payment payment) {
+        record(payment, ChangeEntityType.PAYMENT, ChangeOperation.DELETE, false);
+    }
+
+    /**
+     * Record a change in the current transaction. The last operation reported for an entity wins,
+     * and an entity created in the transaction stays created. The ID and key are read at commit
+     * time, so new entities can be reported before they are saved.
+     *
+     * @param entity The entity
+     * @param entityType The entity type
+     * @param operation The operation
+     * @param created Whether the entity is new
+     * @throws IllegalStateException if there is no transaction
+     */
+    private void record(Object entity, ChangeEntityType entityType, ChangeOperation operation, boolean created) {
+        Map<Object, PendingChange> pending = pendingChanges();
+        PendingChange existing = pending.get(entity);
+        pending.put(entity, new PendingChange(entity, entityType, operation, created || (existing != null && existing.created)));
+    }
+
+    /**
+     * Get the changes recorded by the current transaction, registering the change log update before
+     * commit on the first call.
+     *
+     * @return The recorded changes, by entity identity
+     * @throws IllegalStateException if there is no transaction
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, PendingChange> pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Changes can only be recorded inside a transaction");
+        }
+        Map<Object, PendingChange> recorded = (Map<Object, PendingChange>) TransactionSynchronizationManager.getResource(this);
+        if (recorded != null) {
+            return recorded;
+        }
+
+        Map<Object, PendingChange> pending = new IdentityHashMap<>();
+        List<LedgerEventDTO> events = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                events.addAll(writeEntries(pending));
+            }
+
+            @Override
+            public void afterCommit() {
+                events.forEach(applicationEventPublisher::publishEvent);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogRecorder.this);
+            }
+        });
+        return pending;
+    }
+
+    /**
+     * Replace the change log entries of the recorded entities with new ones, write their domain
+     * events to the outbox, and build the events to publish once the transaction has committed.
+     *
+     * @param recorded The recorded changes
+     * @return The ledger events of the transaction, in sequence order
+     */
+    private List<LedgerEventDTO> writeEntries(Map<Object, PendingChange> recorded) {
+        // An entity may be reported through several instances; keep one change per entity, in type and ID order
+        Map<ChangeEntityType, Map<Long, PendingChange>> changes = new EnumMap<>(ChangeEntityType.class);
+        for (PendingChange change : recorded.values()) {
+            Long entityId = Objects.requireNonNull(change.id(), "Changed entity has no ID");
+            changes.computeIfAbsent(change.entityType, type -> new TreeMap<>()).put(entityId, change);
+        }
+        int count = changes.values().stream().mapToInt(Map::size).sum();
+        if (count == 0) {
+            return List.of();
+        }
+
+        Iterator<Long> sequences = changeSequence.reserve(count).iterator();
+
+        // Replace the previous entries of the entities, keeping the log compacted
+        LocalDateTime changedAt = LocalDateTime.now();
+        List<ChangeLogEntry> entries = new ArrayList<>(count);
+        List<LedgerEventDTO> events = new ArrayList<>();
+        List<OutboxEvent> outboxEvents = new ArrayList<>();
+        for (Map.Entry<ChangeEntityType, Map<Long, PendingChange>> byType : changes.entrySet()) {
+            changeLogEntryRepository.deleteByEntities(byType.getKey(), byType.getValue().keySet());
+            for (Map.Entry<Long, PendingChange> change : byType.getValue().entrySet()) {
+                long sequence = sequences.next();
+                ChangeLogEntry entry = ChangeLogEntry.builder()
+                        .sequence(sequence)
+                        .entityType(byType.getKey())
+                        .entityId(change.getKey())
+                        .operation(change.getValue().operation)
+                        .entityKey(change.getValue().key())
+                        .changedAt(changedAt)
+                        .build();
+                entries.add(entry);
+                if (outboxWriter.isEnabled()) {
+                    outboxEvents.add(outboxWriter.toEvent(entry, change.getValue().entity, change.getValue().created));
+                }
+                LedgerEventDTO event = toEvent(change.getValue(), sequence, changedAt);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+        }
+        changeLogEntryRepository.saveAll(entries);
+        outboxWriter.write(outboxEvents);
+        return events;
+    }
+
+    /**
+     * Build the ledger event of a change, if it has one: a status transition of an existing expense,
+     * or a new commitment or payment.
+     *
+     * @param change The change
+     * @param sequence The change log sequence number of the change
+     * @param occurredAt The time of the change
+     * @return The event, or null if the change is not published on the event stream
+     */
+    private static LedgerEventDTO toEvent(PendingChange change, long sequence, LocalDateTime occurredAt) {
+        if (change.operation != ChangeOperation.UPSERT) {
+            return null;
+        }
+        if (change.entity instanceof Expense) {
+            Expense expense = (Expense) change.entity;
+            if (change.created || expense.getLoadedStatus() == null || expense.getLoadedStatus() == expense.getStatus()) {
+                return null;
+            }
+            return expenseEvent(LedgerEventType.EXPENSE_STATUS_CHANGED, sequence, occurredAt, expense)
+                    .previousStatus(expense.getLoadedStatus())
+                    .build();
+        }
+        if (!change.created) {
+            return null;
+        }
+        if (change.entity instanceof Commitment) {
+            Commitment commitment = (Commitment) change.entity;
+            return expenseEvent(LedgerEventType.COMMITMENT_CREATED, sequence, occurredAt, commitment.getExpense())
+                    .commitmentId(commitment.getId())
+                    .commitmentNumber(commitment.getCommitmentNumber())
+                    .amount(commitment.getAmount())
+                    .build();
+        }
+        Payment payment = (Payment) change.entity;
+        return expenseEvent(LedgerEventType.PAYMENT_CREATED, sequence, occurredAt, payment.getCommitment().getExpense())
+                .commitmentId(payment.getCommitment().getId())
+                .commitmentNumber(payment.getCommitment().getCommitmentNumber())
+                .paymentId(payment.getId())
+                .paymentNumber(payment.getPaymentNumber())
+                .amount(payment.getAmount())
+                .build();
+    }
+
+    private static LedgerEventDTO.LedgerEventDTOBuilder expenseEvent(LedgerEventType type, long sequence,
+                                                                   LocalDateTime occurredAt, Expense expense) {
+        return LedgerEventDTO.builder()
+                .type(type)
+                .sequence(sequence)
+                .occurredAt(occurredAt)
+                .expenseId(expense.getId())
+                .protocolNumber(expense.getProtocolNumber())
+                .expenseType(expense.getExpenseType())
+                .status(expense.getStatus());
+    }
+
+    /**
+     * A change reported in the current transaction.
+     */
+    private static final class PendingChange {
+        private final Object entity;
+        private final ChangeEntityType entityType;
+        private final ChangeOperation operation;
+        private final boolean created;
+
+        private PendingChange(Object entity, ChangeEntityType entityType, ChangeOperation operation, boolean created) {
+            this.entity = entity;
+            this.entityType = entityType;
+            this.operation = operation;
+            this.created = created;
+        }
+
+        private Long id() {
+            switch (entityType) {
+                case EXPENSE:
+                    return ((Expense) entity).getId();
+                case COMMITMENT:
+                    return ((Commitment) entity).getId();
+                default:
+                    return ((Payment) entity).getId();
+            }
+        }
+
+        private String key() {
+            switch (entityType) {
+                case EXPENSE:
+                    return ((Expense) entity).getProtocolNumber();
+                case COMMITMENT:
+                    return ((Commitment) entity).getCommitmentNumber();
+                default:
+                    return ((Payment) entity).getPaymentNumber();
+            }
+        }
+    }
+}
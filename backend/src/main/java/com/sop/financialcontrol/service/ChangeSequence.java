@@ -0,0 +1,28 @@
+package com.sop.financialcontrol.service;
+
+import java.util.List;
+
+/**
+ * Source of the change log sequence numbers, shared by the change log entries and the outbox events.
+ * Writers reserve numbers just before commit without serializing on each other, so numbers may
+ * commit out of order and rolled back numbers leave gaps. Readers only read up to the safe
+ * sequence number, below which no number can still commit.
+ */
+public interface ChangeSequence {
+
+    /**
+     * Reserve sequence numbers for the current transaction.
+     *
+     * @param count The number of sequence numbers to reserve
+     * @return The reserved sequence numbers, ascending
+     */
+    List<Long> reserve(int count);
+
+    /**
+     * Get the highest sequence number below which every reserved number is committed or rolled back.
+     * Must be called before the calling transaction writes anything.
+     *
+     * @return The safe sequence number
+     */
+    long safeSequence();
+}
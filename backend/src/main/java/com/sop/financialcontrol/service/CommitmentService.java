@@ -1,6 +1,12 @@
 package com.sop.financialcontrol.service;
 
+import com.sop.financialcontrol.config.BatchProperties;
+import com.sop.financialcontrol.config.CacheConfig;
+import com.sop.financialcontrol.config.PaginationProperties;
+import com.sop.financialcontrol.dto.BatchResultDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
 import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
 import com.sop.financialcontrol.exception.BusinessException;
 import com.sop.financialcontrol.exception.ResourceNotFoundException;
 import com.sop.financialcontrol.mapper.CommitmentMapper;
@@ -8,15 +14,25 @@ import com.sop.financialcontrol.model.Commitment;
 import com.sop.financialcontrol.model.Expense;
 import com.sop.financialcontrol.repository.CommitmentRepository;
 import com.sop.financialcontrol.repository.ExpenseRepository;
-import com.sop.financialcontrol.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.Validator;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Service for handling Commitment-related business logic.
@@ -27,22 +43,61 @@ public class CommitmentService {
 
     private final CommitmentRepository commitmentRepository;
     private final ExpenseRepository expenseRepository;
-    private final PaymentRepository paymentRepository;
     private final CommitmentMapper commitmentMapper;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+    private final LookupCacheInvalidator lookupCacheInvalidator;
+    private final DashboardRollupTracker dashboardRollupTracker;
+    private final ChangeLogRecorder changeLogRecorder;
+    private final ExpenseStatusUpdater expenseStatusUpdater;
+    private final OperationProfiler operationProfiler;
 
     // Regular expression for commitment number validation
     private static final Pattern COMMITMENT_NUMBER_PATTERN = 
             Pattern.compile("^\\d{4}NE\\d{4}$");
 
     /**
-     * Get all commitments.
+     * Get a page of commitments ordered by ID.
      *
-     * @return A list of all commitments as DTOs
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return A page of commitments as DTOs
+     * @throws BusinessException if the cursor is invalid
      */
     @Transactional(readOnly = true)
-    public List<CommitmentDTO> getAllCommitments() {
-        List<Commitment> commitments = commitmentRepository.findAll();
-        return commitmentMapper.toDtoList(commitments);
+    public CursorPageDTO<CommitmentDTO> getAllCommitments(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        List<Commitment> commitments = commitmentRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetCursor.decode(cursor), KeysetCursor.limit(pageSize));
+        return KeysetCursor.toPage(commitments, pageSize, Commitment::getId, commitmentMapper::toDtoList);
+    }
+
+    /**
+     * Get the version of a page of commitments, without loading it.
+     *
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return The version of the page
+     * @throws BusinessException if the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getCommitmentPageVersion(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        long afterId = KeysetCursor.decode(cursor);
+        return ResourceVersion.of("commitments:" + afterId + ":" + pageSize,
+                commitmentRepository.fingerprintPage(afterId, pageSize + 1));
+    }
+
+    /**
+     * Get the version of a commitment, without loading it.
+     *
+     * @param id The ID of the commitment
+     * @return The version of the commitment, or empty if it does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> getCommitmentVersion(Long id) {
+        return ResourceVersion.ofResource("commitment", commitmentRepository.fingerprintById(id));
     }
 
     /**
@@ -65,6 +120,7 @@ public class CommitmentService {
      * @return The commitment as a DTO
      * @throws ResourceNotFoundException if the commitment is not found
      */
+    @Cacheable(CacheConfig.COMMITMENTS_BY_NUMBER)
     @Transactional(readOnly = true)
     public CommitmentDTO getCommitmentByCommitmentNumber(String commitmentNumber) {
         Commitment commitment = commitmentRepository.findByCommitmentNumber(commitmentNumber)
@@ -72,6 +128,20 @@ public class CommitmentService {
         return commitmentMapper.toDto(commitment);
     }
 
+    /**
+     * Get the commitments with the given commitment numbers, with their expenses, in a single query.
+     *
+     * @param commitmentNumbers The commitment numbers of the commitments to retrieve
+     * @return The commitments found in request order, and the commitment numbers not found
+     * @throws BusinessException if no commitment number is given, one is null or there are too many
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO<CommitmentDTO, String> getCommitmentsByCommitmentNumbers(List<String> commitmentNumbers) {
+        Set<String> keys = BatchSupport.lookupKeys(commitmentNumbers, batchProperties.getMaxLookupSize());
+        return BatchSupport.toLookupResult(keys, commitmentRepository.findByCommitmentNumberIn(keys),
+                Commitment::getCommitmentNumber, commitmentMapper::toDto);
+    }
+
     /**
      * Get all commitments for an expense.
      *
@@ -100,6 +170,8 @@ public class CommitmentService {
      */
     @Transactional
     public CommitmentDTO createCommitment(CommitmentDTO commitmentDTO) {
+        OperationTrace trace = operationProfiler.start("CommitmentService.createCommitment");
+
         // Validate commitment number format
         validateCommitmentNumber(commitmentDTO.getCommitmentNumber());
 
@@ -107,31 +179,140 @@ public class CommitmentService {
         if (commitmentRepository.existsByCommitmentNumber(commitmentDTO.getCommitmentNumber())) {
             throw new BusinessException("A commitment with commitment number " + commitmentDTO.getCommitmentNumber() + " already exists");
         }
+        trace.validated();
 
-        // Find the expense
-        Expense expense = expenseRepository.findById(commitmentDTO.getExpenseId())
-                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + commitmentDTO.getExpenseId()));
+        // Find and lock the expense, so concurrent commitments cannot overcommit it
+        Expense expense = lockExpense(commitmentDTO.getExpenseId());
 
-        // Calculate the total committed amount for the expense
-        BigDecimal totalCommitted = commitmentRepository.calculateTotalCommittedAmountForExpense(expense.getId());
-        BigDecimal remainingAmount = expense.getAmount().subtract(totalCommitted);
+        // Calculate the remaining amount from the expense running total
+        BigDecimal remainingAmount = expense.getAmount().subtract(expense.getTotalCommitted());
 
         // Check if the commitment amount exceeds the remaining expense amount
         if (commitmentDTO.getAmount().compareTo(remainingAmount) > 0) {
             throw new BusinessException("Commitment amount exceeds the remaining expense amount. Remaining: " + remainingAmount);
         }
+        trace.balanceChecked();
 
         // Convert DTO to entity and save
         Commitment commitment = commitmentMapper.toEntity(commitmentDTO, expense);
         Commitment savedCommitment = commitmentRepository.save(commitment);
-
-        // Update expense status
-        expense.updateStatus();
+        dashboardRollupTracker.commitmentCreated(savedCommitment);
+        trace.persisted();
+        trace.entity(savedCommitment.getId());
+
+        // Update expense running totals and status
+        dashboardRollupTracker.expenseChanging(expense);
+        expense.applyCommitmentDelta(savedCommitment.getAmount(), 1);
+        expenseStatusUpdater.totalsChanged(expense);
+        trace.statusUpdated();
         expenseRepository.save(expense);
+        changeLogRecorder.commitmentCreated(savedCommitment);
+        changeLogRecorder.expenseChanged(expense);
+        trace.persisted();
+        lookupCacheInvalidator.evictExpense(expense);
 
         return commitmentMapper.toDto(savedCommitment);
     }
 
+    /**
+     * Create a batch of commitments in a single transaction.
+     * Every item is validated in memory against the running totals of its expense, after one
+     * query that locks and loads the affected expenses. Valid items are inserted with JDBC
+     * batching; invalid items are reported without affecting the others.
+     *
+     * @param commitmentDTOs The commitments to create
+     * @return The result of each item, in request order
+     * @throws BusinessException if the batch exceeds the maximum batch size
+     */
+    @Transactional
+    public BatchResultDTO<CommitmentDTO> createCommitments(List<CommitmentDTO> commitmentDTOs) {
+        BatchSupport.checkSize(commitmentDTOs.size(), batchProperties.getMaxSize());
+        OperationTrace trace = operationProfiler.start("CommitmentService.createCommitments");
+        String[] errors = new String[commitmentDTOs.size()];
+
+        // Validate each item on its own
+        for (int i = 0; i < commitmentDTOs.size(); i++) {
+            CommitmentDTO commitmentDTO = commitmentDTOs.get(i);
+            errors[i] = BatchSupport.validateItem(validator, commitmentDTO);
+            if (errors[i] == null) {
+                try {
+                    validateCommitmentNumber(commitmentDTO.getCommitmentNumber());
+                } catch (BusinessException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+        }
+
+        // Check commitment numbers against each other and against the existing commitments
+        Set<String> commitmentNumbers = new HashSet<>();
+        Set<Long> expenseIds = new HashSet<>();
+        for (int i = 0; i < commitmentDTOs.size(); i++) {
+            if (errors[i] == null) {
+                commitmentNumbers.add(commitmentDTOs.get(i).getCommitmentNumber());
+                expenseIds.add(commitmentDTOs.get(i).getExpenseId());
+            }
+        }
+        Set<String> existingNumbers = commitmentNumbers.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(commitmentRepository.findExistingCommitmentNumbers(commitmentNumbers));
+        Set<String> batchNumbers = new HashSet<>();
+        for (int i = 0; i < commitmentDTOs.size(); i++) {
+            String commitmentNumber = errors[i] == null ? commitmentDTOs.get(i).getCommitmentNumber() : null;
+            if (commitmentNumber != null && (existingNumbers.contains(commitmentNumber) || !batchNumbers.add(commitmentNumber))) {
+                errors[i] = "A commitment with commitment number " + commitmentNumber + " already exists";
+            }
+        }
+        trace.validated();
+
+        // Lock and load the affected expenses in ID order
+        Map<Long, Expense> expenses = new HashMap<>();
+        if (!expenseIds.isEmpty()) {
+            expenseRepository.findAllByIdForUpdate(expenseIds)
+                    .forEach(expense -> expenses.put(expense.getId(), expense));
+        }
+
+        // Check balances in memory, applying accepted commitments to the running totals as we go
+        List<Commitment> commitments = new ArrayList<>(Collections.nCopies(commitmentDTOs.size(), null));
+        Map<Long, Expense> affectedExpenses = new HashMap<>();
+        for (int i = 0; i < commitmentDTOs.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            CommitmentDTO commitmentDTO = commitmentDTOs.get(i);
+            Expense expense = expenses.get(commitmentDTO.getExpenseId());
+            if (expense == null) {
+                errors[i] = "Expense not found with id: " + commitmentDTO.getExpenseId();
+                continue;
+            }
+
+            BigDecimal remainingAmount = expense.getAmount().subtract(expense.getTotalCommitted());
+            if (commitmentDTO.getAmount().compareTo(remainingAmount) > 0) {
+                errors[i] = "Commitment amount exceeds the remaining expense amount. Remaining: " + remainingAmount;
+                continue;
+            }
+
+            commitments.set(i, commitmentMapper.toEntity(commitmentDTO, expense));
+            dashboardRollupTracker.commitmentCreated(commitments.get(i));
+            dashboardRollupTracker.expenseChanging(expense);
+            changeLogRecorder.commitmentCreated(commitments.get(i));
+            changeLogRecorder.expenseChanged(expense);
+            expense.applyCommitmentDelta(commitmentDTO.getAmount(), 1);
+            affectedExpenses.put(expense.getId(), expense);
+        }
+        trace.balanceChecked();
+
+        // Insert the accepted commitments and update the expense statuses
+        commitmentRepository.saveAll(commitments.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        trace.persisted();
+        affectedExpenses.values().forEach(expenseStatusUpdater::totalsChanged);
+        trace.statusUpdated();
+        affectedExpenses.values().forEach(lookupCacheInvalidator::evictExpense);
+
+        List<CommitmentDTO> created = commitments.stream()
+                .map(commitment -> commitment != null ? commitmentMapper.toDto(commitment) : null)
+                .collect(Collectors.toList());
+        return BatchSupport.toResult(errors, created);
+    }
+
     /**
      * Update an existing commitment.
      *
@@ -144,7 +325,11 @@ public class CommitmentService {
      */
     @Transactional
     public CommitmentDTO updateCommitment(Long id, CommitmentDTO commitmentDTO) {
+        OperationTrace trace = operationProfiler.start("CommitmentService.updateCommitment");
+        trace.entity(id);
+        Expense expense = lockExpenseOfCommitment(id);
         Commitment existingCommitment = findCommitmentById(id);
+        trace.persisted();
 
         // Validate commitment number format
         validateCommitmentNumber(commitmentDTO.getCommitmentNumber());
@@ -159,9 +344,10 @@ public class CommitmentService {
         if (!existingCommitment.getExpense().getId().equals(commitmentDTO.getExpenseId())) {
             throw new BusinessException("Cannot change the expense associated with a commitment");
         }
+        trace.validated();
 
-        // Calculate the total paid amount for this commitment
-        BigDecimal totalPaid = paymentRepository.calculateTotalPaidAmountForCommitment(id);
+        // Get the total paid amount for this commitment
+        BigDecimal totalPaid = existingCommitment.getTotalPaid();
 
         // Check if the amount is being reduced below the paid amount
         if (commitmentDTO.getAmount().compareTo(totalPaid) < 0) {
@@ -169,23 +355,38 @@ public class CommitmentService {
         }
 
         // Calculate the total committed amount for the expense (excluding this commitment)
-        BigDecimal totalCommitted = commitmentRepository.calculateTotalCommittedAmountForExpense(existingCommitment.getExpense().getId())
-                .subtract(existingCommitment.getAmount());
-        BigDecimal remainingAmount = existingCommitment.getExpense().getAmount().subtract(totalCommitted);
+        BigDecimal previousAmount = existingCommitment.getAmount();
+        BigDecimal totalCommitted = expense.getTotalCommitted().subtract(previousAmount);
+        BigDecimal remainingAmount = expense.getAmount().subtract(totalCommitted);
 
         // Check if the new commitment amount exceeds the remaining expense amount
         if (commitmentDTO.getAmount().compareTo(remainingAmount) > 0) {
             throw new BusinessException("Commitment amount exceeds the remaining expense amount. Remaining: " + remainingAmount);
         }
+        trace.balanceChecked();
 
         // Update the entity
+        String previousCommitmentNumber = existingCommitment.getCommitmentNumber();
+        dashboardRollupTracker.commitmentChanging(existingCommitment);
+        dashboardRollupTracker.expenseChanging(expense);
         Commitment updatedCommitment = commitmentMapper.updateEntityFromDto(commitmentDTO, existingCommitment);
         Commitment savedCommitment = commitmentRepository.save(updatedCommitment);
-
-        // Update expense status
-        Expense expense = existingCommitment.getExpense();
-        expense.updateStatus();
+        changeLogRecorder.commitmentChanged(savedCommitment);
+        changeLogRecorder.expenseChanged(expense);
+        trace.persisted();
+
+        // Update expense running totals and status
+        expense.applyCommitmentDelta(savedCommitment.getAmount().subtract(previousAmount), 0);
+        expenseStatusUpdater.totalsChanged(expense);
+        trace.statusUpdated();
         expenseRepository.save(expense);
+        trace.persisted();
+
+        // Evict the cached commitment and expense, and the payments when the number or amount they embed changed
+        lookupCacheInvalidator.evictUpdatedCommitment(savedCommitment, previousCommitmentNumber,
+                !previousCommitmentNumber.equals(savedCommitment.getCommitmentNumber())
+                        || previousAmount.compareTo(savedCommitment.getAmount()) != 0);
+        lookupCacheInvalidator.evictExpense(expense);
 
         return commitmentMapper.toDto(savedCommitment);
     }
@@ -199,22 +400,34 @@ public class CommitmentService {
      */
     @Transactional
     public void deleteCommitment(Long id) {
+        OperationTrace trace = operationProfiler.start("CommitmentService.deleteCommitment");
+        trace.entity(id);
+        Expense expense = lockExpenseOfCommitment(id);
         Commitment commitment = findCommitmentById(id);
+        trace.persisted();
 
         // Check if the commitment has any payments
-        if (commitmentRepository.hasPayments(id)) {
+        if (commitment.hasPayments()) {
             throw new BusinessException("Cannot delete commitment with associated payments");
         }
-
-        // Get the expense for status update after deletion
-        Expense expense = commitment.getExpense();
+        trace.balanceChecked();
 
         // Delete the commitment
         commitmentRepository.delete(commitment);
-
-        // Update expense status
-        expense.updateStatus();
+        dashboardRollupTracker.commitmentDeleted(commitment);
+        changeLogRecorder.commitmentDeleted(commitment);
+        changeLogRecorder.expenseChanged(expense);
+        trace.persisted();
+
+        // Update expense running totals and status
+        dashboardRollupTracker.expenseChanging(expense);
+        expense.applyCommitmentDelta(commitment.getAmount().negate(), -1);
+        expenseStatusUpdater.totalsChanged(expense);
+        trace.statusUpdated();
         expenseRepository.save(expense);
+        trace.persisted();
+        lookupCacheInvalidator.evictCommitment(commitment);
+        lookupCacheInvalidator.evictExpense(expense);
     }
 
     /**
@@ -229,13 +442,39 @@ public class CommitmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Commitment not found with id: " + id));
     }
 
+    /**
+     * Find an expense by its ID and lock it for the rest of the transaction.
+     *
+     * @param expenseId The ID of the expense to lock
+     * @return The locked expense entity
+     * @throws ResourceNotFoundException if the expense is not found
+     */
+    private Expense lockExpense(Long expenseId) {
+        return expenseRepository.findByIdForUpdate(expenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + expenseId));
+    }
+
+    /**
+     * Lock the expense a commitment belongs to.
+     * Called before the commitment is loaded, so the commitment is read while the lock is held.
+     *
+     * @param commitmentId The ID of the commitment
+     * @return The locked expense entity
+     * @throws ResourceNotFoundException if the commitment is not found
+     */
+    private Expense lockExpenseOfCommitment(Long commitmentId) {
+        Long expenseId = commitmentRepository.findExpenseIdById(commitmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Commitment not found with id: " + commitmentId));
+        return lockExpense(expenseId);
+    }
+
     /**
      * Validate the format of a commitment number.
      *
      * @param commitmentNumber The commitment number to validate
      * @throws BusinessException if the commitment number is invalid
      */
-    private void validateCommitmentNumber(String commitmentNumber) {
+    static void validateCommitmentNumber(String commitmentNumber) {
         if (!COMMITMENT_NUMBER_PATTERN.matcher(commitmentNumber).matches()) {
             throw new BusinessException("Invalid commitment number format. Expected format: ####NE####");
         }
@@ -0,0 +1,160 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.CreditorIndexProperties;
+import com.sop.financialcontrol.dto.CreditorSuggestionDTO;
+import com.sop.financialcontrol.repository.CreditorCount;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index of the distinct creditors and their expense counts, for autocomplete.
+ * Creditors are kept in a sorted map keyed by their accent- and case-normalized name, so the
+ * creditors starting with a prefix are a contiguous range found in logarithmic time. The index is
+ * built at startup, updated after each committed write of this node, and periodically rebuilt
+ * from the database to pick up the writes of other nodes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CreditorIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Separates the normalized name from the original one in the keys, and sorts before any character
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Comparator<Map.Entry<String, Long>> RANKING =
+            Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final ExpenseRepository expenseRepository;
+    private final CreditorIndexProperties properties;
+
+    // Expense count by normalized name and original name, so spelling variants are suggested separately
+    private volatile NavigableMap<String, Long> creditors = new ConcurrentSkipListMap<>();
+
+    /**
+     * Rebuild the index from the database at startup and on the configured interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.creditor-index.refresh-interval-ms:600000}",
+            fixedDelayString = "${app.creditor-index.refresh-interval-ms:600000}")
+    public void rebuild() {
+        NavigableMap<String, Long> rebuilt = new ConcurrentSkipListMap<>();
+        for (CreditorCount count : expenseRepository.countByCreditor()) {
+            rebuilt.put(key(count.getCreditor()), count.getExpenseCount());
+        }
+        creditors = rebuilt;
+        log.info("Creditor index built with {} creditors", rebuilt.size());
+    }
+
+    /**
+     * Suggest the creditors whose normalized name starts with the normalized prefix, most used first.
+     *
+     * @param prefix The typed prefix
+     * @param limit The maximum number of suggestions, or null for the default
+     * @return The suggestions ordered by expense count, then by name
+     */
+    public List<CreditorSuggestionDTO> suggest(String prefix, Integer limit) {
+        int size = limit == null || limit < 1 ? properties.getDefaultLimit() : Math.min(limit, properties.getMaxLimit());
+        String normalizedPrefix = normalize(prefix == null ? "" : prefix);
+        if (normalizedPrefix.isEmpty()) {
+            return List.of();
+        }
+
+        // Keep the best matches in a min-heap bounded by the requested size
+        PriorityQueue<Map.Entry<String, Long>> best = new PriorityQueue<>(size + 1, RANKING.reversed());
+        for (Map.Entry<String, Long> entry : creditors.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false).entrySet()) {
+            best.offer(Map.entry(creditorName(entry.getKey()), entry.getValue()));
+            if (best.size() > size) {
+                best.poll();
+            }
+        }
+
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<CreditorSuggestionDTO> suggestions = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Long> entry : ranked) {
+            suggestions.add(CreditorSuggestionDTO.builder()
+                    .creditor(entry.getKey())
+                    .expenseCount(entry.getValue())
+                    .build());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Record that an expense of a creditor was created, once the current transaction commits.
+     *
+     * @param creditor The creditor of the created expense
+     */
+    public void creditorAdded(String creditor) {
+        TransactionCallbacks.afterCommit(() -> adjust(creditor, 1));
+    }
+
+    /**
+     * Record that an expense of a creditor was deleted, once the current transaction commits.
+     *
+     * @param creditor The creditor of the deleted expense
+     */
+    public void creditorRemoved(String creditor) {
+        TransactionCallbacks.afterCommit(() -> adjust(creditor, -1));
+    }
+
+    /**
+     * Record that an expense changed creditor, once the current transaction commits.
+     *
+     * @param previousCreditor The creditor before the update
+     * @param creditor The creditor after the update
+     */
+    public void creditorChanged(String previousCreditor, String creditor) {
+        if (!previousCreditor.equals(creditor)) {
+            TransactionCallbacks.afterCommit(() -> {
+                adjust(previousCreditor, -1);
+                adjust(creditor, 1);
+            });
+        }
+    }
+
+    private void adjust(String creditor, long delta) {
+        creditors.compute(key(creditor), (key, count) -> {
+            long updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    private static String key(String creditor) {
+        return normalize(creditor) + KEY_SEPARATOR + creditor;
+    }
+
+    private static String creditorName(String key) {
+        return key.substring(key.indexOf(KEY_SEPARATOR) + 1);
+    }
+
+    /**
+     * Normalize a name for prefix matching: strip accents, lower the case and collapse whitespace.
+     *
+     * @param value The name to normalize
+     * @return The normalized name
+     */
+    static String normalize(String value) {
+        String withoutAccents = COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
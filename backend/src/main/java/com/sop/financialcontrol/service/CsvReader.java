@@ -0,0 +1,140 @@
+package com.sop.financialcontrol.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming CSV reader (RFC 4180 quoting, embedded delimiters, quotes and line breaks).
+ * Records are read one at a time, and a record longer than the maximum length is rejected, so
+ * memory use stays bounded even when a stray quote runs a field to the end of the input.
+ */
+final class CsvReader implements Closeable {
+
+    private static final int EOF = -1;
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final BufferedReader reader;
+    private final char delimiter;
+    private final int maxRecordLength;
+
+    private int lineNumber = 1;
+    private int recordLineNumber;
+    private boolean firstChar = true;
+
+    CsvReader(Reader reader, char delimiter, int maxRecordLength) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.delimiter = delimiter;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Read the next non-empty record.
+     *
+     * @return The fields of the record, or null at the end of the input
+     * @throws IOException if the input cannot be read, ends inside a quoted field, or has a record
+     *                     longer than the maximum length
+     */
+    List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean empty = true;
+        int length = 0;
+        recordLineNumber = lineNumber;
+
+        while (true) {
+            int c = read();
+            if (c != EOF && ++length > maxRecordLength) {
+                throw new IOException("Record starting at line " + recordLineNumber + " is longer than "
+                        + maxRecordLength + " characters" + (inQuotes ? " (unterminated quoted field?)" : ""));
+            }
+            if (c == EOF) {
+                if (inQuotes) {
+                    throw new IOException("Unterminated quoted field starting at line " + recordLineNumber);
+                }
+                if (empty) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+
+            if (inQuotes) {
+                if (c == QUOTE) {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        inQuotes = false;
+                        if (next != EOF) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+
+            if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                lineNumber++;
+                if (empty) {
+                    // Skip blank lines between records
+                    recordLineNumber = lineNumber;
+                    length = 0;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+
+            empty = false;
+            if (c == QUOTE && field.length() == 0) {
+                inQuotes = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * @return The line number where the last record read starts
+     */
+    int getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (firstChar) {
+            firstChar = false;
+            if (c == BOM) {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.sop.financialcontrol.service;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Minimal CSV writer producing records readable by {@link CsvReader} (RFC 4180 quoting).
+ * Fields are quoted only when they contain the delimiter, a quote or a line break.
+ */
+final class CsvWriter implements Closeable, Flushable {
+
+    private static final char QUOTE = '"';
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+    private final char delimiter;
+
+    CsvWriter(Writer writer, char delimiter) {
+        this.writer = writer;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Write a record. Null fields are written as empty fields.
+     *
+     * @param fields The fields of the record
+     * @throws IOException if the output cannot be written
+     */
+    void writeRecord(List<?> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            Object field = fields.get(i);
+            if (field != null) {
+                writeField(field.toString());
+            }
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeField(String field) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < field.length() && !quoted; i++) {
+            char c = field.charAt(i);
+            quoted = c == delimiter || c == QUOTE || c == '\r' || c == '\n';
+        }
+        if (!quoted) {
+            writer.write(field);
+            return;
+        }
+
+        writer.write(QUOTE);
+        writer.write(field.replace("\"", "\"\""));
+        writer.write(QUOTE);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,371 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.DashboardProperties;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.ExpenseRollupRepository;
+import com.sop.financialcontrol.repository.LedgerFlowRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the dashboard rollup tables in step with the ledger.
+ * The write paths report each expense, commitment and payment they create, change or delete; the
+ * state of a changed entity is captured when it is first reported, and its state at commit time
+ * replaces that contribution. The deltas of a transaction are summed per rollup row and applied
+ * just before commit, in key order, so a batch touches each row once and concurrent transactions
+ * always lock the rollup rows in the same order.
+ * An updated rollup row stays locked until commit, and many unrelated writes share a key: every
+ * commitment or payment dated today updates the flow row of today. Each key is therefore split
+ * over {@code app.dashboard.rollup-shards} rows, and each transaction updates the shard it picks
+ * at random, so concurrent writers only wait for each other when they pick the same shard.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardRollupTracker {
+
+    private static final Comparator<ExpenseKey> EXPENSE_KEY_ORDER = Comparator
+            .comparing((ExpenseKey key) -> key.dueDate)
+            .thenComparing(key -> key.expenseType)
+            .thenComparing(key -> key.status);
+
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final LedgerFlowRollupRepository ledgerFlowRollupRepository;
+    private final DashboardProperties dashboardProperties;
+
+    /**
+     * Report a new expense, before or after it is saved.
+     *
+     * @param expense The new expense
+     */
+    public void expenseCreated(Expense expense) {
+        track(expense, null, () -> ExpenseState.of(expense));
+    }
+
+    /**
+     * Report an expense that is about to change. Must be called before the change is applied.
+     *
+     * @param expense The expense
+     */
+    public void expenseChanging(Expense expense) {
+        track(expense, ExpenseState.of(expense), () -> ExpenseState.of(expense));
+    }
+
+    /**
+     * Report a deleted expense.
+     *
+     * @param expense The expense
+     */
+    public void expenseDeleted(Expense expense) {
+        track(expense, ExpenseState.of(expense), () -> null);
+    }
+
+    /**
+     * Report a new commitment, before or after it is saved.
+     *
+     * @param commitment The new commitment
+     */
+    public void commitmentCreated(Commitment commitment) {
+        track(commitment, null, () -> FlowState.ofCommitment(commitment));
+    }
+
+    /**
+     * Report a commitment that is about to change. Must be called before the change is applied.
+     *
+     * @param commitment The commitment
+     */
+    public void commitmentChanging(Commitment commitment) {
+        track(commitment, FlowState.ofCommitment(commitment), () -> FlowState.ofCommitment(commitment));
+    }
+
+    /**
+     * Report a deleted commitment.
+     *
+     * @param commitment The commitment
+     */
+    public void commitmentDeleted(Commitment commitment) {
+        track(commitment, FlowState.ofCommitment(commitment), () -> null);
+    }
+
+    /**
+     * Report a new payment, before or after it is saved.
+     *
+     * @param payment The new payment
+     */
+    public void paymentCreated(Payment payment) {
+        track(payment, null, () -> FlowState.ofPayment(payment));
+    }
+
+    /**
+     * Report a payment that is about to change. Must be called before the change is applied.
+     *
+     * @param payment The payment
+     */
+    public void paymentChanging(Payment payment) {
+        track(payment, FlowState.ofPayment(payment), () -> FlowState.ofPayment(payment));
+    }
+
+    /**
+     * Report a deleted payment.
+     *
+     * @param payment The payment
+     */
+    public void paymentDeleted(Payment payment) {
+        track(payment, FlowState.ofPayment(payment), () -> null);
+    }
+
+    /**
+     * Record an entity in the current transaction. The first report of an entity keeps its initial
+     * state; later reports only update how its final state is read.
+     *
+     * @param entity The entity
+     * @param initial The contribution of the entity before the transaction, or null if it is new
+     * @param current Reads the contribution of the entity at commit time, or null if it is deleted
+     * @throws IllegalStateException if there is no transaction
+     */
+    private void track(Object entity, Contribution initial, Supplier<Contribution> current) {
+        Map<Object, TrackedEntity> tracked = pendingEntities();
+        TrackedEntity existing = tracked.get(entity);
+        tracked.put(entity, new TrackedEntity(existing != null ? existing.initial : initial, current));
+    }
+
+    /**
+     * Get the entities tracked by the current transaction, registering the rollup update before
+     * commit on the first call.
+     *
+     * @return The tracked entities, by identity
+     * @throws IllegalStateException if there is no transaction
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, TrackedEntity> pendingEntities() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Dashboard rollups can only be updated inside a transaction");
+        }
+        Map<Object, TrackedEntity> tracked = (Map<Object, TrackedEntity>) TransactionSynchronizationManager.getResource(this);
+        if (tracked != null) {
+            return tracked;
+        }
+
+        Map<Object, TrackedEntity> pending = new IdentityHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Before the change log, which numbers the changes of the transaction last
+                return Ordered.LOWEST_PRECEDENCE - 1;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                applyDeltas(pending);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DashboardRollupTracker.this);
+            }
+        });
+        return pending;
+    }
+
+    /**
+     * Sum the deltas of the tracked entities per rollup row and apply them.
+     *
+     * @param tracked The tracked entities
+     */
+    private void applyDeltas(Map<Object, TrackedEntity> tracked) {
+        Deltas deltas = new Deltas();
+        for (TrackedEntity entity : tracked.values()) {
+            if (entity.initial != null) {
+                entity.initial.addTo(deltas, -1);
+            }
+            Contribution current = entity.current.get();
+            if (current != null) {
+                current.addTo(deltas, 1);
+            }
+        }
+
+        // One shard for the whole transaction, so the rows are still locked in key order
+        int shard = ThreadLocalRandom.current().nextInt(Math.max(1, dashboardProperties.getRollupShards()));
+
+        // A row is created empty on its first delta; the update then locks it until commit
+        deltas.expenses.forEach((key, delta) -> {
+            if (!delta.isZero() && addExpenseDelta(key, shard, delta) == 0) {
+                expenseRollupRepository.insertIfAbsent(key.dueDate, key.expenseType.name(), key.status.name(), shard);
+                addExpenseDelta(key, shard, delta);
+            }
+        });
+        deltas.flows.forEach((flowDate, delta) -> {
+            if (!delta.isZero() && addFlowDelta(flowDate, shard, delta) == 0) {
+                ledgerFlowRollupRepository.insertIfAbsent(flowDate, shard);
+                addFlowDelta(flowDate, shard, delta);
+            }
+        });
+    }
+
+    private int addExpenseDelta(ExpenseKey key, int shard, ExpenseDelta delta) {
+        return expenseRollupRepository.addDelta(key.dueDate, key.expenseType, key.status, shard,
+                delta.expenseCount, delta.amount, delta.totalCommitted, delta.totalPaid);
+    }
+
+    private int addFlowDelta(LocalDate flowDate, int shard, FlowDelta delta) {
+        return ledgerFlowRollupRepository.addDelta(flowDate, shard, delta.commitmentCount, delta.committedAmount,
+                delta.paymentCount, delta.paidAmount);
+    }
+
+    /**
+     * An entity reported in the current transaction.
+     */
+    private static final class TrackedEntity {
+        private final Contribution initial;
+        private final Supplier<Contribution> current;
+
+        private TrackedEntity(Contribution initial, Supplier<Contribution> current) {
+            this.initial = initial;
+            this.current = current;
+        }
+    }
+
+    /**
+     * What an entity adds to the rollups.
+     */
+    private interface Contribution {
+
+        /**
+         * Add this contribution to the deltas of a transaction.
+         *
+         * @param deltas The deltas
+         * @param sign 1 to add the contribution, -1 to remove it
+         */
+        void addTo(Deltas deltas, int sign);
+    }
+
+    /**
+     * The rollup-relevant state of an expense.
+     */
+    private static final class ExpenseState implements Contribution {
+        private final ExpenseKey key;
+        private final BigDecimal amount;
+        private final BigDecimal totalCommitted;
+        private final BigDecimal totalPaid;
+
+        private ExpenseState(ExpenseKey key, BigDecimal amount, BigDecimal totalCommitted, BigDecimal totalPaid) {
+            this.key = key;
+            this.amount = amount;
+            this.totalCommitted = totalCommitted;
+            this.totalPaid = totalPaid;
+        }
+
+        private static ExpenseState of(Expense expense) {
+            ExpenseStatus status = expense.getStatus() != null ? expense.getStatus() : ExpenseStatus.AWAITING_COMMITMENT;
+            return new ExpenseState(new ExpenseKey(expense.getDueDate(), expense.getExpenseType(), status),
+                    expense.getAmount(), expense.getTotalCommitted(), expense.getTotalPaid());
+        }
+
+        @Override
+        public void addTo(Deltas deltas, int sign) {
+            ExpenseDelta delta = deltas.expenses.computeIfAbsent(key, k -> new ExpenseDelta());
+            BigDecimal factor = BigDecimal.valueOf(sign);
+            delta.expenseCount += sign;
+            delta.amount = delta.amount.add(amount.multiply(factor));
+            delta.totalCommitted = delta.totalCommitted.add(totalCommitted.multiply(factor));
+            delta.totalPaid = delta.totalPaid.add(totalPaid.multiply(factor));
+        }
+    }
+
+    /**
+     * The rollup-relevant state of a commitment or payment.
+     */
+    private static final class FlowState implements Contribution {
+        private final LocalDate flowDate;
+        private final BigDecimal amount;
+        private final boolean payment;
+
+        private FlowState(LocalDate flowDate, BigDecimal amount, boolean payment) {
+            this.flowDate = flowDate;
+            this.amount = amount;
+            this.payment = payment;
+        }
+
+        private static FlowState ofCommitment(Commitment commitment) {
+            return new FlowState(commitment.getCommitmentDate(), commitment.getAmount(), false);
+        }
+
+        private static FlowState ofPayment(Payment payment) {
+            return new FlowState(payment.getPaymentDate(), payment.getAmount(), true);
+        }
+
+        @Override
+        public void addTo(Deltas deltas, int sign) {
+            FlowDelta delta = deltas.flows.computeIfAbsent(flowDate, d -> new FlowDelta());
+            BigDecimal signedAmount = amount.multiply(BigDecimal.valueOf(sign));
+            if (payment) {
+                delta.paymentCount += sign;
+                delta.paidAmount = delta.paidAmount.add(signedAmount);
+            } else {
+                delta.commitmentCount += sign;
+                delta.committedAmount = delta.committedAmount.add(signedAmount);
+            }
+        }
+    }
+
+    /**
+     * The key of an expense rollup row.
+     */
+    private static final class ExpenseKey {
+        private final LocalDate dueDate;
+        private final ExpenseType expenseType;
+        private final ExpenseStatus status;
+
+        private ExpenseKey(LocalDate dueDate, ExpenseType expenseType, ExpenseStatus status) {
+            this.dueDate = dueDate;
+            this.expenseType = expenseType;
+            this.status = status;
+        }
+    }
+
+    /**
+     * The deltas of a transaction, sorted by rollup key.
+     */
+    private static final class Deltas {
+        private final Map<ExpenseKey, ExpenseDelta> expenses = new TreeMap<>(EXPENSE_KEY_ORDER);
+        private final Map<LocalDate, FlowDelta> flows = new TreeMap<>();
+    }
+
+    private static final class ExpenseDelta {
+        private long expenseCount;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private BigDecimal totalCommitted = BigDecimal.ZERO;
+        private BigDecimal totalPaid = BigDecimal.ZERO;
+
+        private boolean isZero() {
+            return expenseCount == 0 && amount.signum() == 0 && totalCommitted.signum() == 0 && totalPaid.signum() == 0;
+        }
+    }
+
+    private static final class FlowDelta {
+        private long commitmentCount;
+        private BigDecimal committedAmount = BigDecimal.ZERO;
+        private long paymentCount;
+        private BigDecimal paidAmount = BigDecimal.ZERO;
+
+        private boolean isZero() {
+            return commitmentCount == 0 && committedAmount.signum() == 0 && paymentCount == 0 && paidAmount.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.DashboardProperties;
+import com.sop.financialcontrol.dto.DashboardDTO;
+import com.sop.financialcontrol.dto.DashboardTotalDTO;
+import com.sop.financialcontrol.dto.MonthlyFlowDTO;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.LedgerFlowRollup;
+import com.sop.financialcontrol.repository.ExpenseRollupRepository;
+import com.sop.financialcontrol.repository.ExpenseRollupTotal;
+import com.sop.financialcontrol.repository.LedgerFlowRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the dashboard summary.
+ * Everything is read from the rollup tables maintained by {@link DashboardRollupTracker}, so the
+ * cost depends on the number of days covered, not on the number of expenses, commitments and payments.
+ * The shard rows of a rollup key are summed with the other rows of their status, type or month.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final LedgerFlowRollupRepository ledgerFlowRollupRepository;
+    private final DashboardProperties dashboardProperties;
+
+    /**
+     * Get the dashboard summary.
+     *
+     * @param months The number of months of committed and paid amounts to return, or null for the default
+     * @return The totals by status and type, the overdue amount and the monthly committed and paid amounts
+     */
+    @Transactional(readOnly = true)
+    public DashboardDTO getDashboard(Integer months) {
+        LocalDate today = LocalDate.now();
+
+        // Totals by status and by type, with an entry for every value even when it has no expenses
+        Map<ExpenseStatus, DashboardTotalDTO> byStatus = new EnumMap<>(ExpenseStatus.class);
+        for (ExpenseStatus status : ExpenseStatus.values()) {
+            byStatus.put(status, emptyTotal(status.name()));
+        }
+        Map<ExpenseType, DashboardTotalDTO> byType = new EnumMap<>(ExpenseType.class);
+        for (ExpenseType type : ExpenseType.values()) {
+            byType.put(type, emptyTotal(type.name()));
+        }
+        for (ExpenseRollupTotal total : expenseRollupRepository.sumByStatusAndType()) {
+            add(byStatus.get(total.getStatus()), total);
+            add(byType.get(total.getExpenseType()), total);
+        }
+
+        // Overdue: expenses due before today that are not fully paid
+        long overdueCount = 0;
+        BigDecimal overdueAmount = BigDecimal.ZERO;
+        for (ExpenseRollupTotal total : expenseRollupRepository.sumByStatusAndTypeDueBefore(today)) {
+            if (total.getStatus() != ExpenseStatus.PAID) {
+                overdueCount += total.getExpenseCount();
+                overdueAmount = overdueAmount.add(total.getAmount().subtract(total.getTotalPaid()));
+            }
+        }
+
+        return DashboardDTO.builder()
+                .asOf(today)
+                .totalsByStatus(new ArrayList<>(byStatus.values()))
+                .totalsByType(new ArrayList<>(byType.values()))
+                .overdueCount(overdueCount)
+                .overdueAmount(overdueAmount)
+                .monthlyFlows(monthlyFlows(YearMonth.from(today), dashboardProperties.resolveMonths(months)))
+                .build();
+    }
+
+    /**
+     * Sum the daily committed and paid amounts per month.
+     *
+     * @param lastMonth The last month to return
+     * @param months The number of months to return
+     * @return One entry per month, oldest first, including the months without commitments or payments
+     */
+    private List<MonthlyFlowDTO> monthlyFlows(YearMonth lastMonth, int months) {
+        YearMonth firstMonth = lastMonth.minusMonths(months - 1L);
+        Map<YearMonth, MonthlyFlowDTO> flows = new LinkedHashMap<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            flows.put(month, MonthlyFlowDTO.builder()
+                    .month(month)
+                    .committedAmount(BigDecimal.ZERO)
+                    .paidAmount(BigDecimal.ZERO)
+                    .build());
+        }
+
+        List<LedgerFlowRollup> rollups = ledgerFlowRollupRepository.findByFlowDateBetweenOrderByFlowDateAsc(
+                firstMonth.atDay(1), lastMonth.atEndOfMonth());
+        for (LedgerFlowRollup rollup : rollups) {
+            MonthlyFlowDTO flow = flows.get(YearMonth.from(rollup.getFlowDate()));
+            flow.setCommitmentCount(flow.getCommitmentCount() + rollup.getCommitmentCount());
+            flow.setCommittedAmount(flow.getCommittedAmount().add(rollup.getCommittedAmount()));
+            flow.setPaymentCount(flow.getPaymentCount() + rollup.getPaymentCount());
+            flow.setPaidAmount(flow.getPaidAmount().add(rollup.getPaidAmount()));
+        }
+        return new ArrayList<>(flows.values());
+    }
+
+    private static DashboardTotalDTO emptyTotal(String key) {
+        return DashboardTotalDTO.builder()
+                .key(key)
+                .amount(BigDecimal.ZERO)
+                .totalCommitted(BigDecimal.ZERO)
+                .totalPaid(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static void add(DashboardTotalDTO target, ExpenseRollupTotal total) {
+        target.setExpenseCount(target.getExpenseCount() + total.getExpenseCount());
+        target.setAmount(target.getAmount().add(total.getAmount()));
+        target.setTotalCommitted(target.getTotalCommitted().add(total.getTotalCommitted()));
+        target.setTotalPaid(target.getTotalPaid().add(total.getTotalPaid()));
+    }
+}
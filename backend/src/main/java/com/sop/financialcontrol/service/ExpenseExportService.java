@@ -0,0 +1,249 @@
+package com.sop.financialcontrol.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.LedgerCommitmentDTO;
+import com.sop.financialcontrol.dto.LedgerExpenseDTO;
+import com.sop.financialcontrol.dto.PaymentDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+import com.sop.financialcontrol.mapper.CommitmentMapper;
+import com.sop.financialcontrol.mapper.ExpenseMapper;
+import com.sop.financialcontrol.mapper.PaymentMapper;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting the full ledger of expenses with their commitments and payments.
+ * The ledger is read through a database cursor and written as it is read, one expense at a time:
+ * entities are detached once their expense is written, so memory use is bounded by the largest
+ * expense rather than by the size of the ledger.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseExportService {
+
+    // Expense columns use the same names as the import file, so an export can be imported back
+    private static final List<String> CSV_HEADER = List.of(
+            "protocolNumber", "expenseType", "protocolDate", "dueDate", "creditor", "description", "amount", "status",
+            "commitmentNumber", "commitmentDate", "commitmentAmount", "commitmentNote",
+            "paymentNumber", "paymentDate", "paymentAmount", "paymentNote");
+
+    // Same patterns as the @JsonFormat of the DTOs
+    private static final DateTimeFormatter PROTOCOL_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseMapper expenseMapper;
+    private final CommitmentMapper commitmentMapper;
+    private final PaymentMapper paymentMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write the full ledger to an output stream.
+     * The output is flushed after the first expense so the client starts receiving data immediately.
+     *
+     * @param output The output stream, left open
+     * @param format The export format
+     * @param delimiter The field delimiter, used by the CSV format only
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void exportLedger(OutputStream output, Format format, char delimiter) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        LedgerSink sink = format == Format.CSV ? new CsvLedgerSink(new CsvWriter(writer, delimiter)) : new NdjsonLedgerSink(writer);
+        long exported = 0;
+
+        try (Stream<Object[]> rows = expenseRepository.streamLedger()) {
+            List<Object> loaded = new ArrayList<>();
+            LedgerExpenseDTO entry = null;
+
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Expense expense = (Expense) row[0];
+                Commitment commitment = (Commitment) row[1];
+                Payment payment = (Payment) row[2];
+
+                // Rows are ordered by expense: a new expense ID means the previous expense is complete
+                if (entry == null || !entry.getExpense().getId().equals(expense.getId())) {
+                    if (entry != null) {
+                        sink.write(entry);
+                        if (++exported == 1) {
+                            writer.flush();
+                        }
+                        detach(loaded);
+                    }
+                    entry = LedgerExpenseDTO.builder().expense(expenseMapper.toDto(expense)).build();
+                    loaded.add(expense);
+                }
+
+                List<LedgerCommitmentDTO> commitments = entry.getCommitments();
+                if (commitment != null && (commitments.isEmpty()
+                        || !commitments.get(commitments.size() - 1).getCommitment().getId().equals(commitment.getId()))) {
+                    commitments.add(LedgerCommitmentDTO.builder().commitment(commitmentMapper.toDto(commitment)).build());
+                    loaded.add(commitment);
+                }
+
+                if (payment != null) {
+                    commitments.get(commitments.size() - 1).getPayments().add(paymentMapper.toDto(payment));
+                    loaded.add(payment);
+                }
+            }
+
+            if (entry != null) {
+                sink.write(entry);
+                exported++;
+                detach(loaded);
+            }
+        }
+
+        writer.flush();
+        log.info("Ledger export finished: {} expenses written as {}", exported, format);
+    }
+
+    /**
+     * Detach written entities from the persistence context so they can be garbage collected.
+     *
+     * @param loaded The entities to detach, cleared afterwards
+     */
+    private void detach(List<Object> loaded) {
+        loaded.forEach(entityManager::detach);
+        loaded.clear();
+    }
+
+    /**
+     * Supported export formats.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        /**
+         * Resolve a format from its name, ignoring case.
+         *
+         * @param value The format name
+         * @return The format
+         * @throws BusinessException if the format is not supported
+         */
+        public static Format fromValue(String value) {
+            return Arrays.stream(values())
+                    .filter(format -> format.name().equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException("Unsupported export format: " + value
+                            + ". Supported formats: " + Arrays.toString(values()).toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    /**
+     * Destination of the exported expenses in a given format.
+     */
+    private interface LedgerSink {
+        void write(LedgerExpenseDTO entry) throws IOException;
+    }
+
+    /**
+     * Writes one JSON document per expense, with its commitments and payments nested, per line.
+     */
+    private final class NdjsonLedgerSink implements LedgerSink {
+        private final Writer writer;
+        private final ObjectWriter jsonWriter = objectMapper.writerFor(LedgerExpenseDTO.class);
+
+        private NdjsonLedgerSink(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(LedgerExpenseDTO entry) throws IOException {
+            writer.write(jsonWriter.writeValueAsString(entry));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Writes one CSV record per payment, or per commitment or expense that has no children,
+     * repeating the expense and commitment columns on each record.
+     */
+    private static final class CsvLedgerSink implements LedgerSink {
+        private final CsvWriter csv;
+        private boolean headerWritten;
+
+        private CsvLedgerSink(CsvWriter csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public void write(LedgerExpenseDTO entry) throws IOException {
+            if (!headerWritten) {
+                csv.writeRecord(CSV_HEADER);
+                headerWritten = true;
+            }
+
+            ExpenseDTO expense = entry.getExpense();
+            if (entry.getCommitments().isEmpty()) {
+                csv.writeRecord(record(expense, null, null));
+            }
+            for (LedgerCommitmentDTO commitment : entry.getCommitments()) {
+                if (commitment.getPayments().isEmpty()) {
+                    csv.writeRecord(record(expense, commitment.getCommitment(), null));
+                }
+                for (PaymentDTO payment : commitment.getPayments()) {
+                    csv.writeRecord(record(expense, commitment.getCommitment(), payment));
+                }
+            }
+        }
+
+        private static List<Object> record(ExpenseDTO expense, CommitmentDTO commitment, PaymentDTO payment) {
+            List<Object> fields = new ArrayList<>(CSV_HEADER.size());
+            fields.add(expense.getProtocolNumber());
+            fields.add(expense.getExpenseType().name());
+            fields.add(PROTOCOL_DATE_FORMAT.format(expense.getProtocolDate()));
+            fields.add(DATE_FORMAT.format(expense.getDueDate()));
+            fields.add(expense.getCreditor());
+            fields.add(expense.getDescription());
+            fields.add(expense.getAmount().toPlainString());
+            fields.add(expense.getStatus() != null ? expense.getStatus().name() : null);
+
+            fields.add(commitment != null ? commitment.getCommitmentNumber() : null);
+            fields.add(commitment != null ? DATE_FORMAT.format(commitment.getCommitmentDate()) : null);
+            fields.add(commitment != null ? commitment.getAmount().toPlainString() : null);
+            fields.add(commitment != null ? commitment.getNote() : null);
+
+            fields.add(payment != null ? payment.getPaymentNumber() : null);
+            fields.add(payment != null ? DATE_FORMAT.format(payment.getPaymentDate()) : null);
+            fields.add(payment != null ? payment.getAmount().toPlainString() : null);
+            fields.add(payment != null ? payment.getNote() : null);
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.ImportProperties;
+import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.ImportErrorDTO;
+import com.sop.financialcontrol.dto.ImportResultDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+import com.sop.financialcontrol.mapper.ExpenseMapper;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Service for importing expenses from CSV files.
+ * The file is streamed record by record and processed in chunks: the request thread parses and
+ * validates the next chunk while a writer thread de-duplicates the previous chunk against the
+ * existing protocol numbers and inserts it in its own transaction. At most two chunks are held
+ * in memory, regardless of the file size.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseImportService {
+
+    private static final String COLUMN_PROTOCOL_NUMBER = "protocolNumber";
+    private static final String COLUMN_EXPENSE_TYPE = "expenseType";
+    private static final String COLUMN_PROTOCOL_DATE = "protocolDate";
+    private static final String COLUMN_DUE_DATE = "dueDate";
+    private static final String COLUMN_CREDITOR = "creditor";
+    private static final String COLUMN_DESCRIPTION = "description";
+    private static final String COLUMN_AMOUNT = "amount";
+
+    private static final List<String> COLUMNS = List.of(COLUMN_PROTOCOL_NUMBER, COLUMN_EXPENSE_TYPE,
+            COLUMN_PROTOCOL_DATE, COLUMN_DUE_DATE, COLUMN_CREDITOR, COLUMN_DESCRIPTION, COLUMN_AMOUNT);
+
+    // Same patterns as the @JsonFormat of ExpenseDTO
+    private static final DateTimeFormatter PROTOCOL_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseMapper expenseMapper;
+    private final ImportProperties importProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CreditorIndex creditorIndex;
+    private final ExpenseTextSearch expenseTextSearch;
+    private final DashboardRollupTracker dashboardRollupTracker;
+    private final ChangeLogRecorder changeLogRecorder;
+
+    /**
+     * Import expenses from a CSV file.
+     * The first record must be a header naming the columns protocolNumber, expenseType, protocolDate,
+     * dueDate, creditor, description and amount, in any order. Rows that fail validation or whose
+     * protocol number already exists are reported and skipped; the other rows are imported.
+     *
+     * @param input The CSV content, encoded in UTF-8
+     * @param delimiter The field delimiter
+     * @return The import result with the rejected lines
+     * @throws BusinessException if the header is invalid or the file cannot be read
+     */
+    public ImportResultDTO importExpenses(InputStream input, char delimiter) {
+        ImportState state = new ImportState(importProperties.getMaxReportedErrors());
+        ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "expense-import-writer"));
+
+        try (CsvReader csv = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8), delimiter,
+                importProperties.getMaxRecordLength())) {
+            Header header = readHeader(csv);
+
+            Future<?> pendingChunk = null;
+            List<ExpenseRow> chunk = new ArrayList<>(importProperties.getChunkSize());
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                ExpenseRow row = parseRow(record, csv.getRecordLineNumber(), header, state);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == importProperties.getChunkSize()) {
+                    awaitChunk(pendingChunk);
+                    List<ExpenseRow> rows = chunk;
+                    pendingChunk = writer.submit(() -> writeChunk(rows, state));
+                    chunk = new ArrayList<>(importProperties.getChunkSize());
+                }
+            }
+
+            awaitChunk(pendingChunk);
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, state);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Could not read the import file after " + state.getImported()
+                    + " imported rows: " + e.getMessage(), e);
+        } finally {
+            writer.shutdownNow();
+        }
+
+        ImportResultDTO result = state.toResult();
+        log.info("Expense import finished: {} rows, {} imported, {} failed",
+                result.getTotalRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Read the header record and map each required column to its position.
+     *
+     * @param csv The CSV reader
+     * @return The header
+     * @throws IOException if the file cannot be read
+     * @throws BusinessException if the header is missing or lacks a required column
+     */
+    private Header readHeader(CsvReader csv) throws IOException {
+        List<String> record = csv.readRecord();
+        if (record == null) {
+            throw new BusinessException("The import file is empty");
+        }
+
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < record.size(); i++) {
+            positions.put(record.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (String column : COLUMNS) {
+            Integer position = positions.get(column.toLowerCase(Locale.ROOT));
+            if (position == null) {
+                throw new BusinessException("The import file header is missing the column: " + column);
+            }
+            columns.put(column, position);
+        }
+        return new Header(columns, record.size());
+    }
+
+    /**
+     * Parse and validate a record. Rejected records are reported to the import state.
+     *
+     * @param record The record fields
+     * @param line The line where the record starts
+     * @param header The file header
+     * @param state The import state
+     * @return The parsed row, or null if the record was rejected
+     */
+    private ExpenseRow parseRow(List<String> record, int line, Header header, ImportState state) {
+        state.countRow();
+        if (record.size() != header.size) {
+            state.reject(line, null, "Expected " + header.size + " columns but found " + record.size());
+            return null;
+        }
+
+        String protocolNumber = record.get(header.get(COLUMN_PROTOCOL_NUMBER)).trim();
+        try {
+            ExpenseDTO expenseDTO = ExpenseDTO.builder()
+                    .protocolNumber(protocolNumber)
+                    .expenseType(parseExpenseType(record.get(header.get(COLUMN_EXPENSE_TYPE))))
+                    .protocolDate(LocalDateTime.parse(record.get(header.get(COLUMN_PROTOCOL_DATE)).trim(), PROTOCOL_DATE_FORMAT))
+                    .dueDate(LocalDate.parse(record.get(header.get(COLUMN_DUE_DATE)).trim(), DUE_DATE_FORMAT))
+                    .creditor(record.get(header.get(COLUMN_CREDITOR)).trim())
+                    .description(record.get(header.get(COLUMN_DESCRIPTION)).trim())
+                    .amount(parseAmount(record.get(header.get(COLUMN_AMOUNT))))
+                    .status(ExpenseStatus.AWAITING_COMMITMENT)
+                    .build();
+
+            String error = BatchSupport.validateItem(validator, expenseDTO);
+            if (error != null) {
+                state.reject(line, protocolNumber, error);
+                return null;
+            }
+            ExpenseService.validateProtocolNumber(protocolNumber);
+
+            return new ExpenseRow(line, expenseDTO);
+        } catch (DateTimeParseException e) {
+            state.reject(line, protocolNumber, "Invalid date: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            state.reject(line, protocolNumber, e.getMessage());
+        } catch (BusinessException e) {
+            state.reject(line, protocolNumber, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * De-duplicate a chunk of parsed rows and insert the remaining ones in a single transaction.
+     *
+     * @param rows The parsed rows
+     * @param state The import state
+     */
+    private void writeChunk(List<ExpenseRow> rows, ImportState state) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<String> protocolNumbers = rows.stream()
+                    .map(row -> row.expenseDTO.getProtocolNumber())
+                    .collect(Collectors.toSet());
+            Set<String> existingNumbers = new HashSet<>(expenseRepository.findExistingProtocolNumbers(protocolNumbers));
+
+            Set<String> chunkNumbers = new HashSet<>();
+            List<Expense> expenses = new ArrayList<>(rows.size());
+            for (ExpenseRow row : rows) {
+                String protocolNumber = row.expenseDTO.getProtocolNumber();
+                if (existingNumbers.contains(protocolNumber) || !chunkNumbers.add(protocolNumber)) {
+                    state.reject(row.line, protocolNumber, "An expense with protocol number " + protocolNumber + " already exists");
+                    continue;
+                }
+                expenses.add(expenseMapper.toEntity(row.expenseDTO));
+            }
+
+            expenseRepository.saveAll(expenses);
+            expenses.forEach(expense -> {
+                dashboardRollupTracker.expenseCreated(expense);
+                changeLogRecorder.expenseCreated(expense);
+                creditorIndex.creditorAdded(expense.getCreditor());
+                expenseTextSearch.index(expense);
+            });
+            return expenses.size();
+        });
+        state.countImported(inserted != null ? inserted : 0);
+    }
+
+    /**
+     * Wait for the previous chunk to be written, propagating its failure.
+     *
+     * @param pendingChunk The future of the previous chunk, or null
+     */
+    private static void awaitChunk(Future<?> pendingChunk) {
+        if (pendingChunk == null) {
+            return;
+        }
+        try {
+            pendingChunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BusinessException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static ExpenseType parseExpenseType(String value) {
+        String trimmed = value.trim();
+        ExpenseType expenseType = ExpenseType.fromDisplayName(trimmed);
+        if (expenseType != null) {
+            return expenseType;
+        }
+        try {
+            return ExpenseType.valueOf(trimmed.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid expense type: " + trimmed);
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        String trimmed = value.trim();
+        // Accept the Brazilian decimal comma when no decimal point is present
+        if (trimmed.indexOf('.') < 0) {
+            trimmed = trimmed.replace(',', '.');
+        }
+        try {
+            return new BigDecimal(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value.trim());
+        }
+    }
+
+    /**
+     * Position of each required column in the file, and the number of columns per record.
+     */
+    private static final class Header {
+        private final Map<String, Integer> columns;
+        private final int size;
+
+        private Header(Map<String, Integer> columns, int size) {
+            this.columns = columns;
+            this.size = size;
+        }
+
+        private int get(String column) {
+            return columns.get(column);
+        }
+    }
+
+    /**
+     * A parsed and validated CSV row waiting to be written.
+     */
+    private static final class ExpenseRow {
+        private final int line;
+        private final ExpenseDTO expenseDTO;
+
+        private ExpenseRow(int line, ExpenseDTO expenseDTO) {
+            this.line = line;
+            this.expenseDTO = expenseDTO;
+        }
+    }
+
+    /**
+     * Counters and rejected lines of an import, shared by the reader and writer threads.
+     */
+    private static final class ImportState {
+        private final int maxReportedErrors;
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long failed;
+
+        private ImportState(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        synchronized void countRow() {
+            totalRows++;
+        }
+
+        synchronized void countImported(int count) {
+            imported += count;
+        }
+
+        synchronized long getImported() {
+            return imported;
+        }
+
+        synchronized void reject(int line, String protocolNumber, String error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(ImportErrorDTO.builder().line(line).protocolNumber(protocolNumber).error(error).build());
+            }
+        }
+
+        synchronized ImportResultDTO toResult() {
+            errors.sort(Comparator.comparingInt(ImportErrorDTO::getLine));
+            return ImportResultDTO.builder()
+                    .totalRows(totalRows)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -1,21 +1,44 @@
 package com.sop.financialcontrol.service;
 
+import com.sop.financialcontrol.config.BatchProperties;
+import com.sop.financialcontrol.config.CacheConfig;
+import com.sop.financialcontrol.config.PaginationProperties;
+import com.sop.financialcontrol.dto.CreditorSuggestionDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
 import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.ExpenseSearchCriteria;
+import com.sop.financialcontrol.dto.ExpenseTextMatchDTO;
+import com.sop.financialcontrol.dto.LedgerCommitmentDTO;
+import com.sop.financialcontrol.dto.LedgerExpenseDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
 import com.sop.financialcontrol.exception.BusinessException;
 import com.sop.financialcontrol.exception.ResourceNotFoundException;    
+import com.sop.financialcontrol.mapper.CommitmentMapper;
 import com.sop.financialcontrol.mapper.ExpenseMapper;
+import com.sop.financialcontrol.mapper.PaymentMapper;
+import com.sop.financialcontrol.model.Commitment;
 import com.sop.financialcontrol.model.Expense;
 import com.sop.financialcontrol.model.ExpenseStatus;
-import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.model.Payment;
 import com.sop.financialcontrol.repository.ExpenseRepository;
+import com.sop.financialcontrol.repository.ExpenseSpecifications;
+import com.sop.financialcontrol.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Service for handling Expense-related business logic.
@@ -25,22 +48,162 @@ import java.util.regex.Pattern;
 public class ExpenseService {
 
     private final ExpenseRepository expenseRepository;
-    private final CommitmentRepository commitmentRepository;
     private final ExpenseMapper expenseMapper;
+    private final PaymentRepository paymentRepository;
+    private final CommitmentMapper commitmentMapper;
+    private final PaymentMapper paymentMapper;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final LookupCacheInvalidator lookupCacheInvalidator;
+    private final CreditorIndex creditorIndex;
+    private final ExpenseTextSearch expenseTextSearch;
+    private final DashboardRollupTracker dashboardRollupTracker;
+    private final ChangeLogRecorder changeLogRecorder;
+    private final ExpenseStatusUpdater expenseStatusUpdater;
+    private final OperationProfiler operationProfiler;
 
     // Regular expression for protocol number validation
     private static final Pattern PROTOCOL_NUMBER_PATTERN = 
             Pattern.compile("^\\d{5}\\.\\d{6}/\\d{4}-\\d{2}$");
 
     /**
-     * Get all expenses.
+     * Get a page of expenses ordered by ID.
      *
-     * @return A list of all expenses as DTOs
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return A page of expenses as DTOs
+     * @throws BusinessException if the cursor is invalid
      */
     @Transactional(readOnly = true)
-    public List<ExpenseDTO> getAllExpenses() {
-        List<Expense> expenses = expenseRepository.findAll();
-        return expenseMapper.toDtoList(expenses);
+    public CursorPageDTO<ExpenseDTO> getAllExpenses(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        List<Expense> expenses = expenseRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetCursor.decode(cursor), KeysetCursor.limit(pageSize));
+        return KeysetCursor.toPage(expenses, pageSize, Expense::getId, expenseMapper::toDtoList);
+    }
+
+    /**
+     * Get the version of a page of expenses, without loading it.
+     *
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return The version of the page
+     * @throws BusinessException if the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getExpensePageVersion(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        long afterId = KeysetCursor.decode(cursor);
+        return ResourceVersion.of("expenses:" + afterId + ":" + pageSize,
+                expenseRepository.fingerprintPage(afterId, pageSize + 1));
+    }
+
+    /**
+     * Get the version of an expense, without loading it.
+     *
+     * @param id The ID of the expense
+     * @return The version of the expense, or empty if it does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> getExpenseVersion(Long id) {
+        return ResourceVersion.ofResource("expense", expenseRepository.fingerprintById(id));
+    }
+
+    /**
+     * Search expenses matching every filter set in the criteria, ordered by ID.
+     *
+     * @param criteria The search filters
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return A page of matching expenses as DTOs
+     * @throws BusinessException if the cursor is invalid or a range has its bounds reversed
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> searchExpenses(ExpenseSearchCriteria criteria, String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+
+        // Validate the ranges
+        checkRange("due date", criteria.getDueDateFrom(), criteria.getDueDateTo());
+        checkRange("amount", criteria.getAmountMin(), criteria.getAmountMax());
+        checkRange("protocol date", criteria.getProtocolDateFrom(), criteria.getProtocolDateTo());
+
+        // Combine the filters that are set into a single query
+        Specification<Expense> specification = Specification
+                .where(ExpenseSpecifications.idGreaterThan(KeysetCursor.decode(cursor)))
+                .and(ExpenseSpecifications.hasStatus(criteria.getStatus()))
+                .and(ExpenseSpecifications.hasExpenseType(criteria.getExpenseType()))
+                .and(ExpenseSpecifications.creditorContains(criteria.getCreditor()))
+                .and(ExpenseSpecifications.dueDateBetween(criteria.getDueDateFrom(), criteria.getDueDateTo()))
+                .and(ExpenseSpecifications.amountBetween(criteria.getAmountMin(), criteria.getAmountMax()))
+                .and(ExpenseSpecifications.protocolDateBetween(criteria.getProtocolDateFrom(), criteria.getProtocolDateTo()));
+
+        List<Expense> expenses = expenseRepository.search(specification, pageSize + 1);
+        return KeysetCursor.toPage(expenses, pageSize, Expense::getId, expenseMapper::toDtoList);
+    }
+
+    /**
+     * Search expenses by the words of their creditor and description, most relevant first.
+     *
+     * @param query The words to search for
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return A page of matching expenses with their rank
+     * @throws BusinessException if the query is blank or the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseTextMatchDTO> searchExpensesByText(String query, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("The search text is required");
+        }
+        int pageSize = paginationProperties.resolveSize(size);
+
+        // Rank the matches, fetching one extra hit to detect whether a next page exists
+        List<TextSearchHit> hits = expenseTextSearch.search(query, RankedCursor.decode(cursor), pageSize + 1);
+        boolean hasNext = hits.size() > pageSize;
+        List<TextSearchHit> pageHits = hasNext ? hits.subList(0, pageSize) : hits;
+
+        // Load the expenses of the page and return them in rank order
+        Map<Long, Expense> expenses = new HashMap<>();
+        expenseRepository.findAllById(pageHits.stream().map(TextSearchHit::getExpenseId).collect(Collectors.toList()))
+                .forEach(expense -> expenses.put(expense.getId(), expense));
+        List<ExpenseTextMatchDTO> content = new ArrayList<>(pageHits.size());
+        for (TextSearchHit hit : pageHits) {
+            Expense expense = expenses.get(hit.getExpenseId());
+            if (expense != null) {
+                content.add(ExpenseTextMatchDTO.builder()
+                        .expense(expenseMapper.toDto(expense))
+                        .rank(hit.getRank())
+                        .build());
+            }
+        }
+
+        return CursorPageDTO.<ExpenseTextMatchDTO>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? RankedCursor.encode(pageHits.get(pageHits.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Suggest creditors starting with a prefix, from the in-memory creditor index.
+     *
+     * @param prefix The typed prefix, matched ignoring case and accents
+     * @param limit The maximum number of suggestions, or null for the default
+     * @return The suggestions, most used creditors first
+     */
+    public List<CreditorSuggestionDTO> suggestCreditors(String prefix, Integer limit) {
+        return creditorIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Recompute the status of an expense if a deferred recomputation may be pending, so that the
+     * next read returns the status resulting from the caller's own writes.
+     *
+     * @param id The ID of the expense
+     */
+    public void refreshStatus(Long id) {
+        expenseStatusUpdater.refresh(id);
     }
 
     /**
@@ -50,12 +213,82 @@ public class ExpenseService {
      * @return The expense as a DTO
      * @throws ResourceNotFoundException if the expense is not found
      */
+    @Cacheable(CacheConfig.EXPENSES)
     @Transactional(readOnly = true)
     public ExpenseDTO getExpenseById(Long id) {
         Expense expense = findExpenseById(id);
         return expenseMapper.toDto(expense);
     }
 
+    /**
+     * Get the expenses with the given IDs, in a single query.
+     *
+     * @param ids The IDs of the expenses to retrieve
+     * @return The expenses found in request order, and the IDs not found
+     * @throws BusinessException if no ID is given, an ID is null or there are too many IDs
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO<ExpenseDTO, Long> getExpensesByIds(List<Long> ids) {
+        Set<Long> keys = BatchSupport.lookupKeys(ids, batchProperties.getMaxLookupSize());
+        return BatchSupport.toLookupResult(keys, expenseRepository.findByIdIn(keys), Expense::getId, expenseMapper::toDto);
+    }
+
+    /**
+     * Get the expenses with the given protocol numbers, in a single query.
+     *
+     * @param protocolNumbers The protocol numbers of the expenses to retrieve
+     * @return The expenses found in request order, and the protocol numbers not found
+     * @throws BusinessException if no protocol number is given, one is null or there are too many
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO<ExpenseDTO, String> getExpensesByProtocolNumbers(List<String> protocolNumbers) {
+        Set<String> keys = BatchSupport.lookupKeys(protocolNumbers, batchProperties.getMaxLookupSize());
+        return BatchSupport.toLookupResult(keys, expenseRepository.findByProtocolNumberIn(keys),
+                Expense::getProtocolNumber, expenseMapper::toDto);
+    }
+
+    /**
+     * Get an expense with its commitments and all their payments.
+     * Runs two queries whatever the number of commitments: the expense with its commitments, then
+     * the payments of all those commitments. Fetching both collections in one join would repeat
+     * every commitment once per payment.
+     *
+     * @param id The ID of the expense to retrieve
+     * @return The expense with its commitments and payments, ordered by ID
+     * @throws ResourceNotFoundException if the expense is not found
+     */
+    @Transactional(readOnly = true)
+    public LedgerExpenseDTO getExpenseTree(Long id) {
+        OperationTrace trace = operationProfiler.start("ExpenseService.getExpenseTree");
+        trace.entity(id);
+        Expense expense = expenseRepository.findWithCommitmentsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + id));
+        trace.persisted();
+        trace.childrenLoaded(expense.getCommitments().size());
+
+        Map<Long, LedgerCommitmentDTO> commitments = new HashMap<>();
+        LedgerExpenseDTO tree = LedgerExpenseDTO.builder().expense(expenseMapper.toDto(expense)).build();
+        expense.getCommitments().stream()
+                .sorted(Comparator.comparing(Commitment::getId))
+                .forEach(commitment -> {
+                    LedgerCommitmentDTO entry = LedgerCommitmentDTO.builder()
+                            .commitment(commitmentMapper.toDto(commitment))
+                            .build();
+                    commitments.put(commitment.getId(), entry);
+                    tree.getCommitments().add(entry);
+                });
+
+        if (!commitments.isEmpty()) {
+            List<Payment> payments = paymentRepository.findByExpenseIdOrderByCommitmentId(id);
+            trace.persisted();
+            trace.childrenLoaded(payments.size());
+            for (Payment payment : payments) {
+                commitments.get(payment.getCommitment().getId()).getPayments().add(paymentMapper.toDto(payment));
+            }
+        }
+        return tree;
+    }
+
     /**
      * Get an expense by its protocol number.
      *
@@ -63,6 +296,7 @@ public class ExpenseService {
      * @return The expense as a DTO
      * @throws ResourceNotFoundException if the expense is not found
      */
+    @Cacheable(CacheConfig.EXPENSES_BY_PROTOCOL_NUMBER)
     @Transactional(readOnly = true)
     public ExpenseDTO getExpenseByProtocolNumber(String protocolNumber) {
         Expense expense = expenseRepository.findByProtocolNumber(protocolNumber)
@@ -79,6 +313,8 @@ public class ExpenseService {
      */
     @Transactional
     public ExpenseDTO createExpense(ExpenseDTO expenseDTO) {
+        OperationTrace trace = operationProfiler.start("ExpenseService.createExpense");
+
         // Validate protocol number format
         validateProtocolNumber(expenseDTO.getProtocolNumber());
 
@@ -86,6 +322,7 @@ public class ExpenseService {
         if (expenseRepository.existsByProtocolNumber(expenseDTO.getProtocolNumber())) {
             throw new BusinessException("An expense with protocol number " + expenseDTO.getProtocolNumber() + " already exists");
         }
+        trace.validated();
 
         // Set initial status
         expenseDTO.setStatus(ExpenseStatus.AWAITING_COMMITMENT);
@@ -93,6 +330,12 @@ public class ExpenseService {
         // Convert DTO to entity and save
         Expense expense = expenseMapper.toEntity(expenseDTO);
         Expense savedExpense = expenseRepository.save(expense);
+        dashboardRollupTracker.expenseCreated(savedExpense);
+        changeLogRecorder.expenseCreated(savedExpense);
+        trace.persisted();
+        trace.entity(savedExpense.getId());
+        creditorIndex.creditorAdded(savedExpense.getCreditor());
+        expenseTextSearch.index(savedExpense);
 
         return expenseMapper.toDto(savedExpense);
     }
@@ -108,7 +351,11 @@ public class ExpenseService {
      */
     @Transactional
     public ExpenseDTO updateExpense(Long id, ExpenseDTO expenseDTO) {
-        Expense existingExpense = findExpenseById(id);
+        OperationTrace trace = operationProfiler.start("ExpenseService.updateExpense");
+        trace.entity(id);
+        Expense existingExpense = lockExpenseById(id);
+        dashboardRollupTracker.expenseChanging(existingExpense);
+        trace.persisted();
 
         // Validate protocol number format
         validateProtocolNumber(expenseDTO.getProtocolNumber());
@@ -118,20 +365,35 @@ public class ExpenseService {
                 expenseRepository.existsByProtocolNumber(expenseDTO.getProtocolNumber())) {
             throw new BusinessException("An expense with protocol number " + expenseDTO.getProtocolNumber() + " already exists");
         }
+        trace.validated();
 
         // Check if the amount is being reduced below the committed amount
-        BigDecimal totalCommitted = commitmentRepository.calculateTotalCommittedAmountForExpense(id);
+        BigDecimal totalCommitted = existingExpense.getTotalCommitted();
         if (expenseDTO.getAmount().compareTo(totalCommitted) < 0) {
             throw new BusinessException("Cannot reduce expense amount below the total committed amount: " + totalCommitted);
         }
+        trace.balanceChecked();
 
         // Update the entity
+        String previousProtocolNumber = existingExpense.getProtocolNumber();
+        String previousCreditor = existingExpense.getCreditor();
+        BigDecimal previousAmount = existingExpense.getAmount();
         Expense updatedExpense = expenseMapper.updateEntityFromDto(expenseDTO, existingExpense);
         
         // Update status based on commitments and payments
         updatedExpense.updateStatus();
+        trace.statusUpdated();
         
         Expense savedExpense = expenseRepository.save(updatedExpense);
+        changeLogRecorder.expenseChanged(savedExpense);
+        trace.persisted();
+
+        // Evict the cached expense, and its children when the protocol number or amount they embed changed
+        lookupCacheInvalidator.evictUpdatedExpense(savedExpense, previousProtocolNumber,
+                !previousProtocolNumber.equals(savedExpense.getProtocolNumber())
+                        || previousAmount.compareTo(savedExpense.getAmount()) != 0);
+        creditorIndex.creditorChanged(previousCreditor, savedExpense.getCreditor());
+        expenseTextSearch.index(savedExpense);
 
         return expenseMapper.toDto(savedExpense);
     }
@@ -145,14 +407,24 @@ public class ExpenseService {
      */
     @Transactional
     public void deleteExpense(Long id) {
-        Expense expense = findExpenseById(id);
+        OperationTrace trace = operationProfiler.start("ExpenseService.deleteExpense");
+        trace.entity(id);
+        Expense expense = lockExpenseById(id);
+        trace.persisted();
 
         // Check if the expense has any commitments
-        if (!expense.getCommitments().isEmpty()) {
+        if (expense.getCommitmentCount() > 0) {
             throw new BusinessException("Cannot delete expense with associated commitments");
         }
+        trace.balanceChecked();
 
         expenseRepository.delete(expense);
+        dashboardRollupTracker.expenseDeleted(expense);
+        changeLogRecorder.expenseDeleted(expense);
+        trace.persisted();
+        lookupCacheInvalidator.evictExpense(expense);
+        creditorIndex.creditorRemoved(expense.getCreditor());
+        expenseTextSearch.remove(expense.getId());
     }
 
     /**
@@ -179,13 +451,41 @@ public class ExpenseService {
                 .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + id));
     }
 
+    /**
+     * Find an expense by its ID and lock it for the rest of the transaction,
+     * so its running totals cannot change while it is being modified.
+     *
+     * @param id The ID of the expense to lock
+     * @return The locked expense entity
+     * @throws ResourceNotFoundException if the expense is not found
+     */
+    private Expense lockExpenseById(Long id) {
+        return expenseRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + id));
+    }
+
+    /**
+     * Check that the lower bound of a range is not after its upper bound.
+     *
+     * @param name The name of the range, used in the error message
+     * @param from The lower bound, or null
+     * @param to The upper bound, or null
+     * @param <T> The type of the bounds
+     * @throws BusinessException if both bounds are set and reversed
+     */
+    private static <T extends Comparable<? super T>> void checkRange(String name, T from, T to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new BusinessException("Invalid " + name + " range: the start is after the end");
+        }
+    }
+
     /**
      * Validate the format of a protocol number.
      *
      * @param protocolNumber The protocol number to validate
      * @throws BusinessException if the protocol number is invalid
      */
-    private void validateProtocolNumber(String protocolNumber) {
+    static void validateProtocolNumber(String protocolNumber) {
         if (!PROTOCOL_NUMBER_PATTERN.matcher(protocolNumber).matches()) {
             throw new BusinessException("Invalid protocol number format. Expected format: #####.######/####-##");
         }
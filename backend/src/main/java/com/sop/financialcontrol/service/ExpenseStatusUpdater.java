@@ -0,0 +1,179 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.ExpenseStatusProperties;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.repository.AmountTotal;
+import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import com.sop.financialcontrol.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the expense statuses in step with the commitments and payments.
+ * By default the status is updated in the writing transaction. In asynchronous mode the writers
+ * only queue the expense ID once they have committed; a worker drains the queue every window, so
+ * all the writes to an expense within a window cause a single recomputation, and recomputes the
+ * queued expenses in batches under their locks, from two grouped aggregate queries per batch.
+ * Callers that need the fresh status of an expense right after a write call {@link #refresh}.
+ * The queue lives in memory: statuses left stale by a stop are found by a sweep at startup.
+ */
+@Slf4j
+@Component
+public class ExpenseStatusUpdater {
+
+    private final ExpenseRepository expenseRepository;
+    private final CommitmentRepository commitmentRepository;
+    private final PaymentRepository paymentRepository;
+    private final DashboardRollupTracker dashboardRollupTracker;
+    private final ChangeLogRecorder changeLogRecorder;
+    private final LookupCacheInvalidator lookupCacheInvalidator;
+    private final ExpenseStatusProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    // IDs of the expenses whose status must be recomputed
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public ExpenseStatusUpdater(ExpenseRepository expenseRepository, CommitmentRepository commitmentRepository,
+                                PaymentRepository paymentRepository, DashboardRollupTracker dashboardRollupTracker,
+                                ChangeLogRecorder changeLogRecorder, LookupCacheInvalidator lookupCacheInvalidator,
+                                ExpenseStatusProperties properties, PlatformTransactionManager transactionManager) {
+        this.expenseRepository = expenseRepository;
+        this.commitmentRepository = commitmentRepository;
+        this.paymentRepository = paymentRepository;
+        this.dashboardRollupTracker = dashboardRollupTracker;
+        this.changeLogRecorder = changeLogRecorder;
+        this.lookupCacheInvalidator = lookupCacheInvalidator;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Report an expense whose commitments or payments changed. Must be called after its running
+     * totals are updated, with the expense locked.
+     *
+     * @param expense The expense
+     */
+    public void totalsChanged(Expense expense) {
+        if (!properties.isAsync()) {
+            expense.updateStatus();
+            return;
+        }
+        Long expenseId = expense.getId();
+        TransactionCallbacks.afterCommit(() -> pending.add(expenseId));
+    }
+
+    /**
+     * Recompute the status of an expense now if it may be stale, so the caller reads its own writes.
+     * Always recomputes in asynchronous mode, since the write may have been queued on another node.
+     *
+     * @param expenseId The expense ID
+     */
+    public void refresh(Long expenseId) {
+        if (properties.isAsync()) {
+            pending.remove(expenseId);
+            transactionTemplate.executeWithoutResult(status -> recompute(List.of(expenseId)));
+        }
+    }
+
+    /**
+     * Recompute the statuses queued during the last window.
+     */
+    @Scheduled(fixedDelayString = "${app.expense-status.window-ms:200}")
+    public void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Take the queued IDs; writes committed from now on queue them again
+        List<Long> expenseIds = new ArrayList<>(pending);
+        pending.removeAll(expenseIds);
+
+        int changed = 0;
+        for (int from = 0; from < expenseIds.size(); from += properties.getBatchSize()) {
+            List<Long> batch = expenseIds.subList(from, Math.min(from + properties.getBatchSize(), expenseIds.size()));
+            try {
+                changed += transactionTemplate.execute(status -> recompute(batch));
+            } catch (RuntimeException e) {
+                // Queue the batch again for the next window
+                pending.addAll(batch);
+                log.warn("Could not recompute the status of {} expenses; retrying in the next window", batch.size(), e);
+            }
+        }
+        log.debug("Recomputed the status of {} expenses, {} changed", expenseIds.size(), changed);
+    }
+
+    /**
+     * Queue the expenses whose status does not match their totals, at startup in asynchronous mode.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void sweep() {
+        if (!properties.isAsync()) {
+            return;
+        }
+        List<Long> stale = expenseRepository.findIdsWithStaleStatus(ExpenseStatus.AWAITING_COMMITMENT,
+                ExpenseStatus.PARTIALLY_COMMITTED, ExpenseStatus.AWAITING_PAYMENT, ExpenseStatus.PARTIALLY_PAID,
+                ExpenseStatus.PAID);
+        pending.addAll(stale);
+        log.info("Queued {} expenses with a stale status for recomputation", stale.size());
+    }
+
+    /**
+     * Recompute the statuses of expenses in the current transaction, from the commitments and payments.
+     *
+     * @param expenseIds The expense IDs
+     * @return The number of expenses whose status changed
+     */
+    private int recompute(Collection<Long> expenseIds) {
+        // Lock the expenses in ID order first, so the aggregates cannot change under us
+        List<Expense> expenses = expenseRepository.findAllByIdForUpdate(new TreeSet<>(expenseIds));
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        Map<Long, AmountTotal> committed = index(commitmentRepository.sumAmountsByExpenseIds(expenseIds));
+        Map<Long, AmountTotal> paid = index(paymentRepository.sumAmountsByExpenseIds(expenseIds));
+
+        int changed = 0;
+        for (Expense expense : expenses) {
+            AmountTotal commitments = committed.get(expense.getId());
+            AmountTotal payments = paid.get(expense.getId());
+            ExpenseStatus status = Expense.statusOf(expense.getAmount(),
+                    commitments != null ? commitments.getItemCount().intValue() : 0,
+                    commitments != null ? commitments.getTotalAmount() : BigDecimal.ZERO,
+                    payments != null ? payments.getTotalAmount() : BigDecimal.ZERO);
+            if (status == expense.getStatus()) {
+                continue;
+            }
+            dashboardRollupTracker.expenseChanging(expense);
+            expense.setStatus(status);
+            changeLogRecorder.expenseChanged(expense);
+            lookupCacheInvalidator.evictExpense(expense);
+            changed++;
+        }
+        return changed;
+    }
+
+    private static Map<Long, AmountTotal> index(List<AmountTotal> totals) {
+        Map<Long, AmountTotal> index = new HashMap<>();
+        for (AmountTotal total : totals) {
+            index.put(total.getParentId(), total);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.model.Expense;
+
+import java.util.List;
+
+/**
+ * Full-text search over the creditor and description of expenses.
+ */
+public interface ExpenseTextSearch {
+
+    /**
+     * Find the expenses matching every word of a query, most relevant first.
+     *
+     * @param query The words to search for
+     * @param after The last hit of the previous page, or null for the first page
+     * @param limit The maximum number of hits to return
+     * @return The hits ordered by descending rank, then by expense ID
+     */
+    List<TextSearchHit> search(String query, TextSearchHit after, int limit);
+
+    /**
+     * Index a created or updated expense. Engines that index in the database ignore this call.
+     *
+     * @param expense The expense
+     */
+    default void index(Expense expense) {
+    }
+
+    /**
+     * Remove a deleted expense from the index. Engines that index in the database ignore this call.
+     *
+     * @param expenseId The ID of the expense
+     */
+    default void remove(Long expenseId) {
+    }
+}
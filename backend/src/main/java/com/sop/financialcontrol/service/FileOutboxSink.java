@@ -0,0 +1,53 @@
+package com.sop.financialcontrol.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialcontrol.config.OutboxProperties;
+import com.sop.financialcontrol.dto.OutboxEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the outbox events to a newline-delimited JSON file, one event per line. The file is
+ * forced to disk before the batch counts as delivered; a batch delivered again after a failure may
+ * appear twice, so readers must skip the IDs they have already seen.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.file.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class FileOutboxSink implements OutboxSink {
+
+    private final OutboxProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<OutboxEventDTO> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEventDTO event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        Path path = Path.of(properties.getFile().getPath());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
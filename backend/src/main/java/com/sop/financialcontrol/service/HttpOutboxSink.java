@@ -0,0 +1,58 @@
+package com.sop.financialcontrol.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialcontrol.config.OutboxProperties;
+import com.sop.financialcontrol.dto.OutboxEventDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * Posts the outbox events as a JSON array to an HTTP endpoint. Any response other than 2xx fails
+ * the batch. The IDs of the first and last events are sent in headers, so the receiver can
+ * acknowledge a batch it already processed without parsing it.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.http.enabled", havingValue = "true")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final OutboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public HttpOutboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getHttp().getTimeout())
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(List<OutboxEventDTO> events) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getHttp().getUrl()))
+                .timeout(properties.getHttp().getTimeout())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header("X-Outbox-First-Id", String.valueOf(events.get(0).getId()))
+                .header("X-Outbox-Last-Id", String.valueOf(events.get(events.size() - 1).getId()))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox endpoint answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
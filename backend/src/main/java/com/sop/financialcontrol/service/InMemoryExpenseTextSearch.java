@@ -0,0 +1,161 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search using an inverted index held in memory, for databases without a text search
+ * engine such as the H2 database of test runs. Words are normalized like creditor names (case and
+ * accents ignored) but not stemmed. Hits are ranked by TF-IDF, counting creditor words twice,
+ * in line with the weights of the Postgres engine.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.text-search.engine", havingValue = "memory")
+public class InMemoryExpenseTextSearch implements ExpenseTextSearch {
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int CREDITOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Comparator<TextSearchHit> RANKING =
+            Comparator.comparingDouble(TextSearchHit::getRank).reversed().thenComparingLong(TextSearchHit::getExpenseId);
+
+    private final ExpenseRepository expenseRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Weighted term frequency of each word, by word and expense ID
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    // Weighted term frequencies of each expense, to remove its postings when it changes
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+    /**
+     * Build the index from the database at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        expenseRepository.findAll().forEach(this::put);
+        log.info("In-memory text search index built with {} expenses and {} words", documents.size(), postings.size());
+    }
+
+    @Override
+    public List<TextSearchHit> search(String query, TextSearchHit after, int limit) {
+        Map<String, Integer> queryWords = termFrequencies(query, 1);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Intersect the postings, starting from the rarest word
+            List<Map<Long, Integer>> wordPostings = new ArrayList<>(queryWords.size());
+            for (String word : queryWords.keySet()) {
+                Map<Long, Integer> expenses = postings.get(word);
+                if (expenses == null) {
+                    return List.of();
+                }
+                wordPostings.add(expenses);
+            }
+            wordPostings.sort(Comparator.comparingInt(Map::size));
+
+            List<TextSearchHit> hits = new ArrayList<>();
+            for (Long expenseId : wordPostings.get(0).keySet()) {
+                double rank = 0;
+                boolean matchesAll = true;
+                for (Map<Long, Integer> expenses : wordPostings) {
+                    Integer frequency = expenses.get(expenseId);
+                    if (frequency == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    rank += frequency * Math.log(1 + (double) documents.size() / expenses.size());
+                }
+                TextSearchHit hit = new TextSearchHit(expenseId, rank);
+                if (matchesAll && (after == null || RANKING.compare(hit, after) > 0)) {
+                    hits.add(hit);
+                }
+            }
+
+            hits.sort(RANKING);
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Expense expense) {
+        TransactionCallbacks.afterCommit(() -> put(expense));
+    }
+
+    @Override
+    public void remove(Long expenseId) {
+        TransactionCallbacks.afterCommit(() -> delete(expenseId));
+    }
+
+    private void put(Expense expense) {
+        Map<String, Integer> frequencies = termFrequencies(expense.getCreditor(), CREDITOR_WEIGHT);
+        termFrequencies(expense.getDescription(), DESCRIPTION_WEIGHT).forEach((word, frequency) -> frequencies.merge(word, frequency, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            delete(expense.getId());
+            documents.put(expense.getId(), frequencies);
+            frequencies.forEach((word, frequency) -> postings.computeIfAbsent(word, key -> new HashMap<>()).put(expense.getId(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(Long expenseId) {
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> frequencies = documents.remove(expenseId);
+            if (frequencies == null) {
+                return;
+            }
+            for (String word : frequencies.keySet()) {
+                Map<Long, Integer> expenses = postings.get(word);
+                expenses.remove(expenseId);
+                if (expenses.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> termFrequencies(String text, int weight) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        if (text == null) {
+            return frequencies;
+        }
+        for (String word : WORD_SEPARATORS.split(CreditorIndex.normalize(text))) {
+            if (!word.isEmpty()) {
+                frequencies.merge(word, weight, Integer::sum);
+            }
+        }
+        return frequencies;
+    }
+}
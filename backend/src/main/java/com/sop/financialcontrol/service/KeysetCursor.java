@@ -0,0 +1,92 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.CursorPageDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for keyset (cursor) pagination over entity ids.
+ * Cursors are opaque to clients; internally they encode the last id of the previous page,
+ * so every page is an index range scan on the primary key regardless of its depth.
+ */
+final class KeysetCursor {
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Decode a cursor into the id after which the next page starts.
+     *
+     * @param cursor The opaque cursor, or null/blank for the first page
+     * @return The last id of the previous page, or 0 for the first page
+     * @throws BusinessException if the cursor is malformed
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new BusinessException("Invalid pagination cursor");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid pagination cursor", e);
+        }
+    }
+
+    /**
+     * Encode the last id of a page into an opaque cursor.
+     *
+     * @param lastId The id of the last element of the page
+     * @return The opaque cursor
+     */
+    static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Build the limit for a page query. One extra row is fetched to detect whether a next page exists.
+     *
+     * @param size The page size
+     * @return A Pageable limiting the query to size + 1 rows
+     */
+    static Pageable limit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    /**
+     * Build a page DTO from the rows returned by a keyset query limited with {@link #limit(int)}.
+     *
+     * @param rows The rows returned by the query, ordered by id
+     * @param size The page size
+     * @param idExtractor Function extracting the id of a row
+     * @param mapper Function mapping the page rows to DTOs
+     * @param <E> The entity type
+     * @param <D> The DTO type
+     * @return The page DTO
+     */
+    static <E, D> CursorPageDTO<D> toPage(List<E> rows, int size, Function<E, Long> idExtractor,
+                                          Function<List<E>, List<D>> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encode(idExtractor.apply(pageRows.get(pageRows.size() - 1))) : null;
+
+        return CursorPageDTO.<D>builder()
+                .content(mapper.apply(pageRows))
+                .size(pageRows.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
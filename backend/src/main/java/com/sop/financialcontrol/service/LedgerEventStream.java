@@ -0,0 +1,274 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.EventStreamProperties;
+import com.sop.financialcontrol.dto.LedgerEventDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.LedgerEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the ledger events committed on every node to the Server-Sent Events subscribers of this node.
+ * Events are delivered by the ledger event bus once their transaction has committed, and only queued
+ * on the delivering thread; a small pool of sender threads writes them to the clients. Each subscriber has a bounded
+ * buffer: a pending status transition of an expense is replaced by the newer one, and when the
+ * buffer is full the oldest events are dropped and the subscriber receives an overflow event,
+ * telling it to catch up from the change feed; so does every subscriber when the bus reports that
+ * events of other nodes were missed. A slow client therefore never holds more than its
+ * buffer, and never slows down the writers or the other clients.
+ */
+@Slf4j
+@Component
+public class LedgerEventStream {
+
+    static final String OVERFLOW_EVENT = "OVERFLOW";
+
+    private final EventStreamProperties properties;
+    private final ScheduledExecutorService senders;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+
+    public LedgerEventStream(EventStreamProperties properties) {
+        this.properties = properties;
+        this.senders = Executors.newScheduledThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "ledger-event-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        senders.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a subscription to the events of the expenses matching the filters.
+     *
+     * @param statuses The expense statuses to receive, or empty for all
+     * @param types The expense types to receive, or empty for all
+     * @return The emitter streaming the events
+     * @throws BusinessException if the node already has the maximum number of subscribers
+     */
+    public SseEmitter subscribe(Set<ExpenseStatus> statuses, Set<ExpenseType> types) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new BusinessException("Too many event stream subscribers; retry later");
+        }
+        long id = subscriberIds.incrementAndGet();
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(id, emitter, statuses, types, properties.getBufferSize());
+        emitter.onCompletion(() -> subscribers.remove(id));
+        emitter.onTimeout(() -> subscribers.remove(id));
+        emitter.onError(error -> subscribers.remove(id));
+        subscribers.put(id, subscriber);
+        log.debug("Event stream subscriber {} connected with statuses {} and types {}", id, statuses, types);
+        return emitter;
+    }
+
+    /**
+     * Queue a committed ledger event for the matching subscribers.
+     *
+     * @param event The event
+     */
+    public void deliver(LedgerEventDTO event) {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.accepts(event) && subscriber.offer(event)) {
+                senders.execute(subscriber::drain);
+            }
+        }
+    }
+
+    /**
+     * Tell every subscriber to catch up from the change feed, when events may have been missed.
+     */
+    public void eventsMissed() {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.markMissed()) {
+                senders.execute(subscriber::drain);
+            }
+        }
+        log.info("Told {} event stream subscribers to catch up after missing ledger events", subscribers.size());
+    }
+
+    /**
+     * @return The number of connected subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Send a heartbeat to the subscribers that have nothing queued.
+     */
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.requestHeartbeat()) {
+                senders.execute(subscriber::drain);
+            }
+        }
+    }
+
+    /**
+     * Close every subscription when the application stops; the clients reconnect to another node.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * A connected client with its filters and its buffer of events not sent yet.
+     */
+    private final class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final Set<ExpenseStatus> statuses;
+        private final Set<ExpenseType> types;
+        private final int bufferSize;
+        private final Deque<LedgerEventDTO> buffer = new ArrayDeque<>();
+        private long dropped;
+        // Whether events were missed before reaching the buffer
+        private boolean missed;
+        private boolean heartbeatDue;
+        // Whether a drain is scheduled or running; at most one sender writes to a client at a time
+        private boolean draining;
+
+        private Subscriber(long id, SseEmitter emitter, Set<ExpenseStatus> statuses, Set<ExpenseType> types,
+                           int bufferSize) {
+            this.id = id;
+            this.emitter = emitter;
+            this.statuses = statuses;
+            this.types = types;
+            this.bufferSize = bufferSize;
+        }
+
+        private boolean accepts(LedgerEventDTO event) {
+            return (statuses.isEmpty() || statuses.contains(event.getStatus()))
+                    && (types.isEmpty() || types.contains(event.getExpenseType()));
+        }
+
+        /**
+         * Buffer an event, coalescing it with a pending status transition of the same expense.
+         *
+         * @param event The event
+         * @return true if a drain must be scheduled
+         */
+        private synchronized boolean offer(LedgerEventDTO event) {
+            if (event.getType() == LedgerEventType.EXPENSE_STATUS_CHANGED && coalesce(event)) {
+                return false;
+            }
+            if (buffer.size() >= bufferSize) {
+                buffer.pollFirst();
+                dropped++;
+            }
+            buffer.addLast(event);
+            return schedule();
+        }
+
+        /**
+         * Replace a pending status transition of the same expense, keeping the status it started from.
+         *
+         * @param event The newer status transition
+         * @return true if a pending transition was replaced
+         */
+        private boolean coalesce(LedgerEventDTO event) {
+            Iterator<LedgerEventDTO> pending = buffer.descendingIterator();
+            while (pending.hasNext()) {
+                LedgerEventDTO queued = pending.next();
+                if (queued.getType() == LedgerEventType.EXPENSE_STATUS_CHANGED
+                        && queued.getExpenseId().equals(event.getExpenseId())) {
+                    ExpenseStatus previousStatus = queued.getPreviousStatus();
+                    pending.remove();
+                    buffer.addLast(event.toBuilder().previousStatus(previousStatus).build());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized boolean markMissed() {
+            missed = true;
+            return schedule();
+        }
+
+        private synchronized boolean requestHeartbeat() {
+            if (!buffer.isEmpty() || draining) {
+                return false;
+            }
+            heartbeatDue = true;
+            return schedule();
+        }
+
+        private boolean schedule() {
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        /**
+         * Write the buffered events to the client, until the buffer is empty.
+         */
+        private void drain() {
+            while (true) {
+                long droppedCount;
+                boolean overflow;
+                boolean heartbeat;
+                Collection<LedgerEventDTO> batch;
+                synchronized (this) {
+                    if (buffer.isEmpty() && dropped == 0 && !missed && !heartbeatDue) {
+                        draining = false;
+                        return;
+                    }
+                    droppedCount = dropped;
+                    overflow = dropped > 0 || missed;
+                    heartbeat = heartbeatDue;
+                    batch = new ArrayDeque<>(buffer);
+                    buffer.clear();
+                    dropped = 0;
+                    missed = false;
+                    heartbeatDue = false;
+                }
+                try {
+                    if (overflow) {
+                        emitter.send(SseEmitter.event().name(OVERFLOW_EVENT)
+                                .data(Map.of("dropped", droppedCount), MediaType.APPLICATION_JSON));
+                    }
+                    for (LedgerEventDTO event : batch) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.getSequence()))
+                                .name(event.getType().name())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; its emitter callbacks may not fire until the next write
+                    log.debug("Event stream subscriber {} disconnected: {}", id, e.getMessage());
+                    subscribers.remove(id);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
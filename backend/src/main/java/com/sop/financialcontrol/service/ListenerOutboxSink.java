@@ -0,0 +1,32 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.OutboxEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers the outbox events to the in-process {@code @EventListener} methods accepting
+ * {@link OutboxEventDTO}. Listeners run on the relay thread; an exception thrown by a listener fails
+ * the batch, which is delivered again to all listeners.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.listener.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ListenerOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public String getName() {
+        return "listener";
+    }
+
+    @Override
+    public void deliver(List<OutboxEventDTO> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
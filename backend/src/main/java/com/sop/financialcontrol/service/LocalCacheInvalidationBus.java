@@ -0,0 +1,49 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.service.CacheInvalidationMessage.CacheKey;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM cache invalidation bus.
+ * Every application context started in the same JVM acts as a node, so several nodes can be
+ * exercised without a database or a cluster. Messages are delivered synchronously.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation-bus", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus extends AbstractCacheInvalidationBus {
+
+    private static final List<LocalCacheInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    public LocalCacheInvalidationBus(CacheManager cacheManager) {
+        super(cacheManager);
+    }
+
+    /**
+     * Join the nodes of this JVM.
+     */
+    @PostConstruct
+    public void join() {
+        NODES.add(this);
+    }
+
+    /**
+     * Leave the nodes of this JVM.
+     */
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+    }
+
+    @Override
+    public void publish(List<CacheKey> keys) {
+        CacheInvalidationMessage message = new CacheInvalidationMessage(getNodeId(), keys);
+        NODES.forEach(node -> node.receive(message));
+    }
+}
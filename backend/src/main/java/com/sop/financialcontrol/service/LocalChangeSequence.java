@@ -0,0 +1,77 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.repository.ChangeLogEntryRepository;
+import com.sop.financialcontrol.repository.ChangeLogSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Change log sequence numbers counted in memory, for a single node on databases without sequences
+ * visible to snapshots, such as the H2 database of test runs. The numbers of each transaction are
+ * tracked until it completes, so the safe sequence number is just below the oldest of them.
+ * The counter starts after the highest number in the change log.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.changes.sequence", havingValue = "local")
+public class LocalChangeSequence implements ChangeSequence {
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeLogSequenceRepository changeLogSequenceRepository;
+
+    // Numbers reserved by transactions not completed yet, guarded by this
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+    // Last reserved number, or null until read from the change log, guarded by this
+    private Long lastSequence;
+
+    /**
+     * @throws IllegalStateException if there is no transaction
+     */
+    @Override
+    public synchronized List<Long> reserve(int count) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Sequence numbers can only be reserved inside a transaction");
+        }
+        long last = lastSequence();
+        List<Long> sequences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sequences.add(++last);
+        }
+        lastSequence = last;
+        inFlight.addAll(sequences);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(sequences);
+            }
+        });
+        return sequences;
+    }
+
+    @Override
+    public synchronized long safeSequence() {
+        return inFlight.isEmpty() ? lastSequence() : inFlight.first() - 1;
+    }
+
+    private synchronized void release(List<Long> sequences) {
+        inFlight.removeAll(sequences);
+    }
+
+    private long lastSequence() {
+        if (lastSequence == null) {
+            Long maxSequence = changeLogEntryRepository.findMaxSequence();
+            long purgedThrough = changeLogSequenceRepository.findPurgedThrough().orElse(0L);
+            lastSequence = Math.max(maxSequence != null ? maxSequence : 0L, purgedThrough);
+        }
+        return lastSequence;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.LedgerEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM ledger event bus, for a single node or for the H2 database of test runs.
+ * The ledger events published as application events after commit are delivered synchronously to
+ * the event stream of every application context started in the same JVM, each acting as a node.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "local", matchIfMissing = true)
+public class LocalLedgerEventBus {
+
+    private static final List<LocalLedgerEventBus> NODES = new CopyOnWriteArrayList<>();
+
+    private final LedgerEventStream ledgerEventStream;
+
+    /**
+     * Join the nodes of this JVM.
+     */
+    @PostConstruct
+    public void join() {
+        NODES.add(this);
+    }
+
+    /**
+     * Leave the nodes of this JVM.
+     */
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+    }
+
+    /**
+     * Deliver a ledger event committed on this node to every node.
+     *
+     * @param event The event
+     */
+    @EventListener
+    public void onLedgerEvent(LedgerEventDTO event) {
+        NODES.forEach(node -> node.ledgerEventStream.deliver(event));
+    }
+}
@@ -0,0 +1,150 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.CacheConfig;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.repository.PaymentRepository;
+import com.sop.financialcontrol.service.CacheInvalidationMessage.CacheKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Evicts the cached lookups affected by a change.
+ * Each cached DTO embeds data of its parents (a payment shows its commitment number and expense
+ * protocol number) and of its children (an expense shows its running totals), so a change evicts
+ * the changed entry, the parents whose totals moved and, when an embedded field changed, the children.
+ * Evictions are deferred until the current transaction commits, and are then published on the
+ * invalidation bus so that the other nodes evict the same keys.
+ */
+@Component
+@RequiredArgsConstructor
+public class LookupCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final CommitmentRepository commitmentRepository;
+    private final PaymentRepository paymentRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Evict an expense, for example after its data or running totals changed.
+     *
+     * @param expense The expense
+     */
+    public void evictExpense(Expense expense) {
+        evict(CacheConfig.EXPENSES, expense.getId());
+        evict(CacheConfig.EXPENSES_BY_PROTOCOL_NUMBER, expense.getProtocolNumber());
+    }
+
+    /**
+     * Evict an expense after an update, including the entry of its previous protocol number and,
+     * when a field embedded in the children changed, its commitments and payments.
+     *
+     * @param expense The updated expense
+     * @param previousProtocolNumber The protocol number before the update
+     * @param childrenChanged Whether a field embedded in the commitment and payment DTOs changed
+     */
+    public void evictUpdatedExpense(Expense expense, String previousProtocolNumber, boolean childrenChanged) {
+        evictExpense(expense);
+        evict(CacheConfig.EXPENSES_BY_PROTOCOL_NUMBER, previousProtocolNumber);
+        if (childrenChanged) {
+            commitmentRepository.findCommitmentNumbersByExpenseId(expense.getId())
+                    .forEach(commitmentNumber -> evict(CacheConfig.COMMITMENTS_BY_NUMBER, commitmentNumber));
+            paymentRepository.findPaymentNumbersByExpenseId(expense.getId())
+                    .forEach(paymentNumber -> evict(CacheConfig.PAYMENTS_BY_NUMBER, paymentNumber));
+        }
+    }
+
+    /**
+     * Evict a commitment, for example after its data or running totals changed.
+     *
+     * @param commitment The commitment
+     */
+    public void evictCommitment(Commitment commitment) {
+        evict(CacheConfig.COMMITMENTS_BY_NUMBER, commitment.getCommitmentNumber());
+    }
+
+    /**
+     * Evict a commitment after an update, including the entry of its previous commitment number and,
+     * when a field embedded in the payments changed, its payments.
+     *
+     * @param commitment The updated commitment
+     * @param previousCommitmentNumber The commitment number before the update
+     * @param childrenChanged Whether a field embedded in the payment DTOs changed
+     */
+    public void evictUpdatedCommitment(Commitment commitment, String previousCommitmentNumber, boolean childrenChanged) {
+        evictCommitment(commitment);
+        evict(CacheConfig.COMMITMENTS_BY_NUMBER, previousCommitmentNumber);
+        if (childrenChanged) {
+            paymentRepository.findPaymentNumbersByCommitmentId(commitment.getId())
+                    .forEach(paymentNumber -> evict(CacheConfig.PAYMENTS_BY_NUMBER, paymentNumber));
+        }
+    }
+
+    /**
+     * Evict a payment by its payment number.
+     *
+     * @param paymentNumber The payment number
+     */
+    public void evictPayment(String paymentNumber) {
+        evict(CacheConfig.PAYMENTS_BY_NUMBER, paymentNumber);
+    }
+
+    /**
+     * Evict a key locally and queue it for the other nodes.
+     * Inside a transaction both happen after commit; keys evicted by the same transaction are sent together.
+     *
+     * @param cacheName The name of the cache
+     * @param key The key to evict
+     */
+    private void evict(String cacheName, Object key) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName), cacheName);
+        cache.evict(key);
+
+        CacheKey cacheKey = new CacheKey(cacheName, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingKeys().add(cacheKey);
+        } else {
+            cacheInvalidationBus.publish(List.of(cacheKey));
+        }
+    }
+
+    /**
+     * Get the keys evicted by the current transaction, registering their publication after commit
+     * on the first call.
+     *
+     * @return The keys evicted by the current transaction
+     */
+    @SuppressWarnings("unchecked")
+    private Set<CacheKey> pendingKeys() {
+        Set<CacheKey> keys = (Set<CacheKey>) TransactionSynchronizationManager.getResource(this);
+        if (keys != null) {
+            return keys;
+        }
+
+        Set<CacheKey> pending = new LinkedHashSet<>();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheInvalidationBus.publish(new ArrayList<>(pending));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LookupCacheInvalidator.this);
+            }
+        });
+        return pending;
+    }
+}
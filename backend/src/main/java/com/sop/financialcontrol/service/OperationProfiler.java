@@ -0,0 +1,51 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.FlightRecorderProperties;
+import jdk.jfr.EventType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Starts the Flight Recorder traces of the service operations. Tracing is switched by
+ * {@code app.flight-recorder.enabled} at startup and by the {@code flightrecorder} actuator
+ * endpoint at runtime; events are only built when tracing is on and a recording is taking them,
+ * so a disabled profiler costs one check per operation.
+ */
+@Component
+public class OperationProfiler {
+
+    private final EventType eventType = EventType.getEventType(ServiceOperationEvent.class);
+    private volatile boolean enabled;
+
+    public OperationProfiler(FlightRecorderProperties properties) {
+        this.enabled = properties.isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switch tracing on or off.
+     *
+     * @param enabled Whether operations are traced
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start tracing an operation in the current transaction.
+     *
+     * @param operation The service and method names
+     * @return The trace, disabled when tracing is off, no recording takes the events, or there is no transaction
+     */
+    public OperationTrace start(String operation) {
+        if (!enabled || !eventType.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return OperationTrace.DISABLED;
+        }
+        OperationTrace trace = OperationTrace.start(operation);
+        TransactionSynchronizationManager.registerSynchronization(trace.completion());
+        return trace;
+    }
+}
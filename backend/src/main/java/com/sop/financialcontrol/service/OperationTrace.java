@@ -0,0 +1,130 @@
+package com.sop.financialcontrol.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+/**
+ * Times the phases of a service operation for its {@link ServiceOperationEvent}.
+ * Each phase method adds the time since the previous mark to its phase, so the operation marks
+ * the end of each step. The event is committed when the transaction of the operation completes.
+ * A disabled trace ignores every call.
+ */
+public final class OperationTrace {
+
+    static final OperationTrace DISABLED = new OperationTrace(null);
+
+    private final ServiceOperationEvent event;
+    private long mark;
+    private long operationEnd;
+
+    private OperationTrace(ServiceOperationEvent event) {
+        this.event = event;
+    }
+
+    /**
+     * Start tracing an operation, committing its event when the current transaction completes.
+     *
+     * @param operation The service and method names
+     * @return The trace
+     */
+    static OperationTrace start(String operation) {
+        OperationTrace trace = new OperationTrace(new ServiceOperationEvent());
+        trace.event.operation = operation;
+        trace.event.begin();
+        trace.mark = System.nanoTime();
+        return trace;
+    }
+
+    /**
+     * Set the ID of the entity operated on.
+     *
+     * @param entityId The expense, commitment or payment ID
+     */
+    public void entity(Long entityId) {
+        if (event != null && entityId != null) {
+            event.entityId = entityId;
+        }
+    }
+
+    /**
+     * Count loaded children.
+     *
+     * @param count The number of commitments and payments loaded
+     */
+    public void childrenLoaded(int count) {
+        if (event != null) {
+            event.childrenLoaded += count;
+        }
+    }
+
+    /**
+     * End a validation step: checking formats and the uniqueness of numbers.
+     */
+    public void validated() {
+        if (event != null) {
+            event.validationTime += lap();
+        }
+    }
+
+    /**
+     * End a balance check step: locking the parent and checking the amounts.
+     */
+    public void balanceChecked() {
+        if (event != null) {
+            event.balanceCheckTime += lap();
+        }
+    }
+
+    /**
+     * End a persistence step: loading, saving or deleting through the repositories.
+     */
+    public void persisted() {
+        if (event != null) {
+            event.persistenceTime += lap();
+        }
+    }
+
+    /**
+     * End a status update step: recomputing or queueing the status of an expense.
+     */
+    public void statusUpdated() {
+        if (event != null) {
+            event.statusUpdateTime += lap();
+        }
+    }
+
+    /**
+     * Create the transaction synchronization timing the commit and committing the event.
+     *
+     * @return The synchronization
+     */
+    TransactionSynchronization completion() {
+        return new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Before the rollups and the change log, so their work counts as commit time
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                operationEnd = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                long now = System.nanoTime();
+                event.committed = status == STATUS_COMMITTED;
+                event.commitTime = operationEnd > 0 ? now - operationEnd : 0;
+                event.commit();
+            }
+        };
+    }
+
+    private long lap() {
+        long now = System.nanoTime();
+        long elapsed = now - mark;
+        mark = now;
+        return elapsed;
+    }
+}
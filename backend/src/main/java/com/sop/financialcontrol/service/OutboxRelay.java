@@ -0,0 +1,229 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.OutboxProperties;
+import com.sop.financialcontrol.dto.OutboxEventDTO;
+import com.sop.financialcontrol.model.OutboxCursor;
+import com.sop.financialcontrol.model.OutboxEvent;
+import com.sop.financialcontrol.repository.OutboxCursorRepository;
+import com.sop.financialcontrol.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox to the enabled sinks.
+ * A single relay thread delivers the events in batches, in ID order, up to the safe change sequence
+ * number so that no event still being committed is skipped, each batch in its own
+ * transaction holding the cursor row of the sink: the cursor only advances once the sink has
+ * accepted the batch, so delivery is at least once, and a single node delivers to a sink at a
+ * time. Wake-ups after each commit are coalesced, and a periodic poll picks up the events
+ * committed by other nodes. A failing sink is retried with exponential backoff without holding
+ * back the other sinks.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final ChangeSequence changeSequence;
+    private final List<OutboxSink> sinks;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService relayThread;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    // Retry state by sink name, only accessed by the relay thread
+    private final Map<String, Backoff> backoffs = new HashMap<>();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxCursorRepository outboxCursorRepository,
+                       ChangeSequence changeSequence, List<OutboxSink> sinks, OutboxProperties properties,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.changeSequence = changeSequence;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ask the relay thread to drain the outbox. Does nothing if a drain is already queued.
+     */
+    public void wakeUp() {
+        if (!sinks.isEmpty() && drainQueued.compareAndSet(false, true)) {
+            relayThread.execute(this::drain);
+        }
+    }
+
+    /**
+     * Drain the outbox at startup and on the configured interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.outbox.poll-interval-ms:1000}",
+            fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Purge the events delivered to every enabled sink once they are older than the retention.
+     */
+    @Scheduled(cron = "${app.outbox.purge-cron:0 45 3 * * *}")
+    public void purgeDelivered() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<String> names = sinks.stream().map(OutboxSink::getName).collect(Collectors.toList());
+            List<OutboxCursor> cursors = outboxCursorRepository.findAllById(names);
+
+            // A sink without a cursor has not received anything yet
+            long deliveredThrough = cursors.size() < names.size() ? 0
+                    : cursors.stream().mapToLong(OutboxCursor::getDeliveredThrough).min().orElse(Long.MAX_VALUE);
+            return outboxEventRepository.deleteDeliveredBefore(deliveredThrough, cutoff);
+        });
+        log.info("Purged {} delivered outbox events older than {}", deleted, cutoff);
+    }
+
+    /**
+     * Stop the relay thread, letting the batch in progress finish.
+     *
+     * @throws InterruptedException if interrupted while waiting for the batch
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        relayThread.shutdown();
+        relayThread.awaitTermination(properties.getHttp().getTimeout().toMillis() + 1000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Deliver batches to each sink in turn until the sinks are caught up or failing.
+     */
+    private void drain() {
+        drainQueued.set(false);
+        boolean more = true;
+        while (more && !relayThread.isShutdown()) {
+            more = false;
+            for (OutboxSink sink : sinks) {
+                Backoff backoff = backoffs.computeIfAbsent(sink.getName(), name -> new Backoff());
+                if (System.currentTimeMillis() < backoff.nextAttemptAt) {
+                    continue;
+                }
+                try {
+                    more |= deliverBatch(sink) == properties.getBatchSize();
+                    backoff.reset();
+                } catch (RuntimeException e) {
+                    long delay = backoff.fail(properties.getPollIntervalMs(), properties.getMaxRetryDelay().toMillis());
+                    log.warn("Outbox delivery to sink {} failed {} time(s) in a row; retrying in {} ms",
+                            sink.getName(), backoff.failures, delay, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deliver the next batch of events to a sink and advance its cursor, in one transaction.
+     *
+     * @param sink The sink
+     * @return The number of events delivered
+     * @throws DeliveryException if the sink rejected the batch
+     */
+    private int deliverBatch(OutboxSink sink) {
+        Integer delivered = transactionTemplate.execute(status -> {
+            // Before locking the cursor, which would give this transaction an ID of its own
+            long safeSequence = changeSequence.safeSequence();
+            OutboxCursor cursor = lockCursor(sink.getName());
+            List<OutboxEvent> events = outboxEventRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                    cursor.getDeliveredThrough(), safeSequence, PageRequest.of(0, properties.getBatchSize()));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.deliver(events.stream().map(OutboxRelay::toDto).collect(Collectors.toList()));
+            } catch (Exception e) {
+                throw new DeliveryException(e);
+            }
+            cursor.setDeliveredThrough(events.get(events.size() - 1).getId());
+            cursor.setUpdatedAt(LocalDateTime.now());
+            return events.size();
+        });
+        if (delivered > 0) {
+            log.debug("Delivered {} outbox events to sink {}", delivered, sink.getName());
+        }
+        return delivered;
+    }
+
+    /**
+     * Lock the cursor of a sink, creating it at the start of the outbox on the first delivery.
+     *
+     * @param sink The sink name
+     * @return The locked cursor
+     */
+    private OutboxCursor lockCursor(String sink) {
+        return outboxCursorRepository.findBySinkForUpdate(sink).orElseGet(() -> {
+            outboxCursorRepository.insertIfAbsent(sink);
+            return outboxCursorRepository.findBySinkForUpdate(sink).orElseThrow();
+        });
+    }
+
+    private static OutboxEventDTO toDto(OutboxEvent event) {
+        return OutboxEventDTO.builder()
+                .id(event.getId())
+                .type(event.getEventType())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .aggregateKey(event.getAggregateKey())
+                .occurredAt(event.getOccurredAt())
+                .payload(event.getPayload())
+                .build();
+    }
+
+    /**
+     * The retry state of a sink.
+     */
+    private static final class Backoff {
+        private int failures;
+        private long nextAttemptAt;
+
+        private long fail(long initialDelay, long maxDelay) {
+            failures++;
+            long delay = Math.min(maxDelay, initialDelay << Math.min(failures - 1, 20));
+            nextAttemptAt = System.currentTimeMillis() + delay;
+            return delay;
+        }
+
+        private void reset() {
+            failures = 0;
+            nextAttemptAt = 0;
+        }
+    }
+
+    /**
+     * A batch rejected by a sink; rolls the delivery transaction back.
+     */
+    private static final class DeliveryException extends RuntimeException {
+        private DeliveryException(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.OutboxEventDTO;
+
+import java.util.List;
+
+/**
+ * A destination of the outbox events. The relay delivers the events to each enabled sink in ID order,
+ * at least once: a batch is delivered again when the sink fails or the relay stops before recording it.
+ */
+public interface OutboxSink {
+
+    /**
+     * Get the name of the sink, which identifies its delivery cursor.
+     *
+     * @return The sink name
+     */
+    String getName();
+
+    /**
+     * Deliver a batch of events. The batch counts as delivered only if this method returns normally.
+     *
+     * @param events The events, in ID order
+     * @throws Exception if the events could not be delivered
+     */
+    void deliver(List<OutboxEventDTO> events) throws Exception;
+}
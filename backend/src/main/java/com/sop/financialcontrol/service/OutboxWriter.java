@@ -0,0 +1,110 @@
+package com.sop.financialcontrol.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialcontrol.config.OutboxProperties;
+import com.sop.financialcontrol.mapper.CommitmentMapper;
+import com.sop.financialcontrol.mapper.ExpenseMapper;
+import com.sop.financialcontrol.mapper.PaymentMapper;
+import com.sop.financialcontrol.model.ChangeLogEntry;
+import com.sop.financialcontrol.model.ChangeOperation;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.DomainEventType;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.OutboxEvent;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the domain events of a transaction to the outbox, in the transaction itself.
+ * Called by the {@link ChangeLogRecorder} just before commit: each event takes the sequence number
+ * of its change as ID, and the relay reads up to the safe sequence number of the
+ * {@link ChangeSequence}, so it never skips an event committed after it read past a later one.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ExpenseMapper expenseMapper;
+    private final CommitmentMapper commitmentMapper;
+    private final PaymentMapper paymentMapper;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final OutboxRelay outboxRelay;
+
+    /**
+     * Check if the write paths record domain events.
+     *
+     * @return true if the outbox is enabled
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Build the domain event of a change.
+     *
+     * @param entry The change log entry of the change
+     * @param entity The changed expense, commitment or payment
+     * @param created Whether the entity was created in the transaction
+     * @return The event, with the state of the entity after the change as payload
+     * @throws IllegalStateException if the payload cannot be serialized
+     */
+    public OutboxEvent toEvent(ChangeLogEntry entry, Object entity, boolean created) {
+        return OutboxEvent.builder()
+                .id(entry.getSequence())
+                .eventType(DomainEventType.of(entry.getEntityType(), entry.getOperation(), created))
+                .aggregateType(entry.getEntityType())
+                .aggregateId(entry.getEntityId())
+                .aggregateKey(entry.getEntityKey())
+                .payload(serialize(payloadOf(entry, entity)))
+                .occurredAt(entry.getChangedAt())
+                .build();
+    }
+
+    /**
+     * Save the events of the current transaction, and wake the relay up once it has committed.
+     *
+     * @param events The events
+     */
+    public void write(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxEventRepository.saveAll(events);
+        TransactionCallbacks.afterCommit(outboxRelay::wakeUp);
+    }
+
+    private Object payloadOf(ChangeLogEntry entry, Object entity) {
+        // A deleted entity is described by its ID and natural key only
+        if (entry.getOperation() == ChangeOperation.DELETE) {
+            Map<String, Object> tombstone = new LinkedHashMap<>();
+            tombstone.put("id", entry.getEntityId());
+            tombstone.put("key", entry.getEntityKey());
+            return tombstone;
+        }
+        switch (entry.getEntityType()) {
+            case EXPENSE:
+                return expenseMapper.toDto((Expense) entity);
+            case COMMITMENT:
+                return commitmentMapper.toDto((Commitment) entity);
+            default:
+                return paymentMapper.toDto((Payment) entity);
+        }
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.sop.financialcontrol.service;
 
+import com.sop.financialcontrol.config.BatchProperties;
+import com.sop.financialcontrol.config.CacheConfig;
+import com.sop.financialcontrol.config.PaginationProperties;
+import com.sop.financialcontrol.dto.BatchResultDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
+import com.sop.financialcontrol.dto.LookupResultDTO;
 import com.sop.financialcontrol.dto.PaymentDTO;
 import com.sop.financialcontrol.exception.BusinessException;
 import com.sop.financialcontrol.exception.ResourceNotFoundException;
@@ -11,13 +17,24 @@ import com.sop.financialcontrol.repository.CommitmentRepository;
 import com.sop.financialcontrol.repository.ExpenseRepository;
 import com.sop.financialcontrol.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.Validator;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Service for handling Payment-related business logic.
@@ -30,20 +47,60 @@ public class PaymentService {
     private final CommitmentRepository commitmentRepository;
     private final ExpenseRepository expenseRepository;
     private final PaymentMapper paymentMapper;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+    private final LookupCacheInvalidator lookupCacheInvalidator;
+    private final DashboardRollupTracker dashboardRollupTracker;
+    private final ChangeLogRecorder changeLogRecorder;
+    private final ExpenseStatusUpdater expenseStatusUpdater;
+    private final OperationProfiler operationProfiler;
 
     // Regular expression for payment number validation
     private static final Pattern PAYMENT_NUMBER_PATTERN = 
             Pattern.compile("^\\d{4}NP\\d{4}$");
 
     /**
-     * Get all payments.
+     * Get a page of payments ordered by ID.
      *
-     * @return A list of all payments as DTOs
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return A page of payments as DTOs
+     * @throws BusinessException if the cursor is invalid
      */
     @Transactional(readOnly = true)
-    public List<PaymentDTO> getAllPayments() {
-        List<Payment> payments = paymentRepository.findAll();
-        return paymentMapper.toDtoList(payments);
+    public CursorPageDTO<PaymentDTO> getAllPayments(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        List<Payment> payments = paymentRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetCursor.decode(cursor), KeysetCursor.limit(pageSize));
+        return KeysetCursor.toPage(payments, pageSize, Payment::getId, paymentMapper::toDtoList);
+    }
+
+    /**
+     * Get the version of a page of payments, without loading it.
+     *
+     * @param cursor The cursor returned by the previous page, or null for the first page
+     * @param size The requested page size, or null for the default size
+     * @return The version of the page
+     * @throws BusinessException if the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getPaymentPageVersion(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        long afterId = KeysetCursor.decode(cursor);
+        return ResourceVersion.of("payments:" + afterId + ":" + pageSize,
+                paymentRepository.fingerprintPage(afterId, pageSize + 1));
+    }
+
+    /**
+     * Get the version of a payment, without loading it.
+     *
+     * @param id The ID of the payment
+     * @return The version of the payment, or empty if it does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> getPaymentVersion(Long id) {
+        return ResourceVersion.ofResource("payment", paymentRepository.fingerprintById(id));
     }
 
     /**
@@ -66,6 +123,7 @@ public class PaymentService {
      * @return The payment as a DTO
      * @throws ResourceNotFoundException if the payment is not found
      */
+    @Cacheable(CacheConfig.PAYMENTS_BY_NUMBER)
     @Transactional(readOnly = true)
     public PaymentDTO getPaymentByPaymentNumber(String paymentNumber) {
         Payment payment = paymentRepository.findByPaymentNumber(paymentNumber)
@@ -73,6 +131,20 @@ public class PaymentService {
         return paymentMapper.toDto(payment);
     }
 
+    /**
+     * Get the payments with the given payment numbers, with their commitments and expenses, in a single query.
+     *
+     * @param paymentNumbers The payment numbers of the payments to retrieve
+     * @return The payments found in request order, and the payment numbers not found
+     * @throws BusinessException if no payment number is given, one is null or there are too many
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO<PaymentDTO, String> getPaymentsByPaymentNumbers(List<String> paymentNumbers) {
+        Set<String> keys = BatchSupport.lookupKeys(paymentNumbers, batchProperties.getMaxLookupSize());
+        return BatchSupport.toLookupResult(keys, paymentRepository.findByPaymentNumberIn(keys),
+                Payment::getPaymentNumber, paymentMapper::toDto);
+    }
+
     /**
      * Get all payments for a commitment.
      *
@@ -101,6 +173,8 @@ public class PaymentService {
      */
     @Transactional
     public PaymentDTO createPayment(PaymentDTO paymentDTO) {
+        OperationTrace trace = operationProfiler.start("PaymentService.createPayment");
+
         // Validate payment number format
         validatePaymentNumber(paymentDTO.getPaymentNumber());
 
@@ -108,32 +182,154 @@ public class PaymentService {
         if (paymentRepository.existsByPaymentNumber(paymentDTO.getPaymentNumber())) {
             throw new BusinessException("A payment with payment number " + paymentDTO.getPaymentNumber() + " already exists");
         }
+        trace.validated();
+
+        // Lock the expense the commitment belongs to, so concurrent payments cannot overpay it
+        Expense expense = lockExpenseOfCommitment(paymentDTO.getCommitmentId());
 
         // Find the commitment
         Commitment commitment = commitmentRepository.findById(paymentDTO.getCommitmentId())
                 .orElseThrow(() -> new ResourceNotFoundException("Commitment not found with id: " + paymentDTO.getCommitmentId()));
 
-        // Calculate the total paid amount for the commitment
-        BigDecimal totalPaid = paymentRepository.calculateTotalPaidAmountForCommitment(commitment.getId());
-        BigDecimal remainingAmount = commitment.getAmount().subtract(totalPaid);
+        // Calculate the remaining amount from the commitment running total
+        BigDecimal remainingAmount = commitment.getAmount().subtract(commitment.getTotalPaid());
 
         // Check if the payment amount exceeds the remaining commitment amount
         if (paymentDTO.getAmount().compareTo(remainingAmount) > 0) {
             throw new BusinessException("Payment amount exceeds the remaining commitment amount. Remaining: " + remainingAmount);
         }
+        trace.balanceChecked();
 
         // Convert DTO to entity and save
         Payment payment = paymentMapper.toEntity(paymentDTO, commitment);
         Payment savedPayment = paymentRepository.save(payment);
-
-        // Update expense status
-        Expense expense = commitment.getExpense();
-        expense.updateStatus();
+        dashboardRollupTracker.paymentCreated(savedPayment);
+        changeLogRecorder.paymentCreated(savedPayment);
+        changeLogRecorder.commitmentChanged(commitment);
+        changeLogRecorder.expenseChanged(expense);
+        trace.persisted();
+        trace.entity(savedPayment.getId());
+
+        // Update commitment and expense running totals and expense status
+        commitment.applyPaymentDelta(savedPayment.getAmount(), 1);
+        commitmentRepository.save(commitment);
+        dashboardRollupTracker.expenseChanging(expense);
+        expense.applyPaymentDelta(savedPayment.getAmount());
+        expenseStatusUpdater.totalsChanged(expense);
+        trace.statusUpdated();
         expenseRepository.save(expense);
+        trace.persisted();
+        lookupCacheInvalidator.evictCommitment(commitment);
+        lookupCacheInvalidator.evictExpense(expense);
 
         return paymentMapper.toDto(savedPayment);
     }
 
+    /**
+     * Create a batch of payments in a single transaction.
+     * Every item is validated in memory against the running totals of its commitment, after one
+     * query that locks the affected expenses and one that loads the affected commitments. Valid
+     * items are inserted with JDBC batching; invalid items are reported without affecting the others.
+     *
+     * @param paymentDTOs The payments to create
+     * @return The result of each item, in request order
+     * @throws BusinessException if the batch exceeds the maximum batch size
+     */
+    @Transactional
+    public BatchResultDTO<PaymentDTO> createPayments(List<PaymentDTO> paymentDTOs) {
+        BatchSupport.checkSize(paymentDTOs.size(), batchProperties.getMaxSize());
+        OperationTrace trace = operationProfiler.start("PaymentService.createPayments");
+        String[] errors = new String[paymentDTOs.size()];
+
+        // Validate each item on its own
+        for (int i = 0; i < paymentDTOs.size(); i++) {
+            PaymentDTO paymentDTO = paymentDTOs.get(i);
+            errors[i] = BatchSupport.validateItem(validator, paymentDTO);
+            if (errors[i] == null) {
+                try {
+                    validatePaymentNumber(paymentDTO.getPaymentNumber());
+                } catch (BusinessException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+        }
+
+        // Check payment numbers against each other and against the existing payments
+        Set<String> paymentNumbers = new HashSet<>();
+        Set<Long> commitmentIds = new HashSet<>();
+        for (int i = 0; i < paymentDTOs.size(); i++) {
+            if (errors[i] == null) {
+                paymentNumbers.add(paymentDTOs.get(i).getPaymentNumber());
+                commitmentIds.add(paymentDTOs.get(i).getCommitmentId());
+            }
+        }
+        Set<String> existingNumbers = paymentNumbers.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(paymentRepository.findExistingPaymentNumbers(paymentNumbers));
+        Set<String> batchNumbers = new HashSet<>();
+        for (int i = 0; i < paymentDTOs.size(); i++) {
+            String paymentNumber = errors[i] == null ? paymentDTOs.get(i).getPaymentNumber() : null;
+            if (paymentNumber != null && (existingNumbers.contains(paymentNumber) || !batchNumbers.add(paymentNumber))) {
+                errors[i] = "A payment with payment number " + paymentNumber + " already exists";
+            }
+        }
+        trace.validated();
+
+        // Lock the affected expenses in ID order, then load the commitments while the locks are held
+        Map<Long, Commitment> commitments = new HashMap<>();
+        if (!commitmentIds.isEmpty()) {
+            expenseRepository.findAllByIdForUpdate(commitmentRepository.findExpenseIdsByIds(commitmentIds));
+            commitmentRepository.findAllById(commitmentIds)
+                    .forEach(commitment -> commitments.put(commitment.getId(), commitment));
+        }
+
+        // Check balances in memory, applying accepted payments to the running totals as we go
+        List<Payment> payments = new ArrayList<>(Collections.nCopies(paymentDTOs.size(), null));
+        Map<Long, Commitment> affectedCommitments = new HashMap<>();
+        Map<Long, Expense> affectedExpenses = new HashMap<>();
+        for (int i = 0; i < paymentDTOs.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            PaymentDTO paymentDTO = paymentDTOs.get(i);
+            Commitment commitment = commitments.get(paymentDTO.getCommitmentId());
+            if (commitment == null) {
+                errors[i] = "Commitment not found with id: " + paymentDTO.getCommitmentId();
+                continue;
+            }
+
+            BigDecimal remainingAmount = commitment.getAmount().subtract(commitment.getTotalPaid());
+            if (paymentDTO.getAmount().compareTo(remainingAmount) > 0) {
+                errors[i] = "Payment amount exceeds the remaining commitment amount. Remaining: " + remainingAmount;
+                continue;
+            }
+
+            payments.set(i, paymentMapper.toEntity(paymentDTO, commitment));
+            dashboardRollupTracker.paymentCreated(payments.get(i));
+            dashboardRollupTracker.expenseChanging(commitment.getExpense());
+            changeLogRecorder.paymentCreated(payments.get(i));
+            changeLogRecorder.commitmentChanged(commitment);
+            changeLogRecorder.expenseChanged(commitment.getExpense());
+            commitment.applyPaymentDelta(paymentDTO.getAmount(), 1);
+            commitment.getExpense().applyPaymentDelta(paymentDTO.getAmount());
+            affectedCommitments.put(commitment.getId(), commitment);
+            affectedExpenses.put(commitment.getExpense().getId(), commitment.getExpense());
+        }
+        trace.balanceChecked();
+
+        // Insert the accepted payments and update the expense statuses
+        paymentRepository.saveAll(payments.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        trace.persisted();
+        affectedExpenses.values().forEach(expenseStatusUpdater::totalsChanged);
+        trace.statusUpdated();
+        affectedCommitments.values().forEach(lookupCacheInvalidator::evictCommitment);
+        affectedExpenses.values().forEach(lookupCacheInvalidator::evictExpense);
+
+        List<PaymentDTO> created = payments.stream()
+                .map(payment -> payment != null ? paymentMapper.toDto(payment) : null)
+                .collect(Collectors.toList());
+        return BatchSupport.toResult(errors, created);
+    }
+
     /**
      * Update an existing payment.
      *
@@ -146,7 +342,11 @@ public class PaymentService {
      */
     @Transactional
     public PaymentDTO updatePayment(Long id, PaymentDTO paymentDTO) {
+        OperationTrace trace = operationProfiler.start("PaymentService.updatePayment");
+        trace.entity(id);
+        Expense expense = lockExpenseOfPayment(id);
         Payment existingPayment = findPaymentById(id);
+        trace.persisted();
 
         // Validate payment number format
         validatePaymentNumber(paymentDTO.getPaymentNumber());
@@ -161,25 +361,44 @@ public class PaymentService {
         if (!existingPayment.getCommitment().getId().equals(paymentDTO.getCommitmentId())) {
             throw new BusinessException("Cannot change the commitment associated with a payment");
         }
+        trace.validated();
 
         // Calculate the total paid amount for the commitment (excluding this payment)
-        BigDecimal totalPaid = paymentRepository.calculateTotalPaidAmountForCommitment(existingPayment.getCommitment().getId())
-                .subtract(existingPayment.getAmount());
-        BigDecimal remainingAmount = existingPayment.getCommitment().getAmount().subtract(totalPaid);
+        Commitment commitment = existingPayment.getCommitment();
+        BigDecimal previousAmount = existingPayment.getAmount();
+        BigDecimal totalPaid = commitment.getTotalPaid().subtract(previousAmount);
+        BigDecimal remainingAmount = commitment.getAmount().subtract(totalPaid);
 
         // Check if the new payment amount exceeds the remaining commitment amount
         if (paymentDTO.getAmount().compareTo(remainingAmount) > 0) {
             throw new BusinessException("Payment amount exceeds the remaining commitment amount. Remaining: " + remainingAmount);
         }
+        trace.balanceChecked();
 
         // Update the entity
+        String previousPaymentNumber = existingPayment.getPaymentNumber();
+        dashboardRollupTracker.paymentChanging(existingPayment);
+        dashboardRollupTracker.expenseChanging(expense);
         Payment updatedPayment = paymentMapper.updateEntityFromDto(paymentDTO, existingPayment);
         Payment savedPayment = paymentRepository.save(updatedPayment);
-
-        // Update expense status
-        Expense expense = existingPayment.getCommitment().getExpense();
-        expense.updateStatus();
+        changeLogRecorder.paymentChanged(savedPayment);
+        changeLogRecorder.commitmentChanged(commitment);
+        changeLogRecorder.expenseChanged(expense);
+        trace.persisted();
+
+        // Update commitment and expense running totals and expense status
+        BigDecimal amountDelta = savedPayment.getAmount().subtract(previousAmount);
+        commitment.applyPaymentDelta(amountDelta, 0);
+        commitmentRepository.save(commitment);
+        expense.applyPaymentDelta(amountDelta);
+        expenseStatusUpdater.totalsChanged(expense);
+        trace.statusUpdated();
         expenseRepository.save(expense);
+        trace.persisted();
+        lookupCacheInvalidator.evictPayment(previousPaymentNumber);
+        lookupCacheInvalidator.evictPayment(savedPayment.getPaymentNumber());
+        lookupCacheInvalidator.evictCommitment(commitment);
+        lookupCacheInvalidator.evictExpense(expense);
 
         return paymentMapper.toDto(savedPayment);
     }
@@ -192,17 +411,35 @@ public class PaymentService {
      */
     @Transactional
     public void deletePayment(Long id) {
+        OperationTrace trace = operationProfiler.start("PaymentService.deletePayment");
+        trace.entity(id);
+        Expense expense = lockExpenseOfPayment(id);
         Payment payment = findPaymentById(id);
+        trace.persisted();
 
-        // Get the expense for status update after deletion
-        Expense expense = payment.getCommitment().getExpense();
+        // Get the commitment for the running totals update after deletion
+        Commitment commitment = payment.getCommitment();
 
         // Delete the payment
         paymentRepository.delete(payment);
-
-        // Update expense status
-        expense.updateStatus();
+        dashboardRollupTracker.paymentDeleted(payment);
+        changeLogRecorder.paymentDeleted(payment);
+        changeLogRecorder.commitmentChanged(commitment);
+        changeLogRecorder.expenseChanged(expense);
+        trace.persisted();
+
+        // Update commitment and expense running totals and expense status
+        commitment.applyPaymentDelta(payment.getAmount().negate(), -1);
+        commitmentRepository.save(commitment);
+        dashboardRollupTracker.expenseChanging(expense);
+        expense.applyPaymentDelta(payment.getAmount().negate());
+        expenseStatusUpdater.totalsChanged(expense);
+        trace.statusUpdated();
         expenseRepository.save(expense);
+        trace.persisted();
+        lookupCacheInvalidator.evictPayment(payment.getPaymentNumber());
+        lookupCacheInvalidator.evictCommitment(commitment);
+        lookupCacheInvalidator.evictExpense(expense);
     }
 
     /**
@@ -217,13 +454,53 @@ public class PaymentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
     }
 
+    /**
+     * Lock the expense a commitment belongs to.
+     * Called before the commitment is loaded, so its running totals are read while the lock is held.
+     *
+     * @param commitmentId The ID of the commitment
+     * @return The locked expense entity
+     * @throws ResourceNotFoundException if the commitment is not found
+     */
+    private Expense lockExpenseOfCommitment(Long commitmentId) {
+        Long expenseId = commitmentRepository.findExpenseIdById(commitmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Commitment not found with id: " + commitmentId));
+        return lockExpense(expenseId);
+    }
+
+    /**
+     * Lock the expense a payment belongs to.
+     * Called before the payment is loaded, so the payment and its commitment are read while the lock is held.
+     *
+     * @param paymentId The ID of the payment
+     * @return The locked expense entity
+     * @throws ResourceNotFoundException if the payment is not found
+     */
+    private Expense lockExpenseOfPayment(Long paymentId) {
+        Long expenseId = paymentRepository.findExpenseIdById(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + paymentId));
+        return lockExpense(expenseId);
+    }
+
+    /**
+     * Find an expense by its ID and lock it for the rest of the transaction.
+     *
+     * @param expenseId The ID of the expense to lock
+     * @return The locked expense entity
+     * @throws ResourceNotFoundException if the expense is not found
+     */
+    private Expense lockExpense(Long expenseId) {
+        return expenseRepository.findByIdForUpdate(expenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + expenseId));
+    }
+
     /**
      * Validate the format of a payment number.
      *
      * @param paymentNumber The payment number to validate
      * @throws BusinessException if the payment number is invalid
      */
-    private void validatePaymentNumber(String paymentNumber) {
+    static void validatePaymentNumber(String paymentNumber) {
         if (!PAYMENT_NUMBER_PATTERN.matcher(paymentNumber).matches()) {
             throw new BusinessException("Invalid payment number format. Expected format: ####NP####");
         }
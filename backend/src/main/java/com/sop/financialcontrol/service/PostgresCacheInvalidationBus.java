@@ -0,0 +1,110 @@
+package com.sop.financialcontrol.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialcontrol.config.LookupCacheProperties;
+import com.sop.financialcontrol.service.CacheInvalidationMessage.CacheKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache invalidation bus over Postgres LISTEN/NOTIFY.
+ * Messages are sent with pg_notify from a publisher thread, outside the transaction that made the
+ * change, and received on a dedicated connection that is not taken from the pool. If that connection
+ * is lost, notifications sent in the meantime are missed, so every cache is cleared on reconnection.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation-bus", havingValue = "postgres")
+public class PostgresCacheInvalidationBus extends AbstractCacheInvalidationBus {
+
+    // Keeps each payload well below the 8000 byte limit of a notification
+    private static final int KEYS_PER_NOTIFICATION = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LookupCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService publisher =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "cache-invalidation-publisher"));
+    private final PostgresNotificationListener listener;
+
+    public PostgresCacheInvalidationBus(CacheManager cacheManager, JdbcTemplate jdbcTemplate,
+                                        DataSourceProperties dataSourceProperties, LookupCacheProperties properties,
+                                        ObjectMapper objectMapper) {
+        super(cacheManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.listener = new PostgresNotificationListener("cache-invalidation-listener",
+                properties.getInvalidationChannel(), dataSourceProperties, properties.getListenerPollTimeout(),
+                properties.getListenerReconnectDelay(), this::receive, this::evictAll);
+    }
+
+    /**
+     * Start listening for the messages of the other nodes.
+     */
+    @PostConstruct
+    public void start() {
+        listener.start();
+    }
+
+    /**
+     * Stop listening and publishing.
+     */
+    @PreDestroy
+    public void stop() {
+        listener.stop();
+        publisher.shutdown();
+    }
+
+    @Override
+    public void publish(List<CacheKey> keys) {
+        for (int from = 0; from < keys.size(); from += KEYS_PER_NOTIFICATION) {
+            List<CacheKey> chunk = keys.subList(from, Math.min(from + KEYS_PER_NOTIFICATION, keys.size()));
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(new CacheInvalidationMessage(getNodeId(), chunk));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize cache invalidation message", e);
+            }
+            publisher.execute(() -> notifyNodes(payload));
+        }
+    }
+
+    /**
+     * Send a notification on a pooled connection in auto-commit mode, so it is delivered immediately.
+     *
+     * @param payload The serialized message
+     */
+    private void notifyNodes(String payload) {
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, properties.getInvalidationChannel(), payload);
+        } catch (RuntimeException e) {
+            // Other nodes will serve the stale entries until they expire
+            log.error("Could not publish cache invalidation message", e);
+        }
+    }
+
+    /**
+     * Decode and apply a notification payload.
+     *
+     * @param payload The serialized message
+     */
+    private void receive(String payload) {
+        try {
+            receive(objectMapper.readValue(payload, CacheInvalidationMessage.class));
+        } catch (JsonProcessingException e) {
+            log.error("Ignoring malformed cache invalidation message: {}", payload, e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.sop.financialcontrol.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Change log sequence numbers drawn from the change_log_seq Postgres sequence.
+ * A writer assigns its transaction ID before drawing numbers, so every number up to the last value
+ * of the sequence belongs to a transaction started before any later snapshot's xmax. A reader
+ * samples the last value, then the xmax of a new snapshot: once the xmin of a snapshot reaches
+ * that xmax, every transaction holding a number of the sample has completed, and the sample is
+ * safe. Samples not yet safe are kept and checked again by the following reads, so under load the
+ * safe sequence number trails the last value by about one read interval, and a long transaction
+ * holding an ID holds it back until it ends. The sequence must not cache values (CACHE 1), or its
+ * last value would not cover the numbers cached by other sessions.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.changes.sequence", havingValue = "postgres", matchIfMissing = true)
+public class PostgresChangeSequence implements ChangeSequence {
+
+    private static final String ASSIGN_TRANSACTION_ID = "SELECT txid_current()";
+
+    private static final String NEXT_VALUES = "SELECT nextval('change_log_seq') FROM generate_series(1, :count)";
+
+    private static final String LAST_VALUE =
+            "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM change_log_seq";
+
+    private static final String SNAPSHOT_BOUNDS =
+            "SELECT txid_snapshot_xmin(s), txid_snapshot_xmax(s) FROM txid_current_snapshot() s";
+
+    // Samples waiting to become safe; beyond this, the oldest are dropped, which only delays the watermark
+    private static final int MAX_PENDING_SAMPLES = 64;
+
+    private final EntityManager entityManager;
+
+    // Samples not safe yet, guarded by this
+    private final Deque<Sample> pending = new ArrayDeque<>();
+
+    // Highest safe sequence number seen, guarded by this
+    private long safeSequence;
+
+    @Override
+    public List<Long> reserve(int count) {
+        entityManager.createNativeQuery(ASSIGN_TRANSACTION_ID).getSingleResult();
+
+        @SuppressWarnings("unchecked")
+        List<Number> values = entityManager.createNativeQuery(NEXT_VALUES)
+                .setParameter("count", count)
+                .getResultList();
+        List<Long> sequences = new ArrayList<>(values.size());
+        for (Number value : values) {
+            sequences.add(value.longValue());
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+
+    @Override
+    public long safeSequence() {
+        // The last value must be read before the snapshot is taken
+        long lastValue = ((Number) entityManager.createNativeQuery(LAST_VALUE).getSingleResult()).longValue();
+        Object[] bounds = (Object[]) entityManager.createNativeQuery(SNAPSHOT_BOUNDS).getSingleResult();
+        long xmin = ((Number) bounds[0]).longValue();
+        long xmax = ((Number) bounds[1]).longValue();
+
+        synchronized (this) {
+            pending.addLast(new Sample(lastValue, xmax));
+            pending.removeIf(sample -> {
+                if (sample.xmax > xmin) {
+                    return false;
+                }
+                safeSequence = Math.max(safeSequence, sample.lastValue);
+                return true;
+            });
+            while (pending.size() > MAX_PENDING_SAMPLES) {
+                pending.removeFirst();
+            }
+            return safeSequence;
+        }
+    }
+
+    /**
+     * The last value of the sequence, and the xmax of a snapshot taken after it was read.
+     */
+    private static final class Sample {
+        private final long lastValue;
+        private final long xmax;
+
+        private Sample(long lastValue, long xmax) {
+            this.lastValue = lastValue;
+            this.xmax = xmax;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.sop.financialcontrol.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search using the Postgres text search engine.
+ * Expenses carry a generated tsvector column (creditor weighted above description, Portuguese
+ * configuration) with a GIN index, so matching is an index lookup and only the matches are ranked.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.text-search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresExpenseTextSearch implements ExpenseTextSearch {
+
+    private static final String RANKED_MATCHES =
+            "SELECT e.id AS id, ts_rank(e.search_vector, q) AS rank "
+                    + "FROM expenses e, websearch_to_tsquery('portuguese', :query) q "
+                    + "WHERE e.search_vector @@ q";
+
+    private static final String FIRST_PAGE =
+            "SELECT id, rank FROM (" + RANKED_MATCHES + ") matches "
+                    + "ORDER BY rank DESC, id LIMIT :limit";
+
+    private static final String NEXT_PAGE =
+            "SELECT id, rank FROM (" + RANKED_MATCHES + ") matches "
+                    + "WHERE rank < CAST(:afterRank AS real) OR (rank = CAST(:afterRank AS real) AND id > :afterId) "
+                    + "ORDER BY rank DESC, id LIMIT :limit";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<TextSearchHit> search(String query, TextSearchHit after, int limit) {
+        Query nativeQuery = entityManager.createNativeQuery(after == null ? FIRST_PAGE : NEXT_PAGE)
+                .setParameter("query", query)
+                .setParameter("limit", limit);
+        if (after != null) {
+            nativeQuery.setParameter("afterRank", after.getRank())
+                    .setParameter("afterId", after.getExpenseId());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = nativeQuery.getResultList();
+        List<TextSearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new TextSearchHit(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue()));
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,137 @@
+package com.sop.financialcontrol.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialcontrol.config.EventStreamProperties;
+import com.sop.financialcontrol.dto.LedgerEventDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ledger event bus over Postgres LISTEN/NOTIFY, fanning the events committed on any node out to
+ * the event streams of every node, this one included, so all subscribers see them in the same way.
+ * The ledger events published as application events after commit are queued and sent in batches
+ * with pg_notify from a publisher thread, outside the transaction that made the change. They are
+ * received on a dedicated connection that is not taken from the pool; if that connection is lost,
+ * or a batch cannot be sent, the subscribers are told to catch up from the change feed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "postgres")
+public class PostgresLedgerEventBus {
+
+    // Keeps each payload well below the 8000 byte limit of a notification
+    private static final int EVENTS_PER_NOTIFICATION = 16;
+
+    private static final TypeReference<List<LedgerEventDTO>> EVENTS = new TypeReference<>() {
+    };
+
+    private final LedgerEventStream ledgerEventStream;
+    private final JdbcTemplate jdbcTemplate;
+    private final EventStreamProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Queue<LedgerEventDTO> queued = new ConcurrentLinkedQueue<>();
+    private final ExecutorService publisher =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ledger-event-publisher"));
+    private final PostgresNotificationListener listener;
+
+    public PostgresLedgerEventBus(LedgerEventStream ledgerEventStream, JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties, EventStreamProperties properties,
+                                  ObjectMapper objectMapper) {
+        this.ledgerEventStream = ledgerEventStream;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.listener = new PostgresNotificationListener("ledger-event-listener", properties.getChannel(),
+                dataSourceProperties, properties.getListenerPollTimeout(), properties.getListenerReconnectDelay(),
+                this::receive, ledgerEventStream::eventsMissed);
+    }
+
+    /**
+     * Start listening for the events of every node.
+     */
+    @PostConstruct
+    public void start() {
+        listener.start();
+    }
+
+    /**
+     * Stop listening and publishing.
+     */
+    @PreDestroy
+    public void stop() {
+        listener.stop();
+        publisher.shutdown();
+    }
+
+    /**
+     * Queue a ledger event committed on this node for every node.
+     *
+     * @param event The event
+     */
+    @EventListener
+    public void onLedgerEvent(LedgerEventDTO event) {
+        queued.add(event);
+        publisher.execute(this::notifyNodes);
+    }
+
+    /**
+     * Send the queued events on a pooled connection in auto-commit mode, so they are delivered immediately.
+     * Events queued while a batch is sent go out in the next one.
+     */
+    private void notifyNodes() {
+        List<LedgerEventDTO> batch = new ArrayList<>(EVENTS_PER_NOTIFICATION);
+        LedgerEventDTO event;
+        while ((event = queued.poll()) != null) {
+            batch.add(event);
+            if (batch.size() == EVENTS_PER_NOTIFICATION) {
+                send(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void send(List<LedgerEventDTO> batch) {
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, properties.getChannel(),
+                    objectMapper.writeValueAsString(batch));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Nobody receives the batch; the other nodes are told once their listener reconnects
+            log.error("Could not publish {} ledger events", batch.size(), e);
+            ledgerEventStream.eventsMissed();
+        }
+    }
+
+    /**
+     * Decode a notification payload and deliver its events to the subscribers of this node.
+     *
+     * @param payload The serialized events
+     */
+    private void receive(String payload) {
+        List<LedgerEventDTO> events;
+        try {
+            events = objectMapper.readValue(payload, EVENTS);
+        } catch (JsonProcessingException e) {
+            log.error("Ignoring malformed ledger event message: {}", payload, e);
+            return;
+        }
+        events.forEach(ledgerEventStream::deliver);
+    }
+}
@@ -0,0 +1,123 @@
+package com.sop.financialcontrol.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Receives the notifications of a Postgres channel on a dedicated connection, not taken from the
+ * pool. If that connection is lost, notifications sent in the meantime are missed, so the owner is
+ * told once the listener has reconnected.
+ */
+@Slf4j
+final class PostgresNotificationListener {
+
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("^[a-z_][a-z0-9_]*$");
+
+    private final String name;
+    private final String channel;
+    private final DataSourceProperties dataSourceProperties;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final Consumer<String> onNotification;
+    private final Runnable onReconnect;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param name The name of the listener thread, also used in its log messages
+     * @param channel The channel to listen on
+     * @param dataSourceProperties The properties of the database to connect to
+     * @param pollTimeout How long to wait for notifications before checking whether to stop
+     * @param reconnectDelay Delay before reconnecting after losing the connection
+     * @param onNotification Receives the payload of each notification, on the listener thread
+     * @param onReconnect Called on the listener thread after reconnecting
+     * @throws IllegalStateException if the channel name is not a valid identifier
+     */
+    PostgresNotificationListener(String name, String channel, DataSourceProperties dataSourceProperties,
+                                 Duration pollTimeout, Duration reconnectDelay,
+                                 Consumer<String> onNotification, Runnable onReconnect) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalStateException("Invalid channel for " + name + ": " + channel);
+        }
+        this.name = name;
+        this.channel = channel;
+        this.dataSourceProperties = dataSourceProperties;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.onNotification = onNotification;
+        this.onReconnect = onReconnect;
+    }
+
+    /**
+     * Start listening on a daemon thread.
+     */
+    void start() {
+        running = true;
+        thread = new Thread(this::listen, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop listening.
+     */
+    void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Receive notifications until stopped, reconnecting when the connection is lost.
+     */
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("{} listening on channel {}", name, channel);
+                if (reconnecting) {
+                    onReconnect.run();
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollMillis = (int) pollTimeout.toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("{} lost its connection, reconnecting in {}", name, reconnectDelay, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
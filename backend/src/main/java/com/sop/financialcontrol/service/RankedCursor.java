@@ -0,0 +1,54 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Helper for cursor pagination over results ordered by descending rank, then by id.
+ * Cursors are opaque to clients; internally they encode the rank and id of the last result
+ * of the previous page, so pages stay stable while rows are added.
+ */
+final class RankedCursor {
+
+    private static final String PREFIX = "rank:";
+    private static final String SEPARATOR = ":";
+
+    private RankedCursor() {
+    }
+
+    /**
+     * Decode a cursor into the position after which the next page starts.
+     *
+     * @param cursor The opaque cursor, or null/blank for the first page
+     * @return The last hit of the previous page, or null for the first page
+     * @throws BusinessException if the cursor is malformed
+     */
+    static TextSearchHit decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            if (!decoded.startsWith(PREFIX) || parts.length != 3) {
+                throw new BusinessException("Invalid pagination cursor");
+            }
+            return new TextSearchHit(Long.parseLong(parts[2]), Double.parseDouble(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid pagination cursor", e);
+        }
+    }
+
+    /**
+     * Encode the last hit of a page into an opaque cursor.
+     *
+     * @param lastHit The last hit of the page
+     * @return The opaque cursor
+     */
+    static String encode(TextSearchHit lastHit) {
+        String position = PREFIX + lastHit.getRank() + SEPARATOR + lastHit.getExpenseId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
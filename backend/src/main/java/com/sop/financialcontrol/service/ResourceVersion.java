@@ -0,0 +1,65 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.repository.VersionFingerprint;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * The version of a resource or a page of resources, used as validators for conditional requests.
+ * The ETag is strong: it changes whenever a row of the response is added, removed or updated,
+ * including the parents whose fields are embedded in the DTOs.
+ */
+public final class ResourceVersion {
+
+    private final String etag;
+    private final long lastModified;
+
+    private ResourceVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Build the version of a single resource from its fingerprint.
+     *
+     * @param kind The kind of resource, so different representations never share an ETag
+     * @param fingerprint The fingerprint of the resource
+     * @return The version, or empty if the resource does not exist
+     */
+    static Optional<ResourceVersion> ofResource(String kind, VersionFingerprint fingerprint) {
+        if (fingerprint.getItemCount().longValue() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(of(kind, fingerprint));
+    }
+
+    /**
+     * Build the version of a page of resources from its fingerprint.
+     *
+     * @param kind The kind of page, including the page bounds
+     * @param fingerprint The fingerprint of the rows read by the page query
+     * @return The version
+     */
+    static ResourceVersion of(String kind, VersionFingerprint fingerprint) {
+        long lastModified = fingerprint.getLastModified() != null ? fingerprint.getLastModified().getTime() : -1;
+        String parts = kind + "|" + fingerprint.getItemCount() + "|" + fingerprint.getIdSum() + "|" + lastModified;
+        String etag = "\"" + DigestUtils.md5DigestAsHex(parts.getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new ResourceVersion(etag, lastModified);
+    }
+
+    /**
+     * @return The quoted strong ETag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return The last modification time in milliseconds since the epoch, or -1 if unknown
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+}
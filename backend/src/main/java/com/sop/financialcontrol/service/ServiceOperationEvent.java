@@ -0,0 +1,65 @@
+package com.sop.financialcontrol.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a service operation on the ledger. The event spans the operation and
+ * the commit of its transaction, and splits its time between the validations, the balance checks,
+ * the persistence calls, the status updates and the commit; the rest is spent in mapping and
+ * bookkeeping.
+ */
+@Name(ServiceOperationEvent.NAME)
+@Label("Service Operation")
+@Category({"Financial Control", "Service"})
+@Description("An expense, commitment or payment operation, with the time spent in each of its phases")
+@StackTrace(false)
+public class ServiceOperationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.sop.financialcontrol.ServiceOperation";
+
+    @Label("Operation")
+    @Description("Service and method, such as CommitmentService.createCommitment")
+    String operation;
+
+    @Label("Entity ID")
+    @Description("ID of the expense, commitment or payment operated on, or 0 if unknown")
+    long entityId;
+
+    @Label("Children Loaded")
+    @Description("Commitments and payments loaded by the operation")
+    int childrenLoaded;
+
+    @Label("Validation Time")
+    @Description("Time checking the formats and the uniqueness of the numbers")
+    @Timespan(Timespan.NANOSECONDS)
+    long validationTime;
+
+    @Label("Balance Check Time")
+    @Description("Time locking the parent and checking the amounts against its running totals")
+    @Timespan(Timespan.NANOSECONDS)
+    long balanceCheckTime;
+
+    @Label("Persistence Time")
+    @Description("Time loading, saving and deleting through the repositories")
+    @Timespan(Timespan.NANOSECONDS)
+    long persistenceTime;
+
+    @Label("Status Update Time")
+    @Description("Time recomputing or queueing the status of the expense")
+    @Timespan(Timespan.NANOSECONDS)
+    long statusUpdateTime;
+
+    @Label("Commit Time")
+    @Description("Time from the end of the operation to the end of its transaction: flush, before-commit work and commit")
+    @Timespan(Timespan.NANOSECONDS)
+    long commitTime;
+
+    @Label("Committed")
+    @Description("Whether the transaction committed")
+    boolean committed;
+}
@@ -0,0 +1,19 @@
+package com.sop.financialcontrol.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An expense matching a full-text search, with its relevance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextSearchHit {
+
+    private long expenseId;
+
+    // Higher is more relevant; only comparable between hits of the same search
+    private double rank;
+}
@@ -0,0 +1,223 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.config.ReconciliationProperties;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.repository.AmountTotal;
+import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import com.sop.financialcontrol.repository.PaymentRepository;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service that verifies the running totals stored on expenses and commitments
+ * against the actual commitment and payment rows, and repairs any drift.
+ * Rows are verified in keyset batches, each in its own transaction. Drifted rows are
+ * repaired one by one while holding the same expense lock as the service write paths,
+ * so a repair never overwrites a concurrent delta.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TotalsReconciliationService {
+
+    private final ExpenseRepository expenseRepository;
+    private final CommitmentRepository commitmentRepository;
+    private final PaymentRepository paymentRepository;
+    private final ReconciliationProperties reconciliationProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final LookupCacheInvalidator lookupCacheInvalidator;
+    private final DashboardRollupTracker dashboardRollupTracker;
+    private final ChangeLogRecorder changeLogRecorder;
+
+    /**
+     * Run the reconciliation on the configured schedule.
+     */
+    @Scheduled(cron = "${app.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledReconciliation() {
+        if (!reconciliationProperties.isEnabled()) {
+            return;
+        }
+        ReconciliationReport report = reconcile(reconciliationProperties.isRepair());
+        log.info("Running totals reconciliation finished: {}", report);
+    }
+
+    /**
+     * Verify the running totals of all commitments and expenses.
+     *
+     * @param repair Whether drifted totals are overwritten with the recomputed values
+     * @return A report with the number of rows checked and drifted
+     */
+    public ReconciliationReport reconcile(boolean repair) {
+        ReconciliationReport report = new ReconciliationReport();
+
+        long lastId = 0L;
+        while (lastId >= 0) {
+            long afterId = lastId;
+            List<Long> drifted = new ArrayList<>();
+            lastId = transactionTemplate.execute(status -> verifyCommitmentBatch(afterId, drifted, report));
+            if (repair) {
+                drifted.forEach(id -> transactionTemplate.executeWithoutResult(status -> repairCommitment(id)));
+            }
+        }
+
+        lastId = 0L;
+        while (lastId >= 0) {
+            long afterId = lastId;
+            List<Long> drifted = new ArrayList<>();
+            lastId = transactionTemplate.execute(status -> verifyExpenseBatch(afterId, drifted, report));
+            if (repair) {
+                drifted.forEach(id -> transactionTemplate.executeWithoutResult(status -> repairExpense(id)));
+            }
+        }
+
+        return report;
+    }
+
+    /**
+     * Verify the running totals of one batch of commitments.
+     *
+     * @param afterId The ID after which the batch starts
+     * @param drifted The list collecting the IDs of drifted commitments
+     * @param report The report to update
+     * @return The last ID of the batch, or -1 when there are no more commitments
+     */
+    private long verifyCommitmentBatch(long afterId, List<Long> drifted, ReconciliationReport report) {
+        List<Commitment> commitments = commitmentRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, reconciliationProperties.getBatchSize()));
+        if (commitments.isEmpty()) {
+            return -1L;
+        }
+
+        List<Long> ids = commitments.stream().map(Commitment::getId).collect(Collectors.toList());
+        Map<Long, AmountTotal> paymentTotals = index(paymentRepository.sumAmountsByCommitmentIds(ids));
+
+        for (Commitment commitment : commitments) {
+            BigDecimal totalPaid = totalAmount(paymentTotals.get(commitment.getId()));
+            int paymentCount = itemCount(paymentTotals.get(commitment.getId()));
+
+            report.commitmentsChecked++;
+            if (commitment.getTotalPaid().compareTo(totalPaid) != 0 || commitment.getPaymentCount() != paymentCount) {
+                report.commitmentsDrifted++;
+                log.warn("Commitment {} running totals drifted: stored paid={} count={}, actual paid={} count={}",
+                        commitment.getId(), commitment.getTotalPaid(), commitment.getPaymentCount(), totalPaid, paymentCount);
+                drifted.add(commitment.getId());
+            }
+        }
+
+        return ids.get(ids.size() - 1);
+    }
+
+    /**
+     * Verify the running totals and status of one batch of expenses.
+     *
+     * @param afterId The ID after which the batch starts
+     * @param drifted The list collecting the IDs of drifted expenses
+     * @param report The report to update
+     * @return The last ID of the batch, or -1 when there are no more expenses
+     */
+    private long verifyExpenseBatch(long afterId, List<Long> drifted, ReconciliationReport report) {
+        List<Expense> expenses = expenseRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, reconciliationProperties.getBatchSize()));
+        if (expenses.isEmpty()) {
+            return -1L;
+        }
+
+        List<Long> ids = expenses.stream().map(Expense::getId).collect(Collectors.toList());
+        Map<Long, AmountTotal> commitmentTotals = index(commitmentRepository.sumAmountsByExpenseIds(ids));
+        Map<Long, AmountTotal> paymentTotals = index(paymentRepository.sumAmountsByExpenseIds(ids));
+
+        for (Expense expense : expenses) {
+            BigDecimal totalCommitted = totalAmount(commitmentTotals.get(expense.getId()));
+            int commitmentCount = itemCount(commitmentTotals.get(expense.getId()));
+            BigDecimal totalPaid = totalAmount(paymentTotals.get(expense.getId()));
+
+            report.expensesChecked++;
+            if (expense.getTotalCommitted().compareTo(totalCommitted) != 0
+                    || expense.getCommitmentCount() != commitmentCount
+                    || expense.getTotalPaid().compareTo(totalPaid) != 0) {
+                report.expensesDrifted++;
+                log.warn("Expense {} running totals drifted: stored committed={} count={} paid={}, actual committed={} count={} paid={}",
+                        expense.getId(), expense.getTotalCommitted(), expense.getCommitmentCount(), expense.getTotalPaid(),
+                        totalCommitted, commitmentCount, totalPaid);
+                drifted.add(expense.getId());
+            }
+        }
+
+        return ids.get(ids.size() - 1);
+    }
+
+    /**
+     * Recompute the running totals of a commitment under its expense lock.
+     *
+     * @param commitmentId The ID of the commitment to repair
+     */
+    private void repairCommitment(Long commitmentId) {
+        commitmentRepository.findExpenseIdById(commitmentId)
+                .flatMap(expenseRepository::findByIdForUpdate)
+                .flatMap(expense -> commitmentRepository.findById(commitmentId))
+                .ifPresent(commitment -> {
+                    commitment.setTotalPaid(paymentRepository.calculateTotalPaidAmountForCommitment(commitmentId));
+                    commitment.setPaymentCount((int) paymentRepository.countByCommitmentId(commitmentId));
+                    changeLogRecorder.commitmentChanged(commitment);
+                    lookupCacheInvalidator.evictCommitment(commitment);
+                });
+    }
+
+    /**
+     * Recompute the running totals and status of an expense under its lock.
+     *
+     * @param expenseId The ID of the expense to repair
+     */
+    private void repairExpense(Long expenseId) {
+        expenseRepository.findByIdForUpdate(expenseId).ifPresent(expense -> {
+            dashboardRollupTracker.expenseChanging(expense);
+            expense.setTotalCommitted(commitmentRepository.calculateTotalCommittedAmountForExpense(expenseId));
+            expense.setCommitmentCount((int) commitmentRepository.countByExpenseId(expenseId));
+            expense.setTotalPaid(paymentRepository.calculateTotalPaidAmountForExpense(expenseId));
+            expense.updateStatus();
+            changeLogRecorder.expenseChanged(expense);
+            lookupCacheInvalidator.evictExpense(expense);
+        });
+    }
+
+    private static Map<Long, AmountTotal> index(List<AmountTotal> totals) {
+        Map<Long, AmountTotal> index = new HashMap<>();
+        for (AmountTotal total : totals) {
+            index.put(total.getParentId(), total);
+        }
+        return index;
+    }
+
+    private static BigDecimal totalAmount(AmountTotal total) {
+        return total != null ? total.getTotalAmount() : BigDecimal.ZERO;
+    }
+
+    private static int itemCount(AmountTotal total) {
+        return total != null ? total.getItemCount().intValue() : 0;
+    }
+
+    /**
+     * Result of a reconciliation run.
+     */
+    @Data
+    public static class ReconciliationReport {
+        private long commitmentsChecked;
+        private long commitmentsDrifted;
+        private long expensesChecked;
+        private long expensesDrifted;
+    }
+}
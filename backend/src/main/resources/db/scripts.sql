@@ -26,8 +26,15 @@ CREATE TABLE expenses (
     description TEXT NOT NULL,
     amount DECIMAL(15, 2) NOT NULL,
     status expense_status,
+    total_committed DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_paid DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    commitment_count INTEGER NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('portuguese', creditor), 'A') ||
+        setweight(to_tsvector('portuguese', description), 'B')
+    ) STORED,
     CONSTRAINT check_amount_positive CHECK (amount > 0)
 );
 
@@ -39,6 +46,8 @@ CREATE TABLE commitments (
     amount DECIMAL(15, 2) NOT NULL,
     note TEXT,
     expense_id INTEGER NOT NULL,
+    total_paid DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    payment_count INTEGER NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_expense FOREIGN KEY (expense_id) REFERENCES expenses(id),
@@ -59,6 +68,11 @@ CREATE TABLE payments (
     CONSTRAINT check_amount_positive CHECK (amount > 0)
 );
 
+-- Allocate ids in blocks of 50 (matches the pooled sequence generators), so inserts can be batched
+ALTER SEQUENCE expenses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE commitments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+
 -- Create function to update timestamp
 CREATE OR REPLACE FUNCTION update_modified_column()
 RETURNS TRIGGER AS $$
@@ -89,4 +103,166 @@ CREATE INDEX idx_expense_protocol_number ON expenses(protocol_number);
 CREATE INDEX idx_commitment_number ON commitments(commitment_number);
 CREATE INDEX idx_payment_number ON payments(payment_number);
 CREATE INDEX idx_commitment_expense_id ON commitments(expense_id);
-CREATE INDEX idx_payment_commitment_id ON payments(commitment_id);
\ No newline at end of file
+CREATE INDEX idx_payment_commitment_id ON payments(commitment_id);
+
+-- Indexes for the expense search. Each ends with id so equality filters return rows already in
+-- keyset order; range filters are combined by bitmap scans when several are set
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_expense_status_id ON expenses(status, id);
+CREATE INDEX idx_expense_type_id ON expenses(expense_type, id);
+CREATE INDEX idx_expense_status_type_id ON expenses(status, expense_type, id);
+CREATE INDEX idx_expense_due_date_id ON expenses(due_date, id);
+CREATE INDEX idx_expense_protocol_date_id ON expenses(protocol_date, id);
+CREATE INDEX idx_expense_amount_id ON expenses(amount, id);
+CREATE INDEX idx_expense_creditor_trgm ON expenses USING GIN (LOWER(creditor) gin_trgm_ops);
+
+-- Index for the full-text search over creditor and description
+CREATE INDEX idx_expense_search_vector ON expenses USING GIN (search_vector);
+
+-- Dashboard rollups, maintained incrementally by the write paths. Status and type hold the enum names.
+-- Each key is split over a few shard rows (app.dashboard.rollup-shards), summed when read, so that
+-- concurrent writers rarely lock the same row
+CREATE TABLE IF NOT EXISTS expense_rollups (
+    due_date DATE NOT NULL,
+    expense_type VARCHAR(30) NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    shard INTEGER NOT NULL DEFAULT 0,
+    expense_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    total_committed DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    total_paid DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (due_date, expense_type, status, shard)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_flow_rollups (
+    flow_date DATE NOT NULL,
+    shard INTEGER NOT NULL DEFAULT 0,
+    commitment_count BIGINT NOT NULL DEFAULT 0,
+    committed_amount DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    payment_count BIGINT NOT NULL DEFAULT 0,
+    paid_amount DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (flow_date, shard)
+);
+
+-- Change feed: one entry per entity (the log is compacted), ordered by the change_log_seq sequence
+CREATE TABLE IF NOT EXISTS change_log (
+    sequence BIGINT PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    entity_key VARCHAR(50),
+    changed_at TIMESTAMP NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_change_log_entity ON change_log(entity_type, entity_id);
+CREATE INDEX IF NOT EXISTS idx_change_log_operation_changed_at ON change_log(operation, changed_at);
+
+-- Change log and outbox numbers. CACHE 1, so its last value covers every number handed out and
+-- readers can compute the safe watermark from it
+CREATE SEQUENCE IF NOT EXISTS change_log_seq CACHE 1;
+
+CREATE TABLE IF NOT EXISTS change_log_sequence (
+    id INTEGER PRIMARY KEY,
+    purged_through BIGINT NOT NULL
+);
+
+-- Transactional outbox: domain events written with the changes, keyed by change log sequence number
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    aggregate_key VARCHAR(50),
+    payload TEXT NOT NULL,
+    occurred_at TIMESTAMP NOT NULL
+);
+
+-- Last event delivered to each outbox sink
+CREATE TABLE IF NOT EXISTS outbox_cursors (
+    sink VARCHAR(50) PRIMARY KEY,
+    delivered_through BIGINT NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- Migration for databases created before the running totals columns existed
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS total_committed DECIMAL(15, 2) NOT NULL DEFAULT 0;
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS total_paid DECIMAL(15, 2) NOT NULL DEFAULT 0;
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS commitment_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE commitments ADD COLUMN IF NOT EXISTS total_paid DECIMAL(15, 2) NOT NULL DEFAULT 0;
+ALTER TABLE commitments ADD COLUMN IF NOT EXISTS payment_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('portuguese', creditor), 'A') ||
+    setweight(to_tsvector('portuguese', description), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_expense_search_vector ON expenses USING GIN (search_vector);
+
+-- Migration for databases created before the pooled sequence generators: allocate ids in blocks of 50
+ALTER SEQUENCE expenses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE commitments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+
+UPDATE commitments c SET
+    total_paid = COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.commitment_id = c.id), 0),
+    payment_count = (SELECT COUNT(*) FROM payments p WHERE p.commitment_id = c.id);
+
+UPDATE expenses e SET
+    total_committed = COALESCE((SELECT SUM(c.amount) FROM commitments c WHERE c.expense_id = e.id), 0),
+    commitment_count = (SELECT COUNT(*) FROM commitments c WHERE c.expense_id = e.id),
+    total_paid = COALESCE((SELECT SUM(c.total_paid) FROM commitments c WHERE c.expense_id = e.id), 0);
+
+-- Migration for rollup tables created before the shard rows: existing rows become shard 0
+ALTER TABLE expense_rollups ADD COLUMN IF NOT EXISTS shard INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE expense_rollups DROP CONSTRAINT IF EXISTS expense_rollups_pkey;
+ALTER TABLE expense_rollups ADD PRIMARY KEY (due_date, expense_type, status, shard);
+ALTER TABLE ledger_flow_rollups ADD COLUMN IF NOT EXISTS shard INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ledger_flow_rollups DROP CONSTRAINT IF EXISTS ledger_flow_rollups_pkey;
+ALTER TABLE ledger_flow_rollups ADD PRIMARY KEY (flow_date, shard);
+
+-- Backfill the dashboard rollups from the ledger (run once, after the running totals are up to date)
+INSERT INTO expense_rollups (due_date, expense_type, status, expense_count, amount, total_committed, total_paid)
+SELECT due_date,
+       UPPER(REPLACE(expense_type::TEXT, ' ', '_')),
+       UPPER(REPLACE(COALESCE(status::TEXT, 'AWAITING_COMMITMENT'), ' ', '_')),
+       COUNT(*), SUM(amount), SUM(total_committed), SUM(total_paid)
+FROM expenses
+GROUP BY 1, 2, 3
+ON CONFLICT DO NOTHING;
+
+INSERT INTO ledger_flow_rollups (flow_date, commitment_count, committed_amount, payment_count, paid_amount)
+SELECT flow_date, SUM(commitment_count), SUM(committed_amount), SUM(payment_count), SUM(paid_amount)
+FROM (
+    SELECT commitment_date AS flow_date, COUNT(*) AS commitment_count, SUM(amount) AS committed_amount,
+           0 AS payment_count, 0 AS paid_amount
+    FROM commitments GROUP BY commitment_date
+    UNION ALL
+    SELECT payment_date, 0, 0, COUNT(*), SUM(amount)
+    FROM payments GROUP BY payment_date
+) flows
+GROUP BY flow_date
+ON CONFLICT DO NOTHING;
+
+-- Backfill the change log with the existing ledger (run once, before the application writes to it)
+INSERT INTO change_log (sequence, entity_type, entity_id, operation, entity_key, changed_at)
+SELECT ROW_NUMBER() OVER (ORDER BY changed_at, entity_type, entity_id), entity_type, entity_id, 'UPSERT', entity_key, changed_at
+FROM (
+    SELECT 'EXPENSE' AS entity_type, id AS entity_id, protocol_number AS entity_key,
+           COALESCE(updated_at, CURRENT_TIMESTAMP) AS changed_at
+    FROM expenses
+    UNION ALL
+    SELECT 'COMMITMENT', id, commitment_number, COALESCE(updated_at, CURRENT_TIMESTAMP) FROM commitments
+    UNION ALL
+    SELECT 'PAYMENT', id, payment_number, COALESCE(updated_at, CURRENT_TIMESTAMP) FROM payments
+) ledger
+WHERE NOT EXISTS (SELECT 1 FROM change_log_sequence);
+
+INSERT INTO change_log_sequence (id, purged_through) VALUES (1, 0)
+ON CONFLICT DO NOTHING;
+
+-- Move the change log sequence past the numbers already used (also migrates databases created
+-- before the sequence, which kept the last number in change_log_sequence.last_sequence)
+SELECT setval('change_log_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM change_log_seq),
+    (SELECT COALESCE(MAX(sequence), 0) FROM change_log),
+    (SELECT COALESCE(MAX(id), 0) FROM outbox_events),
+    (SELECT COALESCE(MAX(purged_through), 0) FROM change_log_sequence),
+    1));
+ALTER TABLE change_log_sequence DROP COLUMN IF EXISTS last_sequence;
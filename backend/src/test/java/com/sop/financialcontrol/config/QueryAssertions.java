@@ -0,0 +1,100 @@
+package com.sop.financialcontrol.config;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Assertions on the statements run by a piece of code, counted by {@link QueryCounter}.
+ */
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    /**
+     * Run code and check it executes exactly the given number of statements and batches.
+     *
+     * @param expected The expected number of statements and batches
+     * @param work The code to run
+     * @param <T> The type of the result of the code
+     * @return The result of the code
+     * @throws AssertionError if the code executes another number of statements
+     */
+    public static <T> T assertStatementCount(long expected, Supplier<T> work) {
+        Result<T> result = run(work);
+        long actual = statementCount(result.statistics);
+        if (actual != expected) {
+            throw new AssertionError("Expected " + expected + " statements but " + actual + " were executed" + repeated(result.statistics));
+        }
+        return result.value;
+    }
+
+    /**
+     * Run code and check it executes at most the given number of statements and batches.
+     *
+     * @param max The maximum number of statements and batches
+     * @param work The code to run
+     * @param <T> The type of the result of the code
+     * @return The result of the code
+     * @throws AssertionError if the code executes more statements
+     */
+    public static <T> T assertMaxStatements(long max, Supplier<T> work) {
+        Result<T> result = run(work);
+        long actual = statementCount(result.statistics);
+        if (actual > max) {
+            throw new AssertionError("Expected at most " + max + " statements but " + actual + " were executed" + repeated(result.statistics));
+        }
+        return result.value;
+    }
+
+    /**
+     * Run code and check it prepares no statement shape more than the given number of times.
+     *
+     * @param maxRepeats The maximum number of times a statement shape may be prepared
+     * @param work The code to run
+     * @param <T> The type of the result of the code
+     * @return The result of the code
+     * @throws AssertionError if a statement shape is prepared more times, as in an N+1 query
+     */
+    public static <T> T assertNoRepeatedStatements(int maxRepeats, Supplier<T> work) {
+        Result<T> result = run(work);
+        Map.Entry<String, Integer> repeated = result.statistics.getMostRepeatedStatement();
+        if (repeated != null && repeated.getValue() > maxRepeats) {
+            throw new AssertionError("Expected each statement at most " + maxRepeats + " times" + repeated(result.statistics));
+        }
+        return result.value;
+    }
+
+    /**
+     * Count the statements and batches executed by code.
+     *
+     * @param work The code to run
+     * @return The number of statements and batches
+     */
+    public static long countStatements(Runnable work) {
+        return statementCount(QueryCounter.count(work));
+    }
+
+    private static long statementCount(RequestQueryStatistics statistics) {
+        return statistics.getStatements() + statistics.getBatches();
+    }
+
+    private static <T> Result<T> run(Supplier<T> work) {
+        Result<T> result = new Result<>();
+        result.statistics = QueryCounter.count(() -> result.value = work.get());
+        return result;
+    }
+
+    private static String repeated(RequestQueryStatistics statistics) {
+        Map.Entry<String, Integer> repeated = statistics.getMostRepeatedStatement();
+        return repeated == null ? "" : "; most repeated (" + repeated.getValue() + " times): " + repeated.getKey();
+    }
+
+    /**
+     * The result of counted code and its database work.
+     */
+    private static final class Result<T> {
+        private T value;
+        private RequestQueryStatistics statistics;
+    }
+}
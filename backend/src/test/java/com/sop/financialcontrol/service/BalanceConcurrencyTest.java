@@ -0,0 +1,239 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.dto.PaymentDTO;
+import com.sop.financialcontrol.exception.BusinessException;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import com.sop.financialcontrol.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the expense lock serializes the balance checks of concurrent commitments and
+ * payments, keeps the running totals equal to the rows, and only blocks writers of the same expense.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final AtomicInteger NUMBERS = new AtomicInteger();
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private CommitmentService commitmentService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private CommitmentRepository commitmentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void deleteLedger() {
+        executor.shutdownNow();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            paymentRepository.deleteAllInBatch();
+            commitmentRepository.deleteAllInBatch();
+            expenseRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void concurrentCommitmentsNeverExceedTheExpenseAmount() throws Exception {
+        ExpenseDTO expense = createExpense("1000.00");
+
+        List<CommitmentDTO> accepted = race(() -> commitmentService.createCommitment(commitment(expense.getId(), "100.00")));
+
+        assertEquals(10, accepted.size());
+        assertTrue(sum(accepted, CommitmentDTO::getAmount).compareTo(expense.getAmount()) <= 0);
+
+        Expense saved = expenseRepository.findById(expense.getId()).orElseThrow();
+        List<Commitment> rows = commitmentRepository.findByExpenseId(expense.getId());
+        assertEquals(accepted.size(), rows.size());
+        assertEquals(0, sum(rows, Commitment::getAmount).compareTo(saved.getTotalCommitted()));
+        assertEquals(rows.size(), saved.getCommitmentCount());
+        assertEquals(ExpenseStatus.AWAITING_PAYMENT, saved.getStatus());
+    }
+
+    @Test
+    void concurrentPaymentsNeverExceedTheCommitmentAmount() throws Exception {
+        ExpenseDTO expense = createExpense("1000.00");
+        CommitmentDTO commitment = commitmentService.createCommitment(commitment(expense.getId(), "500.00"));
+
+        List<PaymentDTO> accepted = race(() -> paymentService.createPayment(payment(commitment.getId(), "50.00")));
+
+        assertEquals(10, accepted.size());
+        assertTrue(sum(accepted, PaymentDTO::getAmount).compareTo(commitment.getAmount()) <= 0);
+
+        Commitment savedCommitment = commitmentRepository.findById(commitment.getId()).orElseThrow();
+        Expense savedExpense = expenseRepository.findById(expense.getId()).orElseThrow();
+        List<Payment> rows = paymentRepository.findByCommitmentId(commitment.getId());
+        assertEquals(accepted.size(), rows.size());
+        assertEquals(0, sum(rows, Payment::getAmount).compareTo(savedCommitment.getTotalPaid()));
+        assertEquals(rows.size(), savedCommitment.getPaymentCount());
+        assertEquals(0, sum(rows, Payment::getAmount).compareTo(savedExpense.getTotalPaid()));
+        assertEquals(0, savedCommitment.getAmount().compareTo(savedExpense.getTotalCommitted()));
+    }
+
+    @Test
+    void writersOfAnotherExpenseAreNotBlockedByTheLock() throws Exception {
+        ExpenseDTO locked = createExpense("1000.00");
+        ExpenseDTO other = createExpense("1000.00");
+        CommitmentDTO otherCommitment = commitmentService.createCommitment(commitment(other.getId(), "500.00"));
+
+        // Hold the lock of the first expense until released
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            expenseRepository.findByIdForUpdate(locked.getId()).orElseThrow();
+            lockHeld.countDown();
+            await(release);
+        }));
+        assertTrue(lockHeld.await(10, SECONDS));
+
+        Future<CommitmentDTO> blocked = executor.submit(
+                () -> commitmentService.createCommitment(commitment(locked.getId(), "100.00")));
+        CommitmentDTO otherCommitted = executor.submit(
+                () -> commitmentService.createCommitment(commitment(other.getId(), "100.00"))).get(10, SECONDS);
+        PaymentDTO otherPaid = executor.submit(
+                () -> paymentService.createPayment(payment(otherCommitment.getId(), "50.00"))).get(10, SECONDS);
+        assertNotNull(otherCommitted.getId());
+        assertNotNull(otherPaid.getId());
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        holder.get(10, SECONDS);
+        assertNotNull(blocked.get(10, SECONDS).getId());
+    }
+
+    /**
+     * Run the same write from every thread at once.
+     *
+     * @param write The write
+     * @param <T> The type of the result of the write
+     * @return The results of the accepted writes
+     * @throws Exception if a write failed other than by being rejected
+     */
+    private <T> List<T> race(Callable<T> write) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                await(start);
+                return write.call();
+            }));
+        }
+        start.countDown();
+
+        List<T> accepted = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                accepted.add(future.get(30, SECONDS));
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof BusinessException)) {
+                    throw e;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private ExpenseDTO createExpense(String amount) {
+        int n = NUMBERS.incrementAndGet();
+        return expenseService.createExpense(ExpenseDTO.builder()
+                .protocolNumber(String.format("%05d.%06d/%04d-%02d", n, n, LocalDate.now().getYear(), n % 100))
+                .expenseType(ExpenseType.OTHER)
+                .protocolDate(LocalDateTime.now())
+                .dueDate(LocalDate.now().plusMonths(1))
+                .creditor("Creditor " + n)
+                .description("Expense " + n)
+                .amount(new BigDecimal(amount))
+                .build());
+    }
+
+    private static CommitmentDTO commitment(Long expenseId, String amount) {
+        return CommitmentDTO.builder()
+                .commitmentNumber(String.format("%dNE%04d", LocalDate.now().getYear(), NUMBERS.incrementAndGet()))
+                .commitmentDate(LocalDate.now())
+                .amount(new BigDecimal(amount))
+                .expenseId(expenseId)
+                .build();
+    }
+
+    private static PaymentDTO payment(Long commitmentId, String amount) {
+        return PaymentDTO.builder()
+                .paymentNumber(String.format("%dNP%04d", LocalDate.now().getYear(), NUMBERS.incrementAndGet()))
+                .paymentDate(LocalDate.now())
+                .amount(new BigDecimal(amount))
+                .commitmentId(commitmentId)
+                .build();
+    }
+
+    private static <T> BigDecimal sum(List<T> items, Function<T, BigDecimal> amount) {
+        return items.stream().map(amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(30, SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the other threads");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
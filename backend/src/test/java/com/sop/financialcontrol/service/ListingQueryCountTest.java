@@ -0,0 +1,155 @@
+package com.sop.financialcontrol.service;
+
+import com.sop.financialcontrol.dto.CommitmentDTO;
+import com.sop.financialcontrol.dto.CursorPageDTO;
+import com.sop.financialcontrol.dto.ExpenseDTO;
+import com.sop.financialcontrol.model.Commitment;
+import com.sop.financialcontrol.model.Expense;
+import com.sop.financialcontrol.model.ExpenseStatus;
+import com.sop.financialcontrol.model.ExpenseType;
+import com.sop.financialcontrol.model.Payment;
+import com.sop.financialcontrol.repository.CommitmentRepository;
+import com.sop.financialcontrol.repository.ExpenseRepository;
+import com.sop.financialcontrol.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sop.financialcontrol.config.QueryAssertions.assertNoRepeatedStatements;
+import static com.sop.financialcontrol.config.QueryAssertions.assertStatementCount;
+import static com.sop.financialcontrol.config.QueryAssertions.countStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the listing pages run the same statements whatever the size of the ledger,
+ * so mapping a page never loads the children of its rows one by one.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingQueryCountTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int COMMITMENTS_PER_EXPENSE = 2;
+    private static final int PAYMENTS_PER_COMMITMENT = 2;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private CommitmentService commitmentService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private CommitmentRepository commitmentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int seeded;
+
+    @AfterEach
+    void deleteLedger() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            paymentRepository.deleteAllInBatch();
+            commitmentRepository.deleteAllInBatch();
+            expenseRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void listingPagesRunTheSameStatementsForTenAndAThousandExpenses() {
+        seed(10);
+        long expensePage = countStatements(() -> expenseService.getAllExpenses(null, PAGE_SIZE));
+        long commitmentPage = countStatements(() -> commitmentService.getAllCommitments(null, PAGE_SIZE));
+
+        seed(990);
+        CursorPageDTO<ExpenseDTO> expenses = assertStatementCount(expensePage,
+                () -> expenseService.getAllExpenses(null, PAGE_SIZE));
+        assertEquals(PAGE_SIZE, expenses.getContent().size());
+        assertTrue(expenses.isHasNext());
+        assertStatementCount(expensePage, () -> expenseService.getAllExpenses(expenses.getNextCursor(), PAGE_SIZE));
+
+        CursorPageDTO<CommitmentDTO> commitments = assertStatementCount(commitmentPage,
+                () -> commitmentService.getAllCommitments(null, PAGE_SIZE));
+        assertEquals(PAGE_SIZE, commitments.getContent().size());
+        assertTrue(commitments.isHasNext());
+        assertStatementCount(commitmentPage,
+                () -> commitmentService.getAllCommitments(commitments.getNextCursor(), PAGE_SIZE));
+
+        assertNoRepeatedStatements(1, () -> expenseService.getAllExpenses(null, PAGE_SIZE));
+        assertNoRepeatedStatements(1, () -> commitmentService.getAllCommitments(null, PAGE_SIZE));
+    }
+
+    /**
+     * Save expenses with their commitments and payments, directly through the repositories.
+     *
+     * @param count The number of expenses to add
+     */
+    private void seed(int count) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int first = 0; first < count; first += 100) {
+            int batch = Math.min(100, count - first);
+            transaction.executeWithoutResult(status -> {
+                List<Expense> expenses = new ArrayList<>();
+                List<Commitment> commitments = new ArrayList<>();
+                List<Payment> payments = new ArrayList<>();
+                for (int i = 0; i < batch; i++) {
+                    int n = ++seeded;
+                    Expense expense = Expense.builder()
+                            .protocolNumber(String.format("%05d.%06d/%04d-%02d", n % 100000, n, 2024, n % 100))
+                            .expenseType(ExpenseType.OTHER)
+                            .protocolDate(LocalDateTime.of(2024, 1, 1, 9, 0))
+                            .dueDate(LocalDate.of(2024, 6, 30))
+                            .creditor("Creditor " + (n % 20))
+                            .description("Expense " + n)
+                            .amount(new BigDecimal("1000.00"))
+                            .status(ExpenseStatus.PARTIALLY_PAID)
+                            .totalCommitted(new BigDecimal("400.00"))
+                            .totalPaid(new BigDecimal("200.00"))
+                            .commitmentCount(COMMITMENTS_PER_EXPENSE)
+                            .build();
+                    expenses.add(expense);
+                    for (int c = 0; c < COMMITMENTS_PER_EXPENSE; c++) {
+                        Commitment commitment = Commitment.builder()
+                                .commitmentNumber(String.format("2024NE%06d", n * COMMITMENTS_PER_EXPENSE + c))
+                                .commitmentDate(LocalDate.of(2024, 2, 1))
+                                .amount(new BigDecimal("200.00"))
+                                .expense(expense)
+                                .totalPaid(new BigDecimal("100.00"))
+                                .paymentCount(PAYMENTS_PER_COMMITMENT)
+                                .build();
+                        commitments.add(commitment);
+                        for (int p = 0; p < PAYMENTS_PER_COMMITMENT; p++) {
+                            payments.add(Payment.builder()
+                                    .paymentNumber(String.format("2024NP%07d",
+                                            (n * COMMITMENTS_PER_EXPENSE + c) * PAYMENTS_PER_COMMITMENT + p))
+                                    .paymentDate(LocalDate.of(2024, 3, 1))
+                                    .amount(new BigDecimal("50.00"))
+                                    .commitment(commitment)
+                                    .build());
+                        }
+                    }
+                }
+                expenseRepository.saveAll(expenses);
+                commitmentRepository.saveAll(commitments);
+                paymentRepository.saveAll(payments);
+            });
+        }
+    }
+}
@@ -10,12 +10,12 @@ import MainLayout from '../../components/layout/MainLayout';
 import CurrencyFormat from '../../components/common/CurrencyFormat';
 import DateFormat from '../../components/common/DateFormat';
 import LoadingSpinner from '../../components/common/LoadingSpinner';
-import { fetchCommitments, deleteCommitment } from '../../redux/slices/commitmentSlice';
+import { fetchCommitments, fetchMoreCommitments, deleteCommitment } from '../../redux/slices/commitmentSlice';
 
 export default function CommitmentsPage() {
   const dispatch = useDispatch();
   const router = useRouter();
-  const { commitments, loading } = useSelector((state) => state.commitments);
+  const { commitments, nextCursor, loading, loadingMore } = useSelector((state) => state.commitments);
   const [searchTerm, setSearchTerm] = useState('');
   const [filteredCommitments, setFilteredCommitments] = useState([]);
 
@@ -140,6 +140,19 @@ export default function CommitmentsPage() {
           </div>
         )}
       </div>
+
+      {/* The list and its search cover the loaded pages; load the next one on demand */}
+      {nextCursor && (
+        <div className="text-center mt-3">
+          <Button
+            variant="outline-secondary"
+            onClick={() => dispatch(fetchMoreCommitments())}
+            disabled={loadingMore}
+          >
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </Button>
+        </div>
+      )}
     </MainLayout>
   );
 }
\ No newline at end of file
@@ -14,8 +14,7 @@ import StatusBadge from '../../../components/common/StatusBadge';
 import CurrencyFormat from '../../../components/common/CurrencyFormat';
 import DateFormat from '../../../components/common/DateFormat';
 
-import { fetchExpenseById } from '../../../redux/slices/expenseSlice';
-import { fetchCommitmentsByExpenseId } from '../../../redux/slices/commitmentSlice';
+import { fetchExpenseTree } from '../../../redux/slices/expenseSlice';
 
 export default function ExpenseDetailPage() {
   const { id } = useParams();
@@ -24,12 +23,11 @@ export default function ExpenseDetailPage() {
   const [activeTab, setActiveTab] = useState('details');
   
   const { currentExpense, loading: expenseLoading } = useSelector((state) => state.expenses);
-  const { commitments, loading: commitmentsLoading } = useSelector((state) => state.commitments);
 
   useEffect(() => {
     if (id) {
-      dispatch(fetchExpenseById(id));
-      dispatch(fetchCommitmentsByExpenseId(id));
+      // One request returns the expense with its commitments and their payments
+      dispatch(fetchExpenseTree(id));
     }
   }, [dispatch, id]);
 
@@ -127,9 +125,7 @@ export default function ExpenseDetailPage() {
               )}
             </div>
 
-            {commitmentsLoading ? (
-              <LoadingSpinner text="Loading commitments..." />
-            ) : commitments && commitments.length > 0 ? (
+            {currentExpense.commitments && currentExpense.commitments.length > 0 ? (
               <div className="table-container">
                 <table className="table table-hover">
                   <thead>
@@ -142,7 +138,7 @@ export default function ExpenseDetailPage() {
                     </tr>
                   </thead>
                   <tbody>
-                    {commitments.map((commitment) => (
+                    {currentExpense.commitments.map((commitment) => (
                       <tr key={commitment.id}>
                         <td>{commitment.commitmentNumber}</td>
                         <td>
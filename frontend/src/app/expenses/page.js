@@ -11,12 +11,13 @@ import StatusBadge from '../../components/common/StatusBadge';
 import CurrencyFormat from '../../components/common/CurrencyFormat';
 import DateFormat from '../../components/common/DateFormat';
 import LoadingSpinner from '../../components/common/LoadingSpinner';
-import { fetchExpenses, deleteExpense } from '../../redux/slices/expenseSlice';
+import { fetchExpenses, fetchMoreExpenses, deleteExpense, expenseStatusChanged } from '../../redux/slices/expenseSlice';
+import { eventsApi } from '../../services/api';
 
 export default function ExpensesPage() {
   const dispatch = useDispatch();
   const router = useRouter();
-  const { expenses, loading } = useSelector((state) => state.expenses);
+  const { expenses, nextCursor, loading, loadingMore } = useSelector((state) => state.expenses);
   const [searchTerm, setSearchTerm] = useState('');
   const [filteredExpenses, setFilteredExpenses] = useState([]);
 
@@ -24,6 +25,12 @@ export default function ExpensesPage() {
     dispatch(fetchExpenses());
   }, [dispatch]);
 
+  // Keep the statuses current without polling; reload everything if events were dropped
+  useEffect(() => eventsApi.subscribe({
+    EXPENSE_STATUS_CHANGED: (event) => dispatch(expenseStatusChanged(event)),
+    OVERFLOW: () => dispatch(fetchExpenses()),
+  }), [dispatch]);
+
   useEffect(() => {
     if (expenses) {
       setFilteredExpenses(
@@ -139,6 +146,19 @@ export default function ExpensesPage() {
           </div>
         )}
       </div>
+
+      {/* The list and its search cover the loaded pages; load the next one on demand */}
+      {nextCursor && (
+        <div className="text-center mt-3">
+          <Button
+            variant="outline-secondary"
+            onClick={() => dispatch(fetchMoreExpenses())}
+            disabled={loadingMore}
+          >
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </Button>
+        </div>
+      )}
     </MainLayout>
   );
 }
\ No newline at end of file
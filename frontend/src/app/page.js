@@ -1,59 +1,45 @@
 'use client';
 
-import { useEffect, useState } from 'react';
+import { useEffect } from 'react';
 import { useDispatch, useSelector } from 'react-redux';
-import { Row, Col, Card, Button } from 'react-bootstrap';
+import { Row, Col, Card, Button, Table } from 'react-bootstrap';
 import { FaFileInvoiceDollar, FaMoneyCheckAlt, FaCreditCard, FaChartLine } from 'react-icons/fa';
 import Link from 'next/link';
 import MainLayout from '../components/layout/MainLayout';
 import { fetchExpenses } from '../redux/slices/expenseSlice';
 import { fetchCommitments } from '../redux/slices/commitmentSlice';
-import { fetchPayments } from '../redux/slices/paymentSlice';
+import { fetchDashboard } from '../redux/slices/dashboardSlice';
+
+const formatCurrency = (value) =>
+  new Intl.NumberFormat('pt-BR', { style: 'currency', currency: 'BRL' }).format(value || 0);
 
 export default function Home() {
   const dispatch = useDispatch();
   const { expenses } = useSelector((state) => state.expenses);
   const { commitments } = useSelector((state) => state.commitments);
-  const { payments } = useSelector((state) => state.payments);
-  
-  const [summary, setSummary] = useState({
-    totalExpenses: 0,
-    totalCommitments: 0,
-    totalPayments: 0,
-    pendingExpenses: 0,
-    pendingCommitments: 0,
-  });
+  const { dashboard } = useSelector((state) => state.dashboard);
 
   useEffect(() => {
+    // Totals come from the dashboard rollups; the lists only need the first page
+    dispatch(fetchDashboard());
     dispatch(fetchExpenses());
     dispatch(fetchCommitments());
-    dispatch(fetchPayments());
   }, [dispatch]);
 
-  useEffect(() => {
-    if (expenses.length > 0) {
-      const totalExpenseAmount = expenses.reduce((sum, expense) => sum + expense.amount, 0);
-      const pendingExpenses = expenses.filter(expense => 
-        expense.status !== 'PAID'
-      ).length;
-      
-      const totalCommitmentAmount = commitments.reduce((sum, commitment) => sum + commitment.amount, 0);
-      const pendingCommitments = commitments.filter(commitment => {
-        const totalPaid = commitment.totalPaidAmount || 0;
-        return totalPaid < commitment.amount;
-      }).length;
-      
-      const totalPaymentAmount = payments.reduce((sum, payment) => sum + payment.amount, 0);
-      
-      setSummary({
-        totalExpenses: totalExpenseAmount,
-        totalCommitments: totalCommitmentAmount,
-        totalPayments: totalPaymentAmount,
-        pendingExpenses,
-        pendingCommitments,
-      });
-    }
-  }, [expenses, commitments, payments]);
+  const totalsByStatus = dashboard?.totalsByStatus || [];
+  const totalsByType = dashboard?.totalsByType || [];
+  const monthlyFlows = dashboard?.monthlyFlows || [];
+
+  const summary = {
+    expenseCount: totalsByStatus.reduce((sum, total) => sum + total.expenseCount, 0),
+    pendingExpenses: totalsByStatus
+      .filter((total) => total.key !== 'PAID')
+      .reduce((sum, total) => sum + total.expenseCount, 0),
+    totalCommitted: totalsByStatus.reduce((sum, total) => sum + total.totalCommitted, 0),
+    totalPaid: totalsByStatus.reduce((sum, total) => sum + total.totalPaid, 0),
+    overdueCount: dashboard?.overdueCount || 0,
+    overdueAmount: dashboard?.overdueAmount || 0,
+  };
 
   return (
     <MainLayout>
@@ -65,7 +51,7 @@ export default function Home() {
             <Card.Body>
               <FaFileInvoiceDollar size={40} className="mb-3 text-primary" />
               <Card.Title>Expenses</Card.Title>
-              <Card.Text className="fs-4">{expenses.length}</Card.Text>
+              <Card.Text className="fs-4">{summary.expenseCount}</Card.Text>
               <Card.Text className="text-muted">Pending: {summary.pendingExpenses}</Card.Text>
               <Link href="/expenses" passHref legacyBehavior>
                 <Button variant="outline-primary">View All</Button>
@@ -79,8 +65,8 @@ export default function Home() {
             <Card.Body>
               <FaMoneyCheckAlt size={40} className="mb-3 text-success" />
               <Card.Title>Commitments</Card.Title>
-              <Card.Text className="fs-4">{commitments.length}</Card.Text>
-              <Card.Text className="text-muted">Pending: {summary.pendingCommitments}</Card.Text>
+              <Card.Text className="fs-4">{formatCurrency(summary.totalCommitted)}</Card.Text>
+              <Card.Text className="text-muted">Total Committed</Card.Text>
               <Link href="/commitments" passHref legacyBehavior>
                 <Button variant="outline-success">View All</Button>
               </Link>
@@ -93,8 +79,8 @@ export default function Home() {
             <Card.Body>
               <FaCreditCard size={40} className="mb-3 text-info" />
               <Card.Title>Payments</Card.Title>
-              <Card.Text className="fs-4">{payments.length}</Card.Text>
-              <Card.Text className="text-muted">&nbsp;</Card.Text>
+              <Card.Text className="fs-4">{formatCurrency(summary.totalPaid)}</Card.Text>
+              <Card.Text className="text-muted">Total Paid</Card.Text>
               <Link href="/payments" passHref legacyBehavior>
                 <Button variant="outline-info">View All</Button>
               </Link>
@@ -106,17 +92,70 @@ export default function Home() {
           <Card className="text-center h-100">
             <Card.Body>
               <FaChartLine size={40} className="mb-3 text-warning" />
-              <Card.Title>Financial Summary</Card.Title>
-              <Card.Text className="fs-4">
-                {new Intl.NumberFormat('pt-BR', { style: 'currency', currency: 'BRL' })
-                  .format(summary.totalPayments)}
-              </Card.Text>
-              <Card.Text className="text-muted">Total Paid</Card.Text>
+              <Card.Title>Overdue</Card.Title>
+              <Card.Text className="fs-4">{formatCurrency(summary.overdueAmount)}</Card.Text>
+              <Card.Text className="text-muted">Expenses overdue: {summary.overdueCount}</Card.Text>
               <Button variant="outline-warning" disabled>View Report</Button>
             </Card.Body>
           </Card>
         </Col>
       </Row>
+
+      <Row className="mb-4">
+        <Col md={6}>
+          <Card className="h-100">
+            <Card.Header>Totals by Status and Type</Card.Header>
+            <Card.Body>
+              <Table size="sm" responsive>
+                <thead>
+                  <tr>
+                    <th></th>
+                    <th className="text-end">Expenses</th>
+                    <th className="text-end">Amount</th>
+                    <th className="text-end">Paid</th>
+                  </tr>
+                </thead>
+                <tbody>
+                  {[...totalsByStatus, ...totalsByType].map((total) => (
+                    <tr key={total.key}>
+                      <td>{total.key.replace(/_/g, ' ')}</td>
+                      <td className="text-end">{total.expenseCount}</td>
+                      <td className="text-end">{formatCurrency(total.amount)}</td>
+                      <td className="text-end">{formatCurrency(total.totalPaid)}</td>
+                    </tr>
+                  ))}
+                </tbody>
+              </Table>
+            </Card.Body>
+          </Card>
+        </Col>
+
+        <Col md={6}>
+          <Card className="h-100">
+            <Card.Header>Committed vs Paid per Month</Card.Header>
+            <Card.Body>
+              <Table size="sm" responsive>
+                <thead>
+                  <tr>
+                    <th>Month</th>
+                    <th className="text-end">Committed</th>
+                    <th className="text-end">Paid</th>
+                  </tr>
+                </thead>
+                <tbody>
+                  {monthlyFlows.map((flow) => (
+                    <tr key={flow.month}>
+                      <td>{flow.month}</td>
+                      <td className="text-end">{formatCurrency(flow.committedAmount)}</td>
+                      <td className="text-end">{formatCurrency(flow.paidAmount)}</td>
+                    </tr>
+                  ))}
+                </tbody>
+              </Table>
+            </Card.Body>
+          </Card>
+        </Col>
+      </Row>
       
       <Row>
         <Col md={6}>
@@ -10,12 +10,12 @@ import MainLayout from '../../components/layout/MainLayout';
 import CurrencyFormat from '../../components/common/CurrencyFormat';
 import DateFormat from '../../components/common/DateFormat';
 import LoadingSpinner from '../../components/common/LoadingSpinner';
-import { fetchPayments, deletePayment } from '../../redux/slices/paymentSlice';
+import { fetchPayments, fetchMorePayments, deletePayment } from '../../redux/slices/paymentSlice';
 
 export default function PaymentsPage() {
   const dispatch = useDispatch();
   const router = useRouter();
-  const { payments, loading } = useSelector((state) => state.payments);
+  const { payments, nextCursor, loading, loadingMore } = useSelector((state) => state.payments);
   const [searchTerm, setSearchTerm] = useState('');
   const [filteredPayments, setFilteredPayments] = useState([]);
 
@@ -143,6 +143,19 @@ export default function PaymentsPage() {
           </div>
         )}
       </div>
+
+      {/* The list and its search cover the loaded pages; load the next one on demand */}
+      {nextCursor && (
+        <div className="text-center mt-3">
+          <Button
+            variant="outline-secondary"
+            onClick={() => dispatch(fetchMorePayments())}
+            disabled={loadingMore}
+          >
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </Button>
+        </div>
+      )}
     </MainLayout>
   );
 }
\ No newline at end of file
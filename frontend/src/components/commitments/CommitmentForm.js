@@ -30,7 +30,8 @@ const CommitmentForm = ({ commitment = null }) => {
   const [selectedExpense, setSelectedExpense] = useState(null);
 
   useEffect(() => {
-    dispatch(fetchExpenses());
+    // Every expense can be picked, not only the first page
+    dispatch(fetchExpenses({ all: true }));
     
     if (expenseIdFromUrl) {
       dispatch(fetchExpenseById(expenseIdFromUrl));
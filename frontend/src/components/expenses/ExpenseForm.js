@@ -5,6 +5,7 @@ import { Form, Button, Card, Row, Col } from 'react-bootstrap';
 import { useRouter } from 'next/navigation';
 import { useDispatch } from 'react-redux';
 import { createExpense, updateExpense } from '../../redux/slices/expenseSlice';
+import { expenseApi } from '../../services/api';
 
 const ExpenseForm = ({ expense = null }) => {
   const isEditing = !!expense;
@@ -22,6 +23,7 @@ const ExpenseForm = ({ expense = null }) => {
   });
 
   const [validated, setValidated] = useState(false);
+  const [creditorSuggestions, setCreditorSuggestions] = useState([]);
   const [isSubmitting, setIsSubmitting] = useState(false);
 
   useEffect(() => {
@@ -49,6 +51,24 @@ const ExpenseForm = ({ expense = null }) => {
       ...formData,
       [name]: value
     });
+
+    if (name === 'creditor') {
+      suggestCreditors(value);
+    }
+  };
+
+  // Suggestions come from an in-memory index on the server, so they can be fetched on every keystroke
+  const suggestCreditors = async (prefix) => {
+    if (!prefix.trim()) {
+      setCreditorSuggestions([]);
+      return;
+    }
+    try {
+      const response = await expenseApi.suggestCreditors(prefix);
+      setCreditorSuggestions(response.data);
+    } catch (error) {
+      setCreditorSuggestions([]);
+    }
   };
 
   const handleSubmit = async (e) => {
@@ -140,7 +160,14 @@ const ExpenseForm = ({ expense = null }) => {
                   onChange={handleChange}
                   required
                   placeholder="Creditor name"
+                  list="creditor-suggestions"
+                  autoComplete="off"
                 />
+                <datalist id="creditor-suggestions">
+                  {creditorSuggestions.map((suggestion) => (
+                    <option key={suggestion.creditor} value={suggestion.creditor} />
+                  ))}
+                </datalist>
                 <Form.Control.Feedback type="invalid">
                   Creditor is required.
                 </Form.Control.Feedback>
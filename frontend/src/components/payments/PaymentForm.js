@@ -30,7 +30,8 @@ const PaymentForm = ({ payment = null }) => {
   const [selectedCommitment, setSelectedCommitment] = useState(null);
 
   useEffect(() => {
-    dispatch(fetchCommitments());
+    // Every commitment can be picked, not only the first page
+    dispatch(fetchCommitments({ all: true }));
     
     if (commitmentIdFromUrl) {
       dispatch(fetchCommitmentById(commitmentIdFromUrl));
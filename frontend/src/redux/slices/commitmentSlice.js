@@ -1,12 +1,16 @@
 import { createSlice, createAsyncThunk } from '@reduxjs/toolkit';
-import { commitmentApi } from '../../services/api';
+import { commitmentApi, fetchAllPages } from '../../services/api';
 import { toast } from 'react-toastify';
 
 // Async thunks
+// Loads the first page, or every page when the full set is needed (e.g. to pick from all commitments)
 export const fetchCommitments = createAsyncThunk(
   'commitments/fetchAll',
-  async (_, { rejectWithValue }) => {
+  async ({ all = false } = {}, { rejectWithValue }) => {
     try {
+      if (all) {
+        return { content: await fetchAllPages(commitmentApi.getAll), nextCursor: null };
+      }
       const response = await commitmentApi.getAll();
       return response.data;
     } catch (error) {
@@ -16,6 +20,23 @@ export const fetchCommitments = createAsyncThunk(
   }
 );
 
+// Appends the page after the last one loaded
+export const fetchMoreCommitments = createAsyncThunk(
+  'commitments/fetchMore',
+  async (_, { getState, rejectWithValue }) => {
+    try {
+      const response = await commitmentApi.getAll({ cursor: getState().commitments.nextCursor });
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || 'Failed to fetch more commitments');
+      return rejectWithValue(error);
+    }
+  },
+  {
+    condition: (_, { getState }) => !!getState().commitments.nextCursor && !getState().commitments.loadingMore,
+  }
+);
+
 export const fetchCommitmentById = createAsyncThunk(
   'commitments/fetchById',
   async (id, { rejectWithValue }) => {
@@ -99,6 +120,9 @@ export const deleteCommitment = createAsyncThunk(
 
 const initialState = {
   commitments: [],
+  // Cursor of the page after the loaded ones, null when every page is loaded
+  nextCursor: null,
+  loadingMore: false,
   currentCommitment: null,
   expenseCommitments: [],
   loading: false,
@@ -125,13 +149,31 @@ const commitmentSlice = createSlice({
       })
       .addCase(fetchCommitments.fulfilled, (state, action) => {
         state.loading = false;
-        state.commitments = action.payload;
+        state.commitments = action.payload.content;
+        state.nextCursor = action.payload.nextCursor;
       })
       .addCase(fetchCommitments.rejected, (state, action) => {
         state.loading = false;
         state.error = action.payload;
       })
       
+      // Fetch the next page of commitments
+      .addCase(fetchMoreCommitments.pending, (state) => {
+        state.loadingMore = true;
+        state.error = null;
+      })
+      .addCase(fetchMoreCommitments.fulfilled, (state, action) => {
+        state.loadingMore = false;
+        // Skip the commitments created locally since the first page was loaded
+        const loadedIds = new Set(state.commitments.map((item) => item.id));
+        state.commitments.push(...action.payload.content.filter((item) => !loadedIds.has(item.id)));
+        state.nextCursor = action.payload.nextCursor;
+      })
+      .addCase(fetchMoreCommitments.rejected, (state, action) => {
+        state.loadingMore = false;
+        state.error = action.payload;
+      })
+      
       // Fetch commitment by ID
       .addCase(fetchCommitmentById.pending, (state) => {
         state.loading = true;
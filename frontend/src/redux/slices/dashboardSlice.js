@@ -0,0 +1,46 @@
+import { createSlice, createAsyncThunk } from '@reduxjs/toolkit';
+import { dashboardApi } from '../../services/api';
+import { toast } from 'react-toastify';
+
+// Async thunks
+export const fetchDashboard = createAsyncThunk(
+  'dashboard/fetch',
+  async (months, { rejectWithValue }) => {
+    try {
+      const response = await dashboardApi.get(months);
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || 'Failed to fetch dashboard');
+      return rejectWithValue(error);
+    }
+  }
+);
+
+const initialState = {
+  dashboard: null,
+  loading: false,
+  error: null,
+};
+
+const dashboardSlice = createSlice({
+  name: 'dashboard',
+  initialState,
+  reducers: {},
+  extraReducers: (builder) => {
+    builder
+      .addCase(fetchDashboard.pending, (state) => {
+        state.loading = true;
+        state.error = null;
+      })
+      .addCase(fetchDashboard.fulfilled, (state, action) => {
+        state.loading = false;
+        state.dashboard = action.payload;
+      })
+      .addCase(fetchDashboard.rejected, (state, action) => {
+        state.loading = false;
+        state.error = action.payload;
+      });
+  },
+});
+
+export default dashboardSlice.reducer;
@@ -1,12 +1,16 @@
 import { createSlice, createAsyncThunk } from '@reduxjs/toolkit';
-import { expenseApi } from '../../services/api';
+import { expenseApi, fetchAllPages } from '../../services/api';
 import { toast } from 'react-toastify';
 
 // Async thunks
+// Loads the first page, or every page when the full set is needed (e.g. to pick from all expenses)
 export const fetchExpenses = createAsyncThunk(
   'expenses/fetchAll',
-  async (_, { rejectWithValue }) => {
+  async ({ all = false } = {}, { rejectWithValue }) => {
     try {
+      if (all) {
+        return { content: await fetchAllPages(expenseApi.getAll), nextCursor: null };
+      }
       const response = await expenseApi.getAll();
       return response.data;
     } catch (error) {
@@ -16,6 +20,36 @@ export const fetchExpenses = createAsyncThunk(
   }
 );
 
+// Appends the page after the last one loaded
+export const fetchMoreExpenses = createAsyncThunk(
+  'expenses/fetchMore',
+  async (_, { getState, rejectWithValue }) => {
+    try {
+      const response = await expenseApi.getAll({ cursor: getState().expenses.nextCursor });
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || 'Failed to fetch more expenses');
+      return rejectWithValue(error);
+    }
+  },
+  {
+    condition: (_, { getState }) => !!getState().expenses.nextCursor && !getState().expenses.loadingMore,
+  }
+);
+
+export const fetchExpenseTree = createAsyncThunk(
+  'expenses/fetchTree',
+  async (id, { rejectWithValue }) => {
+    try {
+      const response = await expenseApi.getTree(id);
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || `Failed to fetch expense with ID: ${id}`);
+      return rejectWithValue(error);
+    }
+  }
+);
+
 export const fetchExpenseById = createAsyncThunk(
   'expenses/fetchById',
   async (id, { rejectWithValue }) => {
@@ -55,6 +89,37 @@ export const fetchExpensesByStatus = createAsyncThunk(
   }
 );
 
+export const searchExpenses = createAsyncThunk(
+  'expenses/search',
+  async (criteria, { rejectWithValue }) => {
+    try {
+      const response = await expenseApi.search(criteria);
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || 'Failed to search expenses');
+      return rejectWithValue(error);
+    }
+  }
+);
+
+// Appends the next page of matches of the last search
+export const searchMoreExpenses = createAsyncThunk(
+  'expenses/searchMore',
+  async (_, { getState, rejectWithValue }) => {
+    try {
+      const { searchCriteria, searchNextCursor } = getState().expenses;
+      const response = await expenseApi.search({ ...searchCriteria, cursor: searchNextCursor });
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || 'Failed to search more expenses');
+      return rejectWithValue(error);
+    }
+  },
+  {
+    condition: (_, { getState }) => !!getState().expenses.searchNextCursor && !getState().expenses.loadingMore,
+  }
+);
+
 export const createExpense = createAsyncThunk(
   'expenses/create',
   async (expense, { rejectWithValue }) => {
@@ -99,8 +164,14 @@ export const deleteExpense = createAsyncThunk(
 
 const initialState = {
   expenses: [],
+  // Cursor of the page after the loaded ones, null when every page is loaded
+  nextCursor: null,
+  loadingMore: false,
   currentExpense: null,
   filteredExpenses: [],
+  // Criteria and next page cursor of the last search
+  searchCriteria: null,
+  searchNextCursor: null,
   loading: false,
   error: null,
 };
@@ -114,6 +185,18 @@ const expenseSlice = createSlice({
     },
     clearFilteredExpenses: (state) => {
       state.filteredExpenses = [];
+      state.searchNextCursor = null;
+    },
+    // Apply a status transition pushed by the ledger event stream
+    expenseStatusChanged: (state, action) => {
+      const { expenseId, status } = action.payload;
+      const expense = state.expenses.find((item) => item.id === expenseId);
+      if (expense) {
+        expense.status = status;
+      }
+      if (state.currentExpense && state.currentExpense.id === expenseId) {
+        state.currentExpense.status = status;
+      }
     },
   },
   extraReducers: (builder) => {
@@ -125,13 +208,31 @@ const expenseSlice = createSlice({
       })
       .addCase(fetchExpenses.fulfilled, (state, action) => {
         state.loading = false;
-        state.expenses = action.payload;
+        state.expenses = action.payload.content;
+        state.nextCursor = action.payload.nextCursor;
       })
       .addCase(fetchExpenses.rejected, (state, action) => {
         state.loading = false;
         state.error = action.payload;
       })
       
+      // Fetch the next page of expenses
+      .addCase(fetchMoreExpenses.pending, (state) => {
+        state.loadingMore = true;
+        state.error = null;
+      })
+      .addCase(fetchMoreExpenses.fulfilled, (state, action) => {
+        state.loadingMore = false;
+        // Skip the expenses created locally since the first page was loaded
+        const loadedIds = new Set(state.expenses.map((item) => item.id));
+        state.expenses.push(...action.payload.content.filter((item) => !loadedIds.has(item.id)));
+        state.nextCursor = action.payload.nextCursor;
+      })
+      .addCase(fetchMoreExpenses.rejected, (state, action) => {
+        state.loadingMore = false;
+        state.error = action.payload;
+      })
+      
       // Fetch expense by ID
       .addCase(fetchExpenseById.pending, (state) => {
         state.loading = true;
@@ -146,6 +247,20 @@ const expenseSlice = createSlice({
         state.error = action.payload;
       })
       
+      // Fetch expense with its commitments and payments
+      .addCase(fetchExpenseTree.pending, (state) => {
+        state.loading = true;
+        state.error = null;
+      })
+      .addCase(fetchExpenseTree.fulfilled, (state, action) => {
+        state.loading = false;
+        state.currentExpense = action.payload;
+      })
+      .addCase(fetchExpenseTree.rejected, (state, action) => {
+        state.loading = false;
+        state.error = action.payload;
+      })
+      
       // Fetch expense by protocol number
       .addCase(fetchExpenseByProtocolNumber.pending, (state) => {
         state.loading = true;
@@ -174,6 +289,37 @@ const expenseSlice = createSlice({
         state.error = action.payload;
       })
       
+      // Search expenses
+      .addCase(searchExpenses.pending, (state, action) => {
+        state.loading = true;
+        state.error = null;
+        state.searchCriteria = action.meta.arg;
+      })
+      .addCase(searchExpenses.fulfilled, (state, action) => {
+        state.loading = false;
+        state.filteredExpenses = action.payload.content;
+        state.searchNextCursor = action.payload.nextCursor;
+      })
+      .addCase(searchExpenses.rejected, (state, action) => {
+        state.loading = false;
+        state.error = action.payload;
+      })
+      
+      // Search the next page of expenses
+      .addCase(searchMoreExpenses.pending, (state) => {
+        state.loadingMore = true;
+        state.error = null;
+      })
+      .addCase(searchMoreExpenses.fulfilled, (state, action) => {
+        state.loadingMore = false;
+        state.filteredExpenses.push(...action.payload.content);
+        state.searchNextCursor = action.payload.nextCursor;
+      })
+      .addCase(searchMoreExpenses.rejected, (state, action) => {
+        state.loadingMore = false;
+        state.error = action.payload;
+      })
+      
       // Create expense
       .addCase(createExpense.pending, (state) => {
         state.loading = true;
@@ -225,6 +371,6 @@ const expenseSlice = createSlice({
   },
 });
 
-export const { clearCurrentExpense, clearFilteredExpenses } = expenseSlice.actions;
+export const { clearCurrentExpense, clearFilteredExpenses, expenseStatusChanged } = expenseSlice.actions;
 
 export default expenseSlice.reducer;
\ No newline at end of file
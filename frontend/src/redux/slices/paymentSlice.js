@@ -1,12 +1,16 @@
 import { createSlice, createAsyncThunk } from '@reduxjs/toolkit';
-import { paymentApi } from '../../services/api';
+import { paymentApi, fetchAllPages } from '../../services/api';
 import { toast } from 'react-toastify';
 
 // Async thunks
+// Loads the first page, or every page when the full set is needed (e.g. to pick from all payments)
 export const fetchPayments = createAsyncThunk(
   'payments/fetchAll',
-  async (_, { rejectWithValue }) => {
+  async ({ all = false } = {}, { rejectWithValue }) => {
     try {
+      if (all) {
+        return { content: await fetchAllPages(paymentApi.getAll), nextCursor: null };
+      }
       const response = await paymentApi.getAll();
       return response.data;
     } catch (error) {
@@ -16,6 +20,23 @@ export const fetchPayments = createAsyncThunk(
   }
 );
 
+// Appends the page after the last one loaded
+export const fetchMorePayments = createAsyncThunk(
+  'payments/fetchMore',
+  async (_, { getState, rejectWithValue }) => {
+    try {
+      const response = await paymentApi.getAll({ cursor: getState().payments.nextCursor });
+      return response.data;
+    } catch (error) {
+      toast.error(error.message || 'Failed to fetch more payments');
+      return rejectWithValue(error);
+    }
+  },
+  {
+    condition: (_, { getState }) => !!getState().payments.nextCursor && !getState().payments.loadingMore,
+  }
+);
+
 export const fetchPaymentById = createAsyncThunk(
   'payments/fetchById',
   async (id, { rejectWithValue }) => {
@@ -99,6 +120,9 @@ export const deletePayment = createAsyncThunk(
 
 const initialState = {
   payments: [],
+  // Cursor of the page after the loaded ones, null when every page is loaded
+  nextCursor: null,
+  loadingMore: false,
   currentPayment: null,
   commitmentPayments: [],
   loading: false,
@@ -125,13 +149,31 @@ const paymentSlice = createSlice({
       })
       .addCase(fetchPayments.fulfilled, (state, action) => {
         state.loading = false;
-        state.payments = action.payload;
+        state.payments = action.payload.content;
+        state.nextCursor = action.payload.nextCursor;
       })
       .addCase(fetchPayments.rejected, (state, action) => {
         state.loading = false;
         state.error = action.payload;
       })
       
+      // Fetch the next page of payments
+      .addCase(fetchMorePayments.pending, (state) => {
+        state.loadingMore = true;
+        state.error = null;
+      })
+      .addCase(fetchMorePayments.fulfilled, (state, action) => {
+        state.loadingMore = false;
+        // Skip the payments created locally since the first page was loaded
+        const loadedIds = new Set(state.payments.map((item) => item.id));
+        state.payments.push(...action.payload.content.filter((item) => !loadedIds.has(item.id)));
+        state.nextCursor = action.payload.nextCursor;
+      })
+      .addCase(fetchMorePayments.rejected, (state, action) => {
+        state.loadingMore = false;
+        state.error = action.payload;
+      })
+      
       // Fetch payment by ID
       .addCase(fetchPaymentById.pending, (state) => {
         state.loading = true;
@@ -2,12 +2,14 @@ import { configureStore } from '@reduxjs/toolkit';
 import expenseReducer from './slices/expenseSlice';
 import commitmentReducer from './slices/commitmentSlice';
 import paymentReducer from './slices/paymentSlice';
+import dashboardReducer from './slices/dashboardSlice';
 
 export const store = configureStore({
   reducer: {
     expenses: expenseReducer,
     commitments: commitmentReducer,
     payments: paymentReducer,
+    dashboard: dashboardReducer,
   },
   middleware: (getDefaultMiddleware) =>
     getDefaultMiddleware({
@@ -34,12 +34,32 @@ api.interceptors.response.use(
 
 export default api;
 
+// Largest page size accepted by the listings (app.pagination.max-size)
+const MAX_PAGE_SIZE = 500;
+
+// Follow the cursors of a paginated listing to its last page; returns the elements of every page
+export const fetchAllPages = async (getPage, params = {}) => {
+  const content = [];
+  let cursor;
+  do {
+    const response = await getPage({ ...params, cursor, size: MAX_PAGE_SIZE });
+    content.push(...response.data.content);
+    cursor = response.data.nextCursor || undefined;
+  } while (cursor);
+  return content;
+};
+
 // Expense API
 export const expenseApi = {
-  getAll: () => api.get('/expenses'),
+  getAll: (params) => api.get('/expenses', { params }),
   getById: (id) => api.get(`/expenses/${id}`),
+  getTree: (id) => api.get(`/expenses/${id}/tree`),
+  getByIds: (ids) => api.get('/expenses', { params: { ids: ids.join(',') } }),
+  lookupByProtocolNumbers: (protocolNumbers) => api.post('/expenses/lookup', protocolNumbers),
   getByProtocolNumber: (protocolNumber) => api.get(`/expenses/protocol/${protocolNumber}`),
   getByStatus: (status) => api.get(`/expenses/status/${status}`),
+  search: (criteria) => api.get('/expenses/search', { params: criteria }),
+  suggestCreditors: (prefix) => api.get('/expenses/creditors/suggest', { params: { prefix } }),
   create: (expense) => api.post('/expenses', expense),
   update: (id, expense) => api.put(`/expenses/${id}`, expense),
   delete: (id) => api.delete(`/expenses/${id}`),
@@ -47,9 +67,10 @@ export const expenseApi = {
 
 // Commitment API
 export const commitmentApi = {
-  getAll: () => api.get('/commitments'),
+  getAll: (params) => api.get('/commitments', { params }),
   getById: (id) => api.get(`/commitments/${id}`),
   getByCommitmentNumber: (commitmentNumber) => api.get(`/commitments/number/${commitmentNumber}`),
+  lookupByCommitmentNumbers: (commitmentNumbers) => api.post('/commitments/lookup', commitmentNumbers),
   getByExpenseId: (expenseId) => api.get(`/commitments/expense/${expenseId}`),
   create: (commitment) => api.post('/commitments', commitment),
   update: (id, commitment) => api.put(`/commitments/${id}`, commitment),
@@ -58,11 +79,31 @@ export const commitmentApi = {
 
 // Payment API
 export const paymentApi = {
-  getAll: () => api.get('/payments'),
+  getAll: (params) => api.get('/payments', { params }),
   getById: (id) => api.get(`/payments/${id}`),
   getByPaymentNumber: (paymentNumber) => api.get(`/payments/number/${paymentNumber}`),
+  lookupByPaymentNumbers: (paymentNumbers) => api.post('/payments/lookup', paymentNumbers),
   getByCommitmentId: (commitmentId) => api.get(`/payments/commitment/${commitmentId}`),
   create: (payment) => api.post('/payments', payment),
   update: (id, payment) => api.put(`/payments/${id}`, payment),
   delete: (id) => api.delete(`/payments/${id}`),
-};
\ No newline at end of file
+};
+
+// Dashboard API
+export const dashboardApi = {
+  get: (months) => api.get('/dashboard', { params: { months } }),
+};
+
+// Ledger event stream (Server-Sent Events); returns a function closing the stream
+export const eventsApi = {
+  subscribe: (handlers, params = {}) => {
+    const query = new URLSearchParams();
+    (params.status || []).forEach((status) => query.append('status', status));
+    (params.type || []).forEach((type) => query.append('type', type));
+    const source = new EventSource(`${API_URL}/events?${query.toString()}`);
+    Object.entries(handlers).forEach(([eventName, handler]) => {
+      source.addEventListener(eventName, (event) => handler(JSON.parse(event.data)));
+    });
+    return () => source.close();
+  },
+};